@@ -1,6 +1,7 @@
 package com.hashindex;
 
 import com.hashindex.gui.HashIndexGUI;
+import com.hashindex.jmx.IndexServiceMonitor;
 
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
@@ -22,7 +23,9 @@ public class HashIndexSimulatorApp {
         // Start GUI on Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
-                new HashIndexGUI();
+                HashIndexGUI gui = new HashIndexGUI();
+                // Lets JConsole and other JMX clients watch the index the GUI works on
+                IndexServiceMonitor.register(gui.getService(), "gui");
             } catch (Exception e) {
                 System.err.println("Error starting application: " + e.getMessage());
                 e.printStackTrace();
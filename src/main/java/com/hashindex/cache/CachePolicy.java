@@ -0,0 +1,50 @@
+package com.hashindex.cache;
+
+/**
+ * Admission and eviction policy of a {@link LookupCache} segment.
+ * Implementations are confined to their segment and need not be thread-safe.
+ */
+public interface CachePolicy {
+    
+    /**
+     * Records that a key was looked up, whether or not it was cached.
+     * 
+     * @param key the looked-up key
+     */
+    void recordAccess(String key);
+    
+    /**
+     * Decides whether a new key may replace the segment's eviction victim when the segment is full.
+     * 
+     * @param candidate the key to admit
+     * @param victim the least recently used key in the segment
+     * @return true to evict the victim and admit the candidate
+     */
+    boolean admit(String candidate, String victim);
+    
+    /**
+     * Clears any state kept by the policy.
+     */
+    void clear();
+    
+    /**
+     * Available policy implementations.
+     */
+    enum Type {
+        /** Plain least-recently-used: always admit, evict the LRU entry. */
+        LRU,
+        /** LRU eviction with a TinyLFU frequency filter on admission. */
+        TINY_LFU;
+        
+        public CachePolicy create(int capacity) {
+            switch (this) {
+                case LRU:
+                    return new LruPolicy();
+                case TINY_LFU:
+                    return new TinyLfuPolicy(capacity);
+                default:
+                    throw new IllegalArgumentException("Unknown cache policy: " + this);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.hashindex.cache;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch of recent key frequencies with saturating counters (max 15) and periodic
+ * aging: once the number of increments reaches ten times the width, every counter is halved.
+ */
+class FrequencySketch {
+    
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    
+    private final int[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+    
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        this.counters = new int[DEPTH * width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+    
+    void increment(String key) {
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * (mask + 1) + indexOf(hash, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            age();
+        }
+    }
+    
+    int frequency(String key) {
+        int hash = key.hashCode();
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[row * (mask + 1) + indexOf(hash, row)]);
+        }
+        return min;
+    }
+    
+    void clear() {
+        Arrays.fill(counters, 0);
+        additions = 0;
+    }
+    
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+    
+    private void age() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,139 @@
+package com.hashindex.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache from search key to resolved page number, placed in front of the hash index.
+ * <p>
+ * The cache is split into independently locked segments so concurrent lookups rarely contend.
+ * Each segment keeps its entries in access order and consults its {@link CachePolicy} before
+ * evicting the least recently used entry for a new one.
+ */
+public class LookupCache {
+    
+    /** Returned by {@link #get(String)} when the key is not cached. */
+    public static final int MISS = -1;
+    
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int capacity;
+    private final CachePolicy.Type policyType;
+    
+    public LookupCache(int capacity, CachePolicy.Type policyType) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        int segmentCount = Math.min(16, Integer.highestOneBit(Math.max(1, capacity / 64)));
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        this.capacity = capacity;
+        this.policyType = policyType;
+        
+        int perSegment = (capacity + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment, policyType.create(perSegment));
+        }
+    }
+    
+    /**
+     * Looks up the cached page number of a key.
+     * 
+     * @param key the search key
+     * @return the page number, or {@link #MISS} if the key is not cached
+     */
+    public int get(String key) {
+        return segmentFor(key).get(key);
+    }
+    
+    /**
+     * Offers a resolved key to the cache; the policy may decline it.
+     * 
+     * @param key the search key
+     * @param pageNumber the page the key was found on
+     */
+    public void put(String key, int pageNumber) {
+        segmentFor(key).put(key, pageNumber);
+    }
+    
+    /**
+     * Removes a single key from the cache.
+     */
+    public void invalidate(String key) {
+        segmentFor(key).invalidate(key);
+    }
+    
+    /**
+     * Removes every entry and resets policy state.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public CachePolicy.Type getPolicyType() {
+        return policyType;
+    }
+    
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+    
+    private static final class Segment {
+        private final int capacity;
+        private final CachePolicy policy;
+        private final LinkedHashMap<String, Integer> entries;
+        
+        Segment(int capacity, CachePolicy policy) {
+            this.capacity = capacity;
+            this.policy = policy;
+            this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true);
+        }
+        
+        synchronized int get(String key) {
+            policy.recordAccess(key);
+            Integer pageNumber = entries.get(key);
+            return pageNumber != null ? pageNumber : MISS;
+        }
+        
+        synchronized void put(String key, int pageNumber) {
+            if (entries.containsKey(key) || entries.size() < capacity) {
+                entries.put(key, pageNumber);
+                return;
+            }
+            
+            Map.Entry<String, Integer> eldest = entries.entrySet().iterator().next();
+            if (policy.admit(key, eldest.getKey())) {
+                entries.remove(eldest.getKey());
+                entries.put(key, pageNumber);
+            }
+        }
+        
+        synchronized void invalidate(String key) {
+            entries.remove(key);
+        }
+        
+        synchronized void clear() {
+            entries.clear();
+            policy.clear();
+        }
+        
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.hashindex.cache;
+
+/**
+ * Least-recently-used policy: every new key is admitted and the LRU entry is evicted.
+ */
+class LruPolicy implements CachePolicy {
+    
+    @Override
+    public void recordAccess(String key) {
+        // Recency is tracked by the segment's access-ordered map
+    }
+    
+    @Override
+    public boolean admit(String candidate, String victim) {
+        return true;
+    }
+    
+    @Override
+    public void clear() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.hashindex.cache;
+
+/**
+ * TinyLFU admission: a new key only replaces the LRU victim if it has been looked up more
+ * often recently, as estimated by a small count-min sketch that halves itself periodically.
+ * This keeps one-off keys from flushing the hot set out of the cache.
+ */
+class TinyLfuPolicy implements CachePolicy {
+    
+    private final FrequencySketch sketch;
+    
+    TinyLfuPolicy(int capacity) {
+        this.sketch = new FrequencySketch(capacity);
+    }
+    
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+    }
+    
+    @Override
+    public boolean admit(String candidate, String victim) {
+        return sketch.frequency(candidate) > sketch.frequency(victim);
+    }
+    
+    @Override
+    public void clear() {
+        sketch.clear();
+    }
+}
@@ -17,6 +17,7 @@ public class HashIndexGUI extends JFrame {
     private final ControlPanel controlPanel;
     private final DisplayPanel displayPanel;
     private final StatusPanel statusPanel;
+    private final DashboardPanel dashboardPanel;
     private final HashIndexController controller;
     
     public HashIndexGUI() {
@@ -24,6 +25,7 @@ public class HashIndexGUI extends JFrame {
         this.controlPanel = new ControlPanel();
         this.displayPanel = new DisplayPanel();
         this.statusPanel = new StatusPanel();
+        this.dashboardPanel = new DashboardPanel(service);
         this.controller = new HashIndexController(service, controlPanel, displayPanel, statusPanel, this);
         
         initializeGUI();
@@ -36,11 +38,18 @@ public class HashIndexGUI extends JFrame {
         
         // Add components using composition
         add(controlPanel, BorderLayout.NORTH);
-        add(displayPanel, BorderLayout.CENTER);
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Index", displayPanel);
+        tabs.addTab("Dashboard", dashboardPanel);
+        add(tabs, BorderLayout.CENTER);
         add(statusPanel, BorderLayout.SOUTH);
         
         pack();
         setLocationRelativeTo(null);
         setVisible(true);
     }
+    
+    public HashIndexService getService() {
+        return service;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.hashindex.gui.actions;
+
+import com.hashindex.model.TuningCandidate;
+import com.hashindex.model.TuningDecision;
+import com.hashindex.model.TuningObjective;
+import com.hashindex.service.HashIndexService;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.gui.components.StatusPanel;
+import com.hashindex.gui.components.ControlPanel;
+import com.hashindex.gui.display.DisplayManager;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+
+/**
+ * Action for auto-tuning and constructing the hash index.
+ * Implements Command pattern for index tuning operations.
+ */
+public class AutoTuneAction extends BaseAction {
+    
+    private final DisplayManager displayManager;
+    
+    public AutoTuneAction(HashIndexService service, StatusPanel statusPanel,
+                          ControlPanel controlPanel, Component parentComponent,
+                          DisplayManager displayManager) {
+        super(service, statusPanel, controlPanel, parentComponent);
+        this.displayManager = displayManager;
+    }
+    
+    @Override
+    protected void executeAction(ActionEvent e) throws Exception {
+        TuningObjective objective = controlPanel.getSelectedTuningObjective();
+        
+        statusPanel.setStatus("Auto-tuning index...");
+        setWaitCursor();
+        
+        SwingWorker<TuningDecision, Void> worker = new SwingWorker<TuningDecision, Void>() {
+            @Override
+            protected TuningDecision doInBackground() throws Exception {
+                return service.autoTuneIndex(objective);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    TuningDecision decision = get();
+                    TuningCandidate chosen = decision.chosen();
+                    controlPanel.setIndexConfiguration(chosen.bucketCapacity(),
+                        HashFunctionFactory.HashFunctionType.valueOf(chosen.hashFunctionType()));
+                    displayManager.updateBucketDisplay();
+                    displayManager.updateStatisticsDisplay();
+                    displayManager.updateTuningDisplay(decision);
+                    controlPanel.enableSearchButtons(true);
+                    statusPanel.setStatus("Index auto-tuned: " + chosen.hashFunctionType() +
+                                        ", capacity " + chosen.bucketCapacity() +
+                                        ", load factor " + chosen.loadFactor());
+                } catch (Exception ex) {
+                    handleError("Error auto-tuning index: " + ex.getMessage());
+                } finally {
+                    setDefaultCursor();
+                }
+            }
+        };
+        worker.execute();
+    }
+}
@@ -36,8 +36,7 @@ public class ConstructIndexAction extends BaseAction {
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
             @Override
             protected Void doInBackground() throws Exception {
-                service.setHashFunction(HashFunctionFactory.createHashFunction(hashType));
-                service.constructIndex(bucketCapacity);
+                service.constructIndex(HashFunctionFactory.createHashFunction(hashType), bucketCapacity);
                 return null;
             }
             
@@ -49,7 +48,7 @@ public class ConstructIndexAction extends BaseAction {
                     displayManager.updateStatisticsDisplay();
                     controlPanel.enableSearchButtons(true);
                     statusPanel.setStatus("Index constructed successfully. Total buckets: " + 
-                                        service.getBuckets().size());
+                                        service.getBucketCount());
                 } catch (Exception ex) {
                     handleError("Error constructing index: " + ex.getMessage());
                 } finally {
@@ -1,17 +1,19 @@
 package com.hashindex.gui.actions;
 
-import com.hashindex.model.SearchResult;
 import com.hashindex.service.HashIndexService;
 import com.hashindex.gui.components.StatusPanel;
 import com.hashindex.gui.components.ControlPanel;
 import com.hashindex.gui.display.DisplayManager;
 
+import javax.swing.SwingUtilities;
 import java.awt.Component;
 import java.awt.event.ActionEvent;
+import java.util.concurrent.CompletionException;
 
 /**
  * Action for performing index-based search.
- * Implements Command pattern for search operations.
+ * Implements Command pattern for search operations. The lookup runs off the event dispatch
+ * thread and the result is displayed back on it.
  */
 public class SearchAction extends BaseAction {
     
@@ -29,10 +31,16 @@ public class SearchAction extends BaseAction {
         String searchKey = validateAndGetSearchKey();
         
         statusPanel.setStatus("Searching with index...");
-        SearchResult result = service.searchWithIndex(searchKey);
-        
-        displayManager.updateSearchResults(result, searchKey, "SEARCH WITH INDEX");
-        statusPanel.setStatus("Search completed");
+        service.searchAsync(searchKey).whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                  ? error.getCause() : error;
+                handleError("Error during search: " + cause.getMessage());
+                return;
+            }
+            displayManager.updateSearchResults(result, searchKey, "SEARCH WITH INDEX");
+            statusPanel.setStatus("Search completed");
+        }));
     }
     
     private String validateAndGetSearchKey() throws IllegalArgumentException {
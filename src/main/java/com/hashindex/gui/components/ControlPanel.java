@@ -1,5 +1,6 @@
 package com.hashindex.gui.components;
 
+import com.hashindex.model.TuningObjective;
 import com.hashindex.service.HashFunctionFactory;
 import com.hashindex.gui.actions.*;
 
@@ -16,9 +17,11 @@ public class ControlPanel extends JPanel {
     private JTextField pageSizeField;
     private JTextField bucketCapacityField;
     private JComboBox<HashFunctionFactory.HashFunctionType> hashFunctionCombo;
+    private JComboBox<TuningObjective> tuningObjectiveCombo;
     private JTextField searchKeyField;
     private JButton loadDataButton;
     private JButton constructIndexButton;
+    private JButton autoTuneButton;
     private JButton searchButton;
     private JButton tableScanButton;
     
@@ -42,11 +45,14 @@ public class ControlPanel extends JPanel {
         // Combo box
         hashFunctionCombo = new JComboBox<>(HashFunctionFactory.HashFunctionType.values());
         hashFunctionCombo.setSelectedItem(HashFunctionFactory.HashFunctionType.DJB2);
+        tuningObjectiveCombo = new JComboBox<>(TuningObjective.values());
         
         // Buttons
         loadDataButton = new JButton("Load Data");
         constructIndexButton = new JButton("Construct Index");
         constructIndexButton.setEnabled(false);
+        autoTuneButton = new JButton("Auto-Tune Index");
+        autoTuneButton.setEnabled(false);
         searchButton = new JButton("Search with Index");
         searchButton.setEnabled(false);
         tableScanButton = new JButton("Table Scan");
@@ -97,6 +103,14 @@ public class ControlPanel extends JPanel {
         // Table scan button
         gbc.gridx = 2; gbc.gridwidth = 2;
         add(tableScanButton, gbc);
+        
+        // Auto-tune controls
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 1; gbc.fill = GridBagConstraints.NONE;
+        add(new JLabel("Tuning Objective:"), gbc);
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        add(tuningObjectiveCombo, gbc);
+        gbc.gridx = 2; gbc.gridwidth = 2;
+        add(autoTuneButton, gbc);
     }
     
     // Action setters to connect with action classes
@@ -108,6 +122,10 @@ public class ControlPanel extends JPanel {
         constructIndexButton.addActionListener(action);
     }
     
+    public void setAutoTuneAction(AutoTuneAction action) {
+        autoTuneButton.addActionListener(action);
+    }
+    
     public void setSearchAction(SearchAction action) {
         searchButton.addActionListener(action);
     }
@@ -129,6 +147,18 @@ public class ControlPanel extends JPanel {
         return (HashFunctionFactory.HashFunctionType) hashFunctionCombo.getSelectedItem();
     }
     
+    public TuningObjective getSelectedTuningObjective() {
+        return (TuningObjective) tuningObjectiveCombo.getSelectedItem();
+    }
+    
+    /**
+     * Reflects an index configuration chosen outside the controls (e.g. by auto-tuning).
+     */
+    public void setIndexConfiguration(int bucketCapacity, HashFunctionFactory.HashFunctionType hashType) {
+        bucketCapacityField.setText(String.valueOf(bucketCapacity));
+        hashFunctionCombo.setSelectedItem(hashType);
+    }
+    
     public String getSearchKey() {
         return searchKeyField.getText().trim();
     }
@@ -136,6 +166,7 @@ public class ControlPanel extends JPanel {
     // Button state management
     public void enableConstructIndexButton(boolean enabled) {
         constructIndexButton.setEnabled(enabled);
+        autoTuneButton.setEnabled(enabled);
     }
     
     public void enableSearchButtons(boolean enabled) {
@@ -0,0 +1,227 @@
+package com.hashindex.gui.components;
+
+import com.hashindex.loadtest.LoadTestConfig;
+import com.hashindex.loadtest.LoadTestReport;
+import com.hashindex.loadtest.LoadTestRunner;
+import com.hashindex.metrics.MetricsSample;
+import com.hashindex.metrics.MetricsSampler;
+import com.hashindex.service.HashIndexService;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Live dashboard that samples the index on a timer and plots rolling charts of lookup rate,
+ * latency percentiles, accesses per lookup, overflow rate and memory use. It can also drive the
+ * index with an in-process load run so the charts have something to show.
+ * <p>
+ * Sampling runs on the event dispatch thread and only reads counters the lookup path already
+ * maintains (see {@link MetricsSampler}), so it takes no index lock.
+ */
+public class DashboardPanel extends JPanel {
+    
+    private static final int SAMPLE_INTERVAL_MILLIS = 500;
+    private static final int HISTORY_POINTS = 120;
+    
+    private final HashIndexService service;
+    private final MetricsSampler sampler;
+    private final Timer sampleTimer;
+    
+    private RollingChart throughputChart;
+    private RollingChart latencyChart;
+    private RollingChart accessChart;
+    private RollingChart overflowChart;
+    private RollingChart memoryChart;
+    private JSpinner threadsSpinner;
+    private JSpinner durationSpinner;
+    private JButton startButton;
+    private JButton cancelButton;
+    private JProgressBar progressBar;
+    private JTextArea reportArea;
+    private LoadRun loadRun;
+    
+    public DashboardPanel(HashIndexService service) {
+        this.service = service;
+        this.sampler = new MetricsSampler(service);
+        this.sampleTimer = new Timer(SAMPLE_INTERVAL_MILLIS, e -> sample());
+        initializePanel();
+        createComponents();
+        layoutComponents();
+    }
+    
+    private void initializePanel() {
+        setLayout(new GridLayout(2, 3, 10, 10));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+    }
+    
+    private void createComponents() {
+        throughputChart = new RollingChart("Lookups", "per second", HISTORY_POINTS, "lookups/s");
+        latencyChart = new RollingChart("Lookup latency", "us", HISTORY_POINTS, "p50", "p99", "p99.9");
+        accessChart = new RollingChart("Accesses", "per lookup", HISTORY_POINTS, "buckets", "pages");
+        overflowChart = new RollingChart("Overflow rate", "%", HISTORY_POINTS, "overflow");
+        memoryChart = new RollingChart("Memory", "MB", HISTORY_POINTS, "heap used", "off-heap");
+        
+        threadsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 64, 1));
+        durationSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 3600, 5));
+        startButton = new JButton("Start Load");
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        reportArea = new JTextArea(6, 20);
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        
+        startButton.addActionListener(e -> startLoadRun());
+        cancelButton.addActionListener(e -> {
+            if (loadRun != null) {
+                loadRun.cancel(true);
+            }
+        });
+    }
+    
+    private void layoutComponents() {
+        add(createChartPanel(throughputChart));
+        add(createChartPanel(latencyChart));
+        add(createChartPanel(accessChart));
+        add(createChartPanel(overflowChart));
+        add(createChartPanel(memoryChart));
+        add(createLoadPanel());
+    }
+    
+    private JPanel createChartPanel(RollingChart chart) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(BorderFactory.createEtchedBorder());
+        panel.add(chart, BorderLayout.CENTER);
+        return panel;
+    }
+    
+    private JPanel createLoadPanel() {
+        JPanel controls = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(2, 4, 2, 4);
+        gbc.anchor = GridBagConstraints.WEST;
+        
+        gbc.gridx = 0; gbc.gridy = 0;
+        controls.add(new JLabel("Threads:"), gbc);
+        gbc.gridx = 1;
+        controls.add(threadsSpinner, gbc);
+        gbc.gridx = 2;
+        controls.add(new JLabel("Seconds:"), gbc);
+        gbc.gridx = 3;
+        controls.add(durationSpinner, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.HORIZONTAL;
+        controls.add(startButton, gbc);
+        gbc.gridx = 2;
+        controls.add(cancelButton, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 4;
+        controls.add(progressBar, gbc);
+        
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(new TitledBorder("Load Run"));
+        panel.add(controls, BorderLayout.NORTH);
+        panel.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+        return panel;
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        sampleTimer.start();
+    }
+    
+    @Override
+    public void removeNotify() {
+        sampleTimer.stop();
+        super.removeNotify();
+    }
+    
+    private void sample() {
+        MetricsSample sample = sampler.sample();
+        throughputChart.addPoint(sample.lookupsPerSecond());
+        latencyChart.addPoint(sample.lookupLatency().p50Micros(), sample.lookupLatency().p99Micros(),
+                              sample.lookupLatency().p999Micros());
+        accessChart.addPoint(sample.bucketAccessesPerLookup(), sample.pageAccessesPerLookup());
+        overflowChart.addPoint(sample.overflowRate());
+        memoryChart.addPoint(sample.heapUsedBytes() / 1_048_576.0, sample.offHeapUsedBytes() / 1_048_576.0);
+        if (loadRun != null) {
+            loadRun.updateProgress();
+        }
+    }
+    
+    private void startLoadRun() {
+        if (service.getBucketCount() == 0) {
+            reportArea.setText("Load data and construct the index first.");
+            return;
+        }
+        LoadTestConfig config = new LoadTestConfig();
+        config.setThreads((Integer) threadsSpinner.getValue());
+        config.setDurationMillis((Integer) durationSpinner.getValue() * 1_000L);
+        
+        startButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        reportArea.setText("Running " + config.getThreads() + " thread(s) for "
+                           + config.getDurationMillis() / 1_000 + " s...");
+        loadRun = new LoadRun(config);
+        loadRun.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+        loadRun.execute();
+    }
+    
+    /**
+     * Runs lookups against the current index in the background. Progress follows the elapsed
+     * share of the run's duration; cancelling interrupts the run, which stops its workers.
+     */
+    private final class LoadRun extends SwingWorker<LoadTestReport, Void> {
+        private final LoadTestConfig config;
+        private volatile long startNanos;
+        
+        LoadRun(LoadTestConfig config) {
+            this.config = config;
+        }
+        
+        @Override
+        protected LoadTestReport doInBackground() throws Exception {
+            List<String> keys = new ArrayList<>();
+            service.forEachRecord(keys::add);
+            startNanos = System.nanoTime();
+            return new LoadTestRunner(service).runWorkload(config, keys);
+        }
+        
+        void updateProgress() {
+            if (startNanos != 0 && !isDone()) {
+                long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+                setProgress((int) Math.min(99, elapsedMillis * 100 / config.getDurationMillis()));
+            }
+        }
+        
+        @Override
+        protected void done() {
+            try {
+                LoadTestReport report = get();
+                progressBar.setValue(100);
+                reportArea.setText(report.toText());
+                reportArea.setCaretPosition(0);
+            } catch (CancellationException ex) {
+                reportArea.setText("Load run cancelled.");
+            } catch (Exception ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                reportArea.setText("Load run failed: " + cause.getMessage());
+            } finally {
+                startButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                loadRun = null;
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class DisplayPanel extends JPanel {
     private JTextArea bucketsArea;
     private JTextArea statisticsArea;
     private JTextArea searchResultArea;
+    private IndexBrowserPanel indexBrowserPanel;
     
     public DisplayPanel() {
         initializePanel();
@@ -42,6 +43,9 @@ public class DisplayPanel extends JPanel {
         
         // Search results display
         searchResultArea = createTextArea();
+        
+        // Bucket and page browser
+        indexBrowserPanel = new IndexBrowserPanel();
     }
     
     private JTextArea createTextArea() {
@@ -67,8 +71,9 @@ public class DisplayPanel extends JPanel {
         // Search results panel
         add(createDisplaySubPanel("Search Results", searchResultArea));
         
-        // Empty panel for layout
-        add(new JPanel());
+        // Index browser panel
+        indexBrowserPanel.setBorder(new TitledBorder("Index Browser"));
+        add(indexBrowserPanel);
     }
     
     private JPanel createDisplaySubPanel(String title, JTextArea textArea) {
@@ -98,4 +103,8 @@ public class DisplayPanel extends JPanel {
     public JTextArea getSearchResultArea() {
         return searchResultArea;
     }
+    
+    public IndexBrowserPanel getIndexBrowserPanel() {
+        return indexBrowserPanel;
+    }
 }
\ No newline at end of file
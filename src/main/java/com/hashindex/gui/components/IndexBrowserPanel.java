@@ -0,0 +1,201 @@
+package com.hashindex.gui.components;
+
+import com.hashindex.gui.display.BucketTableModel;
+import com.hashindex.gui.display.PageTableModel;
+
+import javax.swing.*;
+import javax.swing.event.ListSelectionEvent;
+import java.awt.*;
+
+/**
+ * Browses buckets, their overflow chains and pages in tables that fetch only the rows on screen.
+ * Follows Single Responsibility Principle by handling only the browser layout and its controls.
+ */
+public class IndexBrowserPanel extends JPanel {
+    
+    private JTable bucketTable;
+    private JTable pageTable;
+    private JTextArea chainArea;
+    private JTextArea pageArea;
+    private JTextField jumpToBucketField;
+    private JTextField jumpToPageField;
+    private JSpinner minChainLengthSpinner;
+    private JCheckBox sortByOccupancyBox;
+    private JButton applyButton;
+    private JLabel bucketCountLabel;
+    private BucketTableModel bucketModel;
+    private PageTableModel pageModel;
+    
+    public IndexBrowserPanel() {
+        super(new BorderLayout());
+        createComponents();
+        layoutComponents();
+    }
+    
+    private void createComponents() {
+        bucketTable = createTable();
+        pageTable = createTable();
+        chainArea = createTextArea();
+        pageArea = createTextArea();
+        
+        jumpToBucketField = new JTextField(7);
+        jumpToPageField = new JTextField(7);
+        minChainLengthSpinner = new JSpinner(new SpinnerNumberModel(1, 1, Integer.MAX_VALUE, 1));
+        sortByOccupancyBox = new JCheckBox("Sort by occupancy");
+        applyButton = new JButton("Apply");
+        bucketCountLabel = new JLabel(" ");
+        
+        jumpToBucketField.addActionListener(e -> jumpToBucket());
+        jumpToPageField.addActionListener(e -> jumpToPage());
+        applyButton.addActionListener(e -> applyFilter());
+        bucketTable.getSelectionModel().addListSelectionListener(this::bucketSelected);
+        pageTable.getSelectionModel().addListSelectionListener(this::pageSelected);
+    }
+    
+    private JTable createTable() {
+        JTable table = new JTable();
+        // No row sorter: it would index every row; sorting is done by the model's view instead
+        table.setAutoCreateRowSorter(false);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setFillsViewportHeight(true);
+        return table;
+    }
+    
+    private JTextArea createTextArea() {
+        JTextArea textArea = new JTextArea(4, 20);
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        return textArea;
+    }
+    
+    private void layoutComponents() {
+        JPanel bucketControls = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        bucketControls.add(new JLabel("Bucket:"));
+        bucketControls.add(jumpToBucketField);
+        bucketControls.add(new JLabel("Min chain:"));
+        bucketControls.add(minChainLengthSpinner);
+        bucketControls.add(sortByOccupancyBox);
+        bucketControls.add(applyButton);
+        bucketControls.add(bucketCountLabel);
+        
+        JPanel bucketTab = new JPanel(new BorderLayout());
+        bucketTab.add(bucketControls, BorderLayout.NORTH);
+        bucketTab.add(createSplitPane(bucketTable, chainArea), BorderLayout.CENTER);
+        
+        JPanel pageControls = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        pageControls.add(new JLabel("Page:"));
+        pageControls.add(jumpToPageField);
+        
+        JPanel pageTab = new JPanel(new BorderLayout());
+        pageTab.add(pageControls, BorderLayout.NORTH);
+        pageTab.add(createSplitPane(pageTable, pageArea), BorderLayout.CENTER);
+        
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Buckets", bucketTab);
+        tabs.addTab("Pages", pageTab);
+        add(tabs, BorderLayout.CENTER);
+    }
+    
+    private JSplitPane createSplitPane(JTable table, JTextArea detailArea) {
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                                              new JScrollPane(table), new JScrollPane(detailArea));
+        splitPane.setResizeWeight(0.7);
+        return splitPane;
+    }
+    
+    /**
+     * Connects the tables to their models; the display manager owns the models.
+     */
+    public void setModels(BucketTableModel bucketModel, PageTableModel pageModel) {
+        this.bucketModel = bucketModel;
+        this.pageModel = pageModel;
+        bucketTable.setModel(bucketModel);
+        pageTable.setModel(pageModel);
+        bucketModel.addTableModelListener(e -> updateBucketCountLabel());
+    }
+    
+    private void updateBucketCountLabel() {
+        bucketCountLabel.setText(String.format("%,d buckets", bucketModel.getRowCount()));
+        chainArea.setText("");
+    }
+    
+    private void jumpToBucket() {
+        if (bucketModel == null) {
+            return;
+        }
+        try {
+            int bucketNumber = Integer.parseInt(jumpToBucketField.getText().trim());
+            int row = bucketModel.rowOfBucket(bucketNumber);
+            if (row < 0) {
+                chainArea.setText("Bucket " + bucketNumber + " is not shown");
+                return;
+            }
+            // Selecting the row also scrolls it into view
+            bucketTable.changeSelection(row, 0, false, false);
+        } catch (NumberFormatException ex) {
+            chainArea.setText("Invalid bucket number");
+        }
+    }
+    
+    private void jumpToPage() {
+        if (pageModel == null) {
+            return;
+        }
+        try {
+            int pageNumber = Integer.parseInt(jumpToPageField.getText().trim());
+            if (pageNumber < 0 || pageNumber >= pageModel.getRowCount()) {
+                pageArea.setText("Page " + pageNumber + " does not exist");
+                return;
+            }
+            pageTable.changeSelection(pageNumber, 0, false, false);
+        } catch (NumberFormatException ex) {
+            pageArea.setText("Invalid page number");
+        }
+    }
+    
+    private void applyFilter() {
+        if (bucketModel == null) {
+            return;
+        }
+        int minChainLength = (Integer) minChainLengthSpinner.getValue();
+        boolean sortByOccupancy = sortByOccupancyBox.isSelected();
+        applyButton.setEnabled(false);
+        bucketCountLabel.setText("Filtering...");
+        
+        // Filtering reads every bucket, so keep it off the event dispatch thread
+        SwingWorker<int[], Void> worker = new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return bucketModel.computeView(minChainLength, sortByOccupancy);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    bucketModel.setView(get());
+                } catch (Exception ex) {
+                    bucketCountLabel.setText("Filter failed: " + ex.getMessage());
+                } finally {
+                    applyButton.setEnabled(true);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void bucketSelected(ListSelectionEvent e) {
+        int row = bucketTable.getSelectedRow();
+        if (!e.getValueIsAdjusting() && row >= 0) {
+            chainArea.setText(bucketModel.describeChain(row));
+            chainArea.setCaretPosition(0);
+        }
+    }
+    
+    private void pageSelected(ListSelectionEvent e) {
+        int row = pageTable.getSelectedRow();
+        if (!e.getValueIsAdjusting() && row >= 0) {
+            pageArea.setText(pageModel.describePage(row));
+            pageArea.setCaretPosition(0);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.hashindex.gui.components;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Line chart of the most recent values of one or more series, drawn with plain Java2D.
+ * Points go into fixed ring buffers, so the chart's memory does not grow while it runs.
+ */
+public class RollingChart extends JComponent {
+    
+    private static final Color[] SERIES_COLORS = {
+        new Color(0x1f77b4), new Color(0xd62728), new Color(0x2ca02c), new Color(0xff7f0e)
+    };
+    private static final int GRID_LINES = 4;
+    
+    private final String title;
+    private final String unit;
+    private final String[] seriesNames;
+    private final double[][] values;
+    private int start;
+    private int size;
+    
+    /**
+     * @param capacity number of points kept per series; older points scroll off the left edge
+     */
+    public RollingChart(String title, String unit, int capacity, String... seriesNames) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Chart capacity must be at least 2: " + capacity);
+        }
+        this.title = title;
+        this.unit = unit;
+        this.seriesNames = seriesNames;
+        this.values = new double[seriesNames.length][capacity];
+        setPreferredSize(new Dimension(320, 160));
+    }
+    
+    /**
+     * Appends one point, with one value per series, and repaints.
+     */
+    public void addPoint(double... point) {
+        int capacity = values[0].length;
+        int slot = (start + size) % capacity;
+        for (int series = 0; series < values.length; series++) {
+            values[series][slot] = series < point.length ? point[series] : 0;
+        }
+        if (size < capacity) {
+            size++;
+        } else {
+            start = (start + 1) % capacity;
+        }
+        repaint();
+    }
+    
+    public void clear() {
+        start = 0;
+        size = 0;
+        repaint();
+    }
+    
+    /**
+     * The most recent value of a series, or 0 before the first point.
+     */
+    public double getLatest(int series) {
+        return size == 0 ? 0 : values[series][(start + size - 1) % values[0].length];
+    }
+    
+    public int getPointCount() {
+        return size;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int width = getWidth();
+            int height = getHeight();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            
+            FontMetrics metrics = g.getFontMetrics();
+            int lineHeight = metrics.getHeight();
+            Rectangle plot = new Rectangle(48, lineHeight * 2 + 4, width - 56, height - lineHeight * 2 - 12);
+            
+            paintLegend(g, metrics);
+            if (plot.width <= 0 || plot.height <= 0) {
+                return;
+            }
+            double max = niceCeiling(visibleMax());
+            paintGrid(g, metrics, plot, max);
+            for (int series = 0; series < values.length; series++) {
+                paintSeries(g, plot, max, series);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+    
+    private void paintLegend(Graphics2D g, FontMetrics metrics) {
+        g.setColor(Color.BLACK);
+        g.drawString(title + " (" + unit + ")", 4, metrics.getAscent() + 2);
+        int x = 4;
+        int y = metrics.getHeight() + metrics.getAscent() + 2;
+        for (int series = 0; series < seriesNames.length; series++) {
+            String label = seriesNames[series] + ": " + format(getLatest(series));
+            g.setColor(colorOf(series));
+            g.fillRect(x, y - metrics.getAscent() + 2, 8, 8);
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(label, x + 11, y);
+            x += metrics.stringWidth(label) + 22;
+        }
+    }
+    
+    private void paintGrid(Graphics2D g, FontMetrics metrics, Rectangle plot, double max) {
+        for (int line = 0; line <= GRID_LINES; line++) {
+            int y = plot.y + plot.height - plot.height * line / GRID_LINES;
+            g.setColor(line == 0 ? Color.GRAY : new Color(0xe0e0e0));
+            g.drawLine(plot.x, y, plot.x + plot.width, y);
+            String label = format(max * line / GRID_LINES);
+            g.setColor(Color.GRAY);
+            g.drawString(label, plot.x - metrics.stringWidth(label) - 4, y + metrics.getAscent() / 2);
+        }
+    }
+    
+    private void paintSeries(Graphics2D g, Rectangle plot, double max, int series) {
+        if (size < 2) {
+            return;
+        }
+        int capacity = values[0].length;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        for (int i = 0; i < size; i++) {
+            double value = values[series][(start + i) % capacity];
+            // The newest point is at the right edge; a partly filled chart grows from the right
+            xs[i] = plot.x + plot.width - (int) ((long) (size - 1 - i) * plot.width / (capacity - 1));
+            ys[i] = plot.y + plot.height - (int) Math.round(Math.min(value, max) / max * plot.height);
+        }
+        g.setColor(colorOf(series));
+        g.setStroke(new BasicStroke(1.5f));
+        g.drawPolyline(xs, ys, size);
+    }
+    
+    private double visibleMax() {
+        double max = 0;
+        int capacity = values[0].length;
+        for (double[] series : values) {
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, series[(start + i) % capacity]);
+            }
+        }
+        return max;
+    }
+    
+    /**
+     * Rounds up to 1, 2 or 5 times a power of ten so the grid labels stay readable.
+     */
+    static double niceCeiling(double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            return 1;
+        }
+        double magnitude = Math.pow(10, Math.floor(Math.log10(value)));
+        for (double step : new double[] {1, 2, 5, 10}) {
+            if (value <= step * magnitude) {
+                return step * magnitude;
+            }
+        }
+        return 10 * magnitude;
+    }
+    
+    private static String format(double value) {
+        if (value >= 10_000) {
+            return String.format("%,.0f", value);
+        }
+        return value >= 100 ? String.format("%.0f", value) : String.format("%.2f", value);
+    }
+    
+    private static Color colorOf(int series) {
+        return SERIES_COLORS[series % SERIES_COLORS.length];
+    }
+}
@@ -45,6 +45,11 @@ public class HashIndexController {
         );
         controlPanel.setConstructIndexAction(constructIndexAction);
         
+        AutoTuneAction autoTuneAction = new AutoTuneAction(
+            service, statusPanel, controlPanel, parentComponent, displayManager
+        );
+        controlPanel.setAutoTuneAction(autoTuneAction);
+        
         SearchAction searchAction = new SearchAction(
             service, statusPanel, controlPanel, parentComponent, displayManager
         );
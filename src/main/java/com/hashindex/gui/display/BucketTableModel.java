@@ -0,0 +1,192 @@
+package com.hashindex.gui.display;
+
+import com.hashindex.model.Bucket;
+import com.hashindex.model.BucketEntry;
+import com.hashindex.service.HashIndexService;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+/**
+ * Table model over the bucket directory that reads each row from the service as the table
+ * paints it, so only the visible rows are ever touched and nothing is copied. Filtering and
+ * sorting replace the identity row order with an array of bucket numbers; the buckets
+ * themselves stay in the service.
+ */
+public class BucketTableModel extends AbstractTableModel {
+    
+    private static final String[] COLUMNS = {
+        "Bucket", "Entries", "Overflow Buckets", "Chain Entries", "Fill %"
+    };
+    private static final int CHAIN_DETAIL_LIMIT = 200;
+    
+    private final HashIndexService service;
+    private int bucketCount;
+    // Bucket number of each row, or null when every bucket is shown in directory order
+    private int[] view;
+    // The last bucket read, since the table asks for each column of a row in turn
+    private int cachedBucketNumber = -1;
+    private Bucket cachedBucket;
+    
+    public BucketTableModel(HashIndexService service) {
+        this.service = service;
+    }
+    
+    /**
+     * Re-reads the directory size and shows every bucket again; call after the index is rebuilt.
+     */
+    public void refresh() {
+        bucketCount = service.getBucketCount();
+        view = null;
+        cachedBucketNumber = -1;
+        cachedBucket = null;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Computes the bucket numbers to show: those whose chain has at least
+     * {@code minChainLength} buckets, optionally ordered by chain entries, most first.
+     * Reads every bucket once, so call it off the event dispatch thread for large indexes.
+     * 
+     * @return the bucket numbers in row order, or null if that is all buckets in directory order
+     */
+    public int[] computeView(int minChainLength, boolean sortByOccupancy) {
+        int count = service.getBucketCount();
+        if (minChainLength <= 1 && !sortByOccupancy) {
+            return null;
+        }
+        // Entries in the high half so sorting the longs orders by entries, then bucket number
+        long[] keys = new long[count];
+        int rows = 0;
+        for (int i = 0; i < count; i++) {
+            Bucket bucket = service.getBucket(i);
+            if (1 + bucket.getOverflowCount() >= minChainLength) {
+                keys[rows++] = (long) (Integer.MAX_VALUE - bucket.getTotalEntries()) << 32 | i;
+            }
+        }
+        if (sortByOccupancy) {
+            Arrays.sort(keys, 0, rows);
+        }
+        int[] bucketNumbers = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            bucketNumbers[i] = (int) keys[i];
+        }
+        return bucketNumbers;
+    }
+    
+    /**
+     * Shows the rows computed by {@link #computeView}.
+     */
+    public void setView(int[] view) {
+        this.bucketCount = service.getBucketCount();
+        this.view = view;
+        cachedBucketNumber = -1;
+        cachedBucket = null;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * The row showing the given bucket, or -1 if it is filtered out or does not exist.
+     */
+    public int rowOfBucket(int bucketNumber) {
+        if (bucketNumber < 0 || bucketNumber >= bucketCount) {
+            return -1;
+        }
+        if (view == null) {
+            return bucketNumber;
+        }
+        for (int row = 0; row < view.length; row++) {
+            if (view[row] == bucketNumber) {
+                return row;
+            }
+        }
+        return -1;
+    }
+    
+    public int bucketNumberAt(int row) {
+        return view == null ? row : view[row];
+    }
+    
+    /**
+     * Describes the overflow chain shown in the given row, entry by entry.
+     */
+    public String describeChain(int row) {
+        Bucket bucket = bucketAt(row);
+        if (bucket == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Bucket ").append(bucket.getBucketNumber()).append(": ")
+          .append(bucket.getTotalEntries()).append(" entries in ")
+          .append(1 + bucket.getOverflowCount()).append(" bucket(s)\n");
+        int shown = 0;
+        int link = 0;
+        for (Bucket current = bucket; current != null; current = current.getOverflowBucket(), link++) {
+            sb.append(link == 0 ? "Primary" : "Overflow " + link).append(":\n");
+            for (BucketEntry entry : current.entriesView()) {
+                if (shown++ == CHAIN_DETAIL_LIMIT) {
+                    sb.append("  ... and ").append(bucket.getTotalEntries() - CHAIN_DETAIL_LIMIT).append(" more\n");
+                    return sb.toString();
+                }
+                sb.append("  ").append(entry.searchKey()).append(" -> page ").append(entry.pageNumber());
+                if (entry.postings() != null) {
+                    sb.append(" and ").append(entry.pageCount() - 1).append(" more");
+                }
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+    
+    @Override
+    public int getRowCount() {
+        return view == null ? bucketCount : view.length;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 4 ? Double.class : Integer.class;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        Bucket bucket = bucketAt(row);
+        if (bucket == null) {
+            return null;
+        }
+        switch (column) {
+            case 0: return bucket.getBucketNumber();
+            case 1: return bucket.size();
+            case 2: return bucket.getOverflowCount();
+            case 3: return bucket.getTotalEntries();
+            case 4: return 100.0 * bucket.getTotalEntries() / (bucket.getCapacity() * (1 + bucket.getOverflowCount()));
+            default: throw new IllegalArgumentException("Unknown column: " + column);
+        }
+    }
+    
+    private Bucket bucketAt(int row) {
+        if (row < 0 || row >= getRowCount()) {
+            return null;
+        }
+        int bucketNumber = bucketNumberAt(row);
+        if (bucketNumber != cachedBucketNumber) {
+            // The directory may have been rebuilt since the last refresh
+            if (bucketNumber >= service.getBucketCount()) {
+                return null;
+            }
+            cachedBucket = service.getBucket(bucketNumber);
+            cachedBucketNumber = bucketNumber;
+        }
+        return cachedBucket;
+    }
+}
@@ -14,10 +14,15 @@ public class DisplayManager {
     
     private final HashIndexService service;
     private final DisplayPanel displayPanel;
+    private final BucketTableModel bucketTableModel;
+    private final PageTableModel pageTableModel;
     
     public DisplayManager(HashIndexService service, DisplayPanel displayPanel) {
         this.service = service;
         this.displayPanel = displayPanel;
+        this.bucketTableModel = new BucketTableModel(service);
+        this.pageTableModel = new PageTableModel(service);
+        displayPanel.getIndexBrowserPanel().setModels(bucketTableModel, pageTableModel);
     }
     
     public void updatePageDisplays() {
@@ -26,6 +31,9 @@ public class DisplayManager {
         
         updateFirstPage(firstPage);
         updateLastPage(lastPage, firstPage);
+        pageTableModel.refresh();
+        // Loading data clears the index
+        bucketTableModel.refresh();
     }
     
     private void updateFirstPage(Page firstPage) {
@@ -36,7 +44,7 @@ public class DisplayManager {
             sb.append("Records: ").append(firstPage.size()).append("\n");
             sb.append("Content:\n");
             
-            List<String> records = firstPage.getRecords();
+            List<String> records = firstPage.recordsView();
             appendRecords(sb, records);
             
             displayPanel.getFirstPageArea().setText(sb.toString());
@@ -51,7 +59,7 @@ public class DisplayManager {
             sb.append("Records: ").append(lastPage.size()).append("\n");
             sb.append("Content:\n");
             
-            List<String> records = lastPage.getRecords();
+            List<String> records = lastPage.recordsView();
             appendRecords(sb, records);
             
             displayPanel.getLastPageArea().setText(sb.toString());
@@ -70,24 +78,22 @@ public class DisplayManager {
     
     public void updateBucketDisplay() {
         StringBuilder sb = new StringBuilder();
-        List<Bucket> buckets = service.getBuckets();
+        IndexStatistics statistics = service.getStatistics();
         
-        sb.append("Total Buckets: ").append(buckets.size()).append("\n");
+        sb.append("Total Buckets: ").append(service.getBucketCount()).append("\n");
         sb.append("Bucket Capacity: ").append(service.getBucketCapacity()).append("\n");
-        sb.append("Hash Function: ").append(service.getHashFunction().getName()).append("\n\n");
-        
-        sb.append("First 10 buckets:\n");
-        for (int i = 0; i < Math.min(10, buckets.size()); i++) {
-            Bucket bucket = buckets.get(i);
-            sb.append("Bucket ").append(i).append(": ");
-            sb.append(bucket.size()).append(" entries");
-            if (bucket.hasOverflow()) {
-                sb.append(" (").append(bucket.getOverflowCount()).append(" overflow)");
-            }
-            sb.append("\n");
-        }
+        sb.append("Hash Function: ").append(service.getHashFunction().getName()).append("\n");
+        sb.append("Overflows: ").append(statistics.getOverflows()).append("\n\n");
+        sb.append("Browse buckets and overflow chains in the Index Browser.\n");
         
         displayPanel.getBucketsArea().setText(sb.toString());
+        // The browser reads rows from the service as they are shown, so this copies nothing
+        bucketTableModel.refresh();
+    }
+    
+    public void updateTuningDisplay(TuningDecision decision) {
+        displayPanel.getSearchResultArea().setText(decision.toString());
+        displayPanel.getSearchResultArea().setCaretPosition(0);
     }
     
     public void updateStatisticsDisplay() {
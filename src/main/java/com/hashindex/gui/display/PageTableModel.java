@@ -0,0 +1,111 @@
+package com.hashindex.gui.display;
+
+import com.hashindex.model.Page;
+import com.hashindex.service.HashIndexService;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model over the data pages that reads each row from the service as the table paints it,
+ * decoding only the first and last record of each visible page.
+ */
+public class PageTableModel extends AbstractTableModel {
+    
+    private static final String[] COLUMNS = {
+        "Page", "Records", "Capacity", "Encoded Bytes", "First Record", "Last Record"
+    };
+    private static final int PAGE_DETAIL_LIMIT = 500;
+    
+    private final HashIndexService service;
+    private int pageCount;
+    // The last page read, since the table asks for each column of a row in turn
+    private int cachedPageNumber = -1;
+    private Page cachedPage;
+    
+    public PageTableModel(HashIndexService service) {
+        this.service = service;
+    }
+    
+    /**
+     * Re-reads the number of pages; call after data is loaded or inserted.
+     */
+    public void refresh() {
+        pageCount = service.getPageCount();
+        cachedPageNumber = -1;
+        cachedPage = null;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Describes the page shown in the given row, record by record.
+     */
+    public String describePage(int row) {
+        Page page = pageAt(row);
+        if (page == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Page ").append(page.getPageNumber()).append(" (").append(page.getEncoding()).append("): ")
+          .append(page.size()).append(" records, ").append(page.getEncodedBytes()).append(" bytes\n");
+        int shown = Math.min(page.size(), PAGE_DETAIL_LIMIT);
+        for (int i = 0; i < shown; i++) {
+            sb.append("  ").append(page.getRecord(i)).append("\n");
+        }
+        if (page.size() > shown) {
+            sb.append("  ... and ").append(page.size() - shown).append(" more\n");
+        }
+        return sb.toString();
+    }
+    
+    @Override
+    public int getRowCount() {
+        return pageCount;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column >= 4 ? String.class : Integer.class;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        Page page = pageAt(row);
+        if (page == null) {
+            return null;
+        }
+        switch (column) {
+            case 0: return page.getPageNumber();
+            case 1: return page.size();
+            case 2: return page.getCapacity();
+            case 3: return page.getEncodedBytes();
+            case 4: return page.isEmpty() ? "" : page.getRecord(0);
+            case 5: return page.isEmpty() ? "" : page.getRecord(page.size() - 1);
+            default: throw new IllegalArgumentException("Unknown column: " + column);
+        }
+    }
+    
+    private Page pageAt(int row) {
+        if (row < 0 || row >= pageCount) {
+            return null;
+        }
+        if (row != cachedPageNumber) {
+            // The pages may have been reloaded since the last refresh
+            if (row >= service.getPageCount()) {
+                return null;
+            }
+            cachedPage = service.getPage(row);
+            cachedPageNumber = row;
+        }
+        return cachedPage;
+    }
+}
@@ -0,0 +1,39 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records building a bucket directory over the pages, including the
+ * {@link PopulateBucketsEvent} it contains.
+ */
+@Name("com.hashindex.ConstructIndex")
+@Label("Construct Index")
+@Category({"Hash Index", "Build"})
+@Description("Building the hash index over the loaded pages")
+public class ConstructIndexEvent extends Event {
+    
+    @Label("Buckets")
+    public int buckets;
+    
+    @Label("Bucket Capacity")
+    public int bucketCapacity;
+    
+    @Label("Load Factor")
+    public double loadFactor;
+    
+    @Label("Hash Function")
+    public String hashFunction;
+    
+    @Label("Collisions")
+    public long collisions;
+    
+    @Label("Overflow Buckets")
+    public long overflows;
+    
+    @Label("Cancelled")
+    public boolean cancelled;
+}
@@ -0,0 +1,64 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Records a single lookup through the hash index. Lookups are far too frequent to record
+ * every one, so only those slower than the threshold are kept unless a recording lowers it.
+ * Start one with {@link #beginIfEnabled()} so that lookups allocate nothing when no recording
+ * has the event enabled.
+ */
+@Name("com.hashindex.IndexLookup")
+@Label("Index Lookup")
+@Category({"Hash Index", "Lookup"})
+@Description("A key looked up through the hash index")
+@Threshold("20 us")
+public class IndexLookupEvent extends Event {
+    
+    private static final EventType TYPE = EventType.getEventType(IndexLookupEvent.class);
+    
+    @Label("Key")
+    public String key;
+    
+    @Label("Bucket")
+    public int bucket;
+    
+    @Label("Chain Length")
+    @Description("Buckets of the chain walked, up to the one holding the key or to its end")
+    public int chainLength;
+    
+    @Label("Page")
+    @Description("Page read to verify the key, or -1 if the bucket chain did not hold it")
+    public int page;
+    
+    @Label("Accesses")
+    @Description("Bucket and page accesses, as counted in the statistics")
+    public int accesses;
+    
+    @Label("Found")
+    public boolean found;
+    
+    @Label("Cached")
+    @Description("Answered by the lookup cache without touching a bucket or page")
+    public boolean cached;
+    
+    /**
+     * Begins an event if a running recording has this event type enabled.
+     * 
+     * @return the begun event, or null if it would not be recorded
+     */
+    public static IndexLookupEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        IndexLookupEvent event = new IndexLookupEvent();
+        event.begin();
+        return event;
+    }
+}
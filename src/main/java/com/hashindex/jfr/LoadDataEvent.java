@@ -0,0 +1,35 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records loading the data into pages; its stages are recorded as {@link LoadStageEvent}s.
+ */
+@Name("com.hashindex.LoadData")
+@Label("Load Data")
+@Category({"Hash Index", "Build"})
+@Description("Loading records into data pages, which discards any existing index")
+public class LoadDataEvent extends Event {
+    
+    @Label("Records")
+    public long records;
+    
+    @Label("Pages")
+    public int pages;
+    
+    @Label("Page Size")
+    @Description("Records per page for plain pages, bytes per page for front-coded pages")
+    public int pageSize;
+    
+    @Label("Encoding")
+    public String encoding;
+    
+    @Label("Estimated Footprint")
+    @DataAmount
+    public long footprintBytes;
+}
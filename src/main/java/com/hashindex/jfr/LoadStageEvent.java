@@ -0,0 +1,28 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records one stage of loading the data: reading the words file, filling the pages or
+ * estimating the memory footprint.
+ */
+@Name("com.hashindex.LoadStage")
+@Label("Load Stage")
+@Category({"Hash Index", "Build"})
+@Description("One stage of loading the data")
+public class LoadStageEvent extends Event {
+    
+    public static final String READ = "read";
+    public static final String PAGINATE = "paginate";
+    public static final String ESTIMATE = "estimate";
+    
+    @Label("Stage")
+    public String stage;
+    
+    @Label("Records")
+    public long records;
+}
@@ -0,0 +1,30 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Records a full bucket being extended with an overflow bucket. Instant; the stack trace is
+ * left out since these come in bursts while an index is built.
+ */
+@Name("com.hashindex.OverflowBucket")
+@Label("Overflow Bucket")
+@Category({"Hash Index", "Build"})
+@Description("An overflow bucket appended to a full bucket chain")
+@StackTrace(false)
+public class OverflowBucketEvent extends Event {
+    
+    @Label("Bucket")
+    public int bucket;
+    
+    @Label("Chain Length")
+    @Description("Buckets in the chain including the new overflow bucket")
+    public int chainLength;
+    
+    @Label("Bucket Capacity")
+    public int bucketCapacity;
+}
@@ -0,0 +1,30 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records hashing every record into a new directory, the bulk of building an index.
+ */
+@Name("com.hashindex.PopulateBuckets")
+@Label("Populate Buckets")
+@Category({"Hash Index", "Build"})
+@Description("Hashing every record of every page into the bucket directory")
+public class PopulateBucketsEvent extends Event {
+    
+    @Label("Buckets")
+    public int buckets;
+    
+    @Label("Pages")
+    public int pages;
+    
+    @Label("Records")
+    public long records;
+    
+    @Label("Strategy")
+    @Description("INCREMENTAL adds records in page order, PARTITIONED sorts them by bucket first")
+    public String strategy;
+}
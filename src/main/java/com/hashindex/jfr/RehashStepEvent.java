@@ -0,0 +1,35 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records one step of an incremental rehash into a larger directory. The first step migrates
+ * from bucket 0; the last one switches to the new directory.
+ */
+@Name("com.hashindex.RehashStep")
+@Label("Rehash Step")
+@Category({"Hash Index", "Rehash"})
+@Description("Buckets migrated to the larger directory by one operation")
+public class RehashStepEvent extends Event {
+    
+    @Label("Source Buckets")
+    public int sourceBuckets;
+    
+    @Label("Target Buckets")
+    public int targetBuckets;
+    
+    @Label("First Bucket")
+    @Description("First source bucket migrated by this step")
+    public int firstBucket;
+    
+    @Label("Buckets Migrated")
+    public int bucketsMigrated;
+    
+    @Label("Completed")
+    @Description("This step migrated the last bucket and switched directories")
+    public boolean completed;
+}
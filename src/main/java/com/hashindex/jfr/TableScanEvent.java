@@ -0,0 +1,30 @@
+package com.hashindex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records a sequential scan of the pages for a key.
+ */
+@Name("com.hashindex.TableScan")
+@Label("Table Scan")
+@Category({"Hash Index", "Lookup"})
+@Description("A key searched for by reading the pages in order")
+public class TableScanEvent extends Event {
+    
+    @Label("Key")
+    public String key;
+    
+    @Label("Page")
+    @Description("Page holding the key, or -1 if no page did")
+    public int page;
+    
+    @Label("Pages Read")
+    public int accesses;
+    
+    @Label("Found")
+    public boolean found;
+}
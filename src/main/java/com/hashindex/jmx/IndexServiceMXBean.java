@@ -0,0 +1,78 @@
+package com.hashindex.jmx;
+
+/**
+ * Management interface of a {@link com.hashindex.service.HashIndexService}, registered by
+ * {@link IndexServiceMonitor}. Cumulative counts run from the last load of the data; interval
+ * counts run from the last {@link #resetIntervalCounters()}.
+ */
+public interface IndexServiceMXBean {
+    
+    // Structure
+    long getTotalRecords();
+    int getTotalPages();
+    int getTotalBuckets();
+    int getBucketCapacity();
+    double getLoadFactor();
+    String getHashFunction();
+    String getPageEncoding();
+    
+    // Collisions, overflows and rehashing
+    long getCollisions();
+    double getCollisionRate();
+    long getOverflows();
+    double getOverflowRate();
+    boolean isRehashInProgress();
+    double getRehashProgress();
+    long getCompletedRehashes();
+    double getLastRehashMillis();
+    
+    // Cumulative operations
+    long getLookups();
+    long getLookupHits();
+    long getLookupMisses();
+    long getLookupBucketAccesses();
+    long getLookupPageAccesses();
+    long getCacheHits();
+    long getCacheMisses();
+    double getCacheHitRate();
+    long getTableScans();
+    long getTableScanHits();
+    long getTableScanPageAccesses();
+    long getInserts();
+    
+    // Latencies
+    double getLookupP50Micros();
+    double getLookupP99Micros();
+    double getLookupMaxMicros();
+    long getIndexBuilds();
+    double getLastBuildMillis();
+    double getMeanBuildMillis();
+    double getMaxBuildMillis();
+    
+    // Memory
+    long getDataBytes();
+    long getIndexBytes();
+    long getOverflowBucketBytes();
+    long getPostingListBytes();
+    double getBytesPerRecord();
+    
+    // Interval
+    double getIntervalSeconds();
+    long getIntervalLookups();
+    long getIntervalLookupHits();
+    long getIntervalLookupMisses();
+    double getIntervalLookupsPerSecond();
+    double getIntervalAccessesPerLookup();
+    long getIntervalTableScans();
+    long getIntervalInserts();
+    
+    /**
+     * Starts a new interval; the cumulative counts are left alone.
+     */
+    void resetIntervalCounters();
+    
+    /**
+     * Formats every statistic, including the latency percentiles, at this moment.
+     */
+    String takeSnapshot();
+}
@@ -0,0 +1,213 @@
+package com.hashindex.jmx;
+
+import com.hashindex.metrics.LatencySnapshot;
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.model.MemoryFootprint;
+import com.hashindex.service.HashIndexService;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exposes a service's statistics over JMX. Every attribute is read on demand from the
+ * statistics, whose operation counters are striped adders, so monitoring neither locks the
+ * index nor slows the threads updating it. Structural figures such as collisions and overflows
+ * are written under the service's write lock and read here without it, so they may lag a build
+ * in progress.
+ */
+public class IndexServiceMonitor implements IndexServiceMXBean {
+    
+    public static final String DOMAIN = "com.hashindex";
+    
+    private final HashIndexService service;
+    
+    // Cumulative counts at the start of the interval; only touched by management threads
+    private long intervalStartNanos;
+    private long baseLookupHits;
+    private long baseLookupMisses;
+    private long baseLookupAccesses;
+    private long baseTableScans;
+    private long baseInserts;
+    
+    public IndexServiceMonitor(HashIndexService service) {
+        this.service = service;
+        resetIntervalCounters();
+    }
+    
+    /**
+     * The name a service's MBean is registered under.
+     * 
+     * @param name distinguishes services in the same JVM
+     */
+    public static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=HashIndexService,name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid MBean name: " + name, e);
+        }
+    }
+    
+    /**
+     * Registers a monitor for the service with the platform MBean server.
+     * 
+     * @param name distinguishes services in the same JVM
+     * @return the registered name
+     * @throws JMException if the name is already registered
+     */
+    public static ObjectName register(HashIndexService service, String name) throws JMException {
+        ObjectName objectName = objectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new IndexServiceMonitor(service), objectName);
+        return objectName;
+    }
+    
+    /**
+     * Unregisters a monitor registered by {@link #register}, if it still is.
+     */
+    public static void unregister(ObjectName objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+    
+    private IndexStatistics statistics() {
+        return service.getStatistics();
+    }
+    
+    @Override public long getTotalRecords() { return statistics().getTotalRecords(); }
+    @Override public int getTotalPages() { return statistics().getTotalPages(); }
+    @Override public int getTotalBuckets() { return statistics().getTotalBuckets(); }
+    @Override public int getBucketCapacity() { return statistics().getBucketCapacity(); }
+    @Override public double getLoadFactor() { return statistics().getLoadFactor(); }
+    @Override public String getHashFunction() { return service.getHashFunction().getName(); }
+    @Override public String getPageEncoding() { return service.getPageEncoding().name(); }
+    
+    @Override public long getCollisions() { return statistics().getCollisions(); }
+    @Override public double getCollisionRate() { return statistics().getCollisionRate(); }
+    @Override public long getOverflows() { return statistics().getOverflows(); }
+    @Override public double getOverflowRate() { return statistics().getOverflowRate(); }
+    @Override public boolean isRehashInProgress() { return statistics().isRehashInProgress(); }
+    @Override public double getRehashProgress() { return statistics().getRehashProgress(); }
+    @Override public long getCompletedRehashes() { return statistics().getCompletedRehashes(); }
+    @Override public double getLastRehashMillis() { return statistics().getLastRehashDurationNanos() / 1_000_000.0; }
+    
+    @Override public long getLookups() { return getLookupHits() + getLookupMisses(); }
+    @Override public long getLookupHits() { return statistics().getLookupHits(); }
+    @Override public long getLookupMisses() { return statistics().getLookupMisses(); }
+    @Override public long getLookupBucketAccesses() { return statistics().getLookupBucketAccesses(); }
+    @Override public long getLookupPageAccesses() { return statistics().getLookupPageAccesses(); }
+    @Override public long getCacheHits() { return statistics().getCacheHits(); }
+    @Override public long getCacheMisses() { return statistics().getCacheMisses(); }
+    @Override public double getCacheHitRate() { return statistics().getCacheHitRate(); }
+    @Override public long getTableScans() { return statistics().getTableScanLatency().getCount(); }
+    @Override public long getTableScanHits() { return statistics().getTableScanHits(); }
+    @Override public long getTableScanPageAccesses() { return statistics().getTableScanPageAccesses(); }
+    @Override public long getInserts() { return statistics().getInsertLatency().getCount(); }
+    
+    @Override
+    public double getLookupP50Micros() {
+        return statistics().getSearchLatency().snapshot().p50Nanos() / 1_000.0;
+    }
+    
+    @Override
+    public double getLookupP99Micros() {
+        return statistics().getSearchLatency().snapshot().p99Nanos() / 1_000.0;
+    }
+    
+    @Override
+    public double getLookupMaxMicros() {
+        return statistics().getSearchLatency().getMaxNanos() / 1_000.0;
+    }
+    
+    @Override public long getIndexBuilds() { return statistics().getBuildLatency().getCount(); }
+    @Override public double getLastBuildMillis() { return statistics().getLastBuildNanos() / 1_000_000.0; }
+    
+    @Override
+    public double getMeanBuildMillis() {
+        return statistics().getBuildLatency().snapshot().meanNanos() / 1_000_000.0;
+    }
+    
+    @Override
+    public double getMaxBuildMillis() {
+        return statistics().getBuildLatency().getMaxNanos() / 1_000_000.0;
+    }
+    
+    @Override public long getDataBytes() { return footprint().dataBytes(); }
+    @Override public long getIndexBytes() { return footprint().indexBytes(); }
+    @Override public long getOverflowBucketBytes() { return footprint().overflowBucketBytes(); }
+    @Override public long getPostingListBytes() { return footprint().postingListBytes(); }
+    @Override public double getBytesPerRecord() { return footprint().bytesPerRecord(); }
+    
+    private MemoryFootprint footprint() {
+        return statistics().getMemoryFootprint();
+    }
+    
+    @Override
+    public synchronized double getIntervalSeconds() {
+        return (System.nanoTime() - intervalStartNanos) / 1_000_000_000.0;
+    }
+    
+    @Override
+    public synchronized long getIntervalLookups() {
+        return getIntervalLookupHits() + getIntervalLookupMisses();
+    }
+    
+    @Override
+    public synchronized long getIntervalLookupHits() {
+        return since(getLookupHits(), baseLookupHits);
+    }
+    
+    @Override
+    public synchronized long getIntervalLookupMisses() {
+        return since(getLookupMisses(), baseLookupMisses);
+    }
+    
+    @Override
+    public synchronized double getIntervalLookupsPerSecond() {
+        double seconds = getIntervalSeconds();
+        return seconds > 0 ? getIntervalLookups() / seconds : 0.0;
+    }
+    
+    @Override
+    public synchronized double getIntervalAccessesPerLookup() {
+        long lookups = getIntervalLookups();
+        return lookups > 0 ? (double) since(lookupAccesses(), baseLookupAccesses) / lookups : 0.0;
+    }
+    
+    @Override
+    public synchronized long getIntervalTableScans() {
+        return since(getTableScans(), baseTableScans);
+    }
+    
+    @Override
+    public synchronized long getIntervalInserts() {
+        return since(getInserts(), baseInserts);
+    }
+    
+    @Override
+    public synchronized void resetIntervalCounters() {
+        intervalStartNanos = System.nanoTime();
+        baseLookupHits = getLookupHits();
+        baseLookupMisses = getLookupMisses();
+        baseLookupAccesses = lookupAccesses();
+        baseTableScans = getTableScans();
+        baseInserts = getInserts();
+    }
+    
+    @Override
+    public String takeSnapshot() {
+        return statistics().toString();
+    }
+    
+    private long lookupAccesses() {
+        return getLookupBucketAccesses() + getLookupPageAccesses();
+    }
+    
+    // The statistics may have been reset since the interval began, restarting the counts from zero
+    private static long since(long current, long base) {
+        return current >= base ? current - base : current;
+    }
+}
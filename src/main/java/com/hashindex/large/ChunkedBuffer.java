@@ -0,0 +1,198 @@
+package com.hashindex.large;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte storage addressed by {@code long} offsets, split into power-of-two chunks so it can grow
+ * past the 2 GB limit of a single array or buffer. Chunks are created on first write: on the
+ * heap, off-heap as direct buffers, or as read-write mappings of a file, which the operating
+ * system keeps sparse until written and pages in and out on demand, so a memory-mapped buffer
+ * holds far more than the heap or physical memory. Reading a chunk never written returns zeros.
+ * <p>
+ * Values are read and written within one chunk: callers lay out fixed-size elements whose size
+ * divides the chunk size, such as 8-byte words or power-of-two slots. Concurrent reads are safe;
+ * writes must not run concurrently with other writes or with reads of the same element.
+ */
+public final class ChunkedBuffer implements Closeable {
+    
+    public enum Storage { HEAP, DIRECT, MAPPED }
+    
+    static final int DEFAULT_CHUNK_SHIFT = 26;
+    static final int MAPPED_CHUNK_SHIFT = 30;
+    
+    private final Storage storage;
+    private final long capacity;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final ByteBuffer[] chunks;
+    private final FileChannel channel;
+    private long allocatedChunks;
+    
+    ChunkedBuffer(Storage storage, long capacity, int chunkShift, FileChannel channel) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        long chunkCount = ((capacity - 1) >>> chunkShift) + 1;
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many chunks for capacity " + capacity);
+        }
+        this.storage = storage;
+        this.capacity = capacity;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.chunks = new ByteBuffer[(int) chunkCount];
+        this.channel = channel;
+    }
+    
+    /**
+     * Creates a buffer of heap chunks.
+     */
+    public static ChunkedBuffer onHeap(long capacity) {
+        return new ChunkedBuffer(Storage.HEAP, capacity, DEFAULT_CHUNK_SHIFT, null);
+    }
+    
+    /**
+     * Creates a buffer of direct chunks, outside the heap.
+     */
+    public static ChunkedBuffer offHeap(long capacity) {
+        return new ChunkedBuffer(Storage.DIRECT, capacity, DEFAULT_CHUNK_SHIFT, null);
+    }
+    
+    /**
+     * Creates a buffer backed by the given file, which is created if needed and grows as
+     * chunks are first written. Existing contents are kept.
+     * 
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static ChunkedBuffer mapped(Path file, long capacity) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                   StandardOpenOption.WRITE);
+            return new ChunkedBuffer(Storage.MAPPED, capacity, MAPPED_CHUNK_SHIFT, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + file, e);
+        }
+    }
+    
+    /**
+     * Creates a buffer with the given storage; {@code file} is only used for {@link Storage#MAPPED}.
+     */
+    public static ChunkedBuffer create(Storage storage, long capacity, Path file) {
+        switch (storage) {
+            case HEAP: return onHeap(capacity);
+            case DIRECT: return offHeap(capacity);
+            case MAPPED: return mapped(file, capacity);
+            default: throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+    }
+    
+    public long getLong(long offset) {
+        ByteBuffer chunk = chunkForRead(offset);
+        return chunk == null ? 0 : chunk.getLong((int) (offset & chunkMask));
+    }
+    
+    public void putLong(long offset, long value) {
+        chunkForWrite(offset).putLong((int) (offset & chunkMask), value);
+    }
+    
+    public byte getByte(long offset) {
+        ByteBuffer chunk = chunkForRead(offset);
+        return chunk == null ? 0 : chunk.get((int) (offset & chunkMask));
+    }
+    
+    public void putByte(long offset, byte value) {
+        chunkForWrite(offset).put((int) (offset & chunkMask), value);
+    }
+    
+    /**
+     * Copies {@code length} bytes into the buffer; they must lie within one chunk.
+     */
+    public void put(long offset, byte[] source, int sourceOffset, int length) {
+        chunkForWrite(offset).put((int) (offset & chunkMask), source, sourceOffset, length);
+    }
+    
+    /**
+     * Copies {@code length} bytes out of the buffer; they must lie within one chunk.
+     */
+    public void get(long offset, byte[] target, int targetOffset, int length) {
+        ByteBuffer chunk = chunkForRead(offset);
+        if (chunk == null) {
+            Arrays.fill(target, targetOffset, targetOffset + length, (byte) 0);
+        } else {
+            chunk.get((int) (offset & chunkMask), target, targetOffset, length);
+        }
+    }
+    
+    private ByteBuffer chunkForRead(long offset) {
+        checkOffset(offset);
+        return chunks[(int) (offset >>> chunkShift)];
+    }
+    
+    private ByteBuffer chunkForWrite(long offset) {
+        checkOffset(offset);
+        int index = (int) (offset >>> chunkShift);
+        ByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+            chunk = allocate(index);
+            chunks[index] = chunk;
+            allocatedChunks++;
+        }
+        return chunk;
+    }
+    
+    private ByteBuffer allocate(int index) {
+        int size = (int) Math.min(1L << chunkShift, capacity - ((long) index << chunkShift));
+        switch (storage) {
+            case HEAP: return ByteBuffer.allocate(size);
+            case DIRECT: return ByteBuffer.allocateDirect(size);
+            case MAPPED:
+                try {
+                    return channel.map(FileChannel.MapMode.READ_WRITE, (long) index << chunkShift, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not map chunk " + index, e);
+                }
+            default: throw new IllegalStateException("Unknown storage: " + storage);
+        }
+    }
+    
+    private void checkOffset(long offset) {
+        if (offset < 0 || offset >= capacity) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " outside capacity " + capacity);
+        }
+    }
+    
+    public Storage getStorage() {
+        return storage;
+    }
+    
+    public long getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Bytes in chunks written so far; for a mapped buffer, the file regions mapped.
+     */
+    public long getAllocatedBytes() {
+        return Math.min(capacity, allocatedChunks << chunkShift);
+    }
+    
+    /**
+     * Releases the chunks. A mapped file keeps its contents; its mappings are unmapped once
+     * they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(chunks, null);
+        allocatedChunks = 0;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.hashindex.large;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hash index for billions of records, addressed with {@code long}s throughout. The directory
+ * and the overflow buckets live in {@link ChunkedBuffer}s rather than objects, so the index
+ * takes no heap per entry and, memory-mapped, can outgrow physical memory.
+ * <p>
+ * Each bucket is {@code bucketCapacity} entry words followed by a link to its first overflow
+ * bucket (overflow bucket number + 1, or 0 for none). An entry word packs an occupancy bit, an
+ * 11-bit fingerprint of the key's hash and the 52-bit {@link RecordId}; entries fill a chain
+ * in order, so the first empty word ends a search. Only entries whose fingerprint matches are
+ * confirmed against the {@link RecordSource}, which counts as a page read.
+ * <p>
+ * Inserts must not run concurrently with each other or with lookups; lookups may run
+ * concurrently once the index is built.
+ */
+public class LargeHashIndex implements Closeable {
+    
+    private static final long OCCUPIED = 1L << 63;
+    private static final long FINGERPRINT_MASK = 0x7FFL;
+    private static final long ID_MASK = (1L << RecordId.ID_BITS) - 1;
+    
+    private final RecordSource records;
+    private final long bucketCount;
+    private final int bucketCapacity;
+    private final long bucketBytes;
+    private final ChunkedBuffer directory;
+    private final ChunkedBuffer overflow;
+    private long entries;
+    private long overflowBuckets;
+    
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder bucketAccesses = new LongAdder();
+    private final LongAdder pageReads = new LongAdder();
+    
+    /**
+     * @param records where candidate entries are confirmed
+     * @param bucketCount primary buckets, which may exceed {@code Integer.MAX_VALUE}
+     * @param bucketCapacity entries per bucket
+     * @param directory storage of at least {@link #directoryBytes} bytes for the primary buckets
+     * @param overflow storage for overflow buckets, {@link #overflowBytes} bytes for the worst case
+     */
+    public LargeHashIndex(RecordSource records, long bucketCount, int bucketCapacity,
+                          ChunkedBuffer directory, ChunkedBuffer overflow) {
+        if (bucketCount <= 0 || bucketCapacity <= 0) {
+            throw new IllegalArgumentException("Bucket count and capacity must be positive");
+        }
+        if (directory.getCapacity() < directoryBytes(bucketCount, bucketCapacity)) {
+            throw new IllegalArgumentException("Directory storage holds fewer than " + bucketCount + " buckets");
+        }
+        this.records = records;
+        this.bucketCount = bucketCount;
+        this.bucketCapacity = bucketCapacity;
+        this.bucketBytes = (bucketCapacity + 1L) * Long.BYTES;
+        this.directory = directory;
+        this.overflow = overflow;
+    }
+    
+    /**
+     * Buckets needed for a target fill of the primary buckets (NB > NR / (FR * loadFactor)).
+     */
+    public static long bucketCount(long records, int bucketCapacity, double loadFactor) {
+        if (loadFactor <= 0) {
+            throw new IllegalArgumentException("Load factor must be positive");
+        }
+        return Math.max(1, (long) Math.ceil(records / (bucketCapacity * loadFactor)));
+    }
+    
+    public static long directoryBytes(long bucketCount, int bucketCapacity) {
+        return bucketCount * (bucketCapacity + 1L) * Long.BYTES;
+    }
+    
+    /**
+     * Overflow storage for the worst case, every entry past the primary buckets in full
+     * overflow buckets. Unused storage costs nothing until written.
+     */
+    public static long overflowBytes(long records, int bucketCapacity) {
+        return directoryBytes((records + bucketCapacity - 1) / bucketCapacity + 1, bucketCapacity);
+    }
+    
+    /**
+     * Adds an entry for the record holding the given UTF-8 key.
+     * 
+     * @throws IllegalStateException if the overflow storage is full
+     */
+    public void insert(byte[] key, int offset, int length, long recordId) {
+        if ((recordId & ~ID_MASK) != 0) {
+            throw new IllegalArgumentException("Not a record identifier: " + recordId);
+        }
+        long hash = hash64(key, offset, length);
+        long word = OCCUPIED | fingerprint(hash) << RecordId.ID_BITS | recordId;
+        
+        ChunkedBuffer area = directory;
+        long bucketOffset = Long.remainderUnsigned(hash, bucketCount) * bucketBytes;
+        while (true) {
+            for (int slot = 0; slot < bucketCapacity; slot++) {
+                long slotOffset = bucketOffset + (long) slot * Long.BYTES;
+                if (area.getLong(slotOffset) == 0) {
+                    area.putLong(slotOffset, word);
+                    entries++;
+                    return;
+                }
+            }
+            long linkOffset = bucketOffset + (long) bucketCapacity * Long.BYTES;
+            long link = area.getLong(linkOffset);
+            if (link == 0) {
+                link = allocateOverflowBucket() + 1;
+                area.putLong(linkOffset, link);
+            }
+            area = overflow;
+            bucketOffset = (link - 1) * bucketBytes;
+        }
+    }
+    
+    public void insert(String key, long recordId) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        insert(bytes, 0, bytes.length, recordId);
+    }
+    
+    /**
+     * Indexes every record in the store.
+     * 
+     * @return the number of records indexed
+     */
+    public long insertAll(LargePageStore store) {
+        long before = entries;
+        store.forEachRecord((recordId, key, length) -> insert(key, 0, length, recordId));
+        return entries - before;
+    }
+    
+    /**
+     * Looks up the record holding the given UTF-8 key.
+     * 
+     * @return its identifier, or -1 if no record holds the key
+     */
+    public long lookup(byte[] key, int offset, int length) {
+        long hash = hash64(key, offset, length);
+        long fingerprint = fingerprint(hash);
+        long accesses = 0;
+        long reads = 0;
+        long found = -1;
+        
+        ChunkedBuffer area = directory;
+        long bucketOffset = Long.remainderUnsigned(hash, bucketCount) * bucketBytes;
+        search:
+        while (true) {
+            accesses++;
+            for (int slot = 0; slot < bucketCapacity; slot++) {
+                long word = area.getLong(bucketOffset + (long) slot * Long.BYTES);
+                if (word == 0) {
+                    break search;
+                }
+                if ((word >>> RecordId.ID_BITS & FINGERPRINT_MASK) == fingerprint) {
+                    reads++;
+                    if (records.keyEquals(word & ID_MASK, key, offset, length)) {
+                        found = word & ID_MASK;
+                        break search;
+                    }
+                }
+            }
+            long link = area.getLong(bucketOffset + (long) bucketCapacity * Long.BYTES);
+            if (link == 0) {
+                break;
+            }
+            area = overflow;
+            bucketOffset = (link - 1) * bucketBytes;
+        }
+        
+        lookups.increment();
+        bucketAccesses.add(accesses);
+        pageReads.add(reads);
+        return found;
+    }
+    
+    public long lookup(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return lookup(bytes, 0, bytes.length);
+    }
+    
+    private long allocateOverflowBucket() {
+        if ((overflowBuckets + 1) * bucketBytes > overflow.getCapacity()) {
+            throw new IllegalStateException("Overflow storage full after " + overflowBuckets + " buckets");
+        }
+        return overflowBuckets++;
+    }
+    
+    private static long fingerprint(long hash) {
+        // The top bits, which the bucket number hardly depends on
+        return hash >>> 53;
+    }
+    
+    /**
+     * 64-bit FNV-1a with a final avalanche, so both the low bits (bucket) and the high bits
+     * (fingerprint) depend on every byte of the key.
+     */
+    static long hash64(byte[] key, int offset, int length) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= key[i] & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    public long getBucketCount() { return bucketCount; }
+    public int getBucketCapacity() { return bucketCapacity; }
+    public long getEntryCount() { return entries; }
+    public long getOverflowBucketCount() { return overflowBuckets; }
+    public long getLookups() { return lookups.sum(); }
+    public long getBucketAccesses() { return bucketAccesses.sum(); }
+    public long getPageReads() { return pageReads.sum(); }
+    
+    /**
+     * Entry slots in the primary buckets.
+     */
+    public long getSlotCount() {
+        return bucketCount * bucketCapacity;
+    }
+    
+    public double getOverflowRate() {
+        return overflowBuckets * 100.0 / bucketCount;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            directory.close();
+        } finally {
+            overflow.close();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.hashindex.large;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pages of fixed-width record slots in a {@link ChunkedBuffer}, addressed by {@link RecordId}.
+ * Each slot holds a length byte followed by the record's UTF-8 bytes; a zero length marks an
+ * empty slot. Slots are a power of two bytes wide so none straddles a chunk, and the pages of
+ * a memory-mapped store are read straight from the mapping.
+ */
+public class LargePageStore implements RecordSource, Closeable {
+    
+    private final ChunkedBuffer buffer;
+    private final int recordsPerPage;
+    private final int slotBytes;
+    private final long pageBytes;
+    private long pageCount;
+    private long records;
+    
+    /**
+     * @param buffer where the pages are stored
+     * @param recordsPerPage records per page, at most {@link RecordId#MAX_RECORDS_PER_PAGE}
+     * @param slotBytes bytes per record slot, a power of two from 2 to 256
+     */
+    public LargePageStore(ChunkedBuffer buffer, int recordsPerPage, int slotBytes) {
+        if (recordsPerPage <= 0 || recordsPerPage > RecordId.MAX_RECORDS_PER_PAGE) {
+            throw new IllegalArgumentException("Records per page must be 1 to " + RecordId.MAX_RECORDS_PER_PAGE);
+        }
+        if (slotBytes < 2 || slotBytes > 256 || Integer.bitCount(slotBytes) != 1) {
+            throw new IllegalArgumentException("Slot bytes must be a power of two from 2 to 256: " + slotBytes);
+        }
+        this.buffer = buffer;
+        this.recordsPerPage = recordsPerPage;
+        this.slotBytes = slotBytes;
+        this.pageBytes = (long) recordsPerPage * slotBytes;
+    }
+    
+    /**
+     * Bytes of storage needed for the given number of records.
+     */
+    public static long capacityFor(long records, int recordsPerPage, int slotBytes) {
+        long pages = (records + recordsPerPage - 1) / recordsPerPage;
+        return Math.max(1, pages) * recordsPerPage * slotBytes;
+    }
+    
+    /**
+     * Stores a record in the given slot, replacing what was there.
+     * 
+     * @throws IllegalArgumentException if the key does not fit a slot or the slot is outside the store
+     */
+    public void write(long recordId, byte[] key, int offset, int length) {
+        if (length <= 0 || length >= slotBytes) {
+            throw new IllegalArgumentException("Key of " + length + " bytes does not fit a " + slotBytes + "-byte slot");
+        }
+        long slotOffset = slotOffset(recordId);
+        if (slotOffset + slotBytes > buffer.getCapacity()) {
+            throw new IllegalArgumentException("Record " + RecordId.toString(recordId) + " is outside the store");
+        }
+        if (buffer.getByte(slotOffset) == 0) {
+            records++;
+        }
+        buffer.put(slotOffset + 1, key, offset, length);
+        buffer.putByte(slotOffset, (byte) length);
+        pageCount = Math.max(pageCount, RecordId.page(recordId) + 1);
+    }
+    
+    public void write(long recordId, String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        write(recordId, bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Reads a record, or returns null if its slot is empty.
+     */
+    public String readKey(long recordId) {
+        long slotOffset = slotOffset(recordId);
+        int length = lengthAt(slotOffset);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(slotOffset + 1, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public boolean keyEquals(long recordId, byte[] key, int offset, int length) {
+        long slotOffset = slotOffset(recordId);
+        if (lengthAt(slotOffset) != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.getByte(slotOffset + 1 + i) != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Visits every stored record in page order, passing its key in a scratch array that is
+     * reused between records.
+     */
+    public void forEachRecord(RecordVisitor visitor) {
+        byte[] scratch = new byte[slotBytes];
+        for (long page = 0; page < pageCount; page++) {
+            for (int slot = 0; slot < recordsPerPage; slot++) {
+                long recordId = RecordId.of(page, slot);
+                long slotOffset = slotOffset(recordId);
+                int length = lengthAt(slotOffset);
+                if (length > 0) {
+                    buffer.get(slotOffset + 1, scratch, 0, length);
+                    visitor.visit(recordId, scratch, length);
+                }
+            }
+        }
+    }
+    
+    private long slotOffset(long recordId) {
+        int slot = RecordId.slot(recordId);
+        if (slot >= recordsPerPage) {
+            throw new IllegalArgumentException("Slot " + slot + " beyond " + recordsPerPage + " records per page");
+        }
+        return RecordId.page(recordId) * pageBytes + (long) slot * slotBytes;
+    }
+    
+    private int lengthAt(long slotOffset) {
+        return slotOffset < buffer.getCapacity() ? buffer.getByte(slotOffset) & 0xFF : 0;
+    }
+    
+    public int getRecordsPerPage() { return recordsPerPage; }
+    public int getSlotBytes() { return slotBytes; }
+    public long getPageCount() { return pageCount; }
+    public long getRecordCount() { return records; }
+    public ChunkedBuffer getBuffer() { return buffer; }
+    
+    @Override
+    public void close() throws IOException {
+        buffer.close();
+    }
+    
+    /**
+     * Receives the records of {@link #forEachRecord}.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long recordId, byte[] key, int length);
+    }
+}
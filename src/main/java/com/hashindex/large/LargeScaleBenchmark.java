@@ -0,0 +1,146 @@
+package com.hashindex.large;
+
+import com.hashindex.util.CommandOptions;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Builds a large-scale index over synthetic records and measures build rate, lookup rate and
+ * accesses per lookup, reporting how little of it sits on the heap.
+ */
+public class LargeScaleBenchmark {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: large [options]",
+        "  --records N            synthetic records to store and index (default 10000000)",
+        "  --records-per-page N   records per page, at most 4096 (default 64)",
+        "  --bucket-capacity N    entries per bucket (default 4)",
+        "  --load-factor X        target fill of the primary buckets (default 1.0)",
+        "  --lookups N            lookups to time, half of them misses (default 1000000)",
+        "  --storage S            heap, direct or mapped (default mapped)",
+        "  --seed N               random seed (default 42)",
+        "  --dir PATH             directory for mapped files (default: a temporary directory)");
+    
+    private static final int SLOT_BYTES = 16;
+    
+    /**
+     * Timings and sizes of one run.
+     */
+    public record Result(
+        long records,
+        long bucketCount,
+        long overflowBuckets,
+        long loadNanos,
+        long buildNanos,
+        long lookups,
+        long lookupNanos,
+        long hits,
+        double bucketAccessesPerLookup,
+        double pageReadsPerLookup,
+        long storageBytes,
+        long heapUsedBytes
+    ) {
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "Records: %,d in %,d buckets (%,d overflow buckets)%n"
+                + "Load: %.2f s (%,.0f records/s), build: %.2f s (%,.0f records/s)%n"
+                + "Lookups: %,d, %,d found, %,.0f lookups/s, %.3f bucket accesses and %.3f page reads per lookup%n"
+                + "Storage written: %,d MB, heap used: %,d MB",
+                records, bucketCount, overflowBuckets,
+                loadNanos / 1e9, records / (loadNanos / 1e9), buildNanos / 1e9, records / (buildNanos / 1e9),
+                lookups, hits, lookups / (lookupNanos / 1e9), bucketAccessesPerLookup, pageReadsPerLookup,
+                storageBytes >> 20, heapUsedBytes >> 20);
+        }
+    }
+    
+    /**
+     * Stores the records, builds the index over them and times the lookups.
+     */
+    public static Result run(long records, int recordsPerPage, int bucketCapacity, double loadFactor, long lookups,
+                             ChunkedBuffer.Storage storage, Path directory, long seed) throws IOException {
+        SyntheticRecords generator = new SyntheticRecords(seed);
+        long bucketCount = LargeHashIndex.bucketCount(records, bucketCapacity, loadFactor);
+        try (LargePageStore store = new LargePageStore(
+                 ChunkedBuffer.create(storage, LargePageStore.capacityFor(records, recordsPerPage, SLOT_BYTES),
+                                      directory.resolve("pages.dat")), recordsPerPage, SLOT_BYTES);
+             LargeHashIndex index = new LargeHashIndex(store, bucketCount, bucketCapacity,
+                 ChunkedBuffer.create(storage, LargeHashIndex.directoryBytes(bucketCount, bucketCapacity),
+                                      directory.resolve("directory.dat")),
+                 ChunkedBuffer.create(storage, LargeHashIndex.overflowBytes(records, bucketCapacity),
+                                      directory.resolve("overflow.dat")))) {
+            
+            long start = System.nanoTime();
+            generator.fill(store, 0, records);
+            long loadNanos = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            index.insertAll(store);
+            long buildNanos = System.nanoTime() - start;
+            
+            SplittableRandom random = new SplittableRandom(seed);
+            byte[] key = new byte[SyntheticRecords.MAX_KEY_BYTES];
+            long hits = 0;
+            start = System.nanoTime();
+            for (long i = 0; i < lookups; i++) {
+                // Even lookups hit a stored record, odd ones ask for a record past the last
+                long ordinal = (i & 1) == 0 ? random.nextLong(records) : records + random.nextLong(records);
+                long recordId = RecordId.ofOrdinal(ordinal, recordsPerPage);
+                if (index.lookup(key, 0, generator.encodeKey(recordId, key)) == recordId) {
+                    hits++;
+                }
+            }
+            long lookupNanos = System.nanoTime() - start;
+            
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            long storageBytes = store.getBuffer().getAllocatedBytes() + LargeHashIndex.directoryBytes(bucketCount, bucketCapacity)
+                + index.getOverflowBucketCount() * (bucketCapacity + 1L) * Long.BYTES;
+            return new Result(records, bucketCount, index.getOverflowBucketCount(), loadNanos, buildNanos,
+                              lookups, lookupNanos, hits,
+                              (double) index.getBucketAccesses() / Math.max(1, index.getLookups()),
+                              (double) index.getPageReads() / Math.max(1, index.getLookups()),
+                              storageBytes, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, LargeScaleBenchmark::run);
+    }
+    
+    /**
+     * Reads the options, runs the benchmark and prints the result.
+     */
+    public static void run(CommandOptions options) throws IOException {
+        long records = options.getLong("records", 10_000_000);
+        int recordsPerPage = options.getInt("records-per-page", 64);
+        int bucketCapacity = options.getInt("bucket-capacity", 4);
+        double loadFactor = options.getDouble("load-factor", 1.0);
+        long lookups = options.getLong("lookups", 1_000_000);
+        ChunkedBuffer.Storage storage = options.getEnum("storage", ChunkedBuffer.Storage.class, ChunkedBuffer.Storage.MAPPED);
+        long seed = options.getLong("seed", 42);
+        Path directory = options.getPath("dir", null);
+        
+        if (records <= 0 || lookups < 0) {
+            throw new IllegalArgumentException("Records must be positive and lookups not negative");
+        }
+        
+        Path root = directory != null ? Files.createDirectories(directory) : Files.createTempDirectory("hash-index-large");
+        try {
+            System.out.println(run(records, recordsPerPage, bucketCapacity, loadFactor, lookups, storage, root, seed));
+        } finally {
+            if (directory == null) {
+                for (String file : new String[] {"pages.dat", "directory.dat", "overflow.dat"}) {
+                    Files.deleteIfExists(root.resolve(file));
+                }
+                Files.deleteIfExists(root);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hashindex.large;
+
+/**
+ * 64-bit record identifiers for the large-scale index: a page number in the high bits and a
+ * slot within the page in the low {@value #SLOT_BITS} bits. Identifiers use the low
+ * {@value #ID_BITS} bits, leaving room in an index word for an occupancy flag and a key
+ * fingerprint, and address 2^40 pages of up to 4,096 records.
+ */
+public final class RecordId {
+    
+    public static final int SLOT_BITS = 12;
+    public static final int ID_BITS = 52;
+    public static final int MAX_RECORDS_PER_PAGE = 1 << SLOT_BITS;
+    public static final long MAX_PAGE = (1L << (ID_BITS - SLOT_BITS)) - 1;
+    
+    private RecordId() {
+    }
+    
+    public static long of(long page, int slot) {
+        if (page < 0 || page > MAX_PAGE) {
+            throw new IllegalArgumentException("Page out of range: " + page);
+        }
+        if (slot < 0 || slot >= MAX_RECORDS_PER_PAGE) {
+            throw new IllegalArgumentException("Slot out of range: " + slot);
+        }
+        return page << SLOT_BITS | slot;
+    }
+    
+    /**
+     * The identifier of the record at the given position when every page holds
+     * {@code recordsPerPage} records.
+     */
+    public static long ofOrdinal(long ordinal, int recordsPerPage) {
+        return of(ordinal / recordsPerPage, (int) (ordinal % recordsPerPage));
+    }
+    
+    public static long page(long recordId) {
+        return recordId >>> SLOT_BITS;
+    }
+    
+    public static int slot(long recordId) {
+        return (int) (recordId & (MAX_RECORDS_PER_PAGE - 1));
+    }
+    
+    public static String toString(long recordId) {
+        return page(recordId) + ":" + slot(recordId);
+    }
+}
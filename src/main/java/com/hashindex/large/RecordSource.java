@@ -0,0 +1,13 @@
+package com.hashindex.large;
+
+/**
+ * Where the large-scale index reads records to confirm a candidate entry, like the page read
+ * that confirms a lookup in the regular index.
+ */
+public interface RecordSource {
+    
+    /**
+     * Whether the record holds the given UTF-8 key.
+     */
+    boolean keyEquals(long recordId, byte[] key, int offset, int length);
+}
@@ -0,0 +1,80 @@
+package com.hashindex.large;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generates unique keys for any number of records without storing them: the key of a record
+ * is derived from its identifier by a reversible mix, written in base 36. Keys are at most
+ * {@value #MAX_KEY_BYTES} ASCII bytes, so they fit 16-byte page slots.
+ */
+public final class SyntheticRecords implements RecordSource {
+    
+    public static final int MAX_KEY_BYTES = 14;
+    private static final byte[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+    
+    private final long seed;
+    
+    public SyntheticRecords(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Writes the key of a record into {@code target}, which holds at least
+     * {@value #MAX_KEY_BYTES} bytes.
+     * 
+     * @return the key length
+     */
+    public int encodeKey(long recordId, byte[] target) {
+        // The SplitMix64 finalizer is a bijection, so distinct identifiers get distinct keys
+        long z = recordId ^ seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        
+        int length = 1;
+        long value = z;
+        while (Long.compareUnsigned(value, 36) >= 0) {
+            value = Long.divideUnsigned(value, 36);
+            length++;
+        }
+        target[0] = 'k';
+        for (int i = length; i > 0; i--) {
+            target[i] = DIGITS[(int) Long.remainderUnsigned(z, 36)];
+            z = Long.divideUnsigned(z, 36);
+        }
+        return length + 1;
+    }
+    
+    public String key(long recordId) {
+        byte[] bytes = new byte[MAX_KEY_BYTES];
+        int length = encodeKey(recordId, bytes);
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * Stores {@code count} records from position {@code firstOrdinal} on into the store, in
+     * page order.
+     */
+    public void fill(LargePageStore store, long firstOrdinal, long count) {
+        byte[] scratch = new byte[MAX_KEY_BYTES];
+        for (long ordinal = firstOrdinal; ordinal < firstOrdinal + count; ordinal++) {
+            long recordId = RecordId.ofOrdinal(ordinal, store.getRecordsPerPage());
+            store.write(recordId, scratch, 0, encodeKey(recordId, scratch));
+        }
+    }
+    
+    @Override
+    public boolean keyEquals(long recordId, byte[] key, int offset, int length) {
+        byte[] expected = new byte[MAX_KEY_BYTES];
+        int expectedLength = encodeKey(recordId, expected);
+        if (expectedLength != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (expected[i] != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.hashindex.loadtest;
+
+/**
+ * Distribution used to pick which existing key a lookup targets.
+ */
+public enum KeyDistribution {
+    /** Every key is equally likely. */
+    UNIFORM,
+    /** Key popularity follows a Zipf law (rank r is picked with probability ~ 1/r^theta). */
+    ZIPFIAN,
+    /** A fixed fraction of the keys receives a fixed fraction of the operations. */
+    HOTSPOT
+}
@@ -0,0 +1,13 @@
+package com.hashindex.loadtest;
+
+/**
+ * Distribution of generated key lengths between the configured minimum and maximum.
+ */
+public enum KeyLengthDistribution {
+    /** Every key has the minimum length. */
+    FIXED,
+    /** Lengths are uniform between minimum and maximum. */
+    UNIFORM,
+    /** Lengths are normally distributed around the midpoint and clamped to the range. */
+    NORMAL
+}
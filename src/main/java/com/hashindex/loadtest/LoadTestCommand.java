@@ -0,0 +1,87 @@
+package com.hashindex.loadtest;
+
+import com.hashindex.cache.CachePolicy;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+import com.hashindex.util.CommandOptions;
+
+import java.util.Locale;
+
+/**
+ * Command-line entry point for synthetic load tests.
+ */
+public class LoadTestCommand {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: loadtest [options]",
+        "  --records N            dataset size (default 100000)",
+        "  --length-dist D        FIXED | UNIFORM | NORMAL (default UNIFORM)",
+        "  --min-length N         minimum key length (default 4)",
+        "  --max-length N         maximum key length (default 12)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --hash H               SIMPLE_MODULO | DJB2 | FNV1A (default DJB2)",
+"  --cache N              lookup cache capacity, 0 = off (default 0)",
+        "  --cache-policy P       LRU | TINY_LFU (default TINY_LFU)",
+        "  --distribution D       UNIFORM | ZIPFIAN | HOTSPOT (default UNIFORM)",
+        "  --zipf-theta X         Zipf skew in (0,1) (default 0.99)",
+        "  --hot-keys X           hotspot key fraction (default 0.2)",
+        "  --hot-ops X            hotspot operation fraction (default 0.8)",
+        "  --hit-ratio X          fraction of lookups for existing keys (default 1.0)",
+        "  --insert-ratio X       fraction of operations that insert (default 0.0)",
+        "  --threads N            worker threads (default 1)",
+        "  --duration-ms N        run duration (default 10000)",
+        "  --operations N         total operations; overrides duration",
+        "  --seed N               random seed (default 42)",
+        "  --format F             text | csv | json (default text)");
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, LoadTestCommand::run);
+    }
+    
+    /**
+     * Runs the load test with the given options and prints the report to standard output.
+     */
+    public static void run(CommandOptions options) throws InterruptedException {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setRecordCount(options.getInt("records", config.getRecordCount()));
+        config.setKeyLengthDistribution(options.getEnum("length-dist", KeyLengthDistribution.class,
+                                                        config.getKeyLengthDistribution()));
+        config.setMinKeyLength(options.getInt("min-length", config.getMinKeyLength()));
+        config.setMaxKeyLength(options.getInt("max-length", config.getMaxKeyLength()));
+        config.setPageSize(options.getInt("page-size", config.getPageSize()));
+        config.setBucketCapacity(options.getInt("bucket-capacity", config.getBucketCapacity()));
+        config.setHashFunctionType(options.getEnum("hash", HashFunctionFactory.HashFunctionType.class,
+                                                   config.getHashFunctionType()));
+        config.setCacheCapacity(options.getInt("cache", config.getCacheCapacity()));
+        config.setCachePolicy(options.getEnum("cache-policy", CachePolicy.Type.class, config.getCachePolicy()));
+        config.setKeyDistribution(options.getEnum("distribution", KeyDistribution.class, config.getKeyDistribution()));
+        config.setZipfTheta(options.getDouble("zipf-theta", config.getZipfTheta()));
+        config.setHotKeyFraction(options.getDouble("hot-keys", config.getHotKeyFraction()));
+        config.setHotOperationFraction(options.getDouble("hot-ops", config.getHotOperationFraction()));
+        config.setHitRatio(options.getDouble("hit-ratio", config.getHitRatio()));
+        config.setInsertRatio(options.getDouble("insert-ratio", config.getInsertRatio()));
+        config.setThreads(options.getInt("threads", config.getThreads()));
+        config.setDurationMillis(options.getLong("duration-ms", config.getDurationMillis()));
+        config.setOperationCount(options.getLong("operations", config.getOperationCount()));
+        config.setSeed(options.getLong("seed", config.getSeed()));
+        String format = options.getString("format", "text").toLowerCase(Locale.ROOT);
+        
+        config.validate();
+        LoadTestReport report = new LoadTestRunner(new HashIndexService()).run(config);
+        
+        switch (format) {
+            case "csv":
+                System.out.print(report.toCsv());
+                break;
+            case "json":
+                System.out.println(report.toJson());
+                break;
+            case "text":
+                System.out.print(report.toText());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.hashindex.loadtest;
+
+import com.hashindex.cache.CachePolicy;
+import com.hashindex.service.HashFunctionFactory;
+
+/**
+ * Settings for a synthetic load test. Every field has a usable default.
+ */
+public class LoadTestConfig {
+    
+    // Dataset
+    private int recordCount = 100_000;
+    private KeyLengthDistribution keyLengthDistribution = KeyLengthDistribution.UNIFORM;
+    private int minKeyLength = 4;
+    private int maxKeyLength = 12;
+    private long seed = 42L;
+    
+    // Index
+    private int pageSize = 100;
+    private int bucketCapacity = 5;
+    private HashFunctionFactory.HashFunctionType hashFunctionType = HashFunctionFactory.HashFunctionType.DJB2;
+    private int cacheCapacity = 0; // 0 = no lookup cache
+    private CachePolicy.Type cachePolicy = CachePolicy.Type.TINY_LFU;
+    
+    // Workload
+    private KeyDistribution keyDistribution = KeyDistribution.UNIFORM;
+    private double zipfTheta = 0.99;
+    private double hotKeyFraction = 0.2;
+    private double hotOperationFraction = 0.8;
+    private double hitRatio = 1.0;
+    private double insertRatio = 0.0;
+    
+    // Run
+    private int threads = 1;
+    private long durationMillis = 10_000;
+    private long operationCount = 0; // 0 = run for durationMillis
+    
+    /**
+     * Validates the configuration.
+     * 
+     * @throws IllegalArgumentException if any setting is out of range
+     */
+    public void validate() {
+        requireRange("hitRatio", hitRatio);
+        requireRange("insertRatio", insertRatio);
+        requireRange("hotKeyFraction", hotKeyFraction);
+        requireRange("hotOperationFraction", hotOperationFraction);
+        if (recordCount <= 0) throw new IllegalArgumentException("recordCount must be positive");
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive");
+        if (bucketCapacity <= 0) throw new IllegalArgumentException("bucketCapacity must be positive");
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+        if (operationCount <= 0 && durationMillis <= 0) {
+            throw new IllegalArgumentException("Either operationCount or durationMillis must be positive");
+        }
+    }
+    
+    private static void requireRange(String name, double value) {
+        if (value < 0.0 || value > 1.0) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1: " + value);
+        }
+    }
+    
+    public int getRecordCount() { return recordCount; }
+    public void setRecordCount(int recordCount) { this.recordCount = recordCount; }
+    
+    public KeyLengthDistribution getKeyLengthDistribution() { return keyLengthDistribution; }
+    public void setKeyLengthDistribution(KeyLengthDistribution keyLengthDistribution) { this.keyLengthDistribution = keyLengthDistribution; }
+    
+    public int getMinKeyLength() { return minKeyLength; }
+    public void setMinKeyLength(int minKeyLength) { this.minKeyLength = minKeyLength; }
+    
+    public int getMaxKeyLength() { return maxKeyLength; }
+    public void setMaxKeyLength(int maxKeyLength) { this.maxKeyLength = maxKeyLength; }
+    
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+    
+    public int getBucketCapacity() { return bucketCapacity; }
+    public void setBucketCapacity(int bucketCapacity) { this.bucketCapacity = bucketCapacity; }
+    
+    public HashFunctionFactory.HashFunctionType getHashFunctionType() { return hashFunctionType; }
+    public void setHashFunctionType(HashFunctionFactory.HashFunctionType hashFunctionType) { this.hashFunctionType = hashFunctionType; }
+    
+    public int getCacheCapacity() { return cacheCapacity; }
+    public void setCacheCapacity(int cacheCapacity) { this.cacheCapacity = cacheCapacity; }
+    
+    public CachePolicy.Type getCachePolicy() { return cachePolicy; }
+    public void setCachePolicy(CachePolicy.Type cachePolicy) { this.cachePolicy = cachePolicy; }
+    
+    public KeyDistribution getKeyDistribution() { return keyDistribution; }
+    public void setKeyDistribution(KeyDistribution keyDistribution) { this.keyDistribution = keyDistribution; }
+    
+    public double getZipfTheta() { return zipfTheta; }
+    public void setZipfTheta(double zipfTheta) { this.zipfTheta = zipfTheta; }
+    
+    public double getHotKeyFraction() { return hotKeyFraction; }
+    public void setHotKeyFraction(double hotKeyFraction) { this.hotKeyFraction = hotKeyFraction; }
+    
+    public double getHotOperationFraction() { return hotOperationFraction; }
+    public void setHotOperationFraction(double hotOperationFraction) { this.hotOperationFraction = hotOperationFraction; }
+    
+    public double getHitRatio() { return hitRatio; }
+    public void setHitRatio(double hitRatio) { this.hitRatio = hitRatio; }
+    
+    public double getInsertRatio() { return insertRatio; }
+    public void setInsertRatio(double insertRatio) { this.insertRatio = insertRatio; }
+    
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+    
+    public long getOperationCount() { return operationCount; }
+    public void setOperationCount(long operationCount) { this.operationCount = operationCount; }
+}
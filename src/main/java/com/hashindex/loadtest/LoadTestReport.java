@@ -0,0 +1,135 @@
+package com.hashindex.loadtest;
+
+import com.hashindex.metrics.LatencySnapshot;
+
+import java.util.Locale;
+
+/**
+ * Results of a load test run, printable as text, CSV or JSON.
+ */
+public record LoadTestReport(
+    int threads,
+    KeyDistribution keyDistribution,
+    String hashFunction,
+    long totalRecords,
+    int totalBuckets,
+    long buildNanos,
+    long elapsedNanos,
+    long lookups,
+    long hits,
+    long inserts,
+    long bucketAccesses,
+    long pageAccesses,
+    LatencySnapshot lookupLatency,
+    LatencySnapshot insertLatency,
+    long collisions,
+    double collisionRate,
+    long overflows,
+    double overflowRate,
+    double cacheHitRate
+) {
+    
+    private static final String[] COLUMNS = {
+        "threads", "distribution", "hash_function", "records", "buckets", "build_ms", "elapsed_ms",
+        "operations", "ops_per_sec", "lookups", "hits", "hit_ratio", "inserts",
+        "bucket_accesses_per_lookup", "page_accesses_per_lookup",
+        "lookup_p50_us", "lookup_p90_us", "lookup_p99_us", "lookup_p999_us", "lookup_max_us",
+        "insert_p50_us", "insert_p99_us", "insert_max_us",
+        "collisions", "collision_rate_pct", "overflows", "overflow_rate_pct", "cache_hit_rate_pct"
+    };
+    
+    public long operations() {
+        return lookups + inserts;
+    }
+    
+    public double throughput() {
+        if (elapsedNanos == 0) return 0.0;
+        return operations() * 1_000_000_000.0 / elapsedNanos;
+    }
+    
+    public double hitRatio() {
+        if (lookups == 0) return 0.0;
+        return (double) hits / lookups;
+    }
+    
+    public double bucketAccessesPerLookup() {
+        if (lookups == 0) return 0.0;
+        return (double) bucketAccesses / lookups;
+    }
+    
+    public double pageAccessesPerLookup() {
+        if (lookups == 0) return 0.0;
+        return (double) pageAccesses / lookups;
+    }
+    
+    private Object[] values() {
+        return new Object[] {
+            threads, keyDistribution, hashFunction, totalRecords, totalBuckets,
+            buildNanos / 1_000_000.0, elapsedNanos / 1_000_000.0,
+            operations(), throughput(), lookups, hits, hitRatio(), inserts,
+            bucketAccessesPerLookup(), pageAccessesPerLookup(),
+            lookupLatency.p50Micros(), lookupLatency.p90Micros(), lookupLatency.p99Micros(),
+            lookupLatency.p999Micros(), lookupLatency.maxMicros(),
+            insertLatency.p50Micros(), insertLatency.p99Micros(), insertLatency.maxMicros(),
+            collisions, collisionRate, overflows, overflowRate, cacheHitRate
+        };
+    }
+    
+    public String toText() {
+        return "=== Load Test Report ===\n" +
+               String.format("Threads: %d, distribution: %s, hash function: %s%n", threads, keyDistribution, hashFunction) +
+               String.format("Records: %,d, buckets: %,d, build: %.1f ms%n", totalRecords, totalBuckets, buildNanos / 1_000_000.0) +
+               String.format("Operations: %,d in %.1f ms (%,.0f ops/s)%n", operations(), elapsedNanos / 1_000_000.0, throughput()) +
+               String.format("Lookups: %,d (hit ratio %.2f%%), inserts: %,d%n", lookups, hitRatio() * 100, inserts) +
+               String.format("Accesses per lookup: %.3f bucket, %.3f page%n", bucketAccessesPerLookup(), pageAccessesPerLookup()) +
+               lookupLatency + "\n" +
+               insertLatency + "\n" +
+               String.format("Collisions: %,d (%.2f%%), overflows: %,d (%.2f%%)%n", collisions, collisionRate, overflows, overflowRate) +
+               String.format("Cache hit rate: %.2f%%%n", cacheHitRate);
+    }
+    
+    public static String csvHeader() {
+        return String.join(",", COLUMNS);
+    }
+    
+    public String toCsvRow() {
+        StringBuilder sb = new StringBuilder();
+        Object[] values = values();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(format(values[i]));
+        }
+        return sb.toString();
+    }
+    
+    public String toCsv() {
+        return csvHeader() + "\n" + toCsvRow() + "\n";
+    }
+    
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        Object[] values = values();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(COLUMNS[i]).append("\":");
+            if (values[i] instanceof Number) {
+                sb.append(format(values[i]));
+            } else {
+                sb.append('"').append(values[i]).append('"');
+            }
+        }
+        return sb.append('}').toString();
+    }
+    
+    private static String format(Object value) {
+        if (value instanceof Double) {
+            return String.format(Locale.ROOT, "%.3f", (Double) value);
+        }
+        return String.valueOf(value);
+    }
+    
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,246 @@
+package com.hashindex.loadtest;
+
+import com.hashindex.metrics.LatencyHistogram;
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link HashIndexService} with a synthetic lookup/insert mix across several threads
+ * and summarizes throughput, latency percentiles, accesses and index quality.
+ */
+public class LoadTestRunner {
+    
+    private static final int MISS_KEY_POOL_SIZE = 1 << 16;
+    
+    private final HashIndexService service;
+    
+    public LoadTestRunner(HashIndexService service) {
+        this.service = service;
+    }
+    
+    /**
+     * Generates a dataset from the configuration, loads and indexes it, then runs the workload.
+     */
+    public LoadTestReport run(LoadTestConfig config) throws InterruptedException {
+        config.validate();
+        List<String> dataset = WorkloadGenerator.generateDataset(
+            config.getRecordCount(), config.getKeyLengthDistribution(),
+            config.getMinKeyLength(), config.getMaxKeyLength(), config.getSeed());
+        return run(config, dataset);
+    }
+    
+    /**
+     * Loads and indexes the given dataset, then runs the workload against it.
+     */
+    public LoadTestReport run(LoadTestConfig config, List<String> dataset) throws InterruptedException {
+        config.validate();
+        if (config.getCacheCapacity() > 0) {
+            service.enableLookupCache(config.getCacheCapacity(), config.getCachePolicy());
+        } else {
+            service.disableLookupCache();
+        }
+        service.loadData(dataset, config.getPageSize());
+        
+        long buildStart = System.nanoTime();
+        service.constructIndex(HashFunctionFactory.createHashFunction(config.getHashFunctionType()),
+                               config.getBucketCapacity());
+        long buildNanos = System.nanoTime() - buildStart;
+        
+        return runWorkload(config, List.copyOf(dataset), buildNanos);
+    }
+    
+    /**
+     * Runs the workload against the data and index already in the service, drawing hit keys
+     * from {@code keys}; the dataset and index settings of the configuration are ignored.
+     * Interrupting the calling thread stops the workers early.
+     */
+    public LoadTestReport runWorkload(LoadTestConfig config, List<String> keys) throws InterruptedException {
+        config.validate();
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("No keys to look up");
+        }
+        return runWorkload(config, List.copyOf(keys), 0);
+    }
+    
+    private LoadTestReport runWorkload(LoadTestConfig config, List<String> dataset, long buildNanos)
+            throws InterruptedException {
+        LatencyHistogram lookupLatency = new LatencyHistogram("Lookup");
+        LatencyHistogram insertLatency = new LatencyHistogram("Insert");
+        WorkloadGenerator.KeySelector selector =
+            WorkloadGenerator.createSelector(config.getKeyDistribution(), dataset.size(), config);
+        String[] missKeys = createMissKeys(Math.min(dataset.size(), MISS_KEY_POOL_SIZE));
+        
+        int threads = config.getThreads();
+        long operationCount = config.getOperationCount();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<WorkerTotals>> futures = new ArrayList<>(threads);
+        long[] deadline = new long[1];
+        
+        for (int t = 0; t < threads; t++) {
+            final int threadId = t;
+            // The first operationCount % threads workers take one operation more
+            long operations = operationCount > 0
+                ? operationCount / threads + (t < operationCount % threads ? 1 : 0)
+                : Long.MAX_VALUE;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return runWorker(threadId, config, dataset, missKeys, selector, operations,
+                                 deadline[0], lookupLatency, insertLatency);
+            }));
+        }
+        
+        long start = System.nanoTime();
+        deadline[0] = operationCount > 0
+            ? Long.MAX_VALUE
+            : start + config.getDurationMillis() * 1_000_000L;
+        startGate.countDown();
+        
+        WorkerTotals totals = new WorkerTotals();
+        try {
+            for (Future<WorkerTotals> future : futures) {
+                totals.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load test worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            awaitWorkers(executor);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        
+        IndexStatistics statistics = service.getStatistics();
+        return new LoadTestReport(
+            config.getThreads(),
+            config.getKeyDistribution(),
+            service.getHashFunction().getName(),
+            statistics.getTotalRecords(),
+            statistics.getTotalBuckets(),
+            buildNanos,
+            elapsedNanos,
+            totals.lookups,
+            totals.hits,
+            totals.inserts,
+            totals.bucketAccesses,
+            totals.pageAccesses,
+            lookupLatency.snapshot(),
+            insertLatency.snapshot(),
+            statistics.getCollisions(),
+            statistics.getCollisionRate(),
+            statistics.getOverflows(),
+            statistics.getOverflowRate(),
+            statistics.getCacheHitRate()
+        );
+    }
+    
+    /**
+     * Waits for the workers to stop, even if this thread was interrupted, so a cancelled run
+     * leaves nothing looking up keys once it returns.
+     */
+    private static void awaitWorkers(ExecutorService executor) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (!executor.isTerminated()) {
+                try {
+                    executor.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private WorkerTotals runWorker(int threadId, LoadTestConfig config, List<String> dataset, String[] missKeys,
+                                   WorkloadGenerator.KeySelector selector, long operations, long deadline,
+                                   LatencyHistogram lookupLatency, LatencyHistogram insertLatency) {
+        SplittableRandom random = new SplittableRandom(config.getSeed() * 31 + threadId);
+        WorkerTotals totals = new WorkerTotals();
+        boolean timed = config.getOperationCount() <= 0;
+        long insertSequence = 0;
+        
+        for (long op = 0; op < operations; op++) {
+            // Checking the clock and for cancellation every 64 operations keeps them off the measured path
+            if ((op & 63) == 0
+                    && (Thread.currentThread().isInterrupted() || timed && System.nanoTime() >= deadline)) {
+                break;
+            }
+            
+            if (config.getInsertRatio() > 0 && random.nextDouble() < config.getInsertRatio()) {
+                String key = "ins-" + threadId + "-" + insertSequence++;
+                long startTime = System.nanoTime();
+                service.insertRecord(key);
+                insertLatency.record(System.nanoTime() - startTime);
+                totals.inserts++;
+                continue;
+            }
+            
+            String key = random.nextDouble() < config.getHitRatio()
+                ? dataset.get(selector.next(random))
+                : missKeys[random.nextInt(missKeys.length)];
+            
+            long startTime = System.nanoTime();
+            SearchResult result = service.searchWithIndex(key);
+            lookupLatency.record(System.nanoTime() - startTime);
+            
+            totals.lookups++;
+            if (result.accessCount() == 0) {
+                // Answered by the lookup cache
+            } else if (result.pageNumber() != -1) {
+                // One page read on top of the bucket accesses
+                totals.bucketAccesses += result.accessCount() - 1;
+                totals.pageAccesses++;
+            } else {
+                totals.bucketAccesses += result.accessCount();
+            }
+            if (result.found()) {
+                totals.hits++;
+            }
+        }
+        
+        return totals;
+    }
+    
+    private static String[] createMissKeys(int count) {
+        String[] keys = new String[Math.max(1, count)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = WorkloadGenerator.MISS_PREFIX + i;
+        }
+        return keys;
+    }
+    
+    /**
+     * Per-thread operation counters, merged once the run completes.
+     */
+    private static final class WorkerTotals {
+        long lookups;
+        long hits;
+        long inserts;
+        long bucketAccesses;
+        long pageAccesses;
+        
+        void add(WorkerTotals other) {
+            lookups += other.lookups;
+            hits += other.hits;
+            inserts += other.inserts;
+            bucketAccesses += other.bucketAccesses;
+            pageAccesses += other.pageAccesses;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.hashindex.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic datasets and key selectors for load tests.
+ */
+public class WorkloadGenerator {
+    
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+    
+    /**
+     * Prefix of keys that are guaranteed to be absent from generated datasets,
+     * since generated records only use lowercase letters.
+     */
+    public static final String MISS_PREFIX = "#miss-";
+    
+    private WorkloadGenerator() {
+    }
+    
+    /**
+     * Generates a dataset of distinct lowercase keys.
+     * 
+     * @param size number of keys
+     * @param lengthDistribution distribution of key lengths
+     * @param minLength minimum key length
+     * @param maxLength maximum key length
+     * @param seed random seed, for reproducible datasets
+     * @return the generated keys, in random order
+     */
+    public static List<String> generateDataset(int size, KeyLengthDistribution lengthDistribution,
+                                               int minLength, int maxLength, long seed) {
+        if (minLength <= 0 || maxLength < minLength) {
+            throw new IllegalArgumentException("Invalid key length range: " + minLength + ".." + maxLength);
+        }
+        
+        SplittableRandom random = new SplittableRandom(seed);
+        Set<String> seen = new HashSet<>(size * 2);
+        List<String> keys = new ArrayList<>(size);
+        int attempts = 0;
+        
+        while (keys.size() < size) {
+            int length = nextLength(random, lengthDistribution, minLength, maxLength);
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            String key = new String(chars);
+            if (seen.add(key)) {
+                keys.add(key);
+            } else if (++attempts > size * 10) {
+                throw new IllegalArgumentException("Key length range too narrow for " + size + " distinct keys");
+            }
+        }
+        
+        return keys;
+    }
+    
+    private static int nextLength(SplittableRandom random, KeyLengthDistribution distribution,
+                                  int minLength, int maxLength) {
+        switch (distribution) {
+            case FIXED:
+                return minLength;
+            case UNIFORM:
+                return minLength + random.nextInt(maxLength - minLength + 1);
+            case NORMAL:
+                double mean = (minLength + maxLength) / 2.0;
+                double stddev = Math.max(1.0, (maxLength - minLength) / 6.0);
+                long length = Math.round(mean + nextGaussian(random) * stddev);
+                return (int) Math.max(minLength, Math.min(maxLength, length));
+            default:
+                throw new IllegalArgumentException("Unknown key length distribution: " + distribution);
+        }
+    }
+    
+    private static double nextGaussian(SplittableRandom random) {
+        // Box-Muller transform
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+    
+    /**
+     * Creates a selector of key indexes in {@code [0, keyCount)} following the given distribution.
+     * Selectors are immutable and can be shared; randomness comes from the caller's generator.
+     */
+    public static KeySelector createSelector(KeyDistribution distribution, int keyCount, LoadTestConfig config) {
+        switch (distribution) {
+            case UNIFORM:
+                return random -> random.nextInt(keyCount);
+            case ZIPFIAN:
+                return new ZipfianSelector(keyCount, config.getZipfTheta());
+            case HOTSPOT:
+                return new HotspotSelector(keyCount, config.getHotKeyFraction(), config.getHotOperationFraction());
+            default:
+                throw new IllegalArgumentException("Unknown key distribution: " + distribution);
+        }
+    }
+    
+    /**
+     * Picks the index of the key an operation targets.
+     */
+    @FunctionalInterface
+    public interface KeySelector {
+        int next(SplittableRandom random);
+    }
+    
+    /**
+     * Zipfian selector using the rejection-free method of Gray et al. (as in YCSB).
+     */
+    static final class ZipfianSelector implements KeySelector {
+        private final int items;
+        private final double theta;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+        
+        ZipfianSelector(int items, double theta) {
+            if (theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("Zipf theta must be in (0, 1): " + theta);
+            }
+            this.items = items;
+            this.theta = theta;
+            this.zetaN = zeta(items, theta);
+            double zeta2 = zeta(2, theta);
+            this.alpha = 1.0 / (1.0 - theta);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+        }
+        
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1.0 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+        
+        @Override
+        public int next(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, theta)) {
+                return Math.min(1, items - 1);
+            }
+            int index = (int) (items * Math.pow(eta * u - eta + 1, alpha));
+            return Math.min(index, items - 1);
+        }
+    }
+    
+    /**
+     * Sends a fraction of the operations to the first {@code hotKeyFraction} of the keys.
+     */
+    static final class HotspotSelector implements KeySelector {
+        private final int keyCount;
+        private final int hotKeys;
+        private final double hotOperationFraction;
+        
+        HotspotSelector(int keyCount, double hotKeyFraction, double hotOperationFraction) {
+            this.keyCount = keyCount;
+            this.hotKeys = Math.max(1, (int) (keyCount * hotKeyFraction));
+            this.hotOperationFraction = hotOperationFraction;
+        }
+        
+        @Override
+        public int next(SplittableRandom random) {
+            if (hotKeys >= keyCount || random.nextDouble() < hotOperationFraction) {
+                return random.nextInt(hotKeys);
+            }
+            return hotKeys + random.nextInt(keyCount - hotKeys);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hashindex.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory, log-bucketed latency histogram in the style of HdrHistogram.
+ * <p>
+ * Values below {@code 2^SUB_BUCKET_BITS} nanoseconds are counted exactly; larger values fall
+ * into one of {@code 2^SUB_BUCKET_BITS} linear sub-buckets per power of two, which bounds the
+ * relative error of every reported value to below 1%. Recording is a handful of atomic
+ * increments on a preallocated array and is safe under concurrent callers. The count and total
+ * are striped {@link LongAdder}s, so threads recording at once do not all contend on the same
+ * two words; a LongAdder allocates its cells the first time such contention occurs.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    
+    /** Highest trackable value, one hour; larger values are clamped. */
+    public static final long MAX_TRACKABLE_NANOS = 3_600_000_000_000L;
+    
+    private static final int BUCKET_COUNT = indexFor(MAX_TRACKABLE_NANOS) + 1;
+    
+    private final String name;
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+    
+    // Cumulative counts at the last interval snapshot; only touched by reporting threads
+    private final long[] intervalBaseline;
+    private long intervalBaselineNanos;
+    
+    public LatencyHistogram(String name) {
+        this.name = name;
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new AtomicLong();
+        this.intervalBaseline = new long[BUCKET_COUNT];
+    }
+    
+    /**
+     * Records a single latency value.
+     * 
+     * @param nanos the latency in nanoseconds (negative values are recorded as zero)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE_NANOS));
+        counts.incrementAndGet(indexFor(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        long currentMax = maxNanos.get();
+        while (value > currentMax && !maxNanos.compareAndSet(currentMax, value)) {
+            currentMax = maxNanos.get();
+        }
+    }
+    
+    /**
+     * Returns a snapshot of everything recorded since creation or the last {@link #reset()}.
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return LatencySnapshot.fromCounts(name, copy, totalNanos.sum(), maxNanos.get());
+    }
+    
+    /**
+     * Returns a snapshot of the values recorded since the previous interval snapshot and
+     * starts a new interval. Recording threads are never blocked.
+     */
+    public synchronized LatencySnapshot intervalSnapshot() {
+        long[] delta = new long[BUCKET_COUNT];
+        long intervalMax = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long current = counts.get(i);
+            delta[i] = current - intervalBaseline[i];
+            intervalBaseline[i] = current;
+            if (delta[i] > 0) {
+                intervalMax = highestEquivalentValue(i);
+            }
+        }
+        long nanos = totalNanos.sum();
+        long intervalNanos = nanos - intervalBaselineNanos;
+        intervalBaselineNanos = nanos;
+        return LatencySnapshot.fromCounts(name, delta, intervalNanos, Math.min(intervalMax, maxNanos.get()));
+    }
+    
+    /**
+     * Clears all recorded values. Values recorded concurrently with a reset may be partially lost.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+            intervalBaseline[i] = 0;
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+        intervalBaselineNanos = 0;
+    }
+    
+    public long getCount() {
+        return totalCount.sum();
+    }
+    
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Maps a value to its bucket index.
+     */
+    static int indexFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+    
+    /**
+     * Lowest value that maps to the given bucket index.
+     */
+    static long lowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+    
+    /**
+     * Highest value that maps to the given bucket index.
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+}
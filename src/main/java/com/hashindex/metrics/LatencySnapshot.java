@@ -0,0 +1,61 @@
+package com.hashindex.metrics;
+
+/**
+ * Immutable percentile summary of a {@link LatencyHistogram}. All values are in nanoseconds
+ * and carry the histogram's bucket precision (below 1% relative error).
+ */
+public record LatencySnapshot(
+    String name,
+    long count,
+    double meanNanos,
+    long p50Nanos,
+    long p90Nanos,
+    long p99Nanos,
+    long p999Nanos,
+    long maxNanos
+) {
+    
+    static LatencySnapshot fromCounts(String name, long[] counts, long totalNanos, long maxNanos) {
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        if (count == 0) {
+            return new LatencySnapshot(name, 0, 0.0, 0, 0, 0, 0, 0);
+        }
+        return new LatencySnapshot(
+            name,
+            count,
+            (double) totalNanos / count,
+            Math.min(valueAtPercentile(counts, count, 50.0), maxNanos),
+            Math.min(valueAtPercentile(counts, count, 90.0), maxNanos),
+            Math.min(valueAtPercentile(counts, count, 99.0), maxNanos),
+            Math.min(valueAtPercentile(counts, count, 99.9), maxNanos),
+            maxNanos
+        );
+    }
+    
+    private static long valueAtPercentile(long[] counts, long total, double percentile) {
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return LatencyHistogram.highestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+    
+    public double p50Micros() { return p50Nanos / 1_000.0; }
+    public double p90Micros() { return p90Nanos / 1_000.0; }
+    public double p99Micros() { return p99Nanos / 1_000.0; }
+    public double p999Micros() { return p999Nanos / 1_000.0; }
+    public double maxMicros() { return maxNanos / 1_000.0; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: n=%,d p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                             name, count, p50Micros(), p90Micros(), p99Micros(), p999Micros(), maxMicros());
+    }
+}
@@ -0,0 +1,29 @@
+package com.hashindex.metrics;
+
+/**
+ * One reading of a {@link MetricsSampler}: lookup rates, latency and accesses over the interval
+ * since the previous sample, plus the overflow rate and memory use at the time of the sample.
+ */
+public record MetricsSample(
+    long timestampNanos,
+    double intervalSeconds,
+    double lookupsPerSecond,
+    LatencySnapshot lookupLatency,
+    double bucketAccessesPerLookup,
+    double pageAccessesPerLookup,
+    double overflowRate,
+    long heapUsedBytes,
+    long heapCommittedBytes,
+    long offHeapUsedBytes
+) {
+    
+    @Override
+    public String toString() {
+        return String.format("%,.0f lookups/s, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, "
+                             + "%.2f bucket + %.2f page accesses/lookup, overflow %.2f%%, "
+                             + "heap %,d MB, off-heap %,d MB",
+                             lookupsPerSecond, lookupLatency.p50Micros(), lookupLatency.p99Micros(),
+                             lookupLatency.p999Micros(), bucketAccessesPerLookup, pageAccessesPerLookup,
+                             overflowRate, heapUsedBytes >> 20, offHeapUsedBytes >> 20);
+    }
+}
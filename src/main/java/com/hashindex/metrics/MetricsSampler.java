@@ -0,0 +1,74 @@
+package com.hashindex.metrics;
+
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.service.HashIndexService;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Turns an index's cumulative counters into per-interval readings for a live dashboard.
+ * <p>
+ * A sample reads only what the lookup path records anyway: the search latency histogram's
+ * atomic counts and the lookup access adders. It takes no index lock and writes nothing that
+ * lookups read, so sampling does not slow the measured path down. The sampler owns the search
+ * histogram's interval snapshots; use one sampler per service.
+ */
+public class MetricsSampler {
+    
+    private final HashIndexService service;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<BufferPoolMXBean> bufferPools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+    private long lastNanos;
+    private long lastBucketAccesses;
+    private long lastPageAccesses;
+    
+    public MetricsSampler(HashIndexService service) {
+        this.service = service;
+        // Start the first interval now rather than at the service's creation
+        sample();
+    }
+    
+    /**
+     * Reads the counters and returns the rates since the previous sample.
+     */
+    public synchronized MetricsSample sample() {
+        IndexStatistics statistics = service.getStatistics();
+        long now = System.nanoTime();
+        LatencySnapshot latency = statistics.getSearchLatency().intervalSnapshot();
+        long bucketAccesses = statistics.getLookupBucketAccesses();
+        long pageAccesses = statistics.getLookupPageAccesses();
+        
+        double seconds = Math.max(1e-9, (now - lastNanos) / 1e9);
+        long lookups = latency.count();
+        // A reset of the statistics restarts the counters from zero
+        long bucketDelta = bucketAccesses >= lastBucketAccesses ? bucketAccesses - lastBucketAccesses : bucketAccesses;
+        long pageDelta = pageAccesses >= lastPageAccesses ? pageAccesses - lastPageAccesses : pageAccesses;
+        lastNanos = now;
+        lastBucketAccesses = bucketAccesses;
+        lastPageAccesses = pageAccesses;
+        
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        long offHeap = 0;
+        for (BufferPoolMXBean pool : bufferPools) {
+            // Direct and mapped buffers, such as those of the write-ahead log and the server
+            offHeap += Math.max(0, pool.getMemoryUsed());
+        }
+        
+        return new MetricsSample(
+            now,
+            seconds,
+            lookups / seconds,
+            latency,
+            lookups == 0 ? 0 : (double) bucketDelta / lookups,
+            lookups == 0 ? 0 : (double) pageDelta / lookups,
+            statistics.getOverflowRate(),
+            heap.getUsed(),
+            heap.getCommitted(),
+            offHeap
+        );
+    }
+}
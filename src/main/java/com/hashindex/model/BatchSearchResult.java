@@ -0,0 +1,35 @@
+package com.hashindex.model;
+
+import java.util.List;
+
+/**
+ * Represents the result of looking up a batch of keys together.
+ * Results are in request order; each distinct bucket and page is counted once for the batch.
+ */
+public record BatchSearchResult(
+    List<SearchResult> results,
+    int bucketAccesses,
+    int pageAccesses
+) {
+    
+    public int size() {
+        return results.size();
+    }
+    
+    public long foundCount() {
+        return results.stream().filter(SearchResult::found).count();
+    }
+    
+    /**
+     * Total accesses for the batch: distinct buckets plus distinct pages.
+     */
+    public int accessCount() {
+        return bucketAccesses + pageAccesses;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%,d keys: %,d found (accessed %,d buckets, %,d pages)",
+                             results.size(), foundCount(), bucketAccesses, pageAccesses);
+    }
+}
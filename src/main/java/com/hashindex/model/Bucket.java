@@ -1,7 +1,12 @@
 package com.hashindex.model;
 
+import com.hashindex.jfr.OverflowBucketEvent;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * Represents a bucket in the hash index that contains mappings from search keys to page addresses.
@@ -32,16 +37,53 @@ public class Bucket {
      * @return true if the entry was added successfully
      */
     public boolean addEntry(BucketEntry entry) {
-        if (entries.size() < capacity) {
-            entries.add(entry);
-            return true;
-        } else {
+        Bucket bucket = this;
+        int chainLength = 1;
+        while (bucket.entries.size() >= capacity) {
             // Handle overflow
-            if (overflowBucket == null) {
-                overflowBucket = new Bucket(bucketNumber, capacity, true);
+            if (bucket.overflowBucket == null) {
+                OverflowBucketEvent event = new OverflowBucketEvent();
+                bucket.overflowBucket = new Bucket(bucketNumber, capacity, true);
+                if (event.shouldCommit()) {
+                    event.bucket = bucketNumber;
+                    event.chainLength = chainLength + 1;
+                    event.bucketCapacity = capacity;
+                    event.commit();
+                }
+            }
+            bucket = bucket.overflowBucket;
+            chainLength++;
+        }
+        bucket.entries.add(entry);
+        return true;
+    }
+    
+    /**
+     * Records another page holding a key that already has an entry in this chain, creating the
+     * entry's posting list on its second page.
+     * 
+     * @return true if the key has an entry here, false if the caller must add one
+     * @throws IllegalArgumentException if the page comes before the last page listed for the key
+     */
+    public boolean addOccurrence(String searchKey, int pageNumber) {
+        for (Bucket bucket = this; bucket != null; bucket = bucket.overflowBucket) {
+            List<BucketEntry> bucketEntries = bucket.entries;
+            for (int i = 0; i < bucketEntries.size(); i++) {
+                BucketEntry entry = bucketEntries.get(i);
+                if (!entry.searchKey().equals(searchKey)) {
+                    continue;
+                }
+                if (entry.postings() != null) {
+                    entry.postings().add(pageNumber);
+                } else if (pageNumber != entry.pageNumber()) {
+                    PostingList postings = new PostingList(entry.pageNumber());
+                    postings.add(pageNumber);
+                    bucketEntries.set(i, new BucketEntry(searchKey, entry.pageNumber(), entry.payload(), postings));
+                }
+                return true;
             }
-            return overflowBucket.addEntry(entry);
         }
+        return false;
     }
     
     /**
@@ -66,6 +108,54 @@ public class Bucket {
         return null;
     }
     
+    /**
+     * Searches for the entry of a key given as UTF-8 bytes, without decoding them.
+     * 
+     * @return the bucket entry if found, null otherwise
+     */
+    public BucketEntry findEntry(byte[] key, int offset, int length) {
+        boolean ascii = KeyBytes.isAscii(key, offset, length);
+        for (Bucket bucket = this; bucket != null; bucket = bucket.overflowBucket) {
+            List<BucketEntry> bucketEntries = bucket.entries;
+            for (int i = 0; i < bucketEntries.size(); i++) {
+                BucketEntry entry = bucketEntries.get(i);
+                String entryKey = entry.searchKey();
+                if (ascii ? KeyBytes.equalsAscii(entryKey, key, offset, length)
+                          : KeyBytes.equalsUtf8(entryKey, key, offset, length)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the page number for a key given as UTF-8 bytes, without decoding them.
+     * 
+     * @return the page number if found, -1 otherwise
+     */
+    public int getPageNumber(byte[] key, int offset, int length) {
+        BucketEntry entry = findEntry(key, offset, length);
+        return entry != null ? entry.pageNumber() : -1;
+    }
+    
+    /**
+     * Counts the buckets a search for the key walks: up to the one holding it, or the whole chain.
+     */
+    public int chainLengthWalked(String searchKey) {
+        int walked = 0;
+        for (Bucket bucket = this; bucket != null; bucket = bucket.overflowBucket) {
+            walked++;
+            List<BucketEntry> bucketEntries = bucket.entries;
+            for (int i = 0; i < bucketEntries.size(); i++) {
+                if (bucketEntries.get(i).searchKey().equals(searchKey)) {
+                    return walked;
+                }
+            }
+        }
+        return walked;
+    }
+    
     /**
      * Gets the page number for the given search key.
      * 
@@ -119,10 +209,50 @@ public class Bucket {
         return capacity;
     }
     
+    /**
+     * Returns a copy of this bucket's own entries, excluding overflow buckets; use
+     * {@link #entriesView()} or {@link #forEachEntry} to read them without copying.
+     */
     public List<BucketEntry> getEntries() {
         return new ArrayList<>(entries);
     }
     
+    /**
+     * Gets one of this bucket's own entries by index, excluding overflow buckets.
+     * 
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public BucketEntry getEntry(int index) {
+        return entries.get(index);
+    }
+    
+    /**
+     * Returns a read-only view of this bucket's own entries, excluding overflow buckets.
+     */
+    public List<BucketEntry> entriesView() {
+        return Collections.unmodifiableList(entries);
+    }
+    
+    /**
+     * Passes each entry in the chain to the action, primary bucket first, without copying.
+     */
+    public void forEachEntry(Consumer<? super BucketEntry> action) {
+        for (Bucket bucket = this; bucket != null; bucket = bucket.overflowBucket) {
+            List<BucketEntry> bucketEntries = bucket.entries;
+            for (int i = 0; i < bucketEntries.size(); i++) {
+                action.accept(bucketEntries.get(i));
+            }
+        }
+    }
+    
+    /**
+     * Returns a spliterator over the entries of the whole chain. Chains are short, so it does
+     * not split; {@code HashIndexService#entrySpliterator()} splits across buckets instead.
+     */
+    public Spliterator<BucketEntry> entrySpliterator() {
+        return new ChainSpliterator(this);
+    }
+    
     public Bucket getOverflowBucket() {
         return overflowBucket;
     }
@@ -139,6 +269,13 @@ public class Bucket {
         return entries.size();
     }
     
+    /**
+     * Whether this bucket, not counting its overflow buckets, has no entries.
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+    
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -153,4 +290,41 @@ public class Bucket {
         sb.append('}');
         return sb.toString();
     }
-}
\ No newline at end of file
+    
+    private static final class ChainSpliterator implements Spliterator<BucketEntry> {
+        private Bucket bucket;
+        private int index;
+        
+        ChainSpliterator(Bucket bucket) {
+            this.bucket = bucket;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super BucketEntry> action) {
+            while (bucket != null && index == bucket.entries.size()) {
+                bucket = bucket.overflowBucket;
+                index = 0;
+            }
+            if (bucket == null) {
+                return false;
+            }
+            action.accept(bucket.entries.get(index++));
+            return true;
+        }
+        
+        @Override
+        public Spliterator<BucketEntry> trySplit() {
+            return null;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return bucket == null ? 0 : bucket.getTotalEntries() - index;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED;
+        }
+    }
+}
@@ -1,12 +1,71 @@
 package com.hashindex.model;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
- * Represents a bucket entry that maps a search key to a page address.
+ * Represents a bucket entry that maps a search key to a page address. An entry of a covering
+ * index also holds the record's payload inline, so a lookup that only needs the payload is
+ * answered from the bucket without reading the page. A key stored on several pages has a single
+ * entry whose posting list holds every page, {@code pageNumber} being the first.
+ * <p>
+ * The posting list is mutable: the bucket adds pages to it in place as the key turns up on
+ * more pages. Entries are equal when their keys, first pages, payload contents and the pages
+ * currently listed are, so the equality of an entry with postings can change; the hash code
+ * leaves the postings out and stays fixed.
+ * 
+ * @param payload the record's payload, or null if it is not held inline
+ * @param postings every page holding the key, or null if it is on {@code pageNumber} only
  */
-public record BucketEntry(String searchKey, int pageNumber) {
+public record BucketEntry(String searchKey, int pageNumber, byte[] payload, PostingList postings) {
+    
+    public BucketEntry(String searchKey, int pageNumber) {
+        this(searchKey, pageNumber, null, null);
+    }
+    
+    public BucketEntry(String searchKey, int pageNumber, byte[] payload) {
+        this(searchKey, pageNumber, payload, null);
+    }
+    
+    public boolean hasInlinePayload() {
+        return payload != null;
+    }
+    
+    /**
+     * Number of pages holding the key.
+     */
+    public int pageCount() {
+        return postings == null ? 1 : postings.size();
+    }
+    
+    /**
+     * Every page holding the key, in ascending order.
+     */
+    public int[] pageNumbers() {
+        return postings == null ? new int[] {pageNumber} : postings.toArray();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof BucketEntry other
+            && pageNumber == other.pageNumber
+            && searchKey.equals(other.searchKey)
+            && Arrays.equals(payload, other.payload)
+            && (postings == other.postings || Arrays.equals(pageNumbers(), other.pageNumbers()));
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(searchKey, pageNumber) + Arrays.hashCode(payload);
+    }
     
     @Override
     public String toString() {
-        return String.format("(%s -> Page %d)", searchKey, pageNumber);
+        return postings == null
+            ? String.format("(%s -> Page %d)", searchKey, pageNumber)
+            : String.format("(%s -> %d Pages from %d)", searchKey, postings.size(), pageNumber);
     }
-}
\ No newline at end of file
+}
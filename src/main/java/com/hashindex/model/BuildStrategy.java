@@ -0,0 +1,21 @@
+package com.hashindex.model;
+
+/**
+ * How {@code HashIndexService} fills a new directory when it constructs the index. Both give
+ * the same buckets, entries and statistics; they differ in the order the objects are allocated.
+ */
+public enum BuildStrategy {
+    
+    /**
+     * Records are added in page order, each to the bucket its key hashes to, so consecutive
+     * allocations belong to unrelated buckets and a chain ends up spread over the whole build.
+     */
+    INCREMENTAL,
+    
+    /**
+     * Every key is hashed first and the records are counting-sorted by bucket; buckets are then
+     * filled one at a time, so a bucket, its entries and its overflow buckets are allocated
+     * together, in directory order. Needs about 16 bytes per record of scratch space.
+     */
+    PARTITIONED
+}
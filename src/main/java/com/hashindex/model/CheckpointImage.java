@@ -0,0 +1,28 @@
+package com.hashindex.model;
+
+import java.util.List;
+
+/**
+ * Point-in-time copy of the pages changed since the previous checkpoint, together with the
+ * geometry needed to rebuild the index and the LSN of the last insert the copy includes.
+ */
+public record CheckpointImage(
+    long lsn,
+    int pageSize,
+    PageEncoding pageEncoding,
+    int pageCount,
+    long totalRecords,
+    int bucketCapacity,
+    int bucketCount,
+    double loadFactor,
+    String hashFunctionName,
+    int firstPage,
+    List<Page> pages
+) {
+    
+    @Override
+    public String toString() {
+        return String.format("checkpoint at LSN %,d: %,d of %,d pages from page %,d, %,d records, %,d buckets",
+                             lsn, pages.size(), pageCount, firstPage, totalRecords, bucketCount);
+    }
+}
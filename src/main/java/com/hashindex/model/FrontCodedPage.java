@@ -0,0 +1,453 @@
+package com.hashindex.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A page that front-codes its records into a byte array: each record is stored as the length
+ * of the prefix it shares with the previous record, the length of the rest, and the rest's
+ * UTF-8 bytes. Every {@link #RESTART_INTERVAL}th record is a restart point stored in full, so
+ * a record can be decoded from the nearest restart point without reading the whole page.
+ * <p>
+ * The capacity is a byte budget covering the records and the 4-byte restart offsets, so a page
+ * holds more records the more they share. While records arrive in ascending (UTF-8 byte) order,
+ * lookups binary search the restart points and decode one run; once an insert breaks the order
+ * they fall back to decoding the whole page.
+ */
+public class FrontCodedPage extends Page {
+    
+    public static final int RESTART_INTERVAL = 16;
+    
+    private static final int RESTART_OFFSET_BYTES = 4;
+    private static final int INITIAL_BYTES = 256;
+    
+    private byte[] data;
+    private int used;
+    private int[] restarts;
+    private int restartCount;
+    private int count;
+    private byte[] lastKey = new byte[0];
+    private int maxKeyLength;
+    private boolean sorted = true;
+    
+    /**
+     * @param byteCapacity bytes of records and restart offsets the page may hold; a single
+     *                     record larger than this is still accepted into an empty page
+     */
+    public FrontCodedPage(int pageNumber, int byteCapacity) {
+        super(pageNumber, byteCapacity, Collections.emptyList());
+        if (byteCapacity <= 0) {
+            throw new IllegalArgumentException("Page byte capacity must be positive: " + byteCapacity);
+        }
+        this.data = new byte[Math.min(byteCapacity, INITIAL_BYTES)];
+        this.restarts = new int[4];
+    }
+    
+    @Override
+    public boolean addRecord(String record) {
+        byte[] key = record.getBytes(StandardCharsets.UTF_8);
+        boolean restart = count % RESTART_INTERVAL == 0;
+        int shared = restart ? 0 : sharedPrefix(lastKey, key);
+        int suffix = key.length - shared;
+        int entryBytes = varintSize(shared) + varintSize(suffix) + suffix;
+        int restartBytes = restart ? RESTART_OFFSET_BYTES : 0;
+        if (count > 0 && getEncodedBytes() + entryBytes + restartBytes > getCapacity()) {
+            return false;
+        }
+        
+        if (restart) {
+            if (restartCount == restarts.length) {
+                restarts = Arrays.copyOf(restarts, restarts.length * 2);
+            }
+            restarts[restartCount++] = used;
+        }
+        if (used + entryBytes > data.length) {
+            data = Arrays.copyOf(data, Math.max(used + entryBytes, Math.min(getCapacity(), data.length * 2)));
+        }
+        used = writeVarint(data, used, shared);
+        used = writeVarint(data, used, suffix);
+        System.arraycopy(key, shared, data, used, suffix);
+        used += suffix;
+        
+        if (count > 0 && Arrays.compareUnsigned(lastKey, key) > 0) {
+            sorted = false;
+        }
+        lastKey = key;
+        maxKeyLength = Math.max(maxKeyLength, key.length);
+        count++;
+        return true;
+    }
+    
+    /**
+     * Adds a record without a payload; front-coded pages store keys only.
+     * 
+     * @throws UnsupportedOperationException if {@code payload} is not null
+     */
+    @Override
+    public boolean addRecord(String record, byte[] payload) {
+        if (payload != null) {
+            throw new UnsupportedOperationException("Front-coded pages do not store payloads");
+        }
+        return addRecord(record);
+    }
+    
+    @Override
+    public boolean containsRecord(String searchKey) {
+        byte[] key = searchKey.getBytes(StandardCharsets.UTF_8);
+        return containsRecord(key, 0, key.length);
+    }
+    
+    /**
+     * Compares the target with each record as it is decoded in place, tracking how much of the
+     * target the previous record matched: a record sharing more than that with its predecessor
+     * cannot match either, so most records are rejected without looking at their bytes.
+     */
+    @Override
+    public boolean containsRecord(byte[] key, int offset, int length) {
+        if (count == 0) {
+            return false;
+        }
+        int run = 0;
+        if (sorted) {
+            // Last restart point whose key is <= the target
+            int low = 0;
+            int high = restartCount - 1;
+            run = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compareRestartKey(mid, key, offset, length) <= 0) {
+                    run = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (run < 0) {
+                return false;
+            }
+        }
+        
+        int end = sorted ? Math.min(count, (run + 1) * RESTART_INTERVAL) : count;
+        int position = restarts[run];
+        int matched = 0;
+        for (int index = run * RESTART_INTERVAL; index < end; index++) {
+            int shared = varintAt(position);
+            position = skipVarint(position);
+            int suffix = varintAt(position);
+            position = skipVarint(position);
+            int keyLength = shared + suffix;
+            
+            if (shared <= matched) {
+                int limit = Math.min(keyLength, length);
+                int common = shared;
+                while (common < limit && data[position + common - shared] == key[offset + common]) {
+                    common++;
+                }
+                matched = common;
+                if (common == keyLength && common == length) {
+                    return true;
+                }
+                // Sorted records past the target mean it is not here
+                if (sorted && (common == length
+                        || (common < keyLength
+                            && (data[position + common - shared] & 0xFF) > (key[offset + common] & 0xFF)))) {
+                    return false;
+                }
+            }
+            position += suffix;
+        }
+        return false;
+    }
+    
+    @Override
+    public String getRecord(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+        Cursor cursor = cursorAt(index);
+        cursor.next();
+        return cursor.key();
+    }
+    
+    @Override
+    public List<String> getRecords() {
+        List<String> records = new ArrayList<>(count);
+        forEachRecord(records::add);
+        return records;
+    }
+    
+    /**
+     * Returns a read-only view that decodes records as they are read: iteration decodes each
+     * once, while {@code get} decodes from the nearest restart point.
+     */
+    @Override
+    public List<String> recordsView() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return getRecord(index);
+            }
+            
+            @Override
+            public int size() {
+                return count;
+            }
+            
+            @Override
+            public Iterator<String> iterator() {
+                return Spliterators.iterator(recordSpliterator());
+            }
+            
+            @Override
+            public Spliterator<String> spliterator() {
+                return recordSpliterator();
+            }
+        };
+    }
+    
+    @Override
+    public void forEachRecord(Consumer<? super String> action) {
+        Cursor cursor = new Cursor(0);
+        while (cursor.next()) {
+            action.accept(cursor.key());
+        }
+    }
+    
+    /**
+     * Returns a spliterator that splits at restart points, so each part decodes on its own.
+     */
+    @Override
+    public Spliterator<String> recordSpliterator() {
+        return new RecordSpliterator(0, count);
+    }
+    
+    @Override
+    public int size() {
+        return count;
+    }
+    
+    @Override
+    public boolean isFull() {
+        return getEncodedBytes() >= getCapacity();
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+    
+    @Override
+    public PageEncoding getEncoding() {
+        return PageEncoding.FRONT_CODED;
+    }
+    
+    /**
+     * Bytes of encoded records plus the restart offsets.
+     */
+    @Override
+    public int getEncodedBytes() {
+        return used + restartCount * RESTART_OFFSET_BYTES;
+    }
+    
+    /**
+     * Whether the records were added in ascending order, so lookups can binary search.
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+    
+    public int getRestartCount() {
+        return restartCount;
+    }
+    
+    /**
+     * Length of the backing byte array, which grows towards the capacity as records are added.
+     */
+    public int getAllocatedBytes() {
+        return data.length;
+    }
+    
+    public int getAllocatedRestarts() {
+        return restarts.length;
+    }
+    
+    @Override
+    public Page copy() {
+        FrontCodedPage copy = new FrontCodedPage(getPageNumber(), getCapacity());
+        copy.data = Arrays.copyOf(data, used);
+        copy.used = used;
+        copy.restarts = Arrays.copyOf(restarts, Math.max(1, restartCount));
+        copy.restartCount = restartCount;
+        copy.count = count;
+        copy.lastKey = lastKey;
+        copy.maxKeyLength = maxKeyLength;
+        copy.sorted = sorted;
+        return copy;
+    }
+    
+    @Override
+    public String toString() {
+        return "FrontCodedPage{" +
+                "pageNumber=" + getPageNumber() +
+                ", capacity=" + getCapacity() +
+                ", recordCount=" + count +
+                ", encodedBytes=" + getEncodedBytes() +
+                '}';
+    }
+    
+    private Cursor cursorAt(int index) {
+        Cursor cursor = new Cursor(index / RESTART_INTERVAL);
+        for (int i = index % RESTART_INTERVAL; i > 0; i--) {
+            cursor.next();
+        }
+        return cursor;
+    }
+    
+    private int compareRestartKey(int restart, byte[] key, int offset, int length) {
+        // Restart entries share nothing with their predecessor: a zero byte, then the length
+        int position = restarts[restart] + 1;
+        int keyLength = varintAt(position);
+        position = skipVarint(position);
+        return Arrays.compareUnsigned(data, position, position + keyLength, key, offset, offset + length);
+    }
+    
+    private int varintAt(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    private int skipVarint(int position) {
+        while (data[position] < 0) {
+            position++;
+        }
+        return position + 1;
+    }
+    
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+    
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+    
+    private static int writeVarint(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+    
+    /**
+     * Decodes the records in {@code [index, fence)}. Splits fall on restart points and happen
+     * before decoding starts, so each part begins at a fully stored key.
+     */
+    private final class RecordSpliterator implements Spliterator<String> {
+        private int index;
+        private final int fence;
+        private Cursor cursor;
+        
+        RecordSpliterator(int index, int fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (index >= fence) {
+                return false;
+            }
+            if (cursor == null) {
+                cursor = cursorAt(index);
+            }
+            cursor.next();
+            index++;
+            action.accept(cursor.key());
+            return true;
+        }
+        
+        @Override
+        public Spliterator<String> trySplit() {
+            if (cursor != null) {
+                return null;
+            }
+            int mid = ((index + fence) >>> 1) / RESTART_INTERVAL * RESTART_INTERVAL;
+            if (mid <= index) {
+                return null;
+            }
+            RecordSpliterator prefix = new RecordSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+    
+    /**
+     * Decodes records forward from a restart point, rebuilding each key in a reused buffer.
+     */
+    private final class Cursor {
+        private final byte[] key = new byte[maxKeyLength];
+        private int keyLength;
+        private int offset;
+        private int index;
+        
+        Cursor(int restart) {
+            this.offset = restarts[restart];
+            this.index = restart * RESTART_INTERVAL;
+        }
+        
+        boolean next() {
+            if (index >= count) {
+                return false;
+            }
+            int shared = readVarint();
+            int suffix = readVarint();
+            System.arraycopy(data, offset, key, shared, suffix);
+            offset += suffix;
+            keyLength = shared + suffix;
+            index++;
+            return true;
+        }
+        
+        String key() {
+            return new String(key, 0, keyLength, StandardCharsets.UTF_8);
+        }
+        
+        private int readVarint() {
+            int value = varintAt(offset);
+            offset = skipVarint(offset);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.hashindex.model;
+
+/**
+ * Distribution quality of one hash function over a dataset.
+ * <p>
+ * {@code occupancyHistogram[i]} is the number of buckets holding exactly {@code i} records.
+ * Chain lengths count primary plus overflow buckets. The chi-square z-score is the
+ * Wilson-Hilferty normal approximation of the bucket-load chi-square statistic: values
+ * around 0 mean uniform, large positive values mean clustering. The avalanche score is the
+ * mean probability that an output bit flips when one input bit flips (ideal 0.5), and the
+ * avalanche bias is the largest deviation of any single output bit from 0.5.
+ */
+public record HashDistributionReport(
+    String hashFunctionType,
+    String hashFunctionName,
+    long records,
+    int bucketCount,
+    int bucketCapacity,
+    long[] occupancyHistogram,
+    double chiSquare,
+    double chiSquareZScore,
+    int maxBucketLoad,
+    int maxChainLength,
+    int p99ChainLength,
+    double emptyBucketFraction,
+    double expectedEmptyBucketFraction,
+    double avalancheScore,
+    double avalancheBias
+) {
+    
+    /**
+     * Whether the bucket loads are consistent with a uniform hash at the given z-score.
+     */
+    public boolean isUniform(double maxZScore) {
+        return chiSquareZScore <= maxZScore;
+    }
+    
+    public String summary() {
+        return String.format("%-13s chi2-z=%8.2f max-chain=%d p99-chain=%d max-load=%d empty=%.2f%% (expected %.2f%%) avalanche=%.3f bias=%.3f",
+                             hashFunctionType, chiSquareZScore, maxChainLength, p99ChainLength, maxBucketLoad,
+                             emptyBucketFraction * 100, expectedEmptyBucketFraction * 100,
+                             avalancheScore, avalancheBias);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(hashFunctionName).append(" (").append(hashFunctionType).append(")\n");
+        sb.append(String.format("  Records / Buckets: %,d / %,d (capacity %d)%n", records, bucketCount, bucketCapacity));
+        sb.append(String.format("  Chi-Square: %,.1f (z = %.2f)%n", chiSquare, chiSquareZScore));
+        sb.append(String.format("  Chain Length: max %d, p99 %d (max bucket load %d)%n",
+                                maxChainLength, p99ChainLength, maxBucketLoad));
+        sb.append(String.format("  Empty Buckets: %.2f%% (uniform expectation %.2f%%)%n",
+                                emptyBucketFraction * 100, expectedEmptyBucketFraction * 100));
+        sb.append(String.format("  Avalanche: %.3f (worst bit bias %.3f)%n", avalancheScore, avalancheBias));
+        sb.append("  Occupancy:\n");
+        for (int load = 0; load < occupancyHistogram.length; load++) {
+            if (occupancyHistogram[load] > 0) {
+                sb.append(String.format("    %4d records: %,d buckets%n", load, occupancyHistogram[load]));
+            }
+        }
+        return sb.toString();
+    }
+}
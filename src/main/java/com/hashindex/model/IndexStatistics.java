@@ -1,5 +1,9 @@
 package com.hashindex.model;
 
+import com.hashindex.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Represents the statistics collected during hash index operations.
  */
@@ -14,6 +18,53 @@ public class IndexStatistics {
     private long tableScanAccesses;
     private long searchTimeNanos;
     private long tableScanTimeNanos;
+    private MemoryFootprint memoryFootprint;
+    private double loadFactor;
+    private TuningDecision tuningDecision;
+    
+    // Ordered (B+ tree) index and range query costs
+    private long orderedIndexNodes;
+    private int orderedIndexHeight;
+    private long rangeSearchAccesses;
+    private long rangeScanAccesses;
+    private long rangeSearchTimeNanos;
+    private long rangeScanTimeNanos;
+    
+    // Progressive rehash
+    private int rehashSourceBuckets;
+    private int rehashTargetBuckets;
+    private int rehashMigratedBuckets;
+    private boolean rehashInProgress;
+    private long completedRehashes;
+    private long lastRehashDurationNanos;
+    private long lastBuildNanos;
+    
+    // Covering index: payloads up to this many bytes are held in the bucket entries
+    private int inlinePayloadLimit;
+    private BuildStrategy buildStrategy;
+    
+    // Latency distributions; unlike the *TimeNanos fields these keep every call, not just the last
+    private final LatencyHistogram searchLatency = new LatencyHistogram("Index Lookup");
+    private final LatencyHistogram tableScanLatency = new LatencyHistogram("Table Scan");
+    private final LatencyHistogram insertLatency = new LatencyHistogram("Insert");
+    private final LatencyHistogram buildLatency = new LatencyHistogram("Index Build");
+    private final LatencyHistogram rehashStepLatency = new LatencyHistogram("Rehash Step");
+    
+    // Lookup cache counters, updated concurrently by lookups
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder avoidedBucketAccesses = new LongAdder();
+    private final LongAdder avoidedPageAccesses = new LongAdder();
+    
+    // Cumulative operation counters, striped so concurrent lookups and scans never contend on them
+    private final LongAdder lookupHits = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LongAdder lookupBucketAccesses = new LongAdder();
+    private final LongAdder lookupPageAccesses = new LongAdder();
+    private final LongAdder tableScanHits = new LongAdder();
+    private final LongAdder tableScanPageAccesses = new LongAdder();
+    private final LongAdder payloadLookups = new LongAdder();
+    private final LongAdder inlinePayloadHits = new LongAdder();
     
     public IndexStatistics() {
         reset();
@@ -30,6 +81,128 @@ public class IndexStatistics {
         this.tableScanAccesses = 0;
         this.searchTimeNanos = 0;
         this.tableScanTimeNanos = 0;
+        this.memoryFootprint = MemoryFootprint.EMPTY;
+        this.loadFactor = 0;
+        this.tuningDecision = null;
+        this.orderedIndexNodes = 0;
+        this.orderedIndexHeight = 0;
+        this.rangeSearchAccesses = 0;
+        this.rangeScanAccesses = 0;
+        this.rangeSearchTimeNanos = 0;
+        this.rangeScanTimeNanos = 0;
+        this.rehashSourceBuckets = 0;
+        this.rehashTargetBuckets = 0;
+        this.rehashMigratedBuckets = 0;
+        this.rehashInProgress = false;
+        this.completedRehashes = 0;
+        this.lastRehashDurationNanos = 0;
+        this.lastBuildNanos = 0;
+        this.inlinePayloadLimit = 0;
+        this.buildStrategy = BuildStrategy.INCREMENTAL;
+        resetLatencies();
+        resetCacheCounters();
+    }
+    
+    /**
+     * Clears the latency histograms and operation counters without touching the structural counters.
+     */
+    public void resetLatencies() {
+        searchLatency.reset();
+        tableScanLatency.reset();
+        insertLatency.reset();
+        buildLatency.reset();
+        rehashStepLatency.reset();
+        lookupHits.reset();
+        lookupMisses.reset();
+        lookupBucketAccesses.reset();
+        lookupPageAccesses.reset();
+        tableScanHits.reset();
+        tableScanPageAccesses.reset();
+        payloadLookups.reset();
+        inlinePayloadHits.reset();
+    }
+    
+    /**
+     * Clears the lookup cache counters.
+     */
+    public void resetCacheCounters() {
+        cacheHits.reset();
+        cacheMisses.reset();
+        avoidedBucketAccesses.reset();
+        avoidedPageAccesses.reset();
+    }
+    
+    /**
+     * Records a lookup answered from the cache and the index accesses it saved.
+     * 
+     * @param bucketAccesses bucket accesses the index lookup would have made
+     * @param pageAccesses page reads the index lookup would have made
+     */
+    public void recordCacheHit(long bucketAccesses, long pageAccesses) {
+        cacheHits.increment();
+        avoidedBucketAccesses.add(bucketAccesses);
+        avoidedPageAccesses.add(pageAccesses);
+    }
+    
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+    
+    /**
+     * Records one index lookup, including those answered from the cache, and its accesses.
+     * 
+     * @param found whether the key was present
+     * @param bucketAccesses buckets read, including the second directory during a rehash
+     * @param pageAccesses pages read
+     */
+    public void recordLookup(boolean found, long bucketAccesses, long pageAccesses) {
+        (found ? lookupHits : lookupMisses).increment();
+        lookupBucketAccesses.add(bucketAccesses);
+        lookupPageAccesses.add(pageAccesses);
+    }
+    
+    /**
+     * Records the lookups of a batch, whose bucket and page accesses are shared between keys.
+     */
+    public void recordLookups(long hits, long misses, long bucketAccesses, long pageAccesses) {
+        lookupHits.add(hits);
+        lookupMisses.add(misses);
+        lookupBucketAccesses.add(bucketAccesses);
+        lookupPageAccesses.add(pageAccesses);
+    }
+    
+    /**
+     * Records a payload lookup, in addition to {@link #recordLookup}.
+     * 
+     * @param inline whether the payload was read from the bucket entry, saving the page read
+     */
+    public void recordPayloadLookup(boolean inline) {
+        payloadLookups.increment();
+        if (inline) {
+            inlinePayloadHits.increment();
+        }
+    }
+    
+    /**
+     * Records one table scan and the pages it read.
+     */
+    public void recordTableScan(boolean found, long pageAccesses) {
+        if (found) {
+            tableScanHits.increment();
+        }
+        tableScanPageAccesses.add(pageAccesses);
+    }
+    
+    /**
+     * Calculates the lookup cache hit ratio as a percentage.
+     * 
+     * @return cache hit ratio percentage
+     */
+    public double getCacheHitRate() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        if (total == 0) return 0.0;
+        return (hits * 100.0) / total;
     }
     
     /**
@@ -52,6 +225,16 @@ public class IndexStatistics {
         return (overflows * 100.0) / totalBuckets;
     }
     
+    /**
+     * Calculates how much of the current progressive rehash is done as a percentage.
+     * 
+     * @return migrated source buckets percentage, 100 when no rehash is running
+     */
+    public double getRehashProgress() {
+        if (!rehashInProgress || rehashSourceBuckets == 0) return 100.0;
+        return (rehashMigratedBuckets * 100.0) / rehashSourceBuckets;
+    }
+    
     /**
      * Gets the time difference between search and table scan in milliseconds.
      * 
@@ -61,6 +244,16 @@ public class IndexStatistics {
         return (tableScanTimeNanos - searchTimeNanos) / 1_000_000.0;
     }
     
+    /**
+     * Gets the time difference between an ordered-index range query and the equivalent
+     * table scan in milliseconds.
+     * 
+     * @return time difference in milliseconds
+     */
+    public double getRangeTimeDifferenceMillis() {
+        return (rangeScanTimeNanos - rangeSearchTimeNanos) / 1_000_000.0;
+    }
+    
     // Getters and setters
     public long getTotalRecords() { return totalRecords; }
     public void setTotalRecords(long totalRecords) { this.totalRecords = totalRecords; }
@@ -94,6 +287,83 @@ public class IndexStatistics {
     public long getTableScanTimeNanos() { return tableScanTimeNanos; }
     public void setTableScanTimeNanos(long tableScanTimeNanos) { this.tableScanTimeNanos = tableScanTimeNanos; }
     
+    public MemoryFootprint getMemoryFootprint() { return memoryFootprint; }
+    public void setMemoryFootprint(MemoryFootprint memoryFootprint) { this.memoryFootprint = memoryFootprint; }
+    
+    public double getLoadFactor() { return loadFactor; }
+    public void setLoadFactor(double loadFactor) { this.loadFactor = loadFactor; }
+    
+    public TuningDecision getTuningDecision() { return tuningDecision; }
+    public void setTuningDecision(TuningDecision tuningDecision) { this.tuningDecision = tuningDecision; }
+    
+    public long getOrderedIndexNodes() { return orderedIndexNodes; }
+    public void setOrderedIndexNodes(long orderedIndexNodes) { this.orderedIndexNodes = orderedIndexNodes; }
+    
+    public int getOrderedIndexHeight() { return orderedIndexHeight; }
+    public void setOrderedIndexHeight(int orderedIndexHeight) { this.orderedIndexHeight = orderedIndexHeight; }
+    
+    public long getRangeSearchAccesses() { return rangeSearchAccesses; }
+    public void setRangeSearchAccesses(long rangeSearchAccesses) { this.rangeSearchAccesses = rangeSearchAccesses; }
+    
+    public long getRangeScanAccesses() { return rangeScanAccesses; }
+    public void setRangeScanAccesses(long rangeScanAccesses) { this.rangeScanAccesses = rangeScanAccesses; }
+    
+    public long getRangeSearchTimeNanos() { return rangeSearchTimeNanos; }
+    public void setRangeSearchTimeNanos(long rangeSearchTimeNanos) { this.rangeSearchTimeNanos = rangeSearchTimeNanos; }
+    
+    public long getRangeScanTimeNanos() { return rangeScanTimeNanos; }
+    public void setRangeScanTimeNanos(long rangeScanTimeNanos) { this.rangeScanTimeNanos = rangeScanTimeNanos; }
+    
+    public int getRehashSourceBuckets() { return rehashSourceBuckets; }
+    public void setRehashSourceBuckets(int rehashSourceBuckets) { this.rehashSourceBuckets = rehashSourceBuckets; }
+    
+    public int getRehashTargetBuckets() { return rehashTargetBuckets; }
+    public void setRehashTargetBuckets(int rehashTargetBuckets) { this.rehashTargetBuckets = rehashTargetBuckets; }
+    
+    public int getRehashMigratedBuckets() { return rehashMigratedBuckets; }
+    public void setRehashMigratedBuckets(int rehashMigratedBuckets) { this.rehashMigratedBuckets = rehashMigratedBuckets; }
+    
+    public boolean isRehashInProgress() { return rehashInProgress; }
+    public void setRehashInProgress(boolean rehashInProgress) { this.rehashInProgress = rehashInProgress; }
+    
+    public long getCompletedRehashes() { return completedRehashes; }
+    public void incrementCompletedRehashes() { this.completedRehashes++; }
+    
+    public long getLastRehashDurationNanos() { return lastRehashDurationNanos; }
+    public void setLastRehashDurationNanos(long lastRehashDurationNanos) { this.lastRehashDurationNanos = lastRehashDurationNanos; }
+    
+    public long getLastBuildNanos() { return lastBuildNanos; }
+    public void setLastBuildNanos(long lastBuildNanos) { this.lastBuildNanos = lastBuildNanos; }
+    
+    public int getInlinePayloadLimit() { return inlinePayloadLimit; }
+    public void setInlinePayloadLimit(int inlinePayloadLimit) { this.inlinePayloadLimit = inlinePayloadLimit; }
+    
+    public BuildStrategy getBuildStrategy() { return buildStrategy; }
+    public void setBuildStrategy(BuildStrategy buildStrategy) { this.buildStrategy = buildStrategy; }
+    
+    public LatencyHistogram getSearchLatency() { return searchLatency; }
+    public LatencyHistogram getTableScanLatency() { return tableScanLatency; }
+    public LatencyHistogram getInsertLatency() { return insertLatency; }
+    public LatencyHistogram getBuildLatency() { return buildLatency; }
+    public LatencyHistogram getRehashStepLatency() { return rehashStepLatency; }
+    
+    public long getCacheHits() { return cacheHits.sum(); }
+    public long getCacheMisses() { return cacheMisses.sum(); }
+    public long getAvoidedBucketAccesses() { return avoidedBucketAccesses.sum(); }
+    public long getAvoidedPageAccesses() { return avoidedPageAccesses.sum(); }
+    public long getLookupHits() { return lookupHits.sum(); }
+    public long getLookupMisses() { return lookupMisses.sum(); }
+    public long getLookupBucketAccesses() { return lookupBucketAccesses.sum(); }
+    public long getLookupPageAccesses() { return lookupPageAccesses.sum(); }
+    public long getTableScanHits() { return tableScanHits.sum(); }
+    public long getTableScanPageAccesses() { return tableScanPageAccesses.sum(); }
+    public long getPayloadLookups() { return payloadLookups.sum(); }
+    
+    /**
+     * Payload lookups answered from the bucket entry, each one a page read saved.
+     */
+    public long getInlinePayloadHits() { return inlinePayloadHits.sum(); }
+    
     @Override
     public String toString() {
         return "IndexStatistics {\n" +
@@ -101,13 +371,44 @@ public class IndexStatistics {
                 "    Total Pages: " + String.format("%,d", totalPages) + "\n" +
                 "    Total Buckets: " + String.format("%,d", totalBuckets) + "\n" +
                 "    Bucket Capacity: " + bucketCapacity + "\n" +
+                "    Load Factor: " + String.format("%.2f", loadFactor) + "\n" +
+                "    Build Strategy: " + buildStrategy + "\n" +
+                (tuningDecision != null ? "    Auto-Tune Choice: " + tuningDecision.chosen() + "\n" : "") +
                 "    Collisions: " + String.format("%,d", collisions) + " (" + String.format("%.2f", getCollisionRate()) + "%)\n" +
                 "    Overflows: " + String.format("%,d", overflows) + " (" + String.format("%.2f", getOverflowRate()) + "%)\n" +
+                (rehashInProgress
+                    ? "    Rehash: " + String.format("%,d", rehashSourceBuckets) + " -> " + String.format("%,d", rehashTargetBuckets) +
+                      " buckets, " + String.format("%.1f", getRehashProgress()) + "% migrated\n"
+                    : "") +
+                "    Completed Rehashes: " + completedRehashes +
+                (completedRehashes > 0 ? " (last took " + String.format("%.2f", lastRehashDurationNanos / 1_000_000.0) + " ms)" : "") + "\n" +
                 "    Search Accesses: " + String.format("%,d", searchAccesses) + "\n" +
                 "    Table Scan Accesses: " + String.format("%,d", tableScanAccesses) + "\n" +
                 "    Search Time: " + String.format("%.2f", searchTimeNanos / 1_000_000.0) + " ms\n" +
                 "    Table Scan Time: " + String.format("%.2f", tableScanTimeNanos / 1_000_000.0) + " ms\n" +
                 "    Time Difference: " + String.format("%.2f", getTimeDifferenceMillis()) + " ms\n" +
+                "    Ordered Index: " + String.format("%,d", orderedIndexNodes) + " nodes, height " + orderedIndexHeight + "\n" +
+                "    Range Search Accesses: " + String.format("%,d", rangeSearchAccesses) + "\n" +
+                "    Range Scan Accesses: " + String.format("%,d", rangeScanAccesses) + "\n" +
+                "    Range Time Difference: " + String.format("%.2f", getRangeTimeDifferenceMillis()) + " ms\n" +
+                "    Data Memory: " + MemoryFootprint.formatBytes(memoryFootprint.dataBytes()) + "\n" +
+                "    Index Memory: " + MemoryFootprint.formatBytes(memoryFootprint.indexBytes()) +
+                " (overflow " + MemoryFootprint.formatBytes(memoryFootprint.overflowBucketBytes()) +
+                ", posting lists " + MemoryFootprint.formatBytes(memoryFootprint.postingListBytes()) + ")\n" +
+                "    Bytes/Record: " + String.format("%.1f", memoryFootprint.bytesPerRecord()) + "\n" +
+                (inlinePayloadLimit > 0
+                    ? "    Inline Payloads: up to " + inlinePayloadLimit + " bytes, " +
+                      String.format("%,d", getInlinePayloadHits()) + " of " + String.format("%,d", getPayloadLookups()) +
+                      " payload lookups saved a page read\n"
+                    : "") +
+                "    Cache Hits: " + String.format("%,d", getCacheHits()) + " (" + String.format("%.2f", getCacheHitRate()) + "%)\n" +
+                "    Avoided Accesses: " + String.format("%,d", getAvoidedBucketAccesses()) + " bucket, " +
+                String.format("%,d", getAvoidedPageAccesses()) + " page\n" +
+                "    " + searchLatency.snapshot() + "\n" +
+                "    " + tableScanLatency.snapshot() + "\n" +
+                "    " + insertLatency.snapshot() + "\n" +
+                "    " + buildLatency.snapshot() + "\n" +
+                "    " + rehashStepLatency.snapshot() + "\n" +
                 "}";
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.hashindex.model;
+
+/**
+ * Compares stored {@code String} keys with UTF-8 encoded keys without decoding or encoding
+ * either side into a new object.
+ */
+public final class KeyBytes {
+    
+    private KeyBytes() {
+    }
+    
+    /**
+     * Whether the bytes are all ASCII, in which case only a key with exactly {@code length} chars
+     * can match them. Callers comparing one key against many check this once to skip most
+     * candidates on their length alone.
+     */
+    public static boolean isAscii(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Whether {@code key} equals the given bytes, which {@link #isAscii} has already checked.
+     */
+    public static boolean equalsAscii(String key, byte[] bytes, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Whether {@code key} encodes to exactly the given UTF-8 bytes. Unpaired surrogates match
+     * {@code '?'}, as they do in {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    public static boolean equalsUtf8(String key, byte[] bytes, int offset, int length) {
+        int chars = key.length();
+        // Each char encodes to between one and three bytes
+        if (chars > length || (long) chars * 3 < length) {
+            return false;
+        }
+        int position = offset;
+        int end = offset + length;
+        for (int i = 0; i < chars; i++) {
+            char c = key.charAt(i);
+            if (c < 0x80) {
+                if (position == end || bytes[position++] != (byte) c) {
+                    return false;
+                }
+            } else if (c < 0x800) {
+                if (end - position < 2
+                        || bytes[position++] != (byte) (0xC0 | c >> 6)
+                        || bytes[position++] != (byte) (0x80 | c & 0x3F)) {
+                    return false;
+                }
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(key.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, key.charAt(++i));
+                if (end - position < 4
+                        || bytes[position++] != (byte) (0xF0 | codePoint >> 18)
+                        || bytes[position++] != (byte) (0x80 | codePoint >> 12 & 0x3F)
+                        || bytes[position++] != (byte) (0x80 | codePoint >> 6 & 0x3F)
+                        || bytes[position++] != (byte) (0x80 | codePoint & 0x3F)) {
+                    return false;
+                }
+            } else if (Character.isSurrogate(c)) {
+                if (position == end || bytes[position++] != '?') {
+                    return false;
+                }
+            } else {
+                if (end - position < 3
+                        || bytes[position++] != (byte) (0xE0 | c >> 12)
+                        || bytes[position++] != (byte) (0x80 | c >> 6 & 0x3F)
+                        || bytes[position++] != (byte) (0x80 | c & 0x3F)) {
+                    return false;
+                }
+            }
+        }
+        return position == end;
+    }
+}
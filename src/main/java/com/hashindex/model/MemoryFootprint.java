@@ -0,0 +1,79 @@
+package com.hashindex.model;
+
+/**
+ * Estimated retained heap bytes of the loaded pages and the hash index.
+ * Record strings are shared between pages and bucket entries, so they are counted once.
+ * Posting lists, which hold the pages of keys stored more than once, are counted apart from
+ * the bucket entries that own them.
+ */
+public record MemoryFootprint(
+    long pageBytes,
+    long recordStringBytes,
+    long directoryBytes,
+    long bucketBytes,
+    long bucketEntryBytes,
+    long overflowBucketBytes,
+    long postingListBytes,
+    long recordCount
+) {
+    
+    public static final MemoryFootprint EMPTY = new MemoryFootprint(0, 0, 0, 0, 0, 0, 0, 0);
+    
+    /**
+     * Bytes retained by the data pages, including the record strings.
+     */
+    public long dataBytes() {
+        return pageBytes + recordStringBytes;
+    }
+    
+    /**
+     * Bytes retained by the index structures (directory, buckets, entries, overflow chains and
+     * posting lists).
+     */
+    public long indexBytes() {
+        return directoryBytes + bucketBytes + bucketEntryBytes + overflowBucketBytes + postingListBytes;
+    }
+    
+    public long totalBytes() {
+        return dataBytes() + indexBytes();
+    }
+    
+    /**
+     * Average total bytes per record, the figure to alert on for regressions.
+     */
+    public double bytesPerRecord() {
+        if (recordCount == 0) return 0.0;
+        return (double) totalBytes() / recordCount;
+    }
+    
+    /**
+     * Average index bytes per record, excluding the data pages.
+     */
+    public double indexBytesPerRecord() {
+        if (recordCount == 0) return 0.0;
+        return (double) indexBytes() / recordCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "Memory Footprint {\n" +
+                "    Pages: " + formatBytes(pageBytes) + "\n" +
+                "    Record Strings: " + formatBytes(recordStringBytes) + "\n" +
+                "    Bucket Directory: " + formatBytes(directoryBytes) + "\n" +
+                "    Buckets: " + formatBytes(bucketBytes) + "\n" +
+                "    Bucket Entries: " + formatBytes(bucketEntryBytes) + "\n" +
+                "    Overflow Buckets: " + formatBytes(overflowBucketBytes) + "\n" +
+                "    Posting Lists: " + formatBytes(postingListBytes) + "\n" +
+                "    Total: " + formatBytes(totalBytes()) + "\n" +
+                "    Bytes/Record: " + String.format("%.1f", bytesPerRecord()) +
+                " (index " + String.format("%.1f", indexBytesPerRecord()) + ")\n" +
+                "}";
+    }
+    
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KiB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MiB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GiB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
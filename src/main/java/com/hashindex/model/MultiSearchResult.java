@@ -0,0 +1,32 @@
+package com.hashindex.model;
+
+import java.util.List;
+
+/**
+ * Represents the result of finding every page that holds a key, through the index's posting
+ * list or by scanning every page.
+ */
+public record MultiSearchResult(
+    String searchKey,
+    List<Integer> pageNumbers,
+    int bucketAccesses,
+    int pageAccesses
+) {
+    
+    public boolean found() {
+        return !pageNumbers.isEmpty();
+    }
+    
+    /**
+     * Total accesses: buckets plus pages read.
+     */
+    public int accessCount() {
+        return bucketAccesses + pageAccesses;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("'%s' on %,d pages (accessed %d buckets, %,d pages)",
+                             searchKey, pageNumbers.size(), bucketAccesses, pageAccesses);
+    }
+}
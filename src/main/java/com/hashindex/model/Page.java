@@ -1,22 +1,38 @@
 package com.hashindex.model;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * Represents a physical page that stores data records.
- * Each page has a fixed capacity and contains a list of records (words).
+ * Each page has a fixed capacity and contains a list of records (words). A record may carry a
+ * payload, a small value stored next to its key.
+ * 
+ * @see FrontCodedPage
  */
 public class Page {
     private final int pageNumber;
     private final int capacity;
     private final List<String> records;
+    // Payload of each record, or null until the first record with a payload is added
+    private List<byte[]> payloads;
     
     public Page(int pageNumber, int capacity) {
+        this(pageNumber, capacity, new ArrayList<>(capacity));
+    }
+    
+    /**
+     * For subclasses that keep the records in their own representation.
+     */
+    protected Page(int pageNumber, int capacity, List<String> records) {
         this.pageNumber = pageNumber;
         this.capacity = capacity;
-        this.records = new ArrayList<>(capacity);
+        this.records = records;
     }
     
     /**
@@ -26,10 +42,30 @@ public class Page {
      * @return true if the record was added successfully, false if the page is full
      */
     public boolean addRecord(String record) {
+        return addRecord(record, null);
+    }
+    
+    /**
+     * Adds a record with a payload to this page if there's space available.
+     * 
+     * @param record the record's key
+     * @param payload the value stored with it, or null for none
+     * @return true if the record was added successfully, false if the page is full
+     */
+    public boolean addRecord(String record, byte[] payload) {
         if (records.size() >= capacity) {
             return false;
         }
+        if (payload != null && payloads == null) {
+            payloads = new ArrayList<>(capacity);
+            for (int i = 0; i < records.size(); i++) {
+                payloads.add(null);
+            }
+        }
         records.add(record);
+        if (payloads != null) {
+            payloads.add(payload);
+        }
         return true;
     }
     
@@ -43,6 +79,23 @@ public class Page {
         return records.contains(searchKey);
     }
     
+    /**
+     * Searches for a record given as UTF-8 bytes, without decoding them.
+     * 
+     * @return true if a record encodes to exactly {@code key[offset, offset + length)}
+     */
+    public boolean containsRecord(byte[] key, int offset, int length) {
+        boolean ascii = KeyBytes.isAscii(key, offset, length);
+        for (int i = 0; i < records.size(); i++) {
+            String record = records.get(i);
+            if (ascii ? KeyBytes.equalsAscii(record, key, offset, length)
+                      : KeyBytes.equalsUtf8(record, key, offset, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Gets a record by index.
      * 
@@ -54,6 +107,50 @@ public class Page {
         return records.get(index);
     }
     
+    /**
+     * Gets the payload of a record by index.
+     * 
+     * @return the payload, or null if the record has none
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public byte[] getPayload(int index) {
+        Objects.checkIndex(index, size());
+        return payloads == null ? null : payloads.get(index);
+    }
+    
+    /**
+     * Gets the payload of the record with the given key.
+     * 
+     * @return the payload, or null if the key is not on this page or has no payload
+     */
+    public byte[] getPayload(String searchKey) {
+        if (payloads == null) {
+            return null;
+        }
+        int index = records.indexOf(searchKey);
+        return index < 0 ? null : payloads.get(index);
+    }
+    
+    /**
+     * Whether any record on this page has a payload.
+     */
+    public boolean hasPayloads() {
+        return payloads != null;
+    }
+    
+    /**
+     * Bytes of payload stored on this page.
+     */
+    public long getPayloadBytes() {
+        long bytes = 0;
+        if (payloads != null) {
+            for (byte[] payload : payloads) {
+                bytes += payload == null ? 0 : payload.length;
+            }
+        }
+        return bytes;
+    }
+    
     public int getPageNumber() {
         return pageNumber;
     }
@@ -62,10 +159,37 @@ public class Page {
         return capacity;
     }
     
+    /**
+     * Returns a copy of the records; use {@link #recordsView()} or {@link #forEachRecord} to read
+     * them without copying.
+     */
     public List<String> getRecords() {
         return new ArrayList<>(records);
     }
     
+    /**
+     * Returns a read-only view of the records backed by this page, so later additions show through.
+     */
+    public List<String> recordsView() {
+        return Collections.unmodifiableList(records);
+    }
+    
+    /**
+     * Passes each record to the action in order, without copying the page.
+     */
+    public void forEachRecord(Consumer<? super String> action) {
+        for (int i = 0; i < records.size(); i++) {
+            action.accept(records.get(i));
+        }
+    }
+    
+    /**
+     * Returns a sized, splittable spliterator over the records, backed by this page.
+     */
+    public Spliterator<String> recordSpliterator() {
+        return recordsView().spliterator();
+    }
+    
     public int size() {
         return records.size();
     }
@@ -78,6 +202,36 @@ public class Page {
         return records.isEmpty();
     }
     
+    public PageEncoding getEncoding() {
+        return PageEncoding.PLAIN;
+    }
+    
+    /**
+     * Bytes the records take when serialized one after another as a length varint followed by
+     * the UTF-8 bytes, the uncompressed baseline for {@link FrontCodedPage}.
+     */
+    public int getEncodedBytes() {
+        int bytes = 0;
+        for (String record : records) {
+            int length = record.getBytes(StandardCharsets.UTF_8).length;
+            bytes += FrontCodedPage.varintSize(length) + length;
+        }
+        return bytes;
+    }
+    
+    /**
+     * Returns an independent copy of this page with the same number, capacity and records.
+     */
+    public Page copy() {
+        Page copy = new Page(pageNumber, capacity);
+        copy.records.addAll(records);
+        if (payloads != null) {
+            // Payloads are never modified, so the copy shares them
+            copy.payloads = new ArrayList<>(payloads);
+        }
+        return copy;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
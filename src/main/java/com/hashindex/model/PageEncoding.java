@@ -0,0 +1,33 @@
+package com.hashindex.model;
+
+/**
+ * How a page stores its records, chosen when the data is loaded.
+ */
+public enum PageEncoding {
+    
+    /**
+     * One {@code String} per record; the page size is a record count.
+     */
+    PLAIN,
+    
+    /**
+     * Front-coded bytes with restart points ({@link FrontCodedPage}); the page size is a byte
+     * budget.
+     */
+    FRONT_CODED;
+    
+    /**
+     * Creates an empty page in this encoding.
+     * 
+     * @param pageSize records per page for {@link #PLAIN}, bytes per page for {@link #FRONT_CODED}
+     */
+    public Page newPage(int pageNumber, int pageSize) {
+        switch (this) {
+            case FRONT_CODED:
+                return new FrontCodedPage(pageNumber, pageSize);
+            case PLAIN:
+            default:
+                return new Page(pageNumber, pageSize);
+        }
+    }
+}
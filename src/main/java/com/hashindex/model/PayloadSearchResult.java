@@ -0,0 +1,40 @@
+package com.hashindex.model;
+
+/**
+ * Represents the result of looking up a key's payload. A payload held inline in its bucket
+ * entry is returned without reading the page.
+ */
+public record PayloadSearchResult(
+    String searchKey,
+    boolean found,
+    int pageNumber,
+    byte[] payload,
+    int bucketAccesses,
+    int pageAccesses
+) {
+    
+    /**
+     * Whether the payload came from the bucket entry rather than the page.
+     */
+    public boolean inline() {
+        return found && pageAccesses == 0;
+    }
+    
+    /**
+     * Total accesses: buckets plus pages read.
+     */
+    public int accessCount() {
+        return bucketAccesses + pageAccesses;
+    }
+    
+    @Override
+    public String toString() {
+        if (found) {
+            return String.format("Found '%s' on page %d with %s payload (accessed %d buckets, %d pages)",
+                                 searchKey, pageNumber, payload == null ? "no" : payload.length + "-byte",
+                                 bucketAccesses, pageAccesses);
+        }
+        return String.format("Key '%s' not found (accessed %d buckets, %d pages)",
+                             searchKey, bucketAccesses, pageAccesses);
+    }
+}
@@ -0,0 +1,191 @@
+package com.hashindex.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The pages a duplicated key occurs on, in ascending order, held compressed under the key's
+ * single bucket entry. Page numbers are stored as varint-encoded gaps from the previous page;
+ * once the key is on so many of the pages in its range that a bitmap of that range is smaller,
+ * the list switches to the bitmap, and back again if later pages make the bitmap sparse.
+ * <p>
+ * Pages are appended in ascending order, as loads and inserts fill them. Not thread-safe; the
+ * index only appends under its write lock.
+ */
+public final class PostingList {
+    
+    private static final int INITIAL_BYTES = 8;
+    
+    private final int firstPage;
+    private int lastPage;
+    private int size;
+    // Bytes the gaps take as varints, tracked in both representations to decide when to switch
+    private int varintBytes;
+    // Varint gaps after the first page, or null while the bitmap is used
+    private byte[] gaps;
+    // Bit i set for page firstPage + i, or null while the gaps are used
+    private long[] bitmap;
+    
+    /**
+     * Creates a list holding the first page a key was found on.
+     */
+    public PostingList(int firstPage) {
+        if (firstPage < 0) {
+            throw new IllegalArgumentException("Page number must not be negative: " + firstPage);
+        }
+        this.firstPage = firstPage;
+        this.lastPage = firstPage;
+        this.size = 1;
+        this.gaps = new byte[INITIAL_BYTES];
+    }
+    
+    /**
+     * Appends a page the key was found on.
+     * 
+     * @return false if the page is already the last one listed
+     * @throws IllegalArgumentException if the page comes before the last one listed
+     */
+    public boolean add(int pageNumber) {
+        if (pageNumber == lastPage) {
+            return false;
+        }
+        if (pageNumber < lastPage) {
+            throw new IllegalArgumentException("Page " + pageNumber + " added after page " + lastPage);
+        }
+        int gap = pageNumber - lastPage;
+        if (bitmap != null) {
+            int bit = pageNumber - firstPage;
+            if (bit >>> 6 >= bitmap.length) {
+                bitmap = Arrays.copyOf(bitmap, Math.max(bitmap.length * 2, (bit >>> 6) + 1));
+            }
+            bitmap[bit >>> 6] |= 1L << bit;
+        } else {
+            if (varintBytes + 5 > gaps.length) {
+                gaps = Arrays.copyOf(gaps, gaps.length * 2);
+            }
+            writeVarint(gaps, varintBytes, gap);
+        }
+        varintBytes += FrontCodedPage.varintSize(gap);
+        lastPage = pageNumber;
+        size++;
+        
+        long bitmapBytes = bitmapWords() * (long) Long.BYTES;
+        if (bitmap == null && bitmapBytes < varintBytes) {
+            toBitmap();
+        } else if (bitmap != null && bitmapBytes > 2L * varintBytes) {
+            // Sparse again; the slack keeps a list near the threshold from switching back and forth
+            toGaps();
+        }
+        return true;
+    }
+    
+    /**
+     * Passes each page to the action in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        if (bitmap != null) {
+            for (int word = 0; word < bitmap.length; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    action.accept(firstPage + (word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return;
+        }
+        action.accept(firstPage);
+        int page = firstPage;
+        int offset = 0;
+        while (offset < varintBytes) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = gaps[offset++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            page += gap;
+            action.accept(page);
+        }
+    }
+    
+    /**
+     * Returns the pages in ascending order.
+     */
+    public int[] toArray() {
+        int[] pages = new int[size];
+        int[] index = {0};
+        forEach(page -> pages[index[0]++] = page);
+        return pages;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getFirstPage() {
+        return firstPage;
+    }
+    
+    public int getLastPage() {
+        return lastPage;
+    }
+    
+    public boolean isBitmap() {
+        return bitmap != null;
+    }
+    
+    /**
+     * Bytes the pages take in the current representation, not counting unused capacity.
+     */
+    public int getEncodedBytes() {
+        return bitmap != null ? bitmapWords() * Long.BYTES : varintBytes;
+    }
+    
+    /**
+     * Length of the backing array: bytes of gaps, or longs of bitmap.
+     */
+    public int getAllocatedLength() {
+        return bitmap != null ? bitmap.length : gaps.length;
+    }
+    
+    private int bitmapWords() {
+        return ((lastPage - firstPage) >>> 6) + 1;
+    }
+    
+    private void toBitmap() {
+        long[] bits = new long[bitmapWords()];
+        forEach(page -> bits[(page - firstPage) >>> 6] |= 1L << (page - firstPage));
+        bitmap = bits;
+        gaps = null;
+    }
+    
+    private void toGaps() {
+        byte[] encoded = new byte[Math.max(INITIAL_BYTES, varintBytes + 5)];
+        int[] state = {firstPage, 0};
+        forEach(page -> {
+            if (page != firstPage) {
+                state[1] = writeVarint(encoded, state[1], page - state[0]);
+            }
+            state[0] = page;
+        });
+        gaps = encoded;
+        bitmap = null;
+    }
+    
+    private static int writeVarint(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+    
+    @Override
+    public String toString() {
+        return "PostingList{pages=" + size + ", " + (bitmap != null ? "bitmap" : "varint") + ", "
+            + getEncodedBytes() + " bytes}";
+    }
+}
@@ -0,0 +1,32 @@
+package com.hashindex.model;
+
+import java.util.List;
+
+/**
+ * Represents the result of a prefix or range query.
+ * Each match maps a record to the page it is stored on.
+ */
+public record RangeSearchResult(
+    String query,
+    List<BucketEntry> matches,
+    int nodeAccesses,
+    int pageAccesses
+) {
+    
+    public int matchCount() {
+        return matches.size();
+    }
+    
+    /**
+     * Total accesses: index nodes visited plus pages read.
+     */
+    public int accessCount() {
+        return nodeAccesses + pageAccesses;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %,d matches (accessed %d index nodes, %d pages)",
+                             query, matches.size(), nodeAccesses, pageAccesses);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hashindex.model;
+
+/**
+ * Predicted quality of one index configuration, evaluated on a sample of the loaded records.
+ */
+public record TuningCandidate(
+    String hashFunctionType,
+    int bucketCapacity,
+    double loadFactor,
+    long predictedBuckets,
+    double predictedOverflowRate,
+    double averageChainLength,
+    long predictedIndexBytes,
+    double score
+) {
+    
+    @Override
+    public String toString() {
+        return String.format("%-13s cap=%-3d lf=%.2f buckets=%,d overflow=%.2f%% chain=%.3f memory=%s score=%.3f",
+                             hashFunctionType, bucketCapacity, loadFactor, predictedBuckets,
+                             predictedOverflowRate, averageChainLength,
+                             MemoryFootprint.formatBytes(predictedIndexBytes), score);
+    }
+}
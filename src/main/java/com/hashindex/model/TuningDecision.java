@@ -0,0 +1,30 @@
+package com.hashindex.model;
+
+import java.util.List;
+
+/**
+ * Outcome of an auto-tuning run: the chosen configuration and every scored candidate,
+ * best first.
+ */
+public record TuningDecision(
+    TuningObjective objective,
+    int sampleSize,
+    TuningCandidate chosen,
+    List<TuningCandidate> candidates,
+    long elapsedNanos
+) {
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Auto-Tune (").append(objective).append(", sample ")
+          .append(String.format("%,d", sampleSize)).append(" records, ")
+          .append(String.format("%.1f", elapsedNanos / 1_000_000.0)).append(" ms)\n");
+        sb.append("Chosen: ").append(chosen).append("\n");
+        sb.append("Candidates:\n");
+        for (TuningCandidate candidate : candidates) {
+            sb.append("  ").append(candidate).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,11 @@
+package com.hashindex.model;
+
+/**
+ * Goal used by the index auto-tuner to rank candidate configurations.
+ */
+public enum TuningObjective {
+    /** Fewest expected bucket accesses per lookup; memory breaks ties. */
+    MIN_LATENCY,
+    /** Fewest index bytes per record, as long as chains stay short. */
+    MIN_MEMORY
+}
@@ -0,0 +1,173 @@
+package com.hashindex.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Blocking client for {@link IndexServer}. Requests are buffered by the {@code send} methods
+ * and written by {@link #flush()}, so several can be pipelined before reading the responses
+ * with {@link #receive()} in the same order. Not thread-safe; use one client per thread.
+ */
+public class IndexClient implements AutoCloseable {
+    
+    private static final int BUFFER_BYTES = 64 * 1024;
+    
+    private final SocketChannel channel;
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+    private int nextRequestId;
+    // Opcodes of the requests awaiting a response; responses arrive in request order
+    private final Deque<Byte> pendingOpcodes = new ArrayDeque<>();
+    
+    public IndexClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        in.flip();
+    }
+    
+    /**
+     * Queues a lookup.
+     * 
+     * @return the request id
+     */
+    public int sendLookup(String key) {
+        ensureOut(IndexProtocol.maxRequestBytes(key));
+        IndexProtocol.writeLookup(out, nextRequestId, key);
+        pendingOpcodes.add(IndexProtocol.OP_LOOKUP);
+        return nextRequestId++;
+    }
+    
+    /**
+     * Queues an insert.
+     * 
+     * @return the request id
+     */
+    public int sendInsert(String key) {
+        ensureOut(IndexProtocol.maxRequestBytes(key));
+        IndexProtocol.writeInsert(out, nextRequestId, key);
+        pendingOpcodes.add(IndexProtocol.OP_INSERT);
+        return nextRequestId++;
+    }
+    
+    /**
+     * Queues a batch lookup answered by a single response.
+     * 
+     * @return the request id
+     */
+    public int sendBatchLookup(List<String> keys) {
+        int bytes = 4;
+        for (String key : keys) {
+            bytes += IndexProtocol.maxRequestBytes(key);
+        }
+        ensureOut(bytes);
+        IndexProtocol.writeBatchLookup(out, nextRequestId, keys);
+        pendingOpcodes.add(IndexProtocol.OP_BATCH_LOOKUP);
+        return nextRequestId++;
+    }
+    
+    /**
+     * Writes all queued requests.
+     */
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+    
+    /**
+     * Reads the next response, blocking until it has fully arrived.
+     */
+    public IndexResponse receive() throws IOException {
+        Byte opcode = pendingOpcodes.poll();
+        if (opcode == null) {
+            throw new IllegalStateException("No request awaiting a response");
+        }
+        fill(4);
+        int length = in.getInt();
+        if (length < IndexProtocol.FRAME_HEADER_BYTES || length > IndexProtocol.MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        fill(length);
+        ByteBuffer frame = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        
+        byte status = frame.get();
+        int requestId = frame.getInt();
+        if (status != IndexProtocol.STATUS_OK) {
+            return new IndexResponse(requestId, false, new int[0], 0, IndexProtocol.readString(frame));
+        }
+        if (opcode == IndexProtocol.OP_LOOKUP) {
+            return new IndexResponse(requestId, true, new int[] {frame.getInt()}, frame.getInt(), null);
+        }
+        if (opcode == IndexProtocol.OP_INSERT) {
+            return new IndexResponse(requestId, true, new int[] {frame.getInt()}, 0, null);
+        }
+        int[] pages = new int[frame.getInt()];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = frame.getInt();
+        }
+        return new IndexResponse(requestId, true, pages, 0, null);
+    }
+    
+    /**
+     * Looks up a single key and waits for the answer.
+     */
+    public IndexResponse lookup(String key) throws IOException {
+        sendLookup(key);
+        flush();
+        return receive();
+    }
+    
+    /**
+     * Inserts a single key and waits for the answer.
+     */
+    public IndexResponse insert(String key) throws IOException {
+        sendInsert(key);
+        flush();
+        return receive();
+    }
+    
+    private void ensureOut(int bytes) {
+        if (out.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+    }
+    
+    /**
+     * Reads until at least {@code bytes} are buffered; the buffer stays in read mode.
+     */
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        if (in.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(bytes);
+            larger.put(in);
+            in = larger;
+        } else {
+            in.compact();
+        }
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+        in.flip();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
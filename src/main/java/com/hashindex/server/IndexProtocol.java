@@ -0,0 +1,97 @@
+package com.hashindex.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Length-prefixed binary protocol spoken by {@link IndexServer} and {@link IndexClient}.
+ * All integers are big-endian.
+ * <pre>
+ * request:  int length | byte opcode | int requestId | body
+ * response: int length | byte status | int requestId | body
+ * </pre>
+ * {@code length} counts the bytes after itself. Keys are encoded as an unsigned short byte
+ * count followed by UTF-8. Request bodies: LOOKUP and INSERT carry one key, BATCH_LOOKUP an
+ * int count followed by the keys. Response bodies: LOOKUP has int page and int accesses, INSERT
+ * has int page, BATCH_LOOKUP has an int count followed by one int page per key, and ERROR has
+ * a message encoded like a key. A missing key has page -1.
+ * <p>
+ * Clients may pipeline: any number of requests can be sent before reading responses, which
+ * come back in request order on each connection.
+ */
+public final class IndexProtocol {
+    
+    public static final byte OP_LOOKUP = 1;
+    public static final byte OP_BATCH_LOOKUP = 2;
+    public static final byte OP_INSERT = 3;
+    
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+    
+    // opcode/status plus request id
+    public static final int FRAME_HEADER_BYTES = 5;
+    public static final int MAX_FRAME_BYTES = 16 << 20;
+    public static final int MAX_KEY_BYTES = 0xFFFF;
+    
+    private IndexProtocol() {
+    }
+    
+    public static void writeLookup(ByteBuffer buffer, int requestId, String key) {
+        writeKeyRequest(buffer, OP_LOOKUP, requestId, key);
+    }
+    
+    public static void writeInsert(ByteBuffer buffer, int requestId, String key) {
+        writeKeyRequest(buffer, OP_INSERT, requestId, key);
+    }
+    
+    public static void writeBatchLookup(ByteBuffer buffer, int requestId, List<String> keys) {
+        int start = buffer.position();
+        buffer.putInt(0).put(OP_BATCH_LOOKUP).putInt(requestId).putInt(keys.size());
+        for (String key : keys) {
+            writeString(buffer, key);
+        }
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+    
+    private static void writeKeyRequest(ByteBuffer buffer, byte opcode, int requestId, String key) {
+        int start = buffer.position();
+        buffer.putInt(0).put(opcode).putInt(requestId);
+        writeString(buffer, key);
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+    
+    /**
+     * Upper bound of the encoded size of a single-key request.
+     */
+    public static int maxRequestBytes(String key) {
+        return 4 + FRAME_HEADER_BYTES + 2 + key.length() * 3;
+    }
+    
+    static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key too long: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+    
+    /**
+     * Reads a key's length prefix and checks that the key's bytes, which follow at the buffer's
+     * position, are all there.
+     */
+    static int readKeyLength(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated key");
+        }
+        return length;
+    }
+    
+    static String readString(ByteBuffer buffer) {
+        int length = readKeyLength(buffer);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hashindex.server;
+
+/**
+ * A decoded server response. {@code pages} holds one page number per looked-up or inserted
+ * key (-1 when missing); {@code accesses} is only set for single lookups.
+ */
+public record IndexResponse(
+    int requestId,
+    boolean ok,
+    int[] pages,
+    int accesses,
+    String error
+) {
+    
+    public int pageNumber() {
+        return pages.length > 0 ? pages[0] : -1;
+    }
+    
+    public boolean found() {
+        return ok && pageNumber() != -1;
+    }
+}
@@ -0,0 +1,442 @@
+package com.hashindex.server;
+
+import com.hashindex.jmx.IndexServiceMonitor;
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashIndexService;
+import com.hashindex.util.CommandOptions;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP server exposing lookup, batch lookup and insert over {@link IndexProtocol}.
+ * <p>
+ * One acceptor thread hands connections round-robin to one non-blocking selector thread per
+ * worker (by default one per core). Each worker decodes every complete frame it has read,
+ * runs it against the shared {@link HashIndexService} and queues the responses in order, so
+ * pipelined requests are served without a thread per connection. Lookups run in parallel
+ * under the service's read lock; inserts are exclusive.
+ * <p>
+ * A connection whose client does not read its responses stops being read once
+ * {@value #MAX_QUEUED_OUTPUT_BYTES} bytes of responses are queued for it, and is read again
+ * when the queue has drained to the socket, so a pipelining client cannot exhaust the heap.
+ */
+public class IndexServer implements AutoCloseable {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: server [options]",
+        "  --port N               listen port, 0 = any free port (default 7070)",
+        "  --workers N            selector threads (default: available processors)",
+        "  --records N            synthetic dataset size, 0 = words.txt (default 0)",
+        "  --seed N               synthetic dataset seed (default 42)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --report-ms N          statistics report interval, 0 = off (default 5000)");
+    
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_QUEUED_OUTPUT_BYTES = 16 * BUFFER_BYTES;
+    
+    private final HashIndexService service;
+    private final ServerStatistics statistics = new ServerStatistics();
+    private final ServerSocketChannel serverChannel;
+    private final Selector acceptSelector;
+    private final List<Worker> workers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    
+    /**
+     * Binds the server socket; call {@link #start()} to begin serving.
+     * 
+     * @param service the index to serve, already loaded and constructed
+     * @param port the port to listen on, or 0 for any free port
+     * @param workerThreads number of selector threads
+     */
+    public IndexServer(HashIndexService service, int port, int workerThreads) throws IOException {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker threads must be positive");
+        }
+        this.service = service;
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        this.acceptSelector = Selector.open();
+        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        for (int i = 0; i < workerThreads; i++) {
+            workers.add(new Worker());
+        }
+    }
+    
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers.size(); i++) {
+            threads.add(startThread(workers.get(i), "index-server-worker-" + i));
+        }
+        threads.add(startThread(this::acceptLoop, "index-server-acceptor"));
+    }
+    
+    private static Thread startThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+    
+    private void acceptLoop() {
+        int next = 0;
+        try {
+            while (running) {
+                acceptSelector.select();
+                acceptSelector.selectedKeys().clear();
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    statistics.connectionOpened();
+                    workers.get(next++ % workers.size()).register(channel);
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Acceptor failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+    
+    public ServerStatistics getStatistics() {
+        return statistics;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        running = false;
+        acceptSelector.wakeup();
+        for (Worker worker : workers) {
+            worker.selector.wakeup();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        serverChannel.close();
+        acceptSelector.close();
+        for (Worker worker : workers) {
+            worker.closeAll();
+        }
+    }
+    
+    /**
+     * A selector thread serving its share of the connections.
+     */
+    private final class Worker implements Runnable {
+        final Selector selector;
+        final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        
+        Worker() throws IOException {
+            this.selector = Selector.open();
+        }
+        
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+        
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = pending.poll()) != null) {
+                        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                    }
+                    
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid()) {
+                                connection.serve(key);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            connection.close(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Worker failed: " + e.getMessage());
+                }
+            }
+        }
+        
+        void closeAll() throws IOException {
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).close(key);
+            }
+            selector.close();
+        }
+    }
+    
+    /**
+     * Per-connection buffers. The input buffer is kept in write mode between reads and the
+     * output buffer holds encoded responses not yet written to the socket.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+        // End of each queued response, counted in bytes since the connection opened
+        final Deque<Long> responseEnds = new ArrayDeque<>();
+        long sentBytes;
+        
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+        
+        void read() throws IOException {
+            int n = channel.read(in);
+            if (n < 0) {
+                throw new IOException("Connection closed by peer");
+            }
+            statistics.bytesRead(n);
+        }
+        
+        /**
+         * Handles the complete frames read so far and writes the responses, stopping while
+         * the queued output is over its limit, then selects the events to wait for: reads
+         * only while the output is under the limit, writes while any output is queued.
+         */
+        void serve(SelectionKey key) throws IOException {
+            boolean flushed;
+            do {
+                handleFrames();
+                flushed = flush();
+            } while (flushed && hasCompleteFrame());
+            int ops = isBackedUp() ? 0 : SelectionKey.OP_READ;
+            key.interestOps(flushed ? ops : ops | SelectionKey.OP_WRITE);
+        }
+        
+        private boolean isBackedUp() {
+            return out.position() >= MAX_QUEUED_OUTPUT_BYTES;
+        }
+        
+        private boolean hasCompleteFrame() {
+            // An invalid length also counts, so that handleFrames rejects it
+            return in.position() >= 4 && in.getInt(0) + 4L <= in.position();
+        }
+        
+        private void handleFrames() throws IOException {
+            in.flip();
+            while (!isBackedUp() && in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (length < IndexProtocol.FRAME_HEADER_BYTES || length > IndexProtocol.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length: " + length);
+                }
+                if (in.remaining() < 4 + length) {
+                    if (in.capacity() < 4 + length) {
+                        // Grow for a frame larger than the buffer
+                        ByteBuffer larger = ByteBuffer.allocate(4 + length);
+                        larger.put(in);
+                        larger.flip();
+                        in = larger;
+                    }
+                    break;
+                }
+                in.getInt();
+                int end = in.position() + length;
+                ByteBuffer frame = in.slice(in.position(), length);
+                in.position(end);
+                handle(frame);
+            }
+            in.compact();
+        }
+        
+        private void handle(ByteBuffer frame) {
+            statistics.requestReceived();
+            long startTime = System.nanoTime();
+            byte opcode = frame.get();
+            int requestId = frame.getInt();
+            int start = out.position();
+            try {
+                switch (opcode) {
+                    case IndexProtocol.OP_LOOKUP: {
+                        SearchResult result = service.searchWithIndex(IndexProtocol.readString(frame));
+                        beginResponse(IndexProtocol.STATUS_OK, requestId, 8);
+                        out.putInt(result.found() ? result.pageNumber() : -1).putInt(result.accessCount());
+                        endResponse(start);
+                        statistics.getLookupLatency().record(System.nanoTime() - startTime);
+                        break;
+                    }
+                    case IndexProtocol.OP_BATCH_LOOKUP: {
+                        int count = frame.getInt();
+                        if (count < 0 || count > frame.remaining() / 2) {
+                            throw new IllegalArgumentException("Invalid batch size: " + count);
+                        }
+                        beginResponse(IndexProtocol.STATUS_OK, requestId, 4 + 4 * count);
+                        out.putInt(count);
+                        for (int i = 0; i < count; i++) {
+                            // Looked up straight from the frame bytes
+                            int length = IndexProtocol.readKeyLength(frame);
+                            out.putInt(service.searchWithIndex(frame.array(), frame.arrayOffset() + frame.position(),
+                                                               length));
+                            frame.position(frame.position() + length);
+                        }
+                        endResponse(start);
+                        statistics.getBatchLookupLatency().record(System.nanoTime() - startTime);
+                        break;
+                    }
+                    case IndexProtocol.OP_INSERT: {
+                        int pageNumber = service.insertRecord(IndexProtocol.readString(frame));
+                        beginResponse(IndexProtocol.STATUS_OK, requestId, 4);
+                        out.putInt(pageNumber);
+                        endResponse(start);
+                        statistics.getInsertLatency().record(System.nanoTime() - startTime);
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unknown opcode: " + opcode);
+                }
+            } catch (RuntimeException e) {
+                // Discard a partially written response and report the error instead
+                out.position(start);
+                statistics.errorOccurred();
+                String message = String.valueOf(e.getMessage());
+                beginResponse(IndexProtocol.STATUS_ERROR, requestId, 2 + message.length() * 3);
+                IndexProtocol.writeString(out, message);
+                endResponse(start);
+            }
+        }
+        
+        private void beginResponse(byte status, int requestId, int bodyBytes) {
+            int needed = 4 + IndexProtocol.FRAME_HEADER_BYTES + bodyBytes;
+            if (out.remaining() < needed) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + needed));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+            out.putInt(0).put(status).putInt(requestId);
+        }
+        
+        private void endResponse(int start) {
+            out.putInt(start, out.position() - start - 4);
+            responseEnds.addLast(sentBytes + out.position());
+        }
+        
+        /**
+         * Writes as much queued output as the socket accepts. Every queued response leaves the
+         * in-flight count before the write and the ones it did not complete return after it,
+         * so a response the client has read is never still counted.
+         * 
+         * @return true if everything was written
+         */
+        private boolean flush() throws IOException {
+            if (out.position() == 0) {
+                return true;
+            }
+            statistics.responsesSent(responseEnds.size());
+            int written = 0;
+            out.flip();
+            try {
+                written = channel.write(out);
+            } finally {
+                out.compact();
+                sentBytes += written;
+                statistics.bytesWritten(written);
+                while (!responseEnds.isEmpty() && responseEnds.peekFirst() <= sentBytes) {
+                    responseEnds.removeFirst();
+                }
+                statistics.responsesUnsent(responseEnds.size());
+            }
+            return out.position() == 0;
+        }
+        
+        void close(SelectionKey key) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already closing
+            }
+            statistics.responsesSent(responseEnds.size());
+            responseEnds.clear();
+            statistics.connectionClosed();
+        }
+    }
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, IndexServer::run);
+    }
+    
+    /**
+     * Reads the options, loads and indexes the dataset and serves until the process exits.
+     */
+    public static void run(CommandOptions options) throws IOException, InterruptedException {
+        int port = options.getInt("port", 7070);
+        int workerThreads = options.getInt("workers", Runtime.getRuntime().availableProcessors());
+        int records = options.getInt("records", 0);
+        long seed = options.getLong("seed", 42);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        long reportMillis = options.getLong("report-ms", 5_000);
+        
+        HashIndexService service = new HashIndexService();
+        if (records > 0) {
+            service.loadData(WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed), pageSize);
+        } else {
+            service.loadData(pageSize);
+        }
+        service.constructIndex(bucketCapacity);
+        
+        IndexServer server = new IndexServer(service, port, workerThreads);
+        server.start();
+        try {
+            IndexServiceMonitor.register(service, "server-" + server.getPort());
+        } catch (JMException e) {
+            System.err.println("Could not register the index MBean: " + e.getMessage());
+        }
+        System.out.println(String.format("Serving %,d records on port %d with %d workers",
+                                         service.getStatistics().getTotalRecords(), server.getPort(), workerThreads));
+        
+        if (reportMillis > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "index-server-report");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> System.out.println(server.getStatistics()),
+                                         reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+        }
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,195 @@
+package com.hashindex.server;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.metrics.LatencyHistogram;
+import com.hashindex.util.CommandOptions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load-generating client for {@link IndexServer}. Each connection runs on its own thread and
+ * keeps {@code pipeline} requests in flight: it sends them in one write, then reads all the
+ * responses, recording each request's round-trip latency.
+ * <p>
+ * Keys are drawn from the same synthetic dataset the server generates for the same
+ * {@code --records} and {@code --seed}, so lookups hit.
+ */
+public class LoadClient {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: client [options]",
+        "  --host H               server host (default localhost)",
+        "  --port N               server port (default 7070)",
+        "  --connections N        concurrent connections (default 4)",
+        "  --pipeline N           requests in flight per connection (default 16)",
+        "  --batch N              keys per lookup request, 1 = single lookups (default 1)",
+        "  --insert-ratio X       fraction of requests that insert (default 0.0)",
+        "  --records N            server dataset size to draw keys from (default 100000)",
+        "  --seed N               server dataset seed (default 42)",
+        "  --duration-ms N        run duration (default 10000)");
+    
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final int pipeline;
+    private final int batch;
+    private final double insertRatio;
+    
+    public LoadClient(String host, int port, int connections, int pipeline, int batch, double insertRatio) {
+        if (connections <= 0 || pipeline <= 0 || batch <= 0) {
+            throw new IllegalArgumentException("connections, pipeline and batch must be positive");
+        }
+        if (insertRatio < 0 || insertRatio > 1) {
+            throw new IllegalArgumentException("insertRatio must be between 0 and 1: " + insertRatio);
+        }
+        this.host = host;
+        this.port = port;
+        this.connections = connections;
+        this.pipeline = pipeline;
+        this.batch = batch;
+        this.insertRatio = insertRatio;
+    }
+    
+    /**
+     * Drives the server for the given duration and summarizes the results.
+     */
+    public Report run(List<String> keys, long durationMillis, long seed) throws InterruptedException, IOException {
+        LatencyHistogram latency = new LatencyHistogram("Round Trip");
+        LongAdder requests = new LongAdder();
+        LongAdder keyOperations = new LongAdder();
+        LongAdder hits = new LongAdder();
+        LongAdder errors = new LongAdder();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        List<Future<Void>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + durationMillis * 1_000_000L;
+        
+        for (int c = 0; c < connections; c++) {
+            SplittableRandom random = new SplittableRandom(seed * 31 + c);
+            int connectionId = c;
+            futures.add(executor.submit(() -> {
+                long insertSequence = 0;
+                try (IndexClient client = new IndexClient(host, port)) {
+                    List<String> batchKeys = new ArrayList<>(batch);
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < pipeline; i++) {
+                            if (insertRatio > 0 && random.nextDouble() < insertRatio) {
+                                client.sendInsert("net-" + connectionId + "-" + insertSequence++);
+                            } else if (batch == 1) {
+                                client.sendLookup(keys.get(random.nextInt(keys.size())));
+                            } else {
+                                batchKeys.clear();
+                                for (int k = 0; k < batch; k++) {
+                                    batchKeys.add(keys.get(random.nextInt(keys.size())));
+                                }
+                                client.sendBatchLookup(batchKeys);
+                            }
+                        }
+                        long sent = System.nanoTime();
+                        client.flush();
+                        
+                        for (int i = 0; i < pipeline; i++) {
+                            IndexResponse response = client.receive();
+                            latency.record(System.nanoTime() - sent);
+                            requests.increment();
+                            if (!response.ok()) {
+                                errors.increment();
+                                continue;
+                            }
+                            keyOperations.add(response.pages().length);
+                            for (int page : response.pages()) {
+                                if (page != -1) {
+                                    hits.increment();
+                                }
+                            }
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Client connection failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        return new Report(connections, pipeline, batch, System.nanoTime() - start, requests.sum(),
+                          keyOperations.sum(), hits.sum(), errors.sum(), latency);
+    }
+    
+    /**
+     * Client-side results of a run.
+     */
+    public record Report(
+        int connections,
+        int pipeline,
+        int batch,
+        long elapsedNanos,
+        long requests,
+        long keyOperations,
+        long hits,
+        long errors,
+        LatencyHistogram latency
+    ) {
+        
+        public double requestsPerSecond() {
+            if (elapsedNanos == 0) return 0.0;
+            return requests * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        public double keysPerSecond() {
+            if (elapsedNanos == 0) return 0.0;
+            return keyOperations * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d connections x %d pipelined (batch %d): %,.0f requests/s, %,.0f keys/s, " +
+                                 "%,d requests, %,d hits, %,d errors%n%s",
+                                 connections, pipeline, batch, requestsPerSecond(), keysPerSecond(),
+                                 requests, hits, errors, latency.snapshot());
+        }
+    }
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, LoadClient::run);
+    }
+    
+    /**
+     * Reads the options, runs the client and prints the report to standard output.
+     */
+    public static void run(CommandOptions options) throws IOException, InterruptedException {
+        String host = options.getString("host", "localhost");
+        int port = options.getInt("port", 7070);
+        int connections = options.getInt("connections", 4);
+        int pipeline = options.getInt("pipeline", 16);
+        int batch = options.getInt("batch", 1);
+        double insertRatio = options.getDouble("insert-ratio", 0.0);
+        int records = options.getInt("records", 100_000);
+        long seed = options.getLong("seed", 42);
+        long durationMillis = options.getLong("duration-ms", 10_000);
+        
+        List<String> keys = WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed);
+        LoadClient client = new LoadClient(host, port, connections, pipeline, batch, insertRatio);
+        System.out.println(client.run(keys, durationMillis, seed));
+    }
+}
@@ -0,0 +1,82 @@
+package com.hashindex.server;
+
+import com.hashindex.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection, request and latency counters of an {@link IndexServer}, updated concurrently
+ * by its selector threads. Latencies are the server-side service time of each request.
+ * A request is in flight until its response has been completely written to the socket.
+ */
+public class ServerStatistics {
+    
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final LongAdder acceptedConnections = new LongAdder();
+    private final AtomicLong inFlightRequests = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    
+    private final LatencyHistogram lookupLatency = new LatencyHistogram("Server Lookup");
+    private final LatencyHistogram batchLookupLatency = new LatencyHistogram("Server Batch Lookup");
+    private final LatencyHistogram insertLatency = new LatencyHistogram("Server Insert");
+    
+    void connectionOpened() {
+        openConnections.incrementAndGet();
+        acceptedConnections.increment();
+    }
+    
+    void connectionClosed() {
+        openConnections.decrementAndGet();
+    }
+    
+    void requestReceived() {
+        requests.increment();
+        inFlightRequests.incrementAndGet();
+    }
+    
+    void responsesSent(long count) {
+        inFlightRequests.addAndGet(-count);
+    }
+    
+    void responsesUnsent(long count) {
+        inFlightRequests.addAndGet(count);
+    }
+    
+    void errorOccurred() {
+        errors.increment();
+    }
+    
+    void bytesRead(long count) {
+        bytesRead.add(count);
+    }
+    
+    void bytesWritten(long count) {
+        bytesWritten.add(count);
+    }
+    
+    public int getOpenConnections() { return openConnections.get(); }
+    public long getAcceptedConnections() { return acceptedConnections.sum(); }
+    public long getInFlightRequests() { return inFlightRequests.get(); }
+    public long getRequests() { return requests.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public long getBytesRead() { return bytesRead.sum(); }
+    public long getBytesWritten() { return bytesWritten.sum(); }
+    
+    public LatencyHistogram getLookupLatency() { return lookupLatency; }
+    public LatencyHistogram getBatchLookupLatency() { return batchLookupLatency; }
+    public LatencyHistogram getInsertLatency() { return insertLatency; }
+    
+    @Override
+    public String toString() {
+        return String.format("connections %d open (%,d accepted), in-flight %,d, requests %,d, errors %,d, " +
+                             "in %,d B, out %,d B%n  %s%n  %s%n  %s",
+                             getOpenConnections(), getAcceptedConnections(), getInFlightRequests(), getRequests(),
+                             getErrors(), getBytesRead(), getBytesWritten(),
+                             lookupLatency.snapshot(), batchLookupLatency.snapshot(), insertLatency.snapshot());
+    }
+}
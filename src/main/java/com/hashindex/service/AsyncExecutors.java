@@ -0,0 +1,84 @@
+package com.hashindex.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the asynchronous {@link HashIndexService} API.
+ * <p>
+ * {@link #createDefault()} returns a virtual-thread-per-task executor on JDKs that provide one
+ * (looked up reflectively, as the project targets Java 17), and a bounded pool of daemon
+ * platform threads otherwise.
+ */
+public final class AsyncExecutors {
+    
+    public static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+    
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+    
+    private AsyncExecutors() {
+    }
+    
+    /**
+     * The executor shared by services that have not been given one, created on first use.
+     */
+    public static Executor shared() {
+        return SharedHolder.EXECUTOR;
+    }
+    
+    /**
+     * Virtual threads when supported, otherwise a bounded pool sized to the available processors.
+     */
+    public static ExecutorService createDefault() {
+        if (VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke();
+            } catch (Throwable e) {
+                // Fall through to the platform thread pool
+            }
+        }
+        return createBoundedPool(Math.max(2, Runtime.getRuntime().availableProcessors()), DEFAULT_QUEUE_CAPACITY);
+    }
+    
+    /**
+     * A fixed pool of daemon threads with a bounded queue; submissions beyond the queue
+     * capacity are rejected.
+     */
+    public static ExecutorService createBoundedPool(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "hash-index-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+    
+    public static boolean supportsVirtualThreads() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+    
+    private static final class SharedHolder {
+        static final Executor EXECUTOR = createDefault();
+    }
+    
+    private static MethodHandle findVirtualThreadExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                java.util.concurrent.Executors.class, "newVirtualThreadPerTaskExecutor",
+                MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
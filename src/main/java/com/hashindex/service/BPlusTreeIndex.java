@@ -0,0 +1,360 @@
+package com.hashindex.service;
+
+import com.hashindex.model.BucketEntry;
+import com.hashindex.model.Page;
+import com.hashindex.model.RangeSearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ordered secondary index over the page records: a B+ tree whose leaves map each record to
+ * its page number and are linked left to right for range scans. Duplicate keys are allowed.
+ * <p>
+ * Internal nodes hold at most {@code fanout} children and leaves at most {@code fanout} entries.
+ * The tree is bulk-loaded bottom-up from the sorted records and grows by node splits on insert.
+ * Not thread-safe; {@link HashIndexService} guards it with its read-write lock.
+ */
+public class BPlusTreeIndex {
+    
+    private final int fanout;
+    private Node root;
+    private long size;
+    
+    private BPlusTreeIndex(int fanout) {
+        this.fanout = fanout;
+    }
+    
+    /**
+     * Bulk-loads a tree from every record of the given pages.
+     * 
+     * @param pages the data pages
+     * @param fanout maximum children per internal node and entries per leaf (at least 3)
+     * @return the loaded tree
+     */
+    public static BPlusTreeIndex build(List<Page> pages, int fanout) {
+        if (fanout < 3) {
+            throw new IllegalArgumentException("Fanout must be at least 3");
+        }
+        
+        List<BucketEntry> entries = new ArrayList<>();
+        for (Page page : pages) {
+            int pageNumber = page.getPageNumber();
+            page.forEachRecord(record -> entries.add(new BucketEntry(record, pageNumber)));
+        }
+        entries.sort(Comparator.comparing(BucketEntry::searchKey));
+        
+        BPlusTreeIndex tree = new BPlusTreeIndex(fanout);
+        tree.bulkLoad(entries);
+        return tree;
+    }
+    
+    private void bulkLoad(List<BucketEntry> entries) {
+        size = entries.size();
+        
+        // Leaf level
+        List<Node> level = new ArrayList<>();
+        Leaf previous = null;
+        for (int start = 0; start < entries.size() || level.isEmpty(); start += fanout) {
+            Leaf leaf = new Leaf(fanout);
+            int end = Math.min(entries.size(), start + fanout);
+            for (int i = start; i < end; i++) {
+                leaf.keys[leaf.count] = entries.get(i).searchKey();
+                leaf.pages[leaf.count] = entries.get(i).pageNumber();
+                leaf.count++;
+            }
+            if (previous != null) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level.add(leaf);
+        }
+        
+        // Internal levels
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>();
+            for (int start = 0; start < level.size(); start += fanout) {
+                int end = Math.min(level.size(), start + fanout);
+                // Avoid a parent with a single child at the end of the level
+                if (end - start == 1 && !parents.isEmpty()) {
+                    Internal last = (Internal) parents.get(parents.size() - 1);
+                    last.appendChild(level.get(start));
+                    if (last.count > fanout) {
+                        parents.add(last.split());
+                    }
+                    break;
+                }
+                Internal parent = new Internal(fanout);
+                for (int i = start; i < end; i++) {
+                    parent.appendChild(level.get(i));
+                }
+                parents.add(parent);
+            }
+            level = parents;
+        }
+        
+        root = level.get(0);
+    }
+    
+    /**
+     * Inserts a single record.
+     */
+    public void insert(String key, int pageNumber) {
+        Node sibling = root.insert(key, pageNumber);
+        if (sibling != null) {
+            Internal newRoot = new Internal(fanout);
+            newRoot.appendChild(root);
+            newRoot.appendChild(sibling);
+            root = newRoot;
+        }
+        size++;
+    }
+    
+    /**
+     * Finds every record starting with the given prefix.
+     */
+    public RangeSearchResult searchPrefix(String prefix) {
+        return scan("prefix '" + prefix + "'", prefix, null, prefix);
+    }
+    
+    /**
+     * Finds every record between {@code from} and {@code to}, both inclusive.
+     */
+    public RangeSearchResult searchRange(String from, String to) {
+        return scan("range ['" + from + "', '" + to + "']", from, to, null);
+    }
+    
+    private RangeSearchResult scan(String query, String from, String to, String prefix) {
+        int nodeAccesses = 0;
+        
+        // Descend to the leftmost leaf that may contain 'from'
+        Node node = root;
+        while (node instanceof Internal) {
+            nodeAccesses++;
+            Internal internal = (Internal) node;
+            node = internal.children[internal.lowerBoundChild(from)];
+        }
+        
+        List<BucketEntry> matches = new ArrayList<>();
+        Set<Integer> pagesRead = new HashSet<>();
+        Leaf leaf = (Leaf) node;
+        int index = leaf.lowerBound(from);
+        nodeAccesses++;
+        
+        while (leaf != null) {
+            for (; index < leaf.count; index++) {
+                String key = leaf.keys[index];
+                if (prefix != null ? !key.startsWith(prefix) : key.compareTo(to) > 0) {
+                    return new RangeSearchResult(query, matches, nodeAccesses, pagesRead.size());
+                }
+                matches.add(new BucketEntry(key, leaf.pages[index]));
+                pagesRead.add(leaf.pages[index]);
+            }
+            leaf = leaf.next;
+            index = 0;
+            if (leaf != null) {
+                nodeAccesses++;
+            }
+        }
+        
+        return new RangeSearchResult(query, matches, nodeAccesses, pagesRead.size());
+    }
+    
+    public int getFanout() {
+        return fanout;
+    }
+    
+    public long size() {
+        return size;
+    }
+    
+    public int getHeight() {
+        int height = 1;
+        for (Node node = root; node instanceof Internal; node = ((Internal) node).children[0]) {
+            height++;
+        }
+        return height;
+    }
+    
+    /**
+     * Counts all nodes by walking the tree.
+     */
+    public long getNodeCount() {
+        return countNodes(root);
+    }
+    
+    private static long countNodes(Node node) {
+        if (node instanceof Leaf) {
+            return 1;
+        }
+        Internal internal = (Internal) node;
+        long count = 1;
+        for (int i = 0; i < internal.count; i++) {
+            count += countNodes(internal.children[i]);
+        }
+        return count;
+    }
+    
+    private abstract static class Node {
+        int count;
+        
+        abstract String firstKey();
+        
+        /**
+         * Inserts a record below this node and returns the new right sibling if this node split.
+         */
+        abstract Node insert(String key, int pageNumber);
+    }
+    
+    private static final class Leaf extends Node {
+        final String[] keys;
+        final int[] pages;
+        Leaf next;
+        
+        Leaf(int fanout) {
+            // One spare slot so an insert can overflow before the split
+            this.keys = new String[fanout + 1];
+            this.pages = new int[fanout + 1];
+        }
+        
+        @Override
+        String firstKey() {
+            return keys[0];
+        }
+        
+        int lowerBound(String key) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+        
+        private int upperBound(String key) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) <= 0) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+        
+        @Override
+        Node insert(String key, int pageNumber) {
+            int position = upperBound(key);
+            System.arraycopy(keys, position, keys, position + 1, count - position);
+            System.arraycopy(pages, position, pages, position + 1, count - position);
+            keys[position] = key;
+            pages[position] = pageNumber;
+            count++;
+            
+            if (count < keys.length) {
+                return null;
+            }
+            
+            Leaf right = new Leaf(keys.length - 1);
+            int half = count / 2;
+            right.count = count - half;
+            System.arraycopy(keys, half, right.keys, 0, right.count);
+            System.arraycopy(pages, half, right.pages, 0, right.count);
+            Arrays.fill(keys, half, count, null);
+            count = half;
+            right.next = next;
+            next = right;
+            return right;
+        }
+    }
+    
+    private static final class Internal extends Node {
+        // separators[i] is the first key of children[i + 1]
+        final String[] separators;
+        final Node[] children;
+        
+        Internal(int fanout) {
+            this.separators = new String[fanout + 1];
+            this.children = new Node[fanout + 2];
+        }
+        
+        @Override
+        String firstKey() {
+            return children[0].firstKey();
+        }
+        
+        void appendChild(Node child) {
+            if (count > 0) {
+                separators[count - 1] = child.firstKey();
+            }
+            children[count++] = child;
+        }
+        
+        /**
+         * Child to descend into for the leftmost occurrence of a key.
+         */
+        int lowerBoundChild(String key) {
+            int low = 0;
+            int high = count - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (separators[mid].compareTo(key) < 0) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+        
+        /**
+         * Child to descend into when inserting after any existing duplicates.
+         */
+        private int upperBoundChild(String key) {
+            int low = 0;
+            int high = count - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (separators[mid].compareTo(key) <= 0) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+        
+        @Override
+        Node insert(String key, int pageNumber) {
+            int childIndex = upperBoundChild(key);
+            Node sibling = children[childIndex].insert(key, pageNumber);
+            if (sibling == null) {
+                return null;
+            }
+            
+            // Make room for the new child right after the one that split
+            System.arraycopy(children, childIndex + 1, children, childIndex + 2, count - childIndex - 1);
+            System.arraycopy(separators, childIndex, separators, childIndex + 1, count - childIndex - 1);
+            children[childIndex + 1] = sibling;
+            separators[childIndex] = sibling.firstKey();
+            count++;
+            
+            return count > separators.length - 1 ? split() : null;
+        }
+        
+        /**
+         * Moves the upper half of the children into a new right sibling.
+         */
+        Internal split() {
+            Internal right = new Internal(separators.length - 1);
+            int half = count / 2;
+            for (int i = half; i < count; i++) {
+                right.appendChild(children[i]);
+                children[i] = null;
+            }
+            Arrays.fill(separators, half - 1, separators.length, null);
+            count = half;
+            return right;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.hashindex.service;
+
+import com.hashindex.model.HashDistributionReport;
+import com.hashindex.model.Page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures how evenly each hash function spreads a dataset over the index buckets.
+ * All {@link HashFunctionFactory.HashFunctionType}s are evaluated in parallel.
+ * <p>
+ * Usable as an API for CI checks, e.g.
+ * {@code analyzer.analyzeKeys(keys, 5, 1.0)} followed by {@link HashDistributionReport#isUniform(double)}.
+ */
+public class HashDistributionAnalyzer {
+    
+    public static final int DEFAULT_AVALANCHE_SAMPLE = 1_000;
+    
+    // Output bits observed for the avalanche test (the hash is taken modulo 2^AVALANCHE_BITS)
+    private static final int AVALANCHE_BITS = 16;
+    // Leading characters and low bits per character flipped for the avalanche test
+    private static final int AVALANCHE_CHARS = 16;
+    private static final int AVALANCHE_CHAR_BITS = 7;
+    
+    private final int avalancheSample;
+    
+    public HashDistributionAnalyzer() {
+        this(DEFAULT_AVALANCHE_SAMPLE);
+    }
+    
+    public HashDistributionAnalyzer(int avalancheSample) {
+        if (avalancheSample <= 0) {
+            throw new IllegalArgumentException("Avalanche sample must be positive");
+        }
+        this.avalancheSample = avalancheSample;
+    }
+    
+    /**
+     * Analyzes every record of the given pages.
+     * 
+     * @param pages the loaded pages
+     * @param bucketCapacity entries per bucket
+     * @param loadFactor target fill of the primary buckets, as in index construction
+     * @return one report per hash function type, in declaration order
+     */
+    public List<HashDistributionReport> analyze(List<Page> pages, int bucketCapacity, double loadFactor) {
+        List<String> keys = new ArrayList<>();
+        for (Page page : pages) {
+            keys.addAll(page.recordsView());
+        }
+        return analyzeKeys(keys, bucketCapacity, loadFactor);
+    }
+    
+    /**
+     * Analyzes a list of keys.
+     * 
+     * @param keys the keys to hash
+     * @param bucketCapacity entries per bucket
+     * @param loadFactor target fill of the primary buckets, as in index construction
+     * @return one report per hash function type, in declaration order
+     */
+    public List<HashDistributionReport> analyzeKeys(List<String> keys, int bucketCapacity, double loadFactor) {
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No records loaded to analyze");
+        }
+        if (bucketCapacity <= 0 || loadFactor <= 0) {
+            throw new IllegalArgumentException("Bucket capacity and load factor must be positive");
+        }
+        
+        int bucketCount = IndexTuner.bucketCount(keys.size(), bucketCapacity, loadFactor);
+        return Arrays.stream(HashFunctionFactory.HashFunctionType.values())
+            .parallel()
+            .map(type -> analyze(type, keys, bucketCount, bucketCapacity))
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Analyzes a single hash function type.
+     */
+    public HashDistributionReport analyze(HashFunctionFactory.HashFunctionType type, List<String> keys,
+                                          int bucketCount, int bucketCapacity) {
+        HashFunction hashFunction = HashFunctionFactory.createHashFunction(type);
+        int[] loads = new int[bucketCount];
+        for (String key : keys) {
+            loads[hashFunction.hash(key, bucketCount)]++;
+        }
+        
+        int maxLoad = 0;
+        for (int load : loads) {
+            maxLoad = Math.max(maxLoad, load);
+        }
+        long[] histogram = new long[maxLoad + 1];
+        for (int load : loads) {
+            histogram[load]++;
+        }
+        
+        // Chi-square against the uniform expectation n / m, with m - 1 degrees of freedom
+        long records = keys.size();
+        double expected = (double) records / bucketCount;
+        double chiSquare = 0;
+        for (int load = 0; load < histogram.length; load++) {
+            chiSquare += histogram[load] * (load - expected) * (load - expected) / expected;
+        }
+        
+        // p99 chain length from the cumulative occupancy
+        int p99Load = maxLoad;
+        long cumulative = 0;
+        for (int load = 0; load < histogram.length; load++) {
+            cumulative += histogram[load];
+            if (cumulative >= Math.ceil(bucketCount * 0.99)) {
+                p99Load = load;
+                break;
+            }
+        }
+        
+        double[] avalanche = avalanche(hashFunction, keys);
+        
+        return new HashDistributionReport(
+            type.name(), hashFunction.getName(), records, bucketCount, bucketCapacity, histogram,
+            chiSquare, chiSquareZScore(chiSquare, bucketCount - 1),
+            maxLoad, chainLength(maxLoad, bucketCapacity), chainLength(p99Load, bucketCapacity),
+            (double) histogram[0] / bucketCount,
+            Math.exp(records * Math.log1p(-1.0 / bucketCount)),
+            avalanche[0], avalanche[1]);
+    }
+    
+    /**
+     * Flips each low bit of the leading characters of evenly spaced sample keys and records
+     * which output bits change.
+     * 
+     * @return the mean flip probability and the worst single-bit deviation from 0.5
+     */
+    private double[] avalanche(HashFunction hashFunction, List<String> keys) {
+        int outputRange = 1 << AVALANCHE_BITS;
+        long[] bitFlips = new long[AVALANCHE_BITS];
+        long trials = 0;
+        
+        int step = Math.max(1, keys.size() / avalancheSample);
+        for (int k = 0; k < keys.size(); k += step) {
+            String key = keys.get(k);
+            int original = hashFunction.hash(key, outputRange);
+            char[] chars = key.toCharArray();
+            for (int i = 0; i < Math.min(chars.length, AVALANCHE_CHARS); i++) {
+                char c = chars[i];
+                for (int bit = 0; bit < AVALANCHE_CHAR_BITS; bit++) {
+                    chars[i] = (char) (c ^ (1 << bit));
+                    int diff = original ^ hashFunction.hash(new String(chars), outputRange);
+                    for (int out = 0; out < AVALANCHE_BITS; out++) {
+                        bitFlips[out] += (diff >>> out) & 1;
+                    }
+                    trials++;
+                }
+                chars[i] = c;
+            }
+        }
+        
+        if (trials == 0) {
+            return new double[] {0.0, 0.5};
+        }
+        long totalFlips = 0;
+        double bias = 0;
+        for (long flips : bitFlips) {
+            totalFlips += flips;
+            bias = Math.max(bias, Math.abs((double) flips / trials - 0.5));
+        }
+        return new double[] {(double) totalFlips / (trials * AVALANCHE_BITS), bias};
+    }
+    
+    /**
+     * Wilson-Hilferty transform of a chi-square statistic to a standard normal z-score.
+     */
+    static double chiSquareZScore(double chiSquare, long degreesOfFreedom) {
+        if (degreesOfFreedom <= 0) {
+            return 0.0;
+        }
+        double variance = 2.0 / (9.0 * degreesOfFreedom);
+        return (Math.cbrt(chiSquare / degreesOfFreedom) - (1 - variance)) / Math.sqrt(variance);
+    }
+    
+    private static int chainLength(int load, int bucketCapacity) {
+        return Math.max(1, (load + bucketCapacity - 1) / bucketCapacity);
+    }
+}
@@ -1,5 +1,7 @@
 package com.hashindex.service;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Hash function interface for mapping search keys to bucket addresses.
  */
@@ -14,6 +16,21 @@ public interface HashFunction {
      */
     int hash(String key, int bucketCount);
     
+    /**
+     * Computes the hash value of a key given as UTF-8 bytes. The result must equal
+     * {@link #hash(String, int)} of the decoded key. The default decodes the bytes into a
+     * {@code String}; implementations override it to hash the bytes in place.
+     * 
+     * @param key array holding the UTF-8 encoded key
+     * @param offset index of the key's first byte
+     * @param length number of bytes in the key
+     * @param bucketCount the number of buckets available
+     * @return the bucket number (0 to bucketCount-1)
+     */
+    default int hash(byte[] key, int offset, int length, int bucketCount) {
+        return hash(new String(key, offset, length, StandardCharsets.UTF_8), bucketCount);
+    }
+    
     /**
      * Returns the name of this hash function.
      * 
@@ -35,6 +52,15 @@ class SimpleModuloHashFunction implements HashFunction {
         return Math.abs(key.hashCode()) % bucketCount;
     }
     
+    @Override
+    public int hash(byte[] key, int offset, int length, int bucketCount) {
+        if (key == null || bucketCount <= 0) {
+            return 0;
+        }
+        // String.hashCode(): h = 31 * h + c over the UTF-16 chars
+        return Math.abs((int) Utf8Keys.polynomial(key, offset, length, 0, 31)) % bucketCount;
+    }
+    
     @Override
     public String getName() {
         return "Simple Modulo Hash";
@@ -53,13 +79,22 @@ class DJB2HashFunction implements HashFunction {
         }
         
         long hash = 5381;
-        for (char c : key.toCharArray()) {
-            hash = ((hash << 5) + hash) + c; // hash * 33 + c
+        for (int i = 0; i < key.length(); i++) {
+            hash = ((hash << 5) + hash) + key.charAt(i); // hash * 33 + c
         }
         
         return (int) (Math.abs(hash) % bucketCount);
     }
     
+    @Override
+    public int hash(byte[] key, int offset, int length, int bucketCount) {
+        if (key == null || bucketCount <= 0) {
+            return 0;
+        }
+        long hash = Utf8Keys.polynomial(key, offset, length, 5381, 33);
+        return (int) (Math.abs(hash) % bucketCount);
+    }
+    
     @Override
     public String getName() {
         return "DJB2 Hash";
@@ -79,9 +114,35 @@ class FNV1aHashFunction implements HashFunction {
             return 0;
         }
         
+        // ASCII chars are their own UTF-8 bytes, so only other keys need encoding
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                return hash(bytes, 0, bytes.length, bucketCount);
+            }
+            hash ^= c;
+            hash *= FNV_PRIME;
+        }
+        
+        return (int) (Math.abs(hash) % bucketCount);
+    }
+    
+    @Override
+    public int hash(byte[] key, int offset, int length, int bucketCount) {
+        if (key == null || bucketCount <= 0) {
+            return 0;
+        }
+        
+        // Malformed bytes would hash differently from the replacement chars they decode to
+        if (!Utf8Keys.isWellFormed(key, offset, length)) {
+            return hash(new String(key, offset, length, StandardCharsets.UTF_8), bucketCount);
+        }
+        
         long hash = FNV_OFFSET_BASIS;
-        for (byte b : key.getBytes()) {
-            hash ^= b;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= key[i];
             hash *= FNV_PRIME;
         }
         
@@ -92,4 +153,114 @@ class FNV1aHashFunction implements HashFunction {
     public String getName() {
         return "FNV-1a Hash";
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Helpers for hashing UTF-8 encoded keys so that the result matches hashing the decoded string.
+ */
+final class Utf8Keys {
+    
+    private Utf8Keys() {
+    }
+    
+    /**
+     * Whether the bytes are well-formed UTF-8, i.e. decode and re-encode to themselves.
+     */
+    static boolean isWellFormed(byte[] key, int offset, int length) {
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            if (key[position] >= 0) {
+                position++;
+            } else {
+                int size = sequenceSize(key, position, end);
+                if (size < 0) {
+                    return false;
+                }
+                position += size;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Computes {@code h = h * multiplier + c} from {@code seed} over the UTF-16 chars the bytes
+     * decode to. Malformed input is decoded into a {@code String} first, so replacement chars
+     * match too.
+     */
+    static long polynomial(byte[] key, int offset, int length, long seed, long multiplier) {
+        long hash = seed;
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            int b = key[position];
+            if (b >= 0) {
+                hash = hash * multiplier + b;
+                position++;
+                continue;
+            }
+            int size = sequenceSize(key, position, end);
+            if (size < 0) {
+                return polynomial(new String(key, offset, length, StandardCharsets.UTF_8), seed, multiplier);
+            }
+            int codePoint = codePoint(key, position, size);
+            if (size == 4) {
+                hash = hash * multiplier + Character.highSurrogate(codePoint);
+                hash = hash * multiplier + Character.lowSurrogate(codePoint);
+            } else {
+                hash = hash * multiplier + codePoint;
+            }
+            position += size;
+        }
+        return hash;
+    }
+    
+    private static long polynomial(String key, long seed, long multiplier) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = hash * multiplier + key.charAt(i);
+        }
+        return hash;
+    }
+    
+    /**
+     * Length of the multi-byte sequence starting at {@code position}, or -1 if it is truncated,
+     * overlong, a surrogate or beyond U+10FFFF.
+     */
+    private static int sequenceSize(byte[] key, int position, int end) {
+        int lead = key[position] & 0xFF;
+        int size;
+        if ((lead & 0xE0) == 0xC0) {
+            size = 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            size = 3;
+        } else if ((lead & 0xF8) == 0xF0) {
+            size = 4;
+        } else {
+            return -1;
+        }
+        if (end - position < size) {
+            return -1;
+        }
+        for (int i = 1; i < size; i++) {
+            if ((key[position + i] & 0xC0) != 0x80) {
+                return -1;
+            }
+        }
+        int codePoint = codePoint(key, position, size);
+        if (codePoint < (size == 2 ? 0x80 : size == 3 ? 0x800 : 0x10000)
+                || size == 3 && Character.isSurrogate((char) codePoint)
+                || codePoint > Character.MAX_CODE_POINT) {
+            return -1;
+        }
+        return size;
+    }
+    
+    private static int codePoint(byte[] key, int position, int size) {
+        int codePoint = key[position] & (0xFF >> (size + 1));
+        for (int i = 1; i < size; i++) {
+            codePoint = codePoint << 6 | key[position + i] & 0x3F;
+        }
+        return codePoint;
+    }
+}
@@ -1,15 +1,68 @@
 package com.hashindex.service;
 
+import com.hashindex.cache.CachePolicy;
+import com.hashindex.cache.LookupCache;
+import com.hashindex.jfr.*;
 import com.hashindex.model.*;
+import com.hashindex.wal.WalRecord;
+import com.hashindex.wal.WriteAheadLog;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Main service class that implements the hash index functionality.
+ * Lookups may run concurrently with each other; loads, builds and inserts are exclusive.
+ * <p>
+ * With {@link #enableIncrementalRehash(double, int)} the index grows on its own: once the
+ * overflow rate crosses the threshold a directory twice as large is allocated and buckets are
+ * migrated a few at a time by each insert (and by lookups that find the write lock free).
+ * While a rehash is in progress lookups consult both directories.
+ * <p>
+ * The {@code *Async} methods run on a pluggable executor (see {@link AsyncExecutors}) and
+ * return a {@link CompletableFuture}. Cancelling the future, or letting its timeout expire,
+ * interrupts the task; table scans and index builds check for that between pages and stop,
+ * a cancelled build leaving the previous index in place.
+ * <p>
+ * With a {@link WriteAheadLog} attached every insert is logged and {@link #insertRecord(String)}
+ * returns only once the log record is durable. After a restart, load the same base records,
+ * build the index and call {@link #recover(Path)} before attaching the log again.
+ * <p>
+ * Records may carry a payload, a small value stored next to the key on its page. With
+ * {@link #setInlinePayloadLimit(int)} the index becomes a covering index: payloads up to the
+ * limit are also copied into the bucket entries, and {@link #searchPayload(String)} answers
+ * those keys with a single bucket access and no page read.
+ * <p>
+ * A key stored on several pages has one bucket entry whose compressed {@link PostingList}
+ * holds every page; {@link #searchAll(String)} returns them all, where the other lookups
+ * return the first.
+ * <p>
+ * {@link #setBuildStrategy(BuildStrategy)} chooses how a build fills the directory. The
+ * partitioned build hashes every key first and counting-sorts the records by bucket, then
+ * fills the buckets one after another, so each chain is allocated in one piece.
  */
 public class HashIndexService {
     
@@ -18,7 +71,34 @@ public class HashIndexService {
     private HashFunction hashFunction;
     private IndexStatistics statistics;
     private int pageSize;
+    private PageEncoding pageEncoding = PageEncoding.PLAIN;
     private int bucketCapacity;
+    private final MemoryFootprintEstimator footprintEstimator;
+    private final ReadWriteLock lock;
+    private volatile LookupCache lookupCache;
+    private BPlusTreeIndex orderedIndex;
+    // Payloads up to this many bytes are copied into bucket entries; 0 = none
+    private int inlinePayloadLimit;
+    private BuildStrategy buildStrategy = BuildStrategy.INCREMENTAL;
+    
+    // Progressive rehash: 'buckets' is the source directory while 'rehashTarget' is filled
+    private static final int REHASH_GROWTH_FACTOR = 2;
+    private List<Bucket> rehashTarget;
+    private int rehashIndex;
+    private long rehashStartNanos;
+    private double rehashThreshold; // overflow rate percentage; 0 = disabled
+    private int rehashBucketsPerStep;
+    private volatile boolean rehashing;
+    
+    private volatile Executor asyncExecutor;
+    // The async task running on this thread, if any: only such a task is cancelled by an interrupt
+    private static final ThreadLocal<InterruptibleTask<?>> RUNNING_TASK = new ThreadLocal<>();
+    private volatile WriteAheadLog writeAheadLog;
+    // Lowest page changed since the last checkpoint capture; NO_DIRTY_PAGES if none
+    private static final int NO_DIRTY_PAGES = Integer.MAX_VALUE;
+    // Holds keys copied out of direct buffers by searchWithIndex(ByteBuffer)
+    private static final ThreadLocal<byte[]> KEY_SCRATCH = ThreadLocal.withInitial(() -> new byte[64]);
+    private final AtomicInteger firstDirtyPage = new AtomicInteger();
     
     public HashIndexService() {
         this.pages = new ArrayList<>();
@@ -27,87 +107,1233 @@ public class HashIndexService {
         this.statistics = new IndexStatistics();
         this.pageSize = 100; // Default page size
         this.bucketCapacity = 5; // Default bucket capacity
+        this.footprintEstimator = new MemoryFootprintEstimator();
+        this.lock = new ReentrantReadWriteLock();
+    }
+    
+    /**
+     * Loads data from the words file and creates pages.
+     * 
+     * @param pageSize the size of each page
+     * @throws IOException if there's an error reading the file
+     */
+    public void loadData(int pageSize) throws IOException {
+        LoadStageEvent event = new LoadStageEvent();
+        event.begin();
+        List<String> words = loadWordsFromResource();
+        if (event.shouldCommit()) {
+            event.stage = LoadStageEvent.READ;
+            event.records = words.size();
+            event.commit();
+        }
+        loadData(words, pageSize);
+    }
+    
+    /**
+     * Loads the given records and creates pages. Any existing index is discarded.
+     * 
+     * @param records the records to store, in page order
+     * @param pageSize the size of each page
+     */
+    public void loadData(List<String> records, int pageSize) {
+        loadData(records, pageSize, PageEncoding.PLAIN);
+    }
+    
+    /**
+     * Loads the given records into pages of the given encoding. Any existing index is discarded.
+     * Front-coded pages compress best, and look records up fastest, when the records are sorted.
+     * 
+     * @param records the records to store, in page order
+     * @param pageSize records per page for {@link PageEncoding#PLAIN}, bytes per page for
+     *                 {@link PageEncoding#FRONT_CODED}
+     * @param encoding how the pages store their records; later inserts use the same encoding
+     */
+    public void loadData(List<String> records, int pageSize, PageEncoding encoding) {
+        load(records, null, pageSize, encoding);
+    }
+    
+    /**
+     * Loads records with payloads into plain pages. Any existing index is discarded.
+     * 
+     * @param keys the records' keys, in page order
+     * @param payloads the payload of each key, null for a record without one
+     * @param pageSize the size of each page
+     * @throws IllegalArgumentException if the lists differ in size
+     */
+    public void loadData(List<String> keys, List<byte[]> payloads, int pageSize) {
+        if (keys.size() != payloads.size()) {
+            throw new IllegalArgumentException(
+                "Got " + payloads.size() + " payloads for " + keys.size() + " keys");
+        }
+        load(keys, payloads, pageSize, PageEncoding.PLAIN);
+    }
+    
+    private void load(List<String> records, List<byte[]> payloads, int pageSize, PageEncoding encoding) {
+        LoadDataEvent event = new LoadDataEvent();
+        event.begin();
+        lock.writeLock().lock();
+        try {
+            this.pageSize = pageSize;
+            this.pageEncoding = encoding;
+            this.pages.clear();
+            this.buckets.clear();
+            this.orderedIndex = null;
+            cancelRehash();
+            this.statistics.reset();
+            invalidateLookupCache();
+            
+            LoadStageEvent paginate = new LoadStageEvent();
+            paginate.begin();
+            createPages(records, payloads);
+            firstDirtyPage.set(0);
+            commitLoadStage(paginate, LoadStageEvent.PAGINATE, records.size());
+            
+            statistics.setTotalRecords(records.size());
+            statistics.setTotalPages(pages.size());
+            LoadStageEvent estimate = new LoadStageEvent();
+            estimate.begin();
+            statistics.setMemoryFootprint(estimateMemoryFootprint());
+            commitLoadStage(estimate, LoadStageEvent.ESTIMATE, records.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (event.shouldCommit()) {
+            event.records = records.size();
+            event.pages = statistics.getTotalPages();
+            event.pageSize = pageSize;
+            event.encoding = encoding.name();
+            event.footprintBytes = statistics.getMemoryFootprint().totalBytes();
+            event.commit();
+        }
+    }
+    
+    private static void commitLoadStage(LoadStageEvent event, String stage, long records) {
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.records = records;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Constructs the hash index by creating buckets and populating them.
+     * 
+     * @param bucketCapacity the capacity of each bucket
+     */
+    public void constructIndex(int bucketCapacity) {
+        constructIndex(bucketCapacity, 1.0);
+    }
+    
+    /**
+     * Constructs the hash index sized for a target fill of the primary buckets.
+     * 
+     * @param bucketCapacity the capacity of each bucket
+     * @param loadFactor expected fraction of primary bucket slots in use (1.0 = NR/FR buckets)
+     */
+    public void constructIndex(int bucketCapacity, double loadFactor) {
+        if (loadFactor <= 0) {
+            throw new IllegalArgumentException("Load factor must be positive");
+        }
+        
+        lock.writeLock().lock();
+        try {
+            // Calculate number of buckets (NB > NR/(FR * loadFactor))
+            long totalRecords = statistics.getTotalRecords();
+            int numberOfBuckets = IndexTuner.bucketCount(totalRecords, bucketCapacity, loadFactor);
+            buildIndex(hashFunction, bucketCapacity, numberOfBuckets, loadFactor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Switches to another hash function and constructs the index with it, as one step: no lookup
+     * or insert sees the new function with the old directory.
+     * 
+     * @param hashFunction the hash function for the new index
+     * @param bucketCapacity the capacity of each bucket
+     */
+    public void constructIndex(HashFunction hashFunction, int bucketCapacity) {
+        Objects.requireNonNull(hashFunction, "hashFunction");
+        lock.writeLock().lock();
+        try {
+            int numberOfBuckets = IndexTuner.bucketCount(statistics.getTotalRecords(), bucketCapacity, 1.0);
+            buildIndex(hashFunction, bucketCapacity, numberOfBuckets, 1.0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Builds a directory of the given size over the current pages with the given hash function,
+     * which replaces the current one unless the build is cancelled; the caller holds the write lock.
+     */
+    private void buildIndex(HashFunction function, int bucketCapacity, int numberOfBuckets, double loadFactor) {
+        ConstructIndexEvent event = new ConstructIndexEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        
+        // Create and populate a new directory; the current one stays intact if this is cancelled
+        List<Bucket> directory;
+        HashFunction previousFunction = hashFunction;
+        hashFunction = function;
+        long previousCollisions = statistics.getCollisions();
+        statistics.setCollisions(0);
+        try {
+            directory = buildStrategy == BuildStrategy.PARTITIONED
+                ? partitionBuckets(bucketCapacity, numberOfBuckets)
+                : populateBuckets(bucketCapacity, numberOfBuckets);
+        } catch (CancellationException e) {
+            hashFunction = previousFunction;
+            statistics.setCollisions(previousCollisions);
+            if (event.shouldCommit()) {
+                event.buckets = numberOfBuckets;
+                event.bucketCapacity = bucketCapacity;
+                event.loadFactor = loadFactor;
+                event.hashFunction = function.getName();
+                event.cancelled = true;
+                event.commit();
+            }
+            throw e;
+        }
+        
+        invalidateLookupCache();
+        cancelRehash();
+        this.buckets = directory;
+        this.bucketCapacity = bucketCapacity;
+        
+        statistics.setTotalBuckets(numberOfBuckets);
+        statistics.setBucketCapacity(bucketCapacity);
+        statistics.setLoadFactor(loadFactor);
+        statistics.setInlinePayloadLimit(inlinePayloadLimit);
+        statistics.setBuildStrategy(buildStrategy);
+        statistics.setTuningDecision(null);
+        
+        // Calculate collision and overflow statistics
+        calculateStatistics();
+        long buildNanos = System.nanoTime() - startTime;
+        statistics.getBuildLatency().record(buildNanos);
+        statistics.setLastBuildNanos(buildNanos);
+        statistics.setMemoryFootprint(estimateMemoryFootprint());
+        if (event.shouldCommit()) {
+            event.buckets = numberOfBuckets;
+            event.bucketCapacity = bucketCapacity;
+            event.loadFactor = loadFactor;
+            event.hashFunction = hashFunction.getName();
+            event.collisions = statistics.getCollisions();
+            event.overflows = statistics.getOverflows();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Samples the loaded records, scores every hash function and bucket capacity/load factor
+     * combination for the objective, and builds the index with the best one.
+     * 
+     * @param objective what to optimize for
+     * @return the decision, also kept in the statistics
+     */
+    public TuningDecision autoTuneIndex(TuningObjective objective) {
+        return autoTuneIndex(new IndexTuner(), objective);
+    }
+    
+    /**
+     * Auto-tunes with a custom tuner (sample size and candidate grid).
+     */
+    public TuningDecision autoTuneIndex(IndexTuner tuner, TuningObjective objective) {
+        TuningDecision decision;
+        lock.readLock().lock();
+        try {
+            decision = tuner.tune(pages, statistics.getTotalRecords(), objective);
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        TuningCandidate chosen = decision.chosen();
+        HashFunction function = HashFunctionFactory.createHashFunction(
+            HashFunctionFactory.HashFunctionType.valueOf(chosen.hashFunctionType()));
+        // Switch the function and rebuild under one write lock, so no lookup pairs the new
+        // function with the old directory
+        lock.writeLock().lock();
+        try {
+            int numberOfBuckets = IndexTuner.bucketCount(statistics.getTotalRecords(), chosen.bucketCapacity(),
+                                                         chosen.loadFactor());
+            buildIndex(function, chosen.bucketCapacity(), numberOfBuckets, chosen.loadFactor());
+            statistics.setTuningDecision(decision);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return decision;
+    }
+    
+    /**
+     * Appends a record to the last page (or a new page when it is full) and, if the index
+     * has been constructed, adds its entry to the corresponding bucket chain. With a write-ahead
+     * log attached, returns once the insert is durable.
+     * 
+     * @param record the record to insert
+     * @return the page number the record was stored on
+     * @throws java.io.UncheckedIOException if the write-ahead log could not be written
+     */
+    public int insertRecord(String record) {
+        return insertRecord(record, null);
+    }
+    
+    /**
+     * Inserts a record with a payload; see {@link #insertRecord(String)}. The payload is held
+     * inline in the record's bucket entry if it is within the inline payload limit.
+     * 
+     * @param payload the value stored with the record, or null for none
+     * @return the page number the record was stored on
+     * @throws IllegalStateException if there is a payload and the pages are not plain or a
+     *                               write-ahead log, which records keys only, is attached
+     */
+    public int insertRecord(String record, byte[] payload) {
+        long startTime = System.nanoTime();
+        int pageNumber;
+        WriteAheadLog log = writeAheadLog;
+        long lsn = 0;
+        
+        lock.writeLock().lock();
+        try {
+            if (payload != null && (pageEncoding != PageEncoding.PLAIN || log != null)) {
+                throw new IllegalStateException(log != null
+                    ? "Payloads are not written to the write-ahead log"
+                    : pageEncoding + " pages do not store payloads");
+            }
+            // Logged under the write lock so the log order is the order inserts are applied in
+            if (log != null) {
+                lsn = log.append(WalRecord.INSERT, record);
+            }
+            Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+            if (page == null || !page.addRecord(record, payload)) {
+                page = pageEncoding.newPage(pages.size(), pageSize);
+                page.addRecord(record, payload);
+                pages.add(page);
+                statistics.setTotalPages(pages.size());
+            }
+            pageNumber = page.getPageNumber();
+            firstDirtyPage.accumulateAndGet(pageNumber, Math::min);
+            statistics.setTotalRecords(statistics.getTotalRecords() + 1);
+            
+            if (orderedIndex != null) {
+                orderedIndex.insert(record, pageNumber);
+                statistics.setOrderedIndexHeight(orderedIndex.getHeight());
+            }
+            
+            if (!buckets.isEmpty()) {
+                LookupCache cache = lookupCache;
+                if (cache != null) {
+                    cache.invalidate(record);
+                }
+                // New entries go straight to the target directory during a rehash, but a key
+                // whose source bucket is not migrated yet keeps its pages in the source entry
+                if (rehashTarget == null || !addToUnmigratedEntry(record, pageNumber)) {
+                    addToDirectory(rehashTarget != null ? rehashTarget : buckets, record, pageNumber,
+                                   inlinePayload(payload));
+                }
+                
+                if (rehashTarget == null && rehashThreshold > 0 && statistics.getOverflowRate() > rehashThreshold) {
+                    startRehash();
+                }
+                if (rehashTarget != null) {
+                    rehashStep();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        // Wait for the fsync outside the lock so that concurrent inserts can share it
+        if (log != null) {
+            log.awaitDurable(lsn);
+        }
+        statistics.getInsertLatency().record(System.nanoTime() - startTime);
+        return pageNumber;
+    }
+    
+    /**
+     * Logs every subsequent insert to the given write-ahead log; null stops logging.
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+    
+    public WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+    
+    /**
+     * Replays the inserts of a write-ahead log on top of the loaded records. Records after a
+     * torn or corrupt one are ignored.
+     * 
+     * @param logFile the log to replay; a missing file replays nothing
+     * @return the number of records replayed
+     * @throws IllegalStateException if a write-ahead log is attached
+     */
+    public long recover(Path logFile) throws IOException {
+        return recover(logFile, 0);
+    }
+    
+    /**
+     * Replays the inserts of a write-ahead log that come after a checkpoint.
+     * 
+     * @param logFile the log to replay; a missing file replays nothing
+     * @param afterLsn LSN covered by the restored checkpoint; earlier records are skipped
+     * @return the number of records replayed
+     * @throws IllegalStateException if a write-ahead log is attached
+     */
+    public long recover(Path logFile, long afterLsn) throws IOException {
+        if (writeAheadLog != null) {
+            throw new IllegalStateException("Recover before attaching the write-ahead log");
+        }
+        long[] replayed = new long[1];
+        WriteAheadLog.replay(logFile, record -> {
+            if (record.lsn() > afterLsn && record.type() == WalRecord.INSERT) {
+                insertRecord(record.key());
+                replayed[0]++;
+            }
+        });
+        return replayed[0];
+    }
+    
+    /**
+     * Copies the pages changed since the previous capture, under the read lock, so lookups
+     * carry on while a checkpoint is taken. The LSN is that of the last logged insert, all of
+     * which are in the copied pages.
+     * 
+     * @param allPages copy every page instead of only the changed ones
+     */
+    public CheckpointImage captureCheckpoint(boolean allPages) {
+        lock.readLock().lock();
+        try {
+            int dirtyFrom = firstDirtyPage.getAndSet(NO_DIRTY_PAGES);
+            int firstPage = allPages ? 0 : Math.min(dirtyFrom, pages.size());
+            List<Page> copies = new ArrayList<>(pages.size() - firstPage);
+            for (int i = firstPage; i < pages.size(); i++) {
+                copies.add(pages.get(i).copy());
+            }
+            
+            WriteAheadLog log = writeAheadLog;
+            // A running rehash is captured as the directory it is growing into
+            int bucketCount = rehashTarget != null ? rehashTarget.size() : buckets.size();
+            return new CheckpointImage(log != null ? log.getLastLsn() : 0, pageSize, pageEncoding, pages.size(),
+                                       statistics.getTotalRecords(), bucketCapacity, bucketCount,
+                                       statistics.getLoadFactor(), hashFunction.getName(), firstPage, copies);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Marks pages as changed again, for a checkpoint that captured them but failed to write them.
+     */
+    public void markPagesDirty(int fromPage) {
+        firstDirtyPage.accumulateAndGet(fromPage, Math::min);
+    }
+    
+    /**
+     * Replaces the data with pages read back from a checkpoint and rebuilds an index with the
+     * checkpointed number of buckets (none if {@code bucketCount} is 0).
+     * 
+     * @param pages every page, in page number order; re-encoded if not already in {@code encoding}
+     */
+    public void restoreCheckpoint(List<Page> pages, int pageSize, PageEncoding encoding, int bucketCapacity,
+                                  int bucketCount, double loadFactor) {
+        lock.writeLock().lock();
+        try {
+            this.pageSize = pageSize;
+            this.pageEncoding = encoding;
+            this.pages.clear();
+            for (Page page : pages) {
+                if (page.getEncoding() == encoding) {
+                    this.pages.add(page);
+                } else {
+                    Page encoded = encoding.newPage(page.getPageNumber(), pageSize);
+                    page.forEachRecord(encoded::addRecord);
+                    this.pages.add(encoded);
+                }
+            }
+            this.buckets = new ArrayList<>();
+            this.orderedIndex = null;
+            cancelRehash();
+            this.statistics.reset();
+            invalidateLookupCache();
+            
+            statistics.setTotalRecords(pages.stream().mapToLong(Page::size).sum());
+            statistics.setTotalPages(pages.size());
+            if (bucketCount > 0) {
+                buildIndex(hashFunction, bucketCapacity, bucketCount, loadFactor);
+            }
+            statistics.setMemoryFootprint(estimateMemoryFootprint());
+            // Matches what is on disk
+            firstDirtyPage.set(NO_DIRTY_PAGES);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Searches for a key using the hash index.
+     * 
+     * @param searchKey the key to search for
+     * @return search result containing the page number and whether found
+     * @throws IllegalStateException if the index has not been constructed
+     */
+    public SearchResult searchWithIndex(String searchKey) {
+        SearchResult result;
+        lock.readLock().lock();
+        try {
+            result = lookup(searchKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+        helpRehash();
+        return result;
+    }
+    
+    /**
+     * Looks up a key given as UTF-8 bytes, such as a key read off the wire, without creating a
+     * {@code String}: the bytes are hashed in place and compared with the stored keys as they
+     * are. Returns a bare page number rather than a {@link SearchResult} so that the lookup
+     * allocates nothing; it is recorded in the search statistics but bypasses the lookup cache.
+     * 
+     * @param key array holding the UTF-8 encoded key
+     * @param offset index of the key's first byte
+     * @param length number of bytes in the key
+     * @return the page number holding the key, or -1 if it is not present
+     * @throws IllegalStateException if the index has not been constructed
+     * @throws IndexOutOfBoundsException if the range is outside the array
+     */
+    public int searchWithIndex(byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        int pageNumber;
+        lock.readLock().lock();
+        try {
+            pageNumber = lookup(key, offset, length);
+        } finally {
+            lock.readLock().unlock();
+        }
+        helpRehash();
+        return pageNumber;
+    }
+    
+    /**
+     * Looks up the UTF-8 key between the buffer's position and limit without moving them; see
+     * {@link #searchWithIndex(byte[], int, int)}. Keys in direct buffers are copied into a
+     * per-thread scratch array first.
+     * 
+     * @return the page number holding the key, or -1 if it is not present
+     */
+    public int searchWithIndex(ByteBuffer key) {
+        int length = key.remaining();
+        if (key.hasArray()) {
+            return searchWithIndex(key.array(), key.arrayOffset() + key.position(), length);
+        }
+        byte[] scratch = KEY_SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+            KEY_SCRATCH.set(scratch);
+        }
+        key.get(key.position(), scratch, 0, length);
+        return searchWithIndex(scratch, 0, length);
+    }
+    
+    /**
+     * Sets the largest payload, in bytes, that bucket entries hold inline; 0 keeps every payload
+     * on its page only. Takes effect when the index is next constructed, and for inserts at once.
+     * Inline payloads grow the index by their size but save the page read of
+     * {@link #searchPayload(String)}.
+     */
+    public void setInlinePayloadLimit(int maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Inline payload limit must not be negative: " + maxBytes);
+        }
+        lock.writeLock().lock();
+        try {
+            this.inlinePayloadLimit = maxBytes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int getInlinePayloadLimit() {
+        return inlinePayloadLimit;
+    }
+    
+    /**
+     * Sets how the next index builds fill their directory; see {@link BuildStrategy}. Either
+     * strategy gives the same index, so this changes only build time and memory layout.
+     */
+    public void setBuildStrategy(BuildStrategy strategy) {
+        Objects.requireNonNull(strategy, "strategy");
+        lock.writeLock().lock();
+        try {
+            this.buildStrategy = strategy;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public BuildStrategy getBuildStrategy() {
+        return buildStrategy;
+    }
+    
+    /**
+     * Looks up the payload of a key. If the bucket entry holds it inline the lookup is done after
+     * a single bucket access; otherwise the page is read as by {@link #searchWithIndex(String)}.
+     * The lookup cache is bypassed. The returned payload is a copy, so modifying it leaves the
+     * index unchanged.
+     * 
+     * @param searchKey the key to search for
+     * @return the result, with a null payload if the key is missing or has none
+     * @throws IllegalStateException if the index has not been constructed
+     */
+    public PayloadSearchResult searchPayload(String searchKey) {
+        PayloadSearchResult result;
+        lock.readLock().lock();
+        try {
+            result = lookupPayload(searchKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+        helpRehash();
+        return result;
+    }
+    
+    /**
+     * Finds every page holding a key: one bucket access for its entry, whose posting list gives
+     * the pages, then a read of each page to confirm it. The lookup cache is bypassed.
+     * 
+     * @param searchKey the key to search for
+     * @return the pages holding the key in ascending order, empty if it is missing
+     * @throws IllegalStateException if the index has not been constructed
+     */
+    public MultiSearchResult searchAll(String searchKey) {
+        MultiSearchResult result;
+        lock.readLock().lock();
+        try {
+            result = lookupAll(searchKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+        helpRehash();
+        return result;
+    }
+    
+    /**
+     * Finds every page holding a key by reading all of them, the way to find duplicates
+     * without an index.
+     */
+    public MultiSearchResult tableScanAll(String searchKey) {
+        lock.readLock().lock();
+        try {
+            long startTime = System.nanoTime();
+            List<Integer> pageNumbers = new ArrayList<>();
+            for (Page page : pages) {
+                checkCancelled();
+                if (page.containsRecord(searchKey)) {
+                    pageNumbers.add(page.getPageNumber());
+                }
+            }
+            long endTime = System.nanoTime();
+            statistics.setTableScanTimeNanos(endTime - startTime);
+            statistics.setTableScanAccesses(pages.size());
+            statistics.getTableScanLatency().record(endTime - startTime);
+            statistics.recordTableScan(!pageNumbers.isEmpty(), pages.size());
+            return new MultiSearchResult(searchKey, pageNumbers, 0, pages.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Looks up a batch of keys under a single read lock. Keys are grouped by bucket and the
+     * hits by page, so each bucket and page is visited once however many keys share it.
+     * The lookup cache is bypassed.
+     * 
+     * @param searchKeys the keys to search for
+     * @return one result per key, in request order
+     * @throws IllegalStateException if the index has not been constructed
+     */
+    public BatchSearchResult searchBatch(List<String> searchKeys) {
+        BatchSearchResult result;
+        lock.readLock().lock();
+        try {
+            result = lookupBatch(searchKeys);
+        } finally {
+            lock.readLock().unlock();
+        }
+        helpRehash();
+        return result;
+    }
+    
+    // Lookups help a running rehash along, but never wait for the write lock
+    private void helpRehash() {
+        if (rehashing && lock.writeLock().tryLock()) {
+            try {
+                if (rehashTarget != null) {
+                    rehashStep();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    private BatchSearchResult lookupBatch(List<String> searchKeys) {
+        if (buckets.isEmpty()) {
+            throw new IllegalStateException("Index has not been constructed");
+        }
+        
+        int count = searchKeys.size();
+        int[] pageNumbers = new int[count];
+        int[] accesses = new int[count];
+        int bucketAccesses = 0;
+        
+        // Sort key positions by bucket (packed as bucket << 32 | position) and walk each bucket once
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (long) hashFunction.hash(searchKeys.get(i), buckets.size()) << 32 | i;
+        }
+        Arrays.sort(order);
+        int previousBucket = -1;
+        for (long packed : order) {
+            int bucketIndex = (int) (packed >>> 32);
+            int i = (int) packed;
+            BucketEntry entry = probe(searchKeys.get(i), bucketIndex);
+            accesses[i] = bucketAccesses(bucketIndex, entry);
+            if (readsSource(bucketIndex) && bucketIndex != previousBucket) {
+                bucketAccesses++;
+                previousBucket = bucketIndex;
+            }
+            if (readsTarget(bucketIndex, entry)) {
+                bucketAccesses++;
+            }
+            pageNumbers[i] = entry != null ? entry.pageNumber() : -1;
+        }
+        
+        // Then verify the hits page by page
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (pageNumbers[i] != -1) {
+                order[hits++] = (long) pageNumbers[i] << 32 | i;
+            }
+        }
+        Arrays.sort(order, 0, hits);
+        int pageAccesses = 0;
+        int previousPage = -1;
+        boolean[] found = new boolean[count];
+        for (int h = 0; h < hits; h++) {
+            int pageNumber = (int) (order[h] >>> 32);
+            int i = (int) order[h];
+            accesses[i]++;
+            if (pageNumber != previousPage) {
+                pageAccesses++;
+                previousPage = pageNumber;
+            }
+            found[i] = pages.get(pageNumber).containsRecord(searchKeys.get(i));
+        }
+        
+        List<SearchResult> results = new ArrayList<>(count);
+        int foundCount = 0;
+        for (int i = 0; i < count; i++) {
+            results.add(new SearchResult(found[i], pageNumbers[i], accesses[i], searchKeys.get(i)));
+            foundCount += found[i] ? 1 : 0;
+        }
+        statistics.recordLookups(foundCount, count - foundCount, bucketAccesses, pageAccesses);
+        return new BatchSearchResult(results, bucketAccesses, pageAccesses);
+    }
+    
+    private SearchResult lookup(String searchKey) {
+        IndexLookupEvent event = IndexLookupEvent.beginIfEnabled();
+        long startTime = System.nanoTime();
+        
+        if (buckets.isEmpty()) {
+            throw new IllegalStateException("Index has not been constructed");
+        }
+        
+        LookupCache cache = lookupCache;
+        if (cache != null) {
+            int cachedPage = cache.get(searchKey);
+            if (cachedPage != LookupCache.MISS) {
+                // Skips the bucket access and the page read
+                statistics.recordCacheHit(1, 1);
+                statistics.recordLookup(true, 0, 0);
+                
+                long endTime = System.nanoTime();
+                statistics.setSearchTimeNanos(endTime - startTime);
+                statistics.setSearchAccesses(0);
+                statistics.getSearchLatency().record(endTime - startTime);
+                if (event != null && event.shouldCommit()) {
+                    commitLookupEvent(event, searchKey, -1, cachedPage, 0, true);
+                }
+                
+                return new SearchResult(true, cachedPage, 0, searchKey);
+            }
+            statistics.recordCacheMiss();
+        }
+        
+        int bucketIndex = hashFunction.hash(searchKey, buckets.size());
+        BucketEntry entry = probe(searchKey, bucketIndex);
+        int pageNumber = entry != null ? entry.pageNumber() : -1;
+        long accesses = bucketAccesses(bucketIndex, entry);
+        
+        if (pageNumber != -1) {
+            // Found in bucket, now read the page
+            accesses++; // Page read
+            Page page = pages.get(pageNumber);
+            boolean found = page.containsRecord(searchKey);
+            if (found && cache != null) {
+                cache.put(searchKey, pageNumber);
+            }
+            
+            long endTime = System.nanoTime();
+            statistics.setSearchTimeNanos(endTime - startTime);
+            statistics.setSearchAccesses(accesses);
+            statistics.recordLookup(found, accesses - 1, 1);
+            statistics.getSearchLatency().record(endTime - startTime);
+            if (event != null && event.shouldCommit()) {
+                commitLookupEvent(event, searchKey, bucketIndex, pageNumber, accesses, found);
+            }
+            
+            return new SearchResult(found, pageNumber, (int) accesses, searchKey);
+        }
+        
+        long endTime = System.nanoTime();
+        statistics.setSearchTimeNanos(endTime - startTime);
+        statistics.setSearchAccesses(accesses);
+        statistics.recordLookup(false, accesses, 0);
+        statistics.getSearchLatency().record(endTime - startTime);
+        if (event != null && event.shouldCommit()) {
+            commitLookupEvent(event, searchKey, bucketIndex, -1, accesses, false);
+        }
+        
+        return new SearchResult(false, -1, (int) accesses, searchKey);
+    }
+    
+    private int lookup(byte[] key, int offset, int length) {
+        IndexLookupEvent event = IndexLookupEvent.beginIfEnabled();
+        long startTime = System.nanoTime();
+        
+        if (buckets.isEmpty()) {
+            throw new IllegalStateException("Index has not been constructed");
+        }
+        
+        int bucketIndex = hashFunction.hash(key, offset, length, buckets.size());
+        BucketEntry entry = probe(key, offset, length, bucketIndex);
+        int pageNumber = entry != null ? entry.pageNumber() : -1;
+        long accesses = bucketAccesses(bucketIndex, entry);
+        long pageAccesses = 0;
+        int readPage = pageNumber;
+        if (pageNumber != -1) {
+            accesses++; // Page read
+            pageAccesses = 1;
+            if (!pages.get(pageNumber).containsRecord(key, offset, length)) {
+                pageNumber = -1;
+            }
+        }
+        
+        long endTime = System.nanoTime();
+        statistics.setSearchTimeNanos(endTime - startTime);
+        statistics.setSearchAccesses(accesses);
+        statistics.recordLookup(pageNumber != -1, accesses - pageAccesses, pageAccesses);
+        statistics.getSearchLatency().record(endTime - startTime);
+        if (event != null && event.shouldCommit()) {
+            // Only a recorded lookup pays for decoding the key
+            commitLookupEvent(event, new String(key, offset, length, StandardCharsets.UTF_8),
+                              bucketIndex, readPage, accesses, pageNumber != -1);
+        }
+        return pageNumber;
+    }
+    
+    private PayloadSearchResult lookupPayload(String searchKey) {
+        IndexLookupEvent event = IndexLookupEvent.beginIfEnabled();
+        long startTime = System.nanoTime();
+        
+        if (buckets.isEmpty()) {
+            throw new IllegalStateException("Index has not been constructed");
+        }
+        
+        int bucketIndex = hashFunction.hash(searchKey, buckets.size());
+        BucketEntry entry = probe(searchKey, bucketIndex);
+        int bucketAccesses = bucketAccesses(bucketIndex, entry);
+        
+        boolean found = entry != null;
+        byte[] payload = null;
+        int pageAccesses = 0;
+        if (found && entry.hasInlinePayload()) {
+            // A covering entry: no page read
+            payload = entry.payload().clone();
+        } else if (found) {
+            pageAccesses = 1;
+            Page page = pages.get(entry.pageNumber());
+            found = page.containsRecord(searchKey);
+            byte[] stored = found ? page.getPayload(searchKey) : null;
+            payload = stored != null ? stored.clone() : null;
+        }
+        int pageNumber = found ? entry.pageNumber() : -1;
+        
+        long endTime = System.nanoTime();
+        statistics.setSearchTimeNanos(endTime - startTime);
+        statistics.setSearchAccesses(bucketAccesses + pageAccesses);
+        statistics.recordLookup(found, bucketAccesses, pageAccesses);
+        statistics.recordPayloadLookup(found && pageAccesses == 0);
+        statistics.getSearchLatency().record(endTime - startTime);
+        if (event != null && event.shouldCommit()) {
+            commitLookupEvent(event, searchKey, bucketIndex, pageNumber, bucketAccesses + pageAccesses, found);
+        }
+        return new PayloadSearchResult(searchKey, found, pageNumber, payload, bucketAccesses, pageAccesses);
+    }
+    
+    private MultiSearchResult lookupAll(String searchKey) {
+        long startTime = System.nanoTime();
+        
+        if (buckets.isEmpty()) {
+            throw new IllegalStateException("Index has not been constructed");
+        }
+        
+        int bucketIndex = hashFunction.hash(searchKey, buckets.size());
+        BucketEntry entry = probe(searchKey, bucketIndex);
+        int bucketAccesses = bucketAccesses(bucketIndex, entry);
+        
+        List<Integer> pageNumbers = new ArrayList<>(entry == null ? 0 : entry.pageCount());
+        int pageAccesses = 0;
+        if (entry != null) {
+            for (int pageNumber : entry.pageNumbers()) {
+                pageAccesses++;
+                if (pages.get(pageNumber).containsRecord(searchKey)) {
+                    pageNumbers.add(pageNumber);
+                }
+            }
+        }
+        
+        long endTime = System.nanoTime();
+        statistics.setSearchTimeNanos(endTime - startTime);
+        statistics.setSearchAccesses(bucketAccesses + pageAccesses);
+        statistics.recordLookup(!pageNumbers.isEmpty(), bucketAccesses, pageAccesses);
+        statistics.getSearchLatency().record(endTime - startTime);
+        return new MultiSearchResult(searchKey, pageNumbers, bucketAccesses, pageAccesses);
+    }
+    
+    /**
+     * Finds the bucket entry of a key: in its source bucket, unless that has already been
+     * migrated, then in the rehash target's bucket, unless the source held the key.
+     * {@link #bucketAccesses} counts the buckets read. Called with the read lock held.
+     */
+    private BucketEntry probe(String searchKey, int bucketIndex) {
+        BucketEntry entry = null;
+        if (readsSource(bucketIndex)) {
+            entry = buckets.get(bucketIndex).findEntry(searchKey);
+        }
+        if (readsTarget(bucketIndex, entry)) {
+            entry = rehashTarget.get(hashFunction.hash(searchKey, rehashTarget.size())).findEntry(searchKey);
+        }
+        return entry;
+    }
+    
+    /**
+     * Finds the bucket entry of a key given as UTF-8 bytes like {@link #probe(String, int)},
+     * without decoding them.
+     */
+    private BucketEntry probe(byte[] key, int offset, int length, int bucketIndex) {
+        BucketEntry entry = null;
+        if (readsSource(bucketIndex)) {
+            entry = buckets.get(bucketIndex).findEntry(key, offset, length);
+        }
+        if (readsTarget(bucketIndex, entry)) {
+            entry = rehashTarget.get(hashFunction.hash(key, offset, length, rehashTarget.size()))
+                .findEntry(key, offset, length);
+        }
+        return entry;
+    }
+    
+    /**
+     * Counts the buckets a probe read to find the entry, or to miss the key when it is null.
+     * The count is derived rather than returned with the entry, so a probe allocates nothing.
+     */
+    private int bucketAccesses(int bucketIndex, BucketEntry entry) {
+        return (readsSource(bucketIndex) ? 1 : 0) + (readsTarget(bucketIndex, entry) ? 1 : 0);
+    }
+    
+    // Source buckets below rehashIndex have already been moved to the target directory
+    private boolean readsSource(int bucketIndex) {
+        return rehashTarget == null || bucketIndex >= rehashIndex;
+    }
+    
+    private boolean readsTarget(int bucketIndex, BucketEntry sourceEntry) {
+        return rehashTarget != null && (sourceEntry == null || !readsSource(bucketIndex));
+    }
+    
+    /**
+     * Fills in and commits a lookup event that is to be recorded, walking the bucket chains
+     * again to measure how far the lookup went. A bucket index of -1 marks a cache hit.
+     * Called with the read lock held.
+     */
+    private void commitLookupEvent(IndexLookupEvent event, String searchKey, int bucketIndex, int pageNumber,
+                                   long accesses, boolean found) {
+        int chainLength = 0;
+        if (bucketIndex >= 0) {
+            BucketEntry entry = probe(searchKey, bucketIndex);
+            if (readsSource(bucketIndex)) {
+                chainLength += buckets.get(bucketIndex).chainLengthWalked(searchKey);
+            }
+            if (readsTarget(bucketIndex, entry)) {
+                chainLength += rehashTarget.get(hashFunction.hash(searchKey, rehashTarget.size()))
+                    .chainLengthWalked(searchKey);
+            }
+        }
+        event.key = searchKey;
+        event.bucket = bucketIndex;
+        event.chainLength = chainLength;
+        event.page = pageNumber;
+        event.accesses = (int) accesses;
+        event.found = found;
+        event.cached = bucketIndex < 0;
+        event.commit();
+    }
+    
+    /**
+     * Lets the index grow on its own: when an insert pushes the overflow rate above the
+     * threshold, a larger directory is allocated and buckets are migrated progressively.
+     * 
+     * @param overflowRateThreshold overflow rate percentage that triggers a rehash
+     * @param bucketsPerStep source buckets migrated per operation
+     */
+    public void enableIncrementalRehash(double overflowRateThreshold, int bucketsPerStep) {
+        if (overflowRateThreshold <= 0 || bucketsPerStep <= 0) {
+            throw new IllegalArgumentException("Threshold and buckets per step must be positive");
+        }
+        lock.writeLock().lock();
+        try {
+            this.rehashThreshold = overflowRateThreshold;
+            this.rehashBucketsPerStep = bucketsPerStep;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Stops triggering new rehashes. A rehash already in progress is finished at once.
+     */
+    public void disableIncrementalRehash() {
+        lock.writeLock().lock();
+        try {
+            this.rehashThreshold = 0;
+            while (rehashTarget != null) {
+                rehashStep();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean isRehashing() {
+        return rehashing;
+    }
+    
+    /**
+     * Allocates the target directory. Called with the write lock held.
+     */
+    private void startRehash() {
+        double loadFactor = statistics.getLoadFactor() > 0 ? statistics.getLoadFactor() : 1.0;
+        int targetSize = Math.max(buckets.size() * REHASH_GROWTH_FACTOR,
+            IndexTuner.bucketCount(statistics.getTotalRecords(), bucketCapacity, loadFactor));
+        rehashTarget = new ArrayList<>(targetSize);
+        for (int i = 0; i < targetSize; i++) {
+            rehashTarget.add(new Bucket(i, bucketCapacity));
+        }
+        rehashIndex = 0;
+        rehashStartNanos = System.nanoTime();
+        rehashing = true;
+        
+        statistics.setRehashSourceBuckets(buckets.size());
+        statistics.setRehashTargetBuckets(targetSize);
+        statistics.setRehashMigratedBuckets(0);
+        statistics.setRehashInProgress(true);
+    }
+    
+    /**
+     * Migrates the next few source buckets and switches directories after the last one.
+     * Called with the write lock held.
+     */
+    private void rehashStep() {
+        RehashStepEvent event = new RehashStepEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        int sourceBuckets = buckets.size();
+        int targetBuckets = rehashTarget.size();
+        int firstBucket = rehashIndex;
+        int end = Math.min(buckets.size(), rehashIndex + Math.max(1, rehashBucketsPerStep));
+        for (; rehashIndex < end; rehashIndex++) {
+            Bucket source = buckets.get(rehashIndex);
+            
+            // The source chain's collisions and overflows are replaced by the target's
+            statistics.setCollisions(statistics.getCollisions() - Math.max(0, source.getTotalEntries() - 1));
+            statistics.setOverflows(statistics.getOverflows() - source.getOverflowCount());
+            source.forEachEntry(entry -> moveToDirectory(rehashTarget, entry));
+        }
+        statistics.setRehashMigratedBuckets(rehashIndex);
+        
+        if (rehashIndex == buckets.size()) {
+            buckets = rehashTarget;
+            rehashTarget = null;
+            rehashing = false;
+            statistics.setTotalBuckets(buckets.size());
+            statistics.setRehashInProgress(false);
+            statistics.incrementCompletedRehashes();
+            statistics.setLastRehashDurationNanos(System.nanoTime() - rehashStartNanos);
+        }
+        statistics.getRehashStepLatency().record(System.nanoTime() - startTime);
+        if (event.shouldCommit()) {
+            event.sourceBuckets = sourceBuckets;
+            event.targetBuckets = targetBuckets;
+            event.firstBucket = firstBucket;
+            event.bucketsMigrated = end - firstBucket;
+            event.completed = rehashTarget == null;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Abandons a rehash in progress. Called with the write lock held.
+     */
+    private void cancelRehash() {
+        rehashTarget = null;
+        rehashing = false;
+        statistics.setRehashInProgress(false);
+    }
+    
+    /**
+     * Builds the ordered (B+ tree) secondary index used by prefix and range queries.
+     * 
+     * @param fanout maximum children per node (at least 3)
+     */
+    public void constructOrderedIndex(int fanout) {
+        lock.writeLock().lock();
+        try {
+            long startTime = System.nanoTime();
+            orderedIndex = BPlusTreeIndex.build(pages, fanout);
+            statistics.getBuildLatency().record(System.nanoTime() - startTime);
+            statistics.setOrderedIndexNodes(orderedIndex.getNodeCount());
+            statistics.setOrderedIndexHeight(orderedIndex.getHeight());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds all records starting with the prefix using the ordered index.
+     * 
+     * @param prefix the prefix to match
+     * @return the matches with node and page access counts
+     * @throws IllegalStateException if the ordered index has not been constructed
+     */
+    public RangeSearchResult searchPrefix(String prefix) {
+        return searchOrdered(tree -> tree.searchPrefix(prefix));
+    }
+    
+    /**
+     * Finds all records between two keys (inclusive) using the ordered index.
+     * 
+     * @param from the lowest key to match
+     * @param to the highest key to match
+     * @return the matches with node and page access counts
+     * @throws IllegalStateException if the ordered index has not been constructed
+     */
+    public RangeSearchResult searchRange(String from, String to) {
+        return searchOrdered(tree -> tree.searchRange(from, to));
+    }
+    
+    private RangeSearchResult searchOrdered(Function<BPlusTreeIndex, RangeSearchResult> query) {
+        lock.readLock().lock();
+        try {
+            if (orderedIndex == null) {
+                throw new IllegalStateException("Ordered index has not been constructed");
+            }
+            long startTime = System.nanoTime();
+            RangeSearchResult result = query.apply(orderedIndex);
+            statistics.setRangeSearchTimeNanos(System.nanoTime() - startTime);
+            statistics.setRangeSearchAccesses(result.accessCount());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds all records starting with the prefix by scanning every page.
+     */
+    public RangeSearchResult tableScanPrefix(String prefix) {
+        return tableScanMatching("prefix '" + prefix + "'", record -> record.startsWith(prefix));
     }
     
     /**
-     * Loads data from the words file and creates pages.
-     * 
-     * @param pageSize the size of each page
-     * @throws IOException if there's an error reading the file
+     * Finds all records between two keys (inclusive) by scanning every page.
      */
-    public void loadData(int pageSize) throws IOException {
-        this.pageSize = pageSize;
-        this.pages.clear();
-        this.statistics.reset();
-        
-        List<String> words = loadWordsFromResource();
-        createPages(words);
-        
-        statistics.setTotalRecords(words.size());
-        statistics.setTotalPages(pages.size());
+    public RangeSearchResult tableScanRange(String from, String to) {
+        return tableScanMatching("range ['" + from + "', '" + to + "']",
+                                 record -> record.compareTo(from) >= 0 && record.compareTo(to) <= 0);
+    }
+    
+    private RangeSearchResult tableScanMatching(String query, Predicate<String> predicate) {
+        lock.readLock().lock();
+        try {
+            long startTime = System.nanoTime();
+            List<BucketEntry> matches = new ArrayList<>();
+            
+            for (Page page : pages) {
+                checkCancelled();
+                for (String record : page.recordsView()) {
+                    if (predicate.test(record)) {
+                        matches.add(new BucketEntry(record, page.getPageNumber()));
+                    }
+                }
+            }
+            
+            RangeSearchResult result = new RangeSearchResult(query, matches, 0, pages.size());
+            statistics.setRangeScanTimeNanos(System.nanoTime() - startTime);
+            statistics.setRangeScanAccesses(result.accessCount());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
-     * Constructs the hash index by creating buckets and populating them.
+     * Places a bounded hot-key cache in front of {@link #searchWithIndex(String)}. Keys found
+     * through the index are offered to the cache; rebuilds and reloads invalidate it.
      * 
-     * @param bucketCapacity the capacity of each bucket
+     * @param capacity maximum number of cached keys
+     * @param policyType admission/eviction policy
      */
-    public void constructIndex(int bucketCapacity) {
-        this.bucketCapacity = bucketCapacity;
-        
-        // Calculate number of buckets (NB > NR/FR)
-        long totalRecords = statistics.getTotalRecords();
-        int numberOfBuckets = (int) Math.ceil((double) totalRecords / bucketCapacity) + 1;
-        
-        // Create buckets
-        this.buckets.clear();
-        for (int i = 0; i < numberOfBuckets; i++) {
-            buckets.add(new Bucket(i, bucketCapacity));
+    public void enableLookupCache(int capacity, CachePolicy.Type policyType) {
+        lock.writeLock().lock();
+        try {
+            this.lookupCache = new LookupCache(capacity, policyType);
+            statistics.resetCacheCounters();
+        } finally {
+            lock.writeLock().unlock();
         }
-        
-        // Populate buckets
-        populateBuckets();
-        
-        statistics.setTotalBuckets(numberOfBuckets);
-        statistics.setBucketCapacity(bucketCapacity);
-        
-        // Calculate collision and overflow statistics
-        calculateStatistics();
     }
     
     /**
-     * Searches for a key using the hash index.
-     * 
-     * @param searchKey the key to search for
-     * @return search result containing the page number and whether found
+     * Removes the lookup cache; lookups go straight to the index again.
      */
-    public SearchResult searchWithIndex(String searchKey) {
-        long startTime = System.nanoTime();
-        
-        int bucketIndex = hashFunction.hash(searchKey, buckets.size());
-        Bucket bucket = buckets.get(bucketIndex);
-        
-        int pageNumber = bucket.getPageNumber(searchKey);
-        long accesses = 1; // At least one bucket access
-        
-        if (pageNumber != -1) {
-            // Found in bucket, now read the page
-            accesses++; // Page read
-            Page page = pages.get(pageNumber);
-            boolean found = page.containsRecord(searchKey);
-            
-            long endTime = System.nanoTime();
-            statistics.setSearchTimeNanos(endTime - startTime);
-            statistics.setSearchAccesses(accesses);
-            
-            return new SearchResult(found, pageNumber, (int) accesses, searchKey);
+    public void disableLookupCache() {
+        lock.writeLock().lock();
+        try {
+            this.lookupCache = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void invalidateLookupCache() {
+        LookupCache cache = lookupCache;
+        if (cache != null) {
+            cache.invalidateAll();
         }
-        
-        long endTime = System.nanoTime();
-        statistics.setSearchTimeNanos(endTime - startTime);
-        statistics.setSearchAccesses(accesses);
-        
-        return new SearchResult(false, -1, (int) accesses, searchKey);
     }
     
     /**
@@ -117,17 +1343,40 @@ public class HashIndexService {
      * @return search result containing the page number and whether found
      */
     public SearchResult tableScan(String searchKey) {
+        TableScanEvent event = new TableScanEvent();
+        event.begin();
+        SearchResult result;
+        lock.readLock().lock();
+        try {
+            result = scan(searchKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+        statistics.recordTableScan(result.found(), result.accessCount());
+        if (event.shouldCommit()) {
+            event.key = searchKey;
+            event.page = result.pageNumber();
+            event.accesses = result.accessCount();
+            event.found = result.found();
+            event.commit();
+        }
+        return result;
+    }
+    
+    private SearchResult scan(String searchKey) {
         long startTime = System.nanoTime();
         
         int accesses = 0;
         
         for (Page page : pages) {
+            checkCancelled();
             accesses++; // Each page read counts as an access
             
             if (page.containsRecord(searchKey)) {
                 long endTime = System.nanoTime();
                 statistics.setTableScanTimeNanos(endTime - startTime);
                 statistics.setTableScanAccesses(accesses);
+                statistics.getTableScanLatency().record(endTime - startTime);
                 
                 return new SearchResult(true, page.getPageNumber(), accesses, searchKey);
             }
@@ -136,10 +1385,174 @@ public class HashIndexService {
         long endTime = System.nanoTime();
         statistics.setTableScanTimeNanos(endTime - startTime);
         statistics.setTableScanAccesses(accesses);
+        statistics.getTableScanLatency().record(endTime - startTime);
         
         return new SearchResult(false, -1, accesses, searchKey);
     }
     
+    /**
+     * Looks up a key with the hash index on the async executor.
+     * 
+     * @see #searchWithIndex(String)
+     */
+    public CompletableFuture<SearchResult> searchAsync(String searchKey) {
+        return searchAsync(searchKey, null);
+    }
+    
+    /**
+     * Looks up a key with the hash index on the async executor, failing with a
+     * {@link java.util.concurrent.TimeoutException} if it does not complete in time.
+     * 
+     * @param timeout maximum time to wait, or null for none
+     */
+    public CompletableFuture<SearchResult> searchAsync(String searchKey, Duration timeout) {
+        return supplyAsync(() -> searchWithIndex(searchKey), timeout);
+    }
+    
+    /**
+     * Scans the pages for a key on the async executor. Cancelling the future stops the scan.
+     * 
+     * @see #tableScan(String)
+     */
+    public CompletableFuture<SearchResult> tableScanAsync(String searchKey) {
+        return tableScanAsync(searchKey, null);
+    }
+    
+    /**
+     * Scans the pages for a key on the async executor, stopping the scan if it does not
+     * complete in time.
+     * 
+     * @param timeout maximum time to wait, or null for none
+     */
+    public CompletableFuture<SearchResult> tableScanAsync(String searchKey, Duration timeout) {
+        return supplyAsync(() -> tableScan(searchKey), timeout);
+    }
+    
+    /**
+     * Builds the index on the async executor. Cancelling the future stops the build and
+     * keeps the previous index.
+     * 
+     * @see #constructIndex(int)
+     */
+    public CompletableFuture<IndexStatistics> constructIndexAsync(int bucketCapacity) {
+        return constructIndexAsync(bucketCapacity, null);
+    }
+    
+    /**
+     * Builds the index on the async executor, abandoning the build if it does not complete
+     * in time.
+     * 
+     * @param timeout maximum time to wait, or null for none
+     */
+    public CompletableFuture<IndexStatistics> constructIndexAsync(int bucketCapacity, Duration timeout) {
+        return supplyAsync(() -> {
+            constructIndex(bucketCapacity);
+            return statistics;
+        }, timeout);
+    }
+    
+    /**
+     * Switches to another hash function and builds the index with it on the async executor.
+     * Cancelling the future stops the build and keeps the previous index and hash function.
+     * 
+     * @see #constructIndex(HashFunction, int)
+     */
+    public CompletableFuture<IndexStatistics> constructIndexAsync(HashFunction hashFunction, int bucketCapacity) {
+        return supplyAsync(() -> {
+            constructIndex(hashFunction, bucketCapacity);
+            return statistics;
+        }, null);
+    }
+    
+    /**
+     * Sets the executor the {@code *Async} methods run on; null restores the shared default.
+     */
+    public void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = executor;
+    }
+    
+    public Executor getAsyncExecutor() {
+        Executor executor = asyncExecutor;
+        return executor != null ? executor : AsyncExecutors.shared();
+    }
+    
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Duration timeout) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        InterruptibleTask<T> task = new InterruptibleTask<>(supplier, future);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                task.interrupt();
+            }
+        });
+        if (timeout != null) {
+            future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            getAsyncExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * Runs a supplier into a future, remembering the running thread so that cancelling or
+     * timing out the future can interrupt it. The interrupt never leaks past the task.
+     */
+    private static final class InterruptibleTask<T> implements Runnable {
+        
+        private final Supplier<T> supplier;
+        private final CompletableFuture<T> future;
+        private Thread runner;
+        private boolean interrupted;
+        
+        InterruptibleTask(Supplier<T> supplier, CompletableFuture<T> future) {
+            this.supplier = supplier;
+            this.future = future;
+        }
+        
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            RUNNING_TASK.set(this);
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                RUNNING_TASK.remove();
+                synchronized (this) {
+                    runner = null;
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+        
+        synchronized void interrupt() {
+            if (runner != null) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Abandons the work of an async task whose thread has been interrupted. A synchronous
+     * caller's interrupt is left alone: its flag stays set and the work runs to completion.
+     */
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted() && RUNNING_TASK.get() != null) {
+            throw new CancellationException("Interrupted");
+        }
+    }
+    
     /**
      * Loads words from the resource file.
      */
@@ -164,17 +1577,19 @@ public class HashIndexService {
     /**
      * Creates pages from the loaded words.
      */
-    private void createPages(List<String> words) {
+    private void createPages(List<String> words, List<byte[]> payloads) {
         int pageNumber = 0;
-        Page currentPage = new Page(pageNumber, pageSize);
+        Page currentPage = pageEncoding.newPage(pageNumber, pageSize);
         
-        for (String word : words) {
-            if (!currentPage.addRecord(word)) {
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            byte[] payload = payloads == null ? null : payloads.get(i);
+            if (!currentPage.addRecord(word, payload)) {
                 // Current page is full, create a new one
                 pages.add(currentPage);
                 pageNumber++;
-                currentPage = new Page(pageNumber, pageSize);
-                currentPage.addRecord(word);
+                currentPage = pageEncoding.newPage(pageNumber, pageSize);
+                currentPage.addRecord(word, payload);
             }
         }
         
@@ -185,23 +1600,182 @@ public class HashIndexService {
     }
     
     /**
-     * Populates buckets with entries from all pages.
+     * Creates a directory and populates its buckets with entries from all pages, in page order.
      */
-    private void populateBuckets() {
+    private List<Bucket> populateBuckets(int bucketCapacity, int numberOfBuckets) {
+        PopulateBucketsEvent event = new PopulateBucketsEvent();
+        event.begin();
+        List<Bucket> directory = new ArrayList<>(numberOfBuckets);
+        for (int i = 0; i < numberOfBuckets; i++) {
+            directory.add(new Bucket(i, bucketCapacity));
+        }
+        long records = 0;
         for (Page page : pages) {
-            for (String record : page.getRecords()) {
-                int bucketIndex = hashFunction.hash(record, buckets.size());
-                Bucket bucket = buckets.get(bucketIndex);
-                
-                // Check if this causes a collision (bucket already has entries)
-                if (!bucket.getEntries().isEmpty()) {
-                    statistics.incrementCollisions();
+            checkCancelled();
+            int pageNumber = page.getPageNumber();
+            if (inlinePayloadLimit > 0 && page.hasPayloads()) {
+                for (int i = 0; i < page.size(); i++) {
+                    String record = page.getRecord(i);
+                    addToBucket(directory.get(hashFunction.hash(record, directory.size())), record, pageNumber,
+                                inlinePayload(page.getPayload(i)));
                 }
-                
-                BucketEntry entry = new BucketEntry(record, page.getPageNumber());
-                bucket.addEntry(entry);
+            } else {
+                page.forEachRecord(record ->
+                    addToBucket(directory.get(hashFunction.hash(record, directory.size())), record, pageNumber, null));
+            }
+            records += page.size();
+        }
+        commitPopulateEvent(event, BuildStrategy.INCREMENTAL, numberOfBuckets, records);
+        return directory;
+    }
+    
+    /**
+     * Creates a directory and fills it bucket by bucket. A first pass hashes every record; a
+     * counting sort on the bucket numbers then groups the records by bucket, keeping page order
+     * within each, and the buckets are created and filled in directory order. Entries end up
+     * exactly as {@link #populateBuckets} puts them, posting lists and collisions included.
+     */
+    private List<Bucket> partitionBuckets(int bucketCapacity, int numberOfBuckets) {
+        PopulateBucketsEvent event = new PopulateBucketsEvent();
+        event.begin();
+        int records = 0;
+        for (Page page : pages) {
+            records = Math.addExact(records, page.size());
+        }
+        
+        // Pass 1: hash every record and count the records of each bucket
+        String[] keys = new String[records];
+        int[] pageNumbers = new int[records];
+        int[] bucketNumbers = new int[records];
+        byte[][] payloads = null;
+        int[] offsets = new int[numberOfBuckets + 1];
+        int record = 0;
+        for (Page page : pages) {
+            checkCancelled();
+            int pageNumber = page.getPageNumber();
+            boolean inline = inlinePayloadLimit > 0 && page.hasPayloads();
+            if (inline && payloads == null) {
+                payloads = new byte[records][];
+            }
+            // Iterating decodes each record once, where getRecord would decode from a restart point
+            int i = 0;
+            for (String key : page.recordsView()) {
+                int bucketNumber = hashFunction.hash(key, numberOfBuckets);
+                keys[record] = key;
+                pageNumbers[record] = pageNumber;
+                bucketNumbers[record] = bucketNumber;
+                offsets[bucketNumber + 1]++;
+                if (inline) {
+                    payloads[record] = inlinePayload(page.getPayload(i));
+                }
+                i++;
+                record++;
+            }
+        }
+        
+        // Pass 2: stable scatter of record positions into bucket order
+        for (int b = 0; b < numberOfBuckets; b++) {
+            offsets[b + 1] += offsets[b];
+        }
+        int[] next = Arrays.copyOf(offsets, numberOfBuckets);
+        int[] order = new int[records];
+        for (int i = 0; i < records; i++) {
+            order[next[bucketNumbers[i]]++] = i;
+        }
+        bucketNumbers = null;
+        next = null;
+        
+        // Fill the buckets one after another, each chain allocated in one run
+        List<Bucket> directory = new ArrayList<>(numberOfBuckets);
+        for (int b = 0; b < numberOfBuckets; b++) {
+            if ((b & 0xFFF) == 0) {
+                checkCancelled();
+            }
+            Bucket bucket = new Bucket(b, bucketCapacity);
+            for (int j = offsets[b]; j < offsets[b + 1]; j++) {
+                int i = order[j];
+                addToBucket(bucket, keys[i], pageNumbers[i], payloads != null ? payloads[i] : null);
             }
+            directory.add(bucket);
+        }
+        commitPopulateEvent(event, BuildStrategy.PARTITIONED, numberOfBuckets, records);
+        return directory;
+    }
+    
+    private void commitPopulateEvent(PopulateBucketsEvent event, BuildStrategy strategy, int numberOfBuckets,
+                                     long records) {
+        if (event.shouldCommit()) {
+            event.buckets = numberOfBuckets;
+            event.pages = pages.size();
+            event.records = records;
+            event.strategy = strategy.name();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Adds an entry to its bucket chain in the given directory, counting a new overflow bucket.
+     */
+    private void addToDirectory(List<Bucket> directory, String record, int pageNumber, byte[] inlinePayload) {
+        Bucket bucket = directory.get(hashFunction.hash(record, directory.size()));
+        int overflowsBefore = bucket.getOverflowCount();
+        addToBucket(bucket, record, pageNumber, inlinePayload);
+        if (bucket.getOverflowCount() > overflowsBefore) {
+            statistics.incrementOverflows();
+        }
+    }
+    
+    /**
+     * Moves an entry, posting list and all, to its bucket chain in the given directory.
+     */
+    private void moveToDirectory(List<Bucket> directory, BucketEntry entry) {
+        Bucket bucket = directory.get(hashFunction.hash(entry.searchKey(), directory.size()));
+        int overflowsBefore = bucket.getOverflowCount();
+        addToBucket(bucket, entry);
+        if (bucket.getOverflowCount() > overflowsBefore) {
+            statistics.incrementOverflows();
+        }
+    }
+    
+    /**
+     * Adds the page to the key's entry in the source directory if its bucket has not been
+     * migrated yet. Called during a rehash with the write lock held.
+     * 
+     * @return false if the key has no entry there
+     */
+    private boolean addToUnmigratedEntry(String record, int pageNumber) {
+        int bucketIndex = hashFunction.hash(record, buckets.size());
+        return bucketIndex >= rehashIndex && buckets.get(bucketIndex).addOccurrence(record, pageNumber);
+    }
+    
+    /**
+     * Adds a record to a bucket chain: a page in the posting list of a key already indexed,
+     * or else a new entry.
+     */
+    private void addToBucket(Bucket bucket, String record, int pageNumber, byte[] inlinePayload) {
+        if (!bucket.addOccurrence(record, pageNumber)) {
+            addToBucket(bucket, new BucketEntry(record, pageNumber, inlinePayload));
+        }
+    }
+    
+    /**
+     * Adds a single entry to a bucket chain, counting a collision when the bucket is not empty.
+     */
+    private void addToBucket(Bucket bucket, BucketEntry entry) {
+        // Check if this causes a collision (bucket already has entries)
+        if (!bucket.isEmpty()) {
+            statistics.incrementCollisions();
         }
+        
+        bucket.addEntry(entry);
+    }
+    
+    /**
+     * The copy of a payload to hold in a bucket entry, or null if it is over the inline limit.
+     * The entry keeps its own copy, as a bucket stored apart from the pages would.
+     */
+    private byte[] inlinePayload(byte[] payload) {
+        return payload != null && payload.length <= inlinePayloadLimit ? payload.clone() : null;
     }
     
     /**
@@ -219,16 +1793,189 @@ public class HashIndexService {
         statistics.setOverflows(overflowCount);
     }
     
+    /**
+     * Reports how evenly each hash function would spread the loaded records over an index
+     * with the given bucket capacity and load factor. Does not change the current index.
+     * 
+     * @param bucketCapacity entries per bucket
+     * @param loadFactor target fill of the primary buckets
+     * @return one report per hash function type
+     */
+    public List<HashDistributionReport> analyzeHashDistribution(int bucketCapacity, double loadFactor) {
+        lock.readLock().lock();
+        try {
+            return new HashDistributionAnalyzer().analyze(pages, bucketCapacity, loadFactor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Estimates the retained heap bytes of the current pages and index by walking them.
+     * The result is also kept in the statistics after each load and index construction.
+     * 
+     * @return the estimated memory footprint
+     */
+    public MemoryFootprint estimateMemoryFootprint() {
+        lock.readLock().lock();
+        try {
+            return footprintEstimator.estimate(pages, buckets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
     // Getters
     public List<Page> getPages() { return new ArrayList<>(pages); }
     public List<Bucket> getBuckets() { return new ArrayList<>(buckets); }
     public HashFunction getHashFunction() { return hashFunction; }
     public IndexStatistics getStatistics() { return statistics; }
     public int getPageSize() { return pageSize; }
+    public PageEncoding getPageEncoding() { return pageEncoding; }
     public int getBucketCapacity() { return bucketCapacity; }
+    public LookupCache getLookupCache() { return lookupCache; }
+    public BPlusTreeIndex getOrderedIndex() { return orderedIndex; }
     
+    /**
+     * Sets the hash function the next index is built with. Once the index has been constructed,
+     * switch with {@link #constructIndex(HashFunction, int)} instead, which rebuilds it in the
+     * same step so that no lookup uses the new function with the old directory.
+     * 
+     * @throws IllegalStateException if the index has been constructed
+     */
     public void setHashFunction(HashFunction hashFunction) {
-        this.hashFunction = hashFunction;
+        Objects.requireNonNull(hashFunction, "hashFunction");
+        lock.writeLock().lock();
+        try {
+            if (!buckets.isEmpty()) {
+                throw new IllegalStateException(
+                    "The index has been constructed; use constructIndex(HashFunction, int) to switch hash functions");
+            }
+            this.hashFunction = hashFunction;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Number of pages, without copying the page list as {@link #getPages()} does.
+     */
+    public int getPageCount() {
+        lock.readLock().lock();
+        try {
+            return pages.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets a single page by number, without copying the page list.
+     * 
+     * @throws IndexOutOfBoundsException if there is no such page
+     */
+    public Page getPage(int pageNumber) {
+        lock.readLock().lock();
+        try {
+            return pages.get(pageNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Number of primary buckets in the directory, without copying it as {@link #getBuckets()} does.
+     */
+    public int getBucketCount() {
+        lock.readLock().lock();
+        try {
+            return buckets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets a single primary bucket, the head of its overflow chain, without copying the directory.
+     * 
+     * @throws IndexOutOfBoundsException if there is no such bucket
+     */
+    public Bucket getBucket(int bucketNumber) {
+        lock.readLock().lock();
+        try {
+            return buckets.get(bucketNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns a read-only view of the pages, backed by the service rather than copied as
+     * {@link #getPages()} is. Like the pages themselves, it is not locked: read it while no
+     * data is being loaded or inserted.
+     */
+    public List<Page> pagesView() {
+        return Collections.unmodifiableList(pages);
+    }
+    
+    /**
+     * Returns a read-only view of the primary buckets, backed by the current directory rather
+     * than copied as {@link #getBuckets()} is. Building the index or finishing a rehash replaces
+     * the directory, so take a new view afterwards; read it while no index is being built.
+     */
+    public List<Bucket> bucketsView() {
+        return Collections.unmodifiableList(buckets);
+    }
+    
+    /**
+     * Returns a spliterator over every record, page by page, that reads the pages in place and
+     * splits well enough for {@code StreamSupport.stream(recordSpliterator(), true)}. It is bound
+     * to the current pages and, like {@link #pagesView()}, is not locked.
+     */
+    public Spliterator<String> recordSpliterator() {
+        List<Page> view = pagesView();
+        long perPage = view.isEmpty() ? 0 : statistics.getTotalRecords() / view.size();
+        return new NestedSpliterator<Page, String>(view, Page::recordSpliterator, Page::forEachRecord, perPage);
+    }
+    
+    /**
+     * Returns a spliterator over every bucket entry, chain by chain, that reads the directory in
+     * place and splits across buckets. It is bound to the current directory and, like
+     * {@link #bucketsView()}, is not locked.
+     */
+    public Spliterator<BucketEntry> entrySpliterator() {
+        List<Bucket> view = bucketsView();
+        long perBucket = view.isEmpty() ? 0 : statistics.getTotalRecords() / view.size();
+        return new NestedSpliterator<Bucket, BucketEntry>(view, Bucket::entrySpliterator, Bucket::forEachEntry, perBucket);
+    }
+    
+    /**
+     * Passes every record to the action, page by page, under the read lock and without copying.
+     */
+    public void forEachRecord(Consumer<? super String> action) {
+        lock.readLock().lock();
+        try {
+            for (Page page : pages) {
+                page.forEachRecord(action);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Passes every bucket entry to the action, chain by chain, under the read lock and without
+     * copying.
+     */
+    public void forEachEntry(Consumer<? super BucketEntry> action) {
+        lock.readLock().lock();
+        try {
+            for (Bucket bucket : buckets) {
+                bucket.forEachEntry(action);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
@@ -244,4 +1991,4 @@ public class HashIndexService {
     public Page getLastPage() {
         return pages.isEmpty() ? null : pages.get(pages.size() - 1);
     }
-}
\ No newline at end of file
+}
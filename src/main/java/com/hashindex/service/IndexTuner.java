@@ -0,0 +1,144 @@
+package com.hashindex.service;
+
+import com.hashindex.model.Page;
+import com.hashindex.model.TuningCandidate;
+import com.hashindex.model.TuningDecision;
+import com.hashindex.model.TuningObjective;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses a hash function, bucket capacity and load factor for the static index by simulating
+ * every candidate on a sample of the loaded records. Candidates are evaluated in parallel.
+ * <p>
+ * For each candidate the sample is hashed into {@code ceil(n / (capacity * loadFactor)) + 1}
+ * bucket counters, from which the overflow rate, the average number of bucket accesses per
+ * successful lookup and the index memory are derived and scaled to the full dataset.
+ */
+public class IndexTuner {
+    
+    public static final int DEFAULT_SAMPLE_SIZE = 50_000;
+    public static final int[] DEFAULT_BUCKET_CAPACITIES = {1, 2, 4, 5, 8, 16, 32};
+    public static final double[] DEFAULT_LOAD_FACTORS = {0.5, 0.75, 1.0};
+    
+    // Chains longer than this are penalized when optimizing for memory
+    private static final double MAX_MEMORY_CHAIN_LENGTH = 1.5;
+    
+    private final MemoryFootprintEstimator estimator;
+    private final int sampleSize;
+    private final int[] bucketCapacities;
+    private final double[] loadFactors;
+    
+    public IndexTuner() {
+        this(new MemoryFootprintEstimator(), DEFAULT_SAMPLE_SIZE, DEFAULT_BUCKET_CAPACITIES, DEFAULT_LOAD_FACTORS);
+    }
+    
+    public IndexTuner(MemoryFootprintEstimator estimator, int sampleSize, int[] bucketCapacities, double[] loadFactors) {
+        this.estimator = estimator;
+        this.sampleSize = sampleSize;
+        this.bucketCapacities = bucketCapacities.clone();
+        this.loadFactors = loadFactors.clone();
+    }
+    
+    /**
+     * Evaluates all candidates and ranks them for the objective.
+     * 
+     * @param pages the loaded pages
+     * @param totalRecords number of records the index will hold
+     * @param objective what to optimize for
+     * @return the decision, with candidates sorted best first
+     */
+    public TuningDecision tune(List<Page> pages, long totalRecords, TuningObjective objective) {
+        long startTime = System.nanoTime();
+        List<String> sample = sample(pages, totalRecords);
+        if (sample.isEmpty()) {
+            throw new IllegalStateException("No records loaded to tune on");
+        }
+        
+        List<Config> configs = new ArrayList<>();
+        for (HashFunctionFactory.HashFunctionType type : HashFunctionFactory.HashFunctionType.values()) {
+            for (int capacity : bucketCapacities) {
+                for (double loadFactor : loadFactors) {
+                    configs.add(new Config(type, capacity, loadFactor));
+                }
+            }
+        }
+        
+        List<TuningCandidate> candidates = configs.parallelStream()
+            .map(config -> evaluate(config, sample, totalRecords, objective))
+            .sorted(Comparator.comparingDouble(TuningCandidate::score))
+            .collect(Collectors.toList());
+        
+        return new TuningDecision(objective, sample.size(), candidates.get(0), candidates,
+                                  System.nanoTime() - startTime);
+    }
+    
+    /**
+     * Number of buckets the index uses for a record count, capacity and load factor.
+     */
+    public static int bucketCount(long records, int bucketCapacity, double loadFactor) {
+        return (int) Math.ceil(records / (bucketCapacity * loadFactor)) + 1;
+    }
+    
+    private TuningCandidate evaluate(Config config, List<String> sample, long totalRecords, TuningObjective objective) {
+        HashFunction hashFunction = HashFunctionFactory.createHashFunction(config.type);
+        int buckets = bucketCount(sample.size(), config.capacity, config.loadFactor);
+        int[] counts = new int[buckets];
+        for (String key : sample) {
+            counts[hashFunction.hash(key, buckets)]++;
+        }
+        
+        long overflowBuckets = 0;
+        long lookupAccesses = 0;
+        for (int count : counts) {
+            int chain = Math.max(1, (count + config.capacity - 1) / config.capacity);
+            overflowBuckets += chain - 1;
+            // The entry at position p is found after p / capacity + 1 bucket accesses
+            for (int p = 0; p < count; p++) {
+                lookupAccesses += p / config.capacity + 1;
+            }
+        }
+        
+        double averageChainLength = (double) lookupAccesses / sample.size();
+        double overflowRate = overflowBuckets * 100.0 / buckets;
+        long sampleBytes = estimator.directorySize(buckets)
+            + (buckets + overflowBuckets) * estimator.bucketSize(config.capacity)
+            + sample.size() * estimator.bucketEntrySize();
+        double bytesPerRecord = (double) sampleBytes / sample.size();
+        
+        double score;
+        if (objective == TuningObjective.MIN_LATENCY) {
+            score = averageChainLength + bytesPerRecord / 1_000_000.0;
+        } else {
+            score = bytesPerRecord + 1_000.0 * Math.max(0, averageChainLength - MAX_MEMORY_CHAIN_LENGTH);
+        }
+        
+        return new TuningCandidate(config.type.name(), config.capacity, config.loadFactor,
+                                   bucketCount(totalRecords, config.capacity, config.loadFactor),
+                                   overflowRate, averageChainLength,
+                                   Math.round(bytesPerRecord * totalRecords), score);
+    }
+    
+    /**
+     * Takes an evenly spaced sample of the records across all pages.
+     */
+    private List<String> sample(List<Page> pages, long totalRecords) {
+        long step = Math.max(1, totalRecords / sampleSize);
+        List<String> sample = new ArrayList<>((int) Math.min(totalRecords, sampleSize));
+        long position = 0;
+        for (Page page : pages) {
+            for (int i = 0; i < page.size(); i++, position++) {
+                if (position % step == 0 && sample.size() < sampleSize) {
+                    sample.add(page.getRecord(i));
+                }
+            }
+        }
+        return sample;
+    }
+    
+    private record Config(HashFunctionFactory.HashFunctionType type, int capacity, double loadFactor) {
+    }
+}
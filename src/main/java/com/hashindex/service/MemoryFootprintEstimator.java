@@ -0,0 +1,259 @@
+package com.hashindex.service;
+
+import com.hashindex.model.Bucket;
+import com.hashindex.model.BucketEntry;
+import com.hashindex.model.FrontCodedPage;
+import com.hashindex.model.MemoryFootprint;
+import com.hashindex.model.Page;
+import com.hashindex.model.PostingList;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Estimates the retained heap size of pages and buckets by walking the structures
+ * with per-object shallow sizes derived from the running JVM's object layout
+ * (compressed oops, compressed class pointers and object alignment).
+ */
+public class MemoryFootprintEstimator {
+    
+    private static final int ARRAY_LIST_DEFAULT_CAPACITY = 10;
+    
+    private final int headerBytes;
+    private final int arrayHeaderBytes;
+    private final int referenceBytes;
+    private final int alignment;
+    
+    public MemoryFootprintEstimator() {
+        this(readBooleanVmOption("UseCompressedOops", true),
+             readBooleanVmOption("UseCompressedClassPointers", true),
+             readIntVmOption("ObjectAlignmentInBytes", 8));
+    }
+    
+    public MemoryFootprintEstimator(boolean compressedOops, boolean compressedClassPointers, int alignment) {
+        // Mark word (8) + klass pointer (4 or 8)
+        this.headerBytes = compressedClassPointers ? 12 : 16;
+        this.arrayHeaderBytes = align(headerBytes + 4, 8);
+        this.referenceBytes = compressedOops ? 4 : 8;
+        this.alignment = alignment;
+    }
+    
+    /**
+     * Walks the given pages and bucket directory and estimates their retained size.
+     * 
+     * @param pages the data pages
+     * @param buckets the primary buckets of the index (may be empty)
+     * @return the estimated footprint
+     */
+    public MemoryFootprint estimate(List<Page> pages, List<Bucket> buckets) {
+        long pageBytes = arrayListSize(grownCapacity(pages.size()));
+        long recordStringBytes = 0;
+        long recordCount = 0;
+        boolean frontCoded = false;
+        
+        for (Page page : pages) {
+            if (page instanceof FrontCodedPage) {
+                pageBytes += frontCodedPageSize((FrontCodedPage) page);
+                frontCoded = true;
+            } else {
+                pageBytes += pageSize() + arrayListSize(page.getCapacity());
+                for (int i = 0; i < page.size(); i++) {
+                    recordStringBytes += stringSize(page.getRecord(i));
+                }
+                if (page.hasPayloads()) {
+                    pageBytes += arrayListSize(page.getCapacity());
+                    for (int i = 0; i < page.size(); i++) {
+                        pageBytes += payloadSize(page.getPayload(i));
+                    }
+                }
+            }
+            recordCount += page.size();
+        }
+        
+        long directoryBytes = directorySize(buckets.size());
+        long bucketBytes = 0;
+        long bucketEntryBytes = 0;
+        long overflowBucketBytes = 0;
+        long postingListBytes = 0;
+        
+        for (Bucket bucket : buckets) {
+            bucketBytes += bucketSize(bucket);
+            bucketEntryBytes += entriesSize(bucket);
+            
+            Bucket overflow = bucket.getOverflowBucket();
+            while (overflow != null) {
+                overflowBucketBytes += bucketSize(overflow);
+                bucketEntryBytes += entriesSize(overflow);
+                overflow = overflow.getOverflowBucket();
+            }
+            for (Bucket b = bucket; b != null; b = b.getOverflowBucket()) {
+                for (int i = 0; i < b.size(); i++) {
+                    BucketEntry entry = b.getEntry(i);
+                    // Front-coded pages hold no strings, but the bucket entries hold the decoded keys
+                    if (frontCoded) {
+                        recordStringBytes += stringSize(entry.searchKey());
+                    }
+                    if (entry.postings() != null) {
+                        postingListBytes += postingListSize(entry.postings());
+                    }
+                }
+            }
+        }
+        
+        return new MemoryFootprint(pageBytes, recordStringBytes, directoryBytes,
+                                   bucketBytes, bucketEntryBytes, overflowBucketBytes, postingListBytes,
+                                   recordCount);
+    }
+    
+    /**
+     * Page: header + int pageNumber + int capacity + ref records + ref payloads.
+     */
+    long pageSize() {
+        return align(headerBytes + 4 + 4 + 2L * referenceBytes);
+    }
+    
+    /**
+     * FrontCodedPage: the Page fields plus ref data + int used + ref restarts + int restartCount
+     * + int count + ref lastKey + int maxKeyLength + boolean sorted, and its byte[] and int[]
+     * (the short last-key array is ignored).
+     */
+    long frontCodedPageSize(FrontCodedPage page) {
+        long shallow = align(headerBytes + 4 + 4 + 2L * referenceBytes + 3L * referenceBytes + 4 * 4 + 1);
+        return shallow + align(arrayHeaderBytes + (long) page.getAllocatedBytes())
+            + align(arrayHeaderBytes + 4L * page.getAllocatedRestarts());
+    }
+    
+    /**
+     * Bucket: header + int bucketNumber + int capacity + ref entries + ref overflow + boolean,
+     * plus its entry list sized to the bucket capacity.
+     */
+    long bucketSize(Bucket bucket) {
+        return bucketSize(bucket.getCapacity());
+    }
+    
+    long bucketSize(int capacity) {
+        return align(headerBytes + 4 + 4 + 2L * referenceBytes + 1) + arrayListSize(capacity);
+    }
+    
+    /**
+     * Bucket directory: the service's ArrayList of primary buckets.
+     */
+    long directorySize(int buckets) {
+        return buckets == 0 ? 0 : arrayListSize(grownCapacity(buckets));
+    }
+    
+    /**
+     * BucketEntry record: header + ref searchKey + int pageNumber + ref payload + ref postings.
+     * The key string is shared with the page record and is not counted again.
+     */
+    long bucketEntrySize() {
+        return align(headerBytes + 3L * referenceBytes + 4);
+    }
+    
+    /**
+     * A bucket's own entries, with the copies of any payloads they hold inline.
+     */
+    private long entriesSize(Bucket bucket) {
+        long bytes = bucket.size() * bucketEntrySize();
+        for (int i = 0; i < bucket.size(); i++) {
+            bytes += payloadSize(bucket.getEntry(i).payload());
+        }
+        return bytes;
+    }
+    
+    /**
+     * PostingList: header + int firstPage + int lastPage + int size + int varintBytes + ref gaps
+     * + ref bitmap, plus whichever of its byte[] of gaps or long[] bitmap is in use.
+     */
+    long postingListSize(PostingList postings) {
+        long shallow = align(headerBytes + 4 * 4 + 2L * referenceBytes);
+        int elementBytes = postings.isBitmap() ? Long.BYTES : 1;
+        return shallow + align(arrayHeaderBytes + (long) elementBytes * postings.getAllocatedLength());
+    }
+    
+    /**
+     * A payload's byte[], or nothing for a null payload.
+     */
+    long payloadSize(byte[] payload) {
+        return payload == null ? 0 : align(arrayHeaderBytes + (long) payload.length);
+    }
+    
+    /**
+     * String (compact strings): header + ref value + int hash + byte coder + boolean hashIsZero,
+     * plus the backing byte[] (1 byte per char for Latin-1, 2 otherwise).
+     */
+    long stringSize(String s) {
+        long shallow = align(headerBytes + referenceBytes + 4 + 1 + 1);
+        int bytesPerChar = isLatin1(s) ? 1 : 2;
+        return shallow + align(arrayHeaderBytes + (long) s.length() * bytesPerChar);
+    }
+    
+    /**
+     * ArrayList: header + int modCount + int size + ref elementData, plus the Object[] array.
+     */
+    long arrayListSize(int capacity) {
+        return align(headerBytes + 4 + 4 + referenceBytes) + align(arrayHeaderBytes + (long) capacity * referenceBytes);
+    }
+    
+    public int getHeaderBytes() { return headerBytes; }
+    public int getReferenceBytes() { return referenceBytes; }
+    public int getAlignment() { return alignment; }
+    
+    private long align(long size) {
+        return align(size, alignment);
+    }
+    
+    private static int align(int size, int alignment) {
+        return (int) align((long) size, alignment);
+    }
+    
+    private static long align(long size, int alignment) {
+        return (size + alignment - 1) / alignment * alignment;
+    }
+    
+    /**
+     * Capacity an ArrayList reaches when filled by repeated add() calls (grows by 1.5x from 10).
+     */
+    private static int grownCapacity(int size) {
+        if (size == 0) return 0;
+        int capacity = ARRAY_LIST_DEFAULT_CAPACITY;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return capacity;
+    }
+    
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean readBooleanVmOption(String name, boolean fallback) {
+        String value = readVmOption(name);
+        return value != null ? Boolean.parseBoolean(value) : fallback;
+    }
+    
+    private static int readIntVmOption(String name, int fallback) {
+        String value = readVmOption(name);
+        try {
+            return value != null ? Integer.parseInt(value) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+    
+    private static String readVmOption(String name) {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean bean =
+                ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return bean != null ? bean.getVMOption(name).getValue() : null;
+        } catch (RuntimeException | LinkageError e) {
+            // Not a HotSpot JVM or option not available; fall back to the common 64-bit layout
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.hashindex.service;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterator over the elements held by a list of containers, such as the records of the pages
+ * or the entries of the bucket chains, reading them in place. It splits the list of containers
+ * in half and, once a single container is left, hands splitting to that container's own
+ * spliterator, so parallel streams divide the work without copying anything.
+ * 
+ * @param <C> the container type
+ * @param <T> the element type
+ */
+final class NestedSpliterator<C, T> implements Spliterator<T> {
+    
+    private final List<C> containers;
+    private final Function<? super C, Spliterator<T>> spliterators;
+    // Visits a whole container without creating a spliterator for it
+    private final BiConsumer<? super C, Consumer<? super T>> visitor;
+    private final long elementsPerContainer;
+    private int index;
+    private final int fence;
+    // The container being traversed, whose elements come before those of containers[index]
+    private Spliterator<T> current;
+    
+    NestedSpliterator(List<C> containers, Function<? super C, Spliterator<T>> spliterators,
+                      BiConsumer<? super C, Consumer<? super T>> visitor, long elementsPerContainer) {
+        this(containers, spliterators, visitor, elementsPerContainer, 0, containers.size());
+    }
+    
+    private NestedSpliterator(List<C> containers, Function<? super C, Spliterator<T>> spliterators,
+                              BiConsumer<? super C, Consumer<? super T>> visitor, long elementsPerContainer,
+                              int index, int fence) {
+        this.containers = containers;
+        this.spliterators = spliterators;
+        this.visitor = visitor;
+        this.elementsPerContainer = Math.max(1, elementsPerContainer);
+        this.index = index;
+        this.fence = fence;
+    }
+    
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (current == null || !current.tryAdvance(action)) {
+            if (index >= fence) {
+                current = null;
+                return false;
+            }
+            current = spliterators.apply(containers.get(index++));
+        }
+        return true;
+    }
+    
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if (current != null) {
+            current.forEachRemaining(action);
+            current = null;
+        }
+        for (; index < fence; index++) {
+            visitor.accept(containers.get(index), action);
+        }
+    }
+    
+    @Override
+    public Spliterator<T> trySplit() {
+        int remaining = fence - index;
+        if (remaining >= 2) {
+            int mid = index + remaining / 2;
+            NestedSpliterator<C, T> prefix = new NestedSpliterator<>(
+                containers, spliterators, visitor, elementsPerContainer, index, mid);
+            prefix.current = current;
+            current = null;
+            index = mid;
+            return prefix;
+        }
+        if (remaining == 1 && current == null) {
+            current = spliterators.apply(containers.get(index++));
+        }
+        return current == null || index < fence ? null : current.trySplit();
+    }
+    
+    @Override
+    public long estimateSize() {
+        return (fence - index) * elementsPerContainer + (current == null ? 0 : current.estimateSize());
+    }
+    
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
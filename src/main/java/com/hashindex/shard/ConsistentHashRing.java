@@ -0,0 +1,92 @@
+package com.hashindex.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent-hash ring mapping keys to shard ids. Each shard owns {@code virtualNodes} points
+ * on a 64-bit ring and a key belongs to the first point at or after its own hash, so adding a
+ * shard to N others moves only about 1/(N+1) of the keys, all of them to the new shard.
+ * <p>
+ * Immutable: {@link #withShard(int)} returns a new ring, which lets readers keep routing
+ * with the old ring while a rebalance is in progress.
+ */
+public final class ConsistentHashRing {
+    
+    private final int virtualNodes;
+    private final NavigableMap<Long, Integer> ring;
+    private final Set<Integer> shards;
+    
+    public ConsistentHashRing(int virtualNodes) {
+        this(virtualNodes, new TreeMap<>(), new TreeSet<>());
+    }
+    
+    private ConsistentHashRing(int virtualNodes, NavigableMap<Long, Integer> ring, Set<Integer> shards) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+        this.ring = ring;
+        this.shards = shards;
+    }
+    
+    /**
+     * Returns a ring that also contains the given shard.
+     */
+    public ConsistentHashRing withShard(int shardId) {
+        if (shards.contains(shardId)) {
+            throw new IllegalArgumentException("Shard already on the ring: " + shardId);
+        }
+        NavigableMap<Long, Integer> newRing = new TreeMap<>(ring);
+        for (int v = 0; v < virtualNodes; v++) {
+            newRing.put(hash("shard-" + shardId + "#" + v), shardId);
+        }
+        Set<Integer> newShards = new TreeSet<>(shards);
+        newShards.add(shardId);
+        return new ConsistentHashRing(virtualNodes, newRing, newShards);
+    }
+    
+    /**
+     * Returns the shard that owns the key.
+     * 
+     * @throws IllegalStateException if the ring has no shards
+     */
+    public int shardFor(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("No shards on the ring");
+        }
+        Map.Entry<Long, Integer> owner = ring.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+    
+    public Set<Integer> getShards() {
+        return Collections.unmodifiableSet(shards);
+    }
+    
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+    
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes followed by the SplitMix64 finalizer, which spreads
+     * the short, similar virtual node names evenly around the ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+}
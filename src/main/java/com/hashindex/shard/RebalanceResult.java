@@ -0,0 +1,25 @@
+package com.hashindex.shard;
+
+/**
+ * Outcome of adding a shard: how many keys moved to it and how long the rebalance took.
+ */
+public record RebalanceResult(
+    int newShardId,
+    int shardCount,
+    long movedKeys,
+    long totalKeys,
+    long elapsedNanos
+) {
+    
+    public double movedFraction() {
+        if (totalKeys == 0) return 0.0;
+        return (double) movedKeys / totalKeys;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("added shard %d (%d shards): moved %,d of %,d keys (%.1f%%, ideal %.1f%%) in %.1f ms",
+                             newShardId, shardCount, movedKeys, totalKeys, movedFraction() * 100,
+                             100.0 / shardCount, elapsedNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.hashindex.shard;
+
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.service.HashIndexService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * One partition of a {@link ShardedHashIndex}: its own pages, buckets and statistics in a
+ * private {@link HashIndexService}, with every operation run on the shard's worker thread.
+ */
+public class Shard {
+    
+    private final int id;
+    private final ExecutorService executor;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private volatile HashIndexService service;
+    
+    Shard(int id, HashIndexService service) {
+        this.id = id;
+        this.service = service;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "shard-" + id);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Runs an operation against the shard's index on its worker thread.
+     */
+    <T> CompletableFuture<T> submit(Function<HashIndexService, T> operation) {
+        return CompletableFuture.supplyAsync(() -> operation.apply(service), executor);
+    }
+    
+    /**
+     * Swaps in a rebuilt index; operations already queued see the new one.
+     */
+    void replaceService(HashIndexService service) {
+        this.service = service;
+    }
+    
+    void recordLookup() {
+        lookups.increment();
+    }
+    
+    void recordInsert() {
+        inserts.increment();
+    }
+    
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public HashIndexService getService() {
+        return service;
+    }
+    
+    public ShardLoad getLoad() {
+        IndexStatistics statistics = service.getStatistics();
+        return new ShardLoad(id, statistics.getTotalRecords(), statistics.getTotalBuckets(),
+                             lookups.sum(), inserts.sum(), statistics.getOverflowRate());
+    }
+}
@@ -0,0 +1,20 @@
+package com.hashindex.shard;
+
+/**
+ * Point-in-time load of one shard.
+ */
+public record ShardLoad(
+    int shardId,
+    long records,
+    int buckets,
+    long lookups,
+    long inserts,
+    double overflowRate
+) {
+    
+    @Override
+    public String toString() {
+        return String.format("shard %d: %,d records, %,d buckets, %,d lookups, %,d inserts, overflow %.2f%%",
+                             shardId, records, buckets, lookups, inserts, overflowRate);
+    }
+}
@@ -0,0 +1,152 @@
+package com.hashindex.shard;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.util.CommandOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures aggregate lookup throughput and per-shard load of a {@link ShardedHashIndex}
+ * for every shard count from 1 to N.
+ */
+public class ShardScalingBenchmark {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: shards [options]",
+        "  --records N            dataset size (default 200000)",
+        "  --max-shards N         largest shard count (default 8)",
+        "  --virtual-nodes N      ring points per shard (default 128)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --threads N            client threads (default 8)",
+        "  --operations N         lookups per shard count (default 1000000)",
+        "  --batch N              lookups in flight per client thread (default 32)",
+        "  --seed N               random seed (default 42)");
+    
+    private final int pageSize;
+    private final int bucketCapacity;
+    private final int virtualNodes;
+    private final int threads;
+    private final int batch;
+    
+    public ShardScalingBenchmark(int pageSize, int bucketCapacity, int virtualNodes, int threads, int batch) {
+        if (threads <= 0 || batch <= 0) {
+            throw new IllegalArgumentException("Threads and batch must be positive");
+        }
+        this.pageSize = pageSize;
+        this.bucketCapacity = bucketCapacity;
+        this.virtualNodes = virtualNodes;
+        this.threads = threads;
+        this.batch = batch;
+    }
+    
+    /**
+     * Runs the lookup workload against 1, 2, ..., maxShards shards.
+     */
+    public List<ShardScalingResult> run(List<String> dataset, int maxShards, long operations, long seed)
+            throws InterruptedException {
+        List<ShardScalingResult> results = new ArrayList<>();
+        for (int shardCount = 1; shardCount <= maxShards; shardCount++) {
+            try (ShardedHashIndex index = new ShardedHashIndex(shardCount, virtualNodes, pageSize, bucketCapacity)) {
+                index.load(dataset);
+                results.add(measure(index, dataset, operations, seed));
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Runs the lookup workload once against the given index.
+     */
+    public ShardScalingResult measure(ShardedHashIndex index, List<String> dataset, long operations, long seed)
+            throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long perThread = Math.max(1, operations / threads);
+        
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(seed * 31 + t);
+            clients.execute(() -> {
+                try {
+                    startGate.await();
+                    // Keep a batch of lookups in flight so every shard worker has queued work
+                    CompletableFuture<?>[] inFlight = new CompletableFuture<?>[batch];
+                    for (long op = 0; op < perThread; op += batch) {
+                        int n = (int) Math.min(batch, perThread - op);
+                        for (int i = 0; i < n; i++) {
+                            inFlight[i] = index.searchAsync(dataset.get(random.nextInt(dataset.size())));
+                        }
+                        CompletableFuture.allOf(Arrays.copyOf(inFlight, n)).join();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        
+        long start = System.nanoTime();
+        startGate.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        clients.shutdown();
+        
+        return new ShardScalingResult(index.getShardCount(), threads, perThread * threads, elapsedNanos,
+                                      index.getSkew(), index.getShardLoads());
+    }
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, ShardScalingBenchmark::run);
+    }
+    
+    /**
+     * Reads the options, runs the benchmark and prints the results to standard output.
+     */
+    public static void run(CommandOptions options) throws InterruptedException {
+        int records = options.getInt("records", 200_000);
+        int maxShards = options.getInt("max-shards", 8);
+        int virtualNodes = options.getInt("virtual-nodes", ShardedHashIndex.DEFAULT_VIRTUAL_NODES);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        int threads = options.getInt("threads", 8);
+        long operations = options.getLong("operations", 1_000_000);
+        int batch = options.getInt("batch", 32);
+        long seed = options.getLong("seed", 42);
+        
+        if (records <= 0 || maxShards <= 0) {
+            throw new IllegalArgumentException("records and max-shards must be positive");
+        }
+        
+        List<String> dataset = WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed);
+        ShardScalingBenchmark benchmark = new ShardScalingBenchmark(pageSize, bucketCapacity, virtualNodes, threads, batch);
+        
+        double baseline = 0;
+        for (ShardScalingResult result : benchmark.run(dataset, maxShards, operations, seed)) {
+            if (baseline == 0) {
+                baseline = result.throughput();
+            }
+            System.out.println(result + String.format(", speedup %.2fx", result.throughput() / baseline));
+            for (ShardLoad load : result.loads()) {
+                System.out.println("    " + load);
+            }
+        }
+        
+        // Rebalance cost when growing one shard at a time
+        try (ShardedHashIndex index = new ShardedHashIndex(1, virtualNodes, pageSize, bucketCapacity)) {
+            index.load(dataset);
+            for (int n = 2; n <= maxShards; n++) {
+                System.out.println(index.addShard());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.hashindex.shard;
+
+import java.util.List;
+
+/**
+ * Aggregate lookup throughput and balance of a sharded index at one shard count.
+ */
+public record ShardScalingResult(
+    int shards,
+    int clientThreads,
+    long operations,
+    long elapsedNanos,
+    double skew,
+    List<ShardLoad> loads
+) {
+    
+    public double throughput() {
+        if (elapsedNanos == 0) return 0.0;
+        return operations * 1_000_000_000.0 / elapsedNanos;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%3d shards: %,12.0f ops/s, skew %.3f", shards, throughput(), skew);
+    }
+}
@@ -0,0 +1,248 @@
+package com.hashindex.shard;
+
+import com.hashindex.model.Page;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashIndexService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hash index partitioned across in-process shards. Keys are routed with a
+ * {@link ConsistentHashRing}; each {@link Shard} has its own pages, buckets, statistics and
+ * worker thread, so shards neither share a lock nor compete for one another's worker.
+ * <p>
+ * Page numbers in search results are local to the owning shard. {@link #addShard()} streams
+ * the keys the new shard takes over while reads keep being served from the old layout;
+ * inserts wait until the rebalance completes.
+ */
+public class ShardedHashIndex implements AutoCloseable {
+    
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+    
+    private final int pageSize;
+    private final int bucketCapacity;
+    private final Map<Integer, Shard> shards = new ConcurrentHashMap<>();
+    private volatile ConsistentHashRing ring;
+    private int nextShardId;
+    
+    // Inserts hold the read side; a rebalance holds the write side so its key scan is stable
+    private final ReadWriteLock topologyLock = new ReentrantReadWriteLock();
+    
+    public ShardedHashIndex(int shardCount, int pageSize, int bucketCapacity) {
+        this(shardCount, DEFAULT_VIRTUAL_NODES, pageSize, bucketCapacity);
+    }
+    
+    public ShardedHashIndex(int shardCount, int virtualNodes, int pageSize, int bucketCapacity) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.pageSize = pageSize;
+        this.bucketCapacity = bucketCapacity;
+        
+        ConsistentHashRing initial = new ConsistentHashRing(virtualNodes);
+        for (int i = 0; i < shardCount; i++) {
+            int id = nextShardId++;
+            initial = initial.withShard(id);
+            shards.put(id, new Shard(id, buildService(List.of())));
+        }
+        this.ring = initial;
+    }
+    
+    /**
+     * Replaces the contents of every shard with its partition of the records and builds the
+     * shard indexes in parallel, each on its own worker.
+     * 
+     * @param records the records to store
+     */
+    public void load(List<String> records) {
+        topologyLock.writeLock().lock();
+        try {
+            ConsistentHashRing current = ring;
+            Map<Integer, List<String>> partitions = new HashMap<>();
+            for (int id : current.getShards()) {
+                partitions.put(id, new ArrayList<>(records.size() / shards.size() + 1));
+            }
+            for (String record : records) {
+                partitions.get(current.shardFor(record)).add(record);
+            }
+            
+            List<CompletableFuture<Void>> builds = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                List<String> partition = partitions.get(shard.getId());
+                builds.add(shard.submit(service -> {
+                    service.loadData(partition, pageSize);
+                    service.constructIndex(bucketCapacity);
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(builds.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            topologyLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Looks up a key on its shard's worker. A miss is retried once routing has changed, in
+     * case the key moved to a new shard while the lookup was queued.
+     */
+    public CompletableFuture<SearchResult> searchAsync(String key) {
+        ConsistentHashRing routing = ring;
+        Shard shard = shards.get(routing.shardFor(key));
+        shard.recordLookup();
+        return shard.submit(service -> service.searchWithIndex(key))
+            .thenCompose(result -> result.found() || ring == routing
+                ? CompletableFuture.completedFuture(result)
+                : searchAsync(key));
+    }
+    
+    public SearchResult search(String key) {
+        return searchAsync(key).join();
+    }
+    
+    /**
+     * Inserts a key into its shard; waits while a rebalance is in progress.
+     * 
+     * @return the page number within the owning shard
+     */
+    public int insert(String key) {
+        topologyLock.readLock().lock();
+        try {
+            Shard shard = shards.get(ring.shardFor(key));
+            shard.recordInsert();
+            return shard.submit(service -> service.insertRecord(key)).join();
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds a shard and moves the keys it now owns to it. Reads are served from the old layout
+     * until the new shard is built, then routing switches over atomically. Finally the source
+     * shards are compacted off their workers and swapped in, so no read waits on the move.
+     * 
+     * @return how many keys moved and how long it took
+     */
+    public RebalanceResult addShard() {
+        topologyLock.writeLock().lock();
+        try {
+            long startTime = System.nanoTime();
+            int newId = nextShardId++;
+            ConsistentHashRing newRing = ring.withShard(newId);
+            
+            // Stream each shard's records, splitting them into kept and moved
+            Map<Integer, List<String>> kept = new ConcurrentHashMap<>();
+            Map<Integer, List<String>> moved = new ConcurrentHashMap<>();
+            List<CompletableFuture<Void>> scans = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                HashIndexService source = shard.getService();
+                scans.add(CompletableFuture.runAsync(() -> {
+                    List<String> keep = new ArrayList<>();
+                    List<String> move = new ArrayList<>();
+                    source.forEachRecord(record -> (newRing.shardFor(record) == newId ? move : keep).add(record));
+                    kept.put(shard.getId(), keep);
+                    moved.put(shard.getId(), move);
+                }));
+            }
+            CompletableFuture.allOf(scans.toArray(new CompletableFuture<?>[0])).join();
+            
+            List<String> newKeys = new ArrayList<>();
+            long totalKeys = 0;
+            for (int id : moved.keySet()) {
+                newKeys.addAll(moved.get(id));
+                totalKeys += moved.get(id).size() + kept.get(id).size();
+            }
+            
+            Shard newShard = new Shard(newId, buildService(List.of()));
+            newShard.submit(service -> {
+                service.loadData(newKeys, pageSize);
+                service.constructIndex(bucketCapacity);
+                return null;
+            }).join();
+            shards.put(newId, newShard);
+            ring = newRing;
+            
+            // Drop the moved keys from the sources; the rebuilt indexes are swapped in
+            List<CompletableFuture<Void>> compactions = new ArrayList<>();
+            for (Map.Entry<Integer, List<String>> entry : kept.entrySet()) {
+                if (moved.get(entry.getKey()).isEmpty()) {
+                    continue;
+                }
+                Shard shard = shards.get(entry.getKey());
+                compactions.add(CompletableFuture.supplyAsync(() -> buildService(entry.getValue()))
+                    .thenAccept(shard::replaceService));
+            }
+            CompletableFuture.allOf(compactions.toArray(new CompletableFuture<?>[0])).join();
+            
+            return new RebalanceResult(newId, shards.size(), newKeys.size(), totalKeys,
+                                       System.nanoTime() - startTime);
+        } finally {
+            topologyLock.writeLock().unlock();
+        }
+    }
+    
+    private HashIndexService buildService(List<String> records) {
+        HashIndexService service = new HashIndexService();
+        service.loadData(records, pageSize);
+        service.constructIndex(bucketCapacity);
+        return service;
+    }
+    
+    public int getShardCount() {
+        return shards.size();
+    }
+    
+    public Collection<Shard> getShards() {
+        return List.copyOf(shards.values());
+    }
+    
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+    
+    public List<ShardLoad> getShardLoads() {
+        List<ShardLoad> loads = new ArrayList<>();
+        for (Shard shard : shards.values()) {
+            loads.add(shard.getLoad());
+        }
+        loads.sort((a, b) -> Integer.compare(a.shardId(), b.shardId()));
+        return loads;
+    }
+    
+    public long getTotalRecords() {
+        long total = 0;
+        for (ShardLoad load : getShardLoads()) {
+            total += load.records();
+        }
+        return total;
+    }
+    
+    /**
+     * Ratio of the largest shard's record count to the mean; 1.0 is perfectly balanced.
+     */
+    public double getSkew() {
+        List<ShardLoad> loads = getShardLoads();
+        long max = 0;
+        long total = 0;
+        for (ShardLoad load : loads) {
+            max = Math.max(max, load.records());
+            total += load.records();
+        }
+        if (total == 0) return 1.0;
+        return max / ((double) total / loads.size());
+    }
+    
+    @Override
+    public void close() {
+        for (Shard shard : shards.values()) {
+            shard.shutdown();
+        }
+    }
+}
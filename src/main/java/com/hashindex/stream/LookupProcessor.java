@@ -0,0 +1,251 @@
+package com.hashindex.stream;
+
+import com.hashindex.model.BatchSearchResult;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashIndexService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming lookup stage: subscribes to a stream of keys and publishes one {@link SearchResult}
+ * per key, in arrival order.
+ * <p>
+ * Keys are collected into micro-batches that are looked up with
+ * {@link HashIndexService#searchBatch(List)} once they reach {@code maxBatchSize} keys, or
+ * {@code maxBatchDelay} after the first key of the batch arrived, whichever comes first.
+ * <p>
+ * Flow control runs both ways. At most {@code maxQueueDepth} keys are requested from upstream
+ * before their results have been handed downstream, and results are published through a
+ * {@link SubmissionPublisher}, whose {@code submit} blocks while a subscriber's buffer is
+ * full; a slow subscriber therefore stalls the batcher, which stops requesting more keys.
+ * <p>
+ * Subscribe downstream before the upstream starts sending, as results published while there
+ * are no subscribers are dropped.
+ */
+public class LookupProcessor implements Flow.Processor<String, SearchResult>, AutoCloseable {
+    
+    private final HashIndexService service;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final int maxQueueDepth;
+    private final SubmissionPublisher<SearchResult> publisher;
+    private final ScheduledThreadPoolExecutor batcher;
+    private final StreamStatistics statistics;
+    
+    // Guarded by 'this'
+    private Flow.Subscription upstream;
+    private List<String> pendingKeys;
+    private long[] pendingArrivals;
+    private ScheduledFuture<?> windowTimer;
+    private boolean terminated;
+    
+    /**
+     * @param service the index to look keys up in
+     * @param maxBatchSize keys per batch at most
+     * @param maxBatchDelay longest a key waits for its batch to fill
+     * @param maxQueueDepth keys requested from upstream but not yet published at most
+     */
+    public LookupProcessor(HashIndexService service, int maxBatchSize, Duration maxBatchDelay, int maxQueueDepth) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        if (maxBatchDelay.isNegative() || maxBatchDelay.isZero()) {
+            throw new IllegalArgumentException("Batch delay must be positive: " + maxBatchDelay);
+        }
+        if (maxQueueDepth < maxBatchSize) {
+            throw new IllegalArgumentException("Queue depth must be at least the batch size: " + maxQueueDepth);
+        }
+        this.service = service;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.maxQueueDepth = maxQueueDepth;
+        this.publisher = new SubmissionPublisher<>();
+        this.batcher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "lookup-stream-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batcher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.statistics = new StreamStatistics();
+        newBatch();
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super SearchResult> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+    
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || terminated) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request(maxQueueDepth);
+    }
+    
+    @Override
+    public void onNext(String key) {
+        statistics.keyReceived();
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            int position = pendingKeys.size();
+            pendingKeys.add(key);
+            pendingArrivals[position] = System.nanoTime();
+            if (position == 0) {
+                List<String> batchKeys = pendingKeys;
+                windowTimer = batcher.schedule(() -> flushWindow(batchKeys), maxBatchDelayNanos,
+                                               TimeUnit.NANOSECONDS);
+            }
+            if (pendingKeys.size() == maxBatchSize) {
+                windowTimer.cancel(false);
+                Batch batch = takeBatch(true);
+                batcher.execute(() -> process(batch));
+            }
+        }
+    }
+    
+    @Override
+    public void onError(Throwable error) {
+        finish(error);
+    }
+    
+    @Override
+    public void onComplete() {
+        finish(null);
+    }
+    
+    /**
+     * Cancels the upstream subscription, completes the subscribers and stops the batcher.
+     * Keys still waiting for their batch are dropped.
+     */
+    @Override
+    public void close() {
+        Flow.Subscription subscription;
+        synchronized (this) {
+            terminated = true;
+            subscription = upstream;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        batcher.shutdownNow();
+        publisher.close();
+    }
+    
+    public StreamStatistics getStatistics() {
+        return statistics;
+    }
+    
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+    
+    private void finish(Throwable error) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            if (windowTimer != null) {
+                windowTimer.cancel(false);
+            }
+            // Queued behind any batches already handed to the batcher
+            Batch batch = takeBatch(false);
+            batcher.execute(() -> {
+                process(batch);
+                if (error != null) {
+                    publisher.closeExceptionally(error);
+                } else {
+                    publisher.close();
+                }
+            });
+        }
+        batcher.shutdown();
+    }
+    
+    /**
+     * Runs on the batcher thread when the window of the batch holding {@code batchKeys} closes.
+     * A timer that fired just as its batch filled up is stale: the full batch is already queued,
+     * and flushing the newer batch now would publish it ahead of that one.
+     */
+    private void flushWindow(List<String> batchKeys) {
+        Batch batch;
+        synchronized (this) {
+            if (pendingKeys != batchKeys || pendingKeys.isEmpty() || terminated) {
+                return;
+            }
+            batch = takeBatch(false);
+        }
+        process(batch);
+    }
+    
+    private Batch takeBatch(boolean full) {
+        Batch batch = new Batch(pendingKeys, pendingArrivals, full);
+        newBatch();
+        return batch;
+    }
+    
+    private void newBatch() {
+        pendingKeys = new ArrayList<>(maxBatchSize);
+        pendingArrivals = new long[maxBatchSize];
+        windowTimer = null;
+    }
+    
+    /**
+     * Runs on the batcher thread: looks the batch up, publishes the results and requests as
+     * many keys from upstream as were published.
+     */
+    private void process(Batch batch) {
+        if (batch.keys().isEmpty()) {
+            return;
+        }
+        
+        BatchSearchResult result;
+        long startTime = System.nanoTime();
+        try {
+            result = service.searchBatch(batch.keys());
+        } catch (RuntimeException e) {
+            publisher.closeExceptionally(e);
+            close();
+            return;
+        }
+        statistics.batchProcessed(batch.keys().size(), batch.full(), result.bucketAccesses(),
+                                  result.pageAccesses(), System.nanoTime() - startTime);
+        
+        List<SearchResult> results = result.results();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                publisher.submit(results.get(i));
+            } catch (IllegalStateException e) {
+                return; // closed while publishing
+            }
+            statistics.resultEmitted(System.nanoTime() - batch.arrivals()[i]);
+        }
+        
+        Flow.Subscription subscription;
+        synchronized (this) {
+            subscription = terminated ? null : upstream;
+        }
+        if (subscription != null) {
+            subscription.request(results.size());
+        }
+    }
+    
+    private record Batch(List<String> keys, long[] arrivals, boolean full) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.hashindex.stream;
+
+import com.hashindex.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link LookupProcessor}: batch sizes, how many keys are queued between arrival
+ * and emission, and the end-to-end latency of each key from {@code onNext} to delivery.
+ */
+public class StreamStatistics {
+    
+    private final LongAdder keysReceived = new LongAdder();
+    private final LongAdder resultsEmitted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+    private final LongAdder sizeTriggeredBatches = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final LongAdder bucketAccesses = new LongAdder();
+    private final LongAdder pageAccesses = new LongAdder();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram("Stream End-to-End");
+    private final LatencyHistogram batchLatency = new LatencyHistogram("Stream Batch Lookup");
+    
+    void keyReceived() {
+        keysReceived.increment();
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+    }
+    
+    void batchProcessed(int size, boolean sizeTriggered, int buckets, int pages, long lookupNanos) {
+        batches.increment();
+        batchedKeys.add(size);
+        if (sizeTriggered) {
+            sizeTriggeredBatches.increment();
+        }
+        maxBatchSize.accumulateAndGet(size, Math::max);
+        bucketAccesses.add(buckets);
+        pageAccesses.add(pages);
+        batchLatency.record(lookupNanos);
+    }
+    
+    void resultEmitted(long endToEndNanos) {
+        resultsEmitted.increment();
+        queueDepth.decrementAndGet();
+        endToEndLatency.record(endToEndNanos);
+    }
+    
+    public long getKeysReceived() { return keysReceived.sum(); }
+    public long getResultsEmitted() { return resultsEmitted.sum(); }
+    public long getBatches() { return batches.sum(); }
+    public long getSizeTriggeredBatches() { return sizeTriggeredBatches.sum(); }
+    public long getMaxBatchSize() { return maxBatchSize.get(); }
+    public long getBucketAccesses() { return bucketAccesses.sum(); }
+    public long getPageAccesses() { return pageAccesses.sum(); }
+    public long getQueueDepth() { return queueDepth.get(); }
+    public long getMaxQueueDepth() { return maxQueueDepth.get(); }
+    
+    public LatencyHistogram getEndToEndLatency() { return endToEndLatency; }
+    public LatencyHistogram getBatchLatency() { return batchLatency; }
+    
+    /**
+     * Mean number of keys per batch.
+     */
+    public double getAverageBatchSize() {
+        long count = getBatches();
+        if (count == 0) return 0.0;
+        return (double) batchedKeys.sum() / count;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("keys %,d in, %,d out, batches %,d (%,d full, avg %.1f, max %,d keys), " +
+                             "queue depth %,d (max %,d), accessed %,d buckets, %,d pages%n  %s%n  %s",
+                             getKeysReceived(), getResultsEmitted(), getBatches(), getSizeTriggeredBatches(),
+                             getAverageBatchSize(), getMaxBatchSize(), getQueueDepth(), getMaxQueueDepth(),
+                             getBucketAccesses(), getPageAccesses(),
+                             batchLatency.snapshot(), endToEndLatency.snapshot());
+    }
+}
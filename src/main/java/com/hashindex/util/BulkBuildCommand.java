@@ -0,0 +1,153 @@
+package com.hashindex.util;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.BuildStrategy;
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.model.MemoryFootprint;
+import com.hashindex.service.HashFunction;
+import com.hashindex.service.HashIndexService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the incremental and the partitioned index build on the same records: build
+ * throughput, how far apart the entries of one bucket chain are allocated, and lookup cost on
+ * the finished index.
+ * <p>
+ * The JVM does not expose object addresses, so the layout is estimated from allocation order:
+ * the number of index allocations between consecutive entries of a chain, times the mean index
+ * bytes per record. The garbage collector may move objects afterwards, which the lookup timing
+ * reflects but the estimate does not.
+ */
+public class BulkBuildCommand {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: bulkbuild [options]",
+        "  --records N            synthetic dataset size (default 1000000)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --rounds N             builds per strategy; the first is a warm-up when N > 1 (default 4)",
+        "  --lookups N            random lookups per strategy (default 500000)",
+        "  --seed N               random seed (default 42)");
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, BulkBuildCommand::run);
+    }
+    
+    /**
+     * Reads the options, builds the index with each strategy and prints the comparison.
+     */
+    public static void run(CommandOptions options) {
+        int records = options.getInt("records", 1_000_000);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        int rounds = options.getInt("rounds", 4);
+        int lookups = options.getInt("lookups", 500_000);
+        long seed = options.getLong("seed", 42);
+        
+        if (records <= 0 || pageSize <= 0 || bucketCapacity <= 0 || rounds <= 0 || lookups <= 0) {
+            throw new IllegalArgumentException("All sizes must be positive");
+        }
+        
+        List<String> keys = WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed);
+        Random random = new Random(seed + 1);
+        List<String> probes = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            probes.add(keys.get(random.nextInt(keys.size())));
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(keys, pageSize);
+        System.out.printf("%,d records on %,d pages, bucket capacity %d, %,d lookups per strategy%n",
+                          keys.size(), service.getPageCount(), bucketCapacity, lookups);
+        
+        Measurement incremental = measure(service, BuildStrategy.INCREMENTAL, bucketCapacity, rounds, probes);
+        Measurement partitioned = measure(service, BuildStrategy.PARTITIONED, bucketCapacity, rounds, probes);
+        if (incremental.collisions != partitioned.collisions || incremental.overflows != partitioned.overflows
+            || incremental.checksum != partitioned.checksum) {
+            throw new IllegalStateException("The two builds produced different indexes");
+        }
+        System.out.println(incremental.describe());
+        System.out.println(partitioned.describe());
+        System.out.printf("Partitioned build: %.2fx the throughput, lookups %.2fx as fast%n",
+                          incremental.buildNanos / partitioned.buildNanos,
+                          incremental.lookupNanos / partitioned.lookupNanos);
+        
+        double bytesPerAllocation = (double) incremental.indexBytes / keys.size();
+        double incrementalGap = chainGap(keys, service.getHashFunction(), service.getBucketCount());
+        System.out.printf("Layout estimate: consecutive entries of a chain %,.0f allocations (~%s) apart "
+                          + "when built incrementally, adjacent when partitioned%n",
+                          incrementalGap, MemoryFootprint.formatBytes(Math.round(incrementalGap * bytesPerAllocation)));
+    }
+    
+    private static Measurement measure(HashIndexService service, BuildStrategy strategy, int bucketCapacity,
+                                       int rounds, List<String> probes) {
+        service.setBuildStrategy(strategy);
+        long[] buildNanos = new long[rounds];
+        for (int round = 0; round < rounds; round++) {
+            service.constructIndex(bucketCapacity);
+            buildNanos[round] = service.getStatistics().getLastBuildNanos();
+        }
+        // Mean over the builds after the warm-up
+        double meanBuildNanos = rounds == 1 ? buildNanos[0]
+            : Arrays.stream(buildNanos, 1, rounds).average().orElse(0);
+        
+        IndexStatistics statistics = service.getStatistics();
+        lookups(service, probes);
+        long start = System.nanoTime();
+        long checksum = lookups(service, probes);
+        double lookupNanos = (double) (System.nanoTime() - start) / probes.size();
+        return new Measurement(strategy, statistics.getTotalRecords(), meanBuildNanos, lookupNanos,
+                               statistics.getMemoryFootprint().indexBytes(), statistics.getCollisions(),
+                               statistics.getOverflows(), checksum);
+    }
+    
+    private static long lookups(HashIndexService service, List<String> probes) {
+        long checksum = 0;
+        for (String probe : probes) {
+            checksum += service.searchWithIndex(probe).pageNumber();
+        }
+        return checksum;
+    }
+    
+    /**
+     * Mean number of records added between two consecutive entries of the same bucket when the
+     * records are added in page order.
+     */
+    private static double chainGap(List<String> keys, HashFunction hashFunction, int bucketCount) {
+        int[] last = new int[bucketCount];
+        Arrays.fill(last, -1);
+        long gaps = 0;
+        long pairs = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            int bucket = hashFunction.hash(keys.get(i), bucketCount);
+            if (last[bucket] >= 0) {
+                gaps += i - last[bucket];
+                pairs++;
+            }
+            last[bucket] = i;
+        }
+        return pairs == 0 ? 0 : (double) gaps / pairs;
+    }
+    
+    private record Measurement(
+        BuildStrategy strategy,
+        long records,
+        double buildNanos,
+        double lookupNanos,
+        long indexBytes,
+        long collisions,
+        long overflows,
+        long checksum
+    ) {
+        
+        String describe() {
+            return String.format("%-12s build %8.1f ms (%,6.2f M records/s), lookup %,6.0f ns/op, index %,d B",
+                                 strategy, buildNanos / 1_000_000.0, records * 1_000.0 / buildNanos,
+                                 lookupNanos, indexBytes);
+        }
+    }
+}
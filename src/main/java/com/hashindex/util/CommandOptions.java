@@ -0,0 +1,208 @@
+package com.hashindex.util;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a command-line subcommand, given as {@code --name value} or {@code --name=value}.
+ * The options a command accepts are the ones its usage text lists, each on a line starting with
+ * {@code "  --name"}, so an option missing from the usage is rejected as unknown. Names are
+ * case-insensitive.
+ * <p>
+ * Malformed options raise {@link IllegalArgumentException}, which {@link #main} reports with
+ * the usage and exit status 2.
+ */
+public final class CommandOptions {
+    
+    /**
+     * Body of a subcommand.
+     */
+    @FunctionalInterface
+    public interface Command {
+        void run(CommandOptions options) throws Exception;
+    }
+    
+    private final Map<String, String> values;
+    
+    private CommandOptions(Map<String, String> values) {
+        this.values = values;
+    }
+    
+    /**
+     * Runs a subcommand from its {@code main}: prints the usage for {@code --help} or
+     * {@code -h}, and otherwise runs the command with the parsed options. Exits with status 2
+     * after an {@link IllegalArgumentException} and with status 1 after any other failure.
+     */
+    public static void main(String[] args, String usage, Command command) {
+        try {
+            CommandOptions options = parse(args, usage);
+            if (options == null) {
+                System.out.println(usage);
+                return;
+            }
+            command.run(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(usage);
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Parses the arguments against the options listed in the usage text.
+     * 
+     * @return the options, or null if help was requested
+     */
+    public static CommandOptions parse(String[] args, String usage) {
+        Set<String> known = new HashSet<>();
+        for (String line : usage.split("\n")) {
+            if (line.startsWith("  --")) {
+                int end = line.indexOf(' ', 4);
+                known.add(line.substring(4, end < 0 ? line.length() : end).toLowerCase(Locale.ROOT));
+            }
+        }
+        
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                return null;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            
+            String name;
+            String value;
+            int eq = arg.indexOf('=');
+            if (eq >= 0) {
+                name = arg.substring(2, eq);
+                value = arg.substring(eq + 1);
+            } else {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                name = arg.substring(2);
+                value = args[++i];
+            }
+            name = name.toLowerCase(Locale.ROOT);
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+            values.put(name, value);
+        }
+        return new CommandOptions(values);
+    }
+    
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+    
+    public String getString(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+    
+    public int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(name, value);
+        }
+    }
+    
+    public long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid(name, value);
+        }
+    }
+    
+    public double getDouble(String name, double defaultValue) {
+        String value = values.get(name);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw invalid(name, value);
+        }
+    }
+    
+    /**
+     * Gets a comma-separated list of integers, such as {@code --limits 0,8,16}.
+     */
+    public int[] getInts(String name, int[] defaultValue) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                result[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw invalid(name, value);
+        }
+        return result;
+    }
+    
+    public Path getPath(String name, Path defaultValue) {
+        String value = values.get(name);
+        try {
+            return value == null ? defaultValue : Paths.get(value);
+        } catch (InvalidPathException e) {
+            throw invalid(name, value);
+        }
+    }
+    
+    /**
+     * Gets an enum constant by its name, ignoring case.
+     */
+    public <E extends Enum<E>> E getEnum(String name, Class<E> type, E defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : toEnum(name, type, value);
+    }
+    
+    /**
+     * Gets a comma-separated list of enum constants, such as {@code --check DJB2,FNV1A},
+     * ignoring case.
+     */
+    public <E extends Enum<E>> List<E> getEnums(String name, Class<E> type, List<E> defaultValue) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        List<E> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            result.add(toEnum(name, type, part));
+        }
+        return result;
+    }
+    
+    private static <E extends Enum<E>> E toEnum(String name, Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw invalid(name, value);
+        }
+    }
+    
+    private static IllegalArgumentException invalid(String name, String value) {
+        return new IllegalArgumentException("Invalid value for --" + name + ": " + value);
+    }
+}
@@ -0,0 +1,132 @@
+package com.hashindex.util;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.model.PayloadSearchResult;
+import com.hashindex.service.HashIndexService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures what a covering index costs and saves: the same records with payloads are indexed
+ * with each inline payload limit, and payload lookups are run against each index. Reports the
+ * index size, its growth over an index without inline payloads and the page reads saved.
+ */
+public class CoveringIndexCommand {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: covering [options]",
+        "  --records N            synthetic dataset size (default 200000)",
+        "  --min-payload N        minimum payload bytes (default 1)",
+        "  --max-payload N        maximum payload bytes (default 64)",
+        "  --limits L,L,...       inline payload limits to compare, 0 = none (default 0,8,16,32,64)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --lookups N            payload lookups per limit (default 200000)",
+        "  --seed N               random seed (default 42)");
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, CoveringIndexCommand::run);
+    }
+    
+    /**
+     * Reads the options, measures each limit and prints the comparison to standard output.
+     */
+    public static void run(CommandOptions options) {
+        int records = options.getInt("records", 200_000);
+        int minPayload = options.getInt("min-payload", 1);
+        int maxPayload = options.getInt("max-payload", 64);
+        int[] limits = options.getInts("limits", new int[] {0, 8, 16, 32, 64});
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        int lookups = options.getInt("lookups", 200_000);
+        long seed = options.getLong("seed", 42);
+        
+        if (records <= 0 || pageSize <= 0 || bucketCapacity <= 0) {
+            throw new IllegalArgumentException("Records, page size and bucket capacity must be positive");
+        }
+        if (minPayload < 0 || maxPayload < minPayload) {
+            throw new IllegalArgumentException("Payload sizes must satisfy 0 <= min <= max");
+        }
+        
+        List<String> keys = WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed);
+        Random random = new Random(seed + 1);
+        List<byte[]> payloads = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] payload = new byte[minPayload + random.nextInt(maxPayload - minPayload + 1)];
+            random.nextBytes(payload);
+            payloads.add(payload);
+        }
+        List<String> probes = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            probes.add(keys.get(random.nextInt(keys.size())));
+        }
+        
+        HashIndexService service = new HashIndexService();
+        service.loadData(keys, payloads, pageSize);
+        System.out.printf("%,d records with %d-%d byte payloads, %,d payload lookups per limit%n",
+                          keys.size(), minPayload, maxPayload, lookups);
+        
+        Measurement baseline = null;
+        for (int limit : limits) {
+            Measurement measurement = measure(service, limit, bucketCapacity, probes);
+            if (baseline == null) {
+                baseline = measurement;
+            }
+            System.out.println(measurement.describe(baseline, keys.size()));
+        }
+    }
+    
+    private static Measurement measure(HashIndexService service, int limit, int bucketCapacity, List<String> probes) {
+        service.setInlinePayloadLimit(limit);
+        service.constructIndex(bucketCapacity);
+        IndexStatistics statistics = service.getStatistics();
+        long indexBytes = statistics.getMemoryFootprint().indexBytes();
+        
+        // The first pass warms up the JIT and is discarded
+        timeLookups(service, probes);
+        statistics.resetLatencies();
+        double lookupNanos = timeLookups(service, probes);
+        return new Measurement(limit, indexBytes, statistics.getLookupPageAccesses(),
+                               statistics.getInlinePayloadHits(), probes.size(), lookupNanos);
+    }
+    
+    private static double timeLookups(HashIndexService service, List<String> probes) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (String probe : probes) {
+            PayloadSearchResult result = service.searchPayload(probe);
+            if (result.found() && result.payload() != null) {
+                found++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found != probes.size()) {
+            throw new IllegalStateException("Found " + found + " of " + probes.size() + " payloads");
+        }
+        return (double) elapsed / Math.max(1, probes.size());
+    }
+    
+    private record Measurement(
+        int limit,
+        long indexBytes,
+        long pageReads,
+        long inlineHits,
+        int lookups,
+        double lookupNanos
+    ) {
+        
+        String describe(Measurement baseline, int records) {
+            long growth = indexBytes - baseline.indexBytes;
+            long saved = baseline.pageReads - pageReads;
+            return String.format("limit %3d B: index %,11d B (%+6.1f%%, %+5.1f B/record), %5.1f%% inline, "
+                                 + "%.3f page reads/lookup (%,d saved), lookup %,5.0f ns",
+                                 limit, indexBytes, 100.0 * growth / Math.max(1, baseline.indexBytes),
+                                 (double) growth / records, 100.0 * inlineHits / Math.max(1, lookups),
+                                 (double) pageReads / Math.max(1, lookups), saved, lookupNanos);
+        }
+    }
+}
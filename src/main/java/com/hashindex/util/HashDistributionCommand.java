@@ -0,0 +1,100 @@
+package com.hashindex.util;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.HashDistributionReport;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line entry point for the hash distribution analyzer.
+ * <p>
+ * With {@code --max-z} or {@code --max-chain} the command exits with status 1 if a checked
+ * hash function exceeds the threshold, so it can gate CI builds.
+ */
+public class HashDistributionCommand {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: analyze [options]",
+        "  --records N            synthetic dataset size, 0 = words.txt (default 0)",
+        "  --length-dist D        FIXED | UNIFORM | NORMAL (default UNIFORM)",
+        "  --min-length N         minimum synthetic key length (default 4)",
+        "  --max-length N         maximum synthetic key length (default 12)",
+        "  --seed N               random seed (default 42)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --load-factor X        primary bucket fill (default 1.0)",
+        "  --check H[,H...]       hash functions the thresholds apply to (default all)",
+        "  --max-z X              fail if the chi-square z-score exceeds X",
+        "  --max-chain N          fail if the longest chain exceeds N buckets",
+        "  --format F             text | csv (default text)");
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, options -> {
+            if (!run(options)) {
+                System.exit(1);
+            }
+        });
+    }
+    
+    /**
+     * Analyzes the dataset described by the options and prints the reports to standard output.
+     * 
+     * @return false if a checked hash function failed a threshold
+     */
+    public static boolean run(CommandOptions options) throws IOException {
+        int records = options.getInt("records", 0);
+        KeyLengthDistribution lengthDistribution = options.getEnum("length-dist", KeyLengthDistribution.class,
+                                                                   KeyLengthDistribution.UNIFORM);
+        int minLength = options.getInt("min-length", 4);
+        int maxLength = options.getInt("max-length", 12);
+        long seed = options.getLong("seed", 42);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        double loadFactor = options.getDouble("load-factor", 1.0);
+        List<String> checked = options.getEnums("check", HashFunctionFactory.HashFunctionType.class, List.of())
+            .stream().map(Enum::name).toList();
+        double maxZ = options.getDouble("max-z", Double.POSITIVE_INFINITY);
+        int maxChain = options.getInt("max-chain", Integer.MAX_VALUE);
+        String format = options.getString("format", "text").toLowerCase(Locale.ROOT);
+        if (!format.equals("text") && !format.equals("csv")) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        
+        HashIndexService service = new HashIndexService();
+        if (records > 0) {
+            service.loadData(WorkloadGenerator.generateDataset(records, lengthDistribution, minLength, maxLength, seed), pageSize);
+        } else {
+            service.loadData(pageSize);
+        }
+        
+        List<HashDistributionReport> reports = service.analyzeHashDistribution(bucketCapacity, loadFactor);
+        boolean passed = true;
+        if (format.equals("csv")) {
+            System.out.println("hash_function,records,buckets,chi_square,chi_square_z,max_load,max_chain,p99_chain,empty_pct,expected_empty_pct,avalanche,avalanche_bias");
+        }
+        for (HashDistributionReport report : reports) {
+            if (format.equals("csv")) {
+                System.out.println(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%d,%d,%d,%.3f,%.3f,%.4f,%.4f",
+                    report.hashFunctionType(), report.records(), report.bucketCount(), report.chiSquare(),
+                    report.chiSquareZScore(), report.maxBucketLoad(), report.maxChainLength(), report.p99ChainLength(),
+                    report.emptyBucketFraction() * 100, report.expectedEmptyBucketFraction() * 100,
+                    report.avalancheScore(), report.avalancheBias()));
+            } else {
+                System.out.println(report);
+            }
+            
+            if (checked.isEmpty() || checked.contains(report.hashFunctionType())) {
+                if (!report.isUniform(maxZ) || report.maxChainLength() > maxChain) {
+                    System.err.println("FAILED: " + report.summary());
+                    passed = false;
+                }
+            }
+        }
+        return passed;
+    }
+}
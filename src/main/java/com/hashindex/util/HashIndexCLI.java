@@ -1,14 +1,65 @@
 package com.hashindex.util;
 
+import com.hashindex.large.LargeScaleBenchmark;
+import com.hashindex.loadtest.LoadTestCommand;
+import com.hashindex.server.IndexServer;
+import com.hashindex.server.LoadClient;
 import com.hashindex.service.HashIndexService;
+import com.hashindex.shard.ShardScalingBenchmark;
+import com.hashindex.wal.CheckpointBenchmark;
+import com.hashindex.wal.WalBenchmark;
+import com.hashindex.model.HashDistributionReport;
 import com.hashindex.model.SearchResult;
+import com.hashindex.model.TuningDecision;
+import com.hashindex.model.TuningObjective;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
- * Command-line interface for testing the hash index functionality.
+ * Command-line interface for testing the hash index functionality. A subcommand name from
+ * {@link #COMMANDS} as the first argument runs that subcommand with the remaining arguments
+ * instead; {@code <subcommand> --help} lists its options.
  */
 public class HashIndexCLI {
     
+    private static final Map<String, Consumer<String[]>> COMMANDS = new LinkedHashMap<>();
+    
+    static {
+        // Synthetic multi-threaded load test
+        COMMANDS.put("loadtest", LoadTestCommand::main);
+        // Distribution quality of the hash functions
+        COMMANDS.put("analyze", HashDistributionCommand::main);
+        // Sharded lookup throughput from 1 to N shards
+        COMMANDS.put("shards", ShardScalingBenchmark::main);
+        // Serve the index over TCP, and load a running server
+        COMMANDS.put("server", IndexServer::main);
+        COMMANDS.put("client", LoadClient::main);
+        // Durable insert throughput with and without group commit
+        COMMANDS.put("wal", WalBenchmark::main);
+        // Checkpoint cost against restart time
+        COMMANDS.put("checkpoint", CheckpointBenchmark::main);
+        // Plain against front-coded pages
+        COMMANDS.put("pages", PageCompressionCommand::main);
+        // Inline payloads against the page reads they save
+        COMMANDS.put("covering", CoveringIndexCommand::main);
+        // Duplicate keys held in posting lists
+        COMMANDS.put("postings", PostingListCommand::main);
+        // Incremental against partitioned index builds
+        COMMANDS.put("bulkbuild", BulkBuildCommand::main);
+        // 64-bit large-scale index over synthetic records
+        COMMANDS.put("large", LargeScaleBenchmark::main);
+    }
+    
     public static void main(String[] args) {
+        Consumer<String[]> command = args.length > 0 ? COMMANDS.get(args[0]) : null;
+        if (command != null) {
+            command.accept(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
         try {
             System.out.println("=== Hash Index Simulator - CLI Test ===");
             System.out.println();
@@ -27,12 +78,12 @@ public class HashIndexCLI {
             // Show first and last pages
             System.out.println("First Page Info:");
             System.out.println(service.getFirstPage());
-            System.out.println("Sample records: " + service.getFirstPage().getRecords().subList(0, Math.min(5, service.getFirstPage().size())));
+            System.out.println("Sample records: " + service.getFirstPage().recordsView().subList(0, Math.min(5, service.getFirstPage().size())));
             System.out.println();
             
             System.out.println("Last Page Info:");
             System.out.println(service.getLastPage());
-            System.out.println("Sample records: " + service.getLastPage().getRecords().subList(0, Math.min(5, service.getLastPage().size())));
+            System.out.println("Sample records: " + service.getLastPage().recordsView().subList(0, Math.min(5, service.getLastPage().size())));
             System.out.println();
             
             // Construct index
@@ -40,10 +91,21 @@ public class HashIndexCLI {
             service.constructIndex(5);
             
             System.out.println("Index constructed successfully!");
-            System.out.println("Total buckets: " + service.getBuckets().size());
+            System.out.println("Total buckets: " + service.getBucketCount());
             System.out.println("Hash function: " + service.getHashFunction().getName());
             System.out.println();
             
+            // Show memory footprint
+            System.out.println(service.getStatistics().getMemoryFootprint());
+            System.out.println();
+            
+            // Compare hash function distribution quality
+            System.out.println("Hash distribution (bucket capacity 5):");
+            for (HashDistributionReport report : service.analyzeHashDistribution(5, 1.0)) {
+                System.out.println("  " + report.summary());
+            }
+            System.out.println();
+            
             // Test searches
             String[] testWords = {"hello", "world", "computer", "algorithm", "data"};
             
@@ -63,6 +125,28 @@ public class HashIndexCLI {
                 System.out.println();
             }
             
+            // Ordered index: prefix and range queries
+            System.out.println("Constructing ordered index with fanout 64...");
+            service.constructOrderedIndex(64);
+            
+            System.out.println("Ordered index: " + service.getOrderedIndex().getNodeCount() + " nodes, height " +
+                service.getOrderedIndex().getHeight());
+            System.out.println("Index prefix: " + service.searchPrefix("comp"));
+            System.out.println("Scan prefix: " + service.tableScanPrefix("comp"));
+            System.out.println("Index range: " + service.searchRange("data", "date"));
+            System.out.println("Scan range: " + service.tableScanRange("data", "date"));
+            System.out.println("Time difference: " + 
+                String.format("%.2f ms", service.getStatistics().getRangeTimeDifferenceMillis()));
+            System.out.println();
+            
+            // Auto-tune the hash index for lookup latency
+            System.out.println("Auto-tuning index for minimum latency...");
+            TuningDecision decision = service.autoTuneIndex(TuningObjective.MIN_LATENCY);
+            System.out.println("Chosen: " + decision.chosen());
+            System.out.println(String.format("Evaluated %d candidates on %,d sampled records in %.1f ms",
+                decision.candidates().size(), decision.sampleSize(), decision.elapsedNanos() / 1_000_000.0));
+            System.out.println();
+            
             // Show statistics
             System.out.println("=== Final Statistics ===");
             System.out.println(service.getStatistics());
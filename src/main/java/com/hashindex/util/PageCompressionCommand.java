@@ -0,0 +1,162 @@
+package com.hashindex.util;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.Page;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashIndexService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares plain pages with front-coded pages on the same records: encoded size, pages needed
+ * at a fixed page size in bytes, heap retained by the pages, and lookup and full-scan cost.
+ */
+public class PageCompressionCommand {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: pages [options]",
+        "  --records N            synthetic dataset size, 0 = words.txt (default 100000)",
+        "  --min-length N         minimum synthetic key length (default 4)",
+        "  --max-length N         maximum synthetic key length (default 12)",
+        "  --order O              sorted | random record order (default sorted)",
+        "  --page-bytes N         bytes per page for both encodings (default 4096)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --lookups N            indexed lookups per encoding (default 200000)",
+        "  --scans N              full table scans per encoding (default 20)",
+        "  --seed N               random seed (default 42)");
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, PageCompressionCommand::run);
+    }
+    
+    /**
+     * Reads the options, measures both encodings and prints the comparison to standard output.
+     */
+    public static void run(CommandOptions options) throws IOException {
+        int records = options.getInt("records", 100_000);
+        int minLength = options.getInt("min-length", 4);
+        int maxLength = options.getInt("max-length", 12);
+        String order = options.getString("order", "sorted").toLowerCase(Locale.ROOT);
+        int pageBytes = options.getInt("page-bytes", 4096);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        int lookups = options.getInt("lookups", 200_000);
+        int scans = options.getInt("scans", 20);
+        long seed = options.getLong("seed", 42);
+        
+        if (!order.equals("sorted") && !order.equals("random")) {
+            throw new IllegalArgumentException("Unknown order: " + order);
+        }
+        if (pageBytes <= 0) {
+            throw new IllegalArgumentException("Page bytes must be positive: " + pageBytes);
+        }
+        
+        List<String> data;
+        if (records > 0) {
+            data = WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, minLength, maxLength, seed);
+        } else {
+            HashIndexService words = new HashIndexService();
+            words.loadData(100);
+            data = new ArrayList<>();
+            words.forEachRecord(data::add);
+        }
+        data = new ArrayList<>(data);
+        if (order.equals("sorted")) {
+            Collections.sort(data);
+        } else {
+            Collections.shuffle(data, new Random(seed));
+        }
+        
+        // Plain pages hold a record count, so size them to the average record that fits in the byte budget
+        Page all = new Page(0, data.size());
+        data.forEach(all::addRecord);
+        long plainEncodedBytes = all.getEncodedBytes();
+        int plainPageSize = (int) Math.max(1, pageBytes * (long) data.size() / Math.max(1, plainEncodedBytes));
+        
+        List<String> probes = new ArrayList<>(lookups);
+        Random random = new Random(seed + 1);
+        for (int i = 0; i < lookups; i++) {
+            probes.add(data.get(random.nextInt(data.size())));
+        }
+        
+        System.out.printf("%,d records (%s), %,d-byte pages%n", data.size(), order, pageBytes);
+        Measurement plain = measure(data, plainPageSize, PageEncoding.PLAIN, bucketCapacity, probes, scans);
+        Measurement frontCoded = measure(data, pageBytes, PageEncoding.FRONT_CODED, bucketCapacity, probes, scans);
+        System.out.println(plain);
+        System.out.println(frontCoded);
+        System.out.printf("Compression ratio: %.2fx, pages: %.2fx fewer, page heap: %.2fx smaller%n",
+                          (double) plain.encodedBytes / frontCoded.encodedBytes,
+                          (double) plain.pages / frontCoded.pages,
+                          (double) plain.pageHeapBytes / frontCoded.pageHeapBytes);
+        System.out.printf("Lookup cost: %.2fx, scan cost: %.2fx of plain%n",
+                          frontCoded.lookupNanos / plain.lookupNanos, frontCoded.scanNanos / plain.scanNanos);
+    }
+    
+    private static Measurement measure(List<String> data, int pageSize, PageEncoding encoding, int bucketCapacity,
+                                       List<String> probes, int scans) {
+        HashIndexService service = new HashIndexService();
+        service.loadData(data, pageSize, encoding);
+        long encodedBytes = 0;
+        for (Page page : service.pagesView()) {
+            encodedBytes += page.getEncodedBytes();
+        }
+        // Before the index exists, so only the pages and their records are counted
+        long pageHeapBytes = service.getStatistics().getMemoryFootprint().dataBytes();
+        service.constructIndex(bucketCapacity);
+        
+        // The first pass warms up the JIT and is discarded
+        timeLookups(service, probes);
+        double lookupNanos = timeLookups(service, probes);
+        timeScans(service, scans);
+        double scanNanos = timeScans(service, scans);
+        return new Measurement(encoding, pageSize, service.getPageCount(), encodedBytes, pageHeapBytes,
+                               lookupNanos, scanNanos);
+    }
+    
+    private static double timeLookups(HashIndexService service, List<String> probes) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (String probe : probes) {
+            if (service.searchWithIndex(probe).found()) {
+                found++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found != probes.size()) {
+            throw new IllegalStateException("Found " + found + " of " + probes.size() + " keys");
+        }
+        return (double) elapsed / Math.max(1, probes.size());
+    }
+    
+    private static double timeScans(HashIndexService service, int scans) {
+        long start = System.nanoTime();
+        for (int i = 0; i < scans; i++) {
+            // A missing key reads every page
+            service.tableScan("~missing-" + i);
+        }
+        return (double) (System.nanoTime() - start) / Math.max(1, scans);
+    }
+    
+    private record Measurement(
+        PageEncoding encoding,
+        int pageSize,
+        int pages,
+        long encodedBytes,
+        long pageHeapBytes,
+        double lookupNanos,
+        double scanNanos
+    ) {
+        
+        @Override
+        public String toString() {
+            return String.format("%-11s page size %,6d: %,7d pages, %,11d B encoded, %,11d B heap, "
+                                 + "lookup %,7.0f ns, full scan %,9.2f ms",
+                                 encoding, pageSize, pages, encodedBytes, pageHeapBytes, lookupNanos, scanNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.hashindex.util;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.MemoryFootprint;
+import com.hashindex.model.MultiSearchResult;
+import com.hashindex.service.HashIndexService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures duplicate keys held as posting lists: indexes records whose keys repeat with a Zipf
+ * distribution, reports the posting-list memory against one bucket entry per occurrence, and
+ * compares fetching every occurrence of a key through {@code searchAll} with a full table scan.
+ */
+public class PostingListCommand {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: postings [options]",
+        "  --keys N               distinct keys (default 50000)",
+        "  --max-occurrences N    occurrences of the most frequent key; the key of rank r",
+        "                         occurs max/r times, at least once (default 2000)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --queries N            keys fetched with searchAll and with a table scan (default 200)",
+        "  --seed N               random seed (default 42)");
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, PostingListCommand::run);
+    }
+    
+    /**
+     * Reads the options, builds the index and prints the memory and fetch cost comparison.
+     */
+    public static void run(CommandOptions options) {
+        int keyCount = options.getInt("keys", 50_000);
+        int maxOccurrences = options.getInt("max-occurrences", 2_000);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        int queries = options.getInt("queries", 200);
+        long seed = options.getLong("seed", 42);
+        
+        if (keyCount <= 0 || maxOccurrences <= 0 || pageSize <= 0 || bucketCapacity <= 0 || queries <= 0) {
+            throw new IllegalArgumentException("All sizes must be positive");
+        }
+        
+        // Distinct keys (the generator may repeat one), then every occurrence in random order
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(
+            WorkloadGenerator.generateDataset(keyCount, KeyLengthDistribution.UNIFORM, 6, 14, seed)));
+        List<String> records = new ArrayList<>();
+        for (int rank = 0; rank < keys.size(); rank++) {
+            int occurrences = Math.max(1, maxOccurrences / (rank + 1));
+            for (int i = 0; i < occurrences; i++) {
+                records.add(keys.get(rank));
+            }
+        }
+        Collections.shuffle(records, new Random(seed + 1));
+        
+        HashIndexService service = new HashIndexService();
+        service.loadData(records, pageSize);
+        service.constructIndex(bucketCapacity);
+        
+        long[] entries = new long[3];
+        service.forEachEntry(entry -> {
+            entries[0]++;
+            if (entry.postings() != null) {
+                entries[1]++;
+                entries[2] += entry.postings().isBitmap() ? 1 : 0;
+            }
+        });
+        MemoryFootprint footprint = service.getStatistics().getMemoryFootprint();
+        long bytesPerEntry = footprint.bucketEntryBytes() / Math.max(1, entries[0]);
+        long occurrenceEntryBytes = (records.size() - entries[0]) * bytesPerEntry;
+        
+        System.out.printf("%,d records, %,d distinct keys on %,d pages%n",
+                          records.size(), keys.size(), service.getPageCount());
+        System.out.printf("Index: %,d entries, %,d with posting lists (%,d bitmaps)%n",
+                          entries[0], entries[1], entries[2]);
+        System.out.printf("Posting lists: %,d B; one %d-byte entry per extra occurrence would take %,d B (%.1fx)%n",
+                          footprint.postingListBytes(), bytesPerEntry, occurrenceEntryBytes,
+                          (double) occurrenceEntryBytes / Math.max(1, footprint.postingListBytes()));
+        System.out.printf("Index memory: %s (%.1f B/record)%n",
+                          MemoryFootprint.formatBytes(footprint.indexBytes()), footprint.indexBytesPerRecord());
+        
+        // The most duplicated keys and a random sample of the rest
+        Random random = new Random(seed + 2);
+        List<String> probes = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            probes.add(i < queries / 2 ? keys.get(i % keys.size()) : keys.get(random.nextInt(keys.size())));
+        }
+        // The first pass warms up the JIT and is discarded
+        fetchAll(service, probes, true);
+        Cost index = fetchAll(service, probes, true);
+        fetchAll(service, probes, false);
+        Cost scan = fetchAll(service, probes, false);
+        if (index.occurrences != scan.occurrences) {
+            throw new IllegalStateException("searchAll found " + index.occurrences + " pages, the scan "
+                                            + scan.occurrences);
+        }
+        System.out.printf("searchAll:     %,9.1f accesses, %,10.1f us per key (%,.1f pages per key)%n",
+                          index.accessesPerKey(), index.microsPerKey(), (double) index.occurrences / queries);
+        System.out.printf("tableScanAll:  %,9.1f accesses, %,10.1f us per key%n",
+                          scan.accessesPerKey(), scan.microsPerKey());
+        System.out.printf("searchAll reads %.1fx fewer pages and is %.1fx faster%n",
+                          scan.accessesPerKey() / index.accessesPerKey(), scan.microsPerKey() / index.microsPerKey());
+    }
+    
+    private static Cost fetchAll(HashIndexService service, List<String> probes, boolean useIndex) {
+        long accesses = 0;
+        long occurrences = 0;
+        long start = System.nanoTime();
+        for (String probe : probes) {
+            MultiSearchResult result = useIndex ? service.searchAll(probe) : service.tableScanAll(probe);
+            accesses += result.accessCount();
+            occurrences += result.pageNumbers().size();
+        }
+        return new Cost(probes.size(), accesses, occurrences, System.nanoTime() - start);
+    }
+    
+    private record Cost(int keys, long accesses, long occurrences, long nanos) {
+        
+        double accessesPerKey() {
+            return (double) accesses / keys;
+        }
+        
+        double microsPerKey() {
+            return nanos / 1_000.0 / keys;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.hashindex.wal;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.service.HashIndexService;
+import com.hashindex.util.CommandOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Trades steady-state checkpoint I/O against restart time: runs the same insert workload with
+ * and without background checkpoints, then restarts from the files each run left behind.
+ */
+public class CheckpointBenchmark {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: checkpoint [options]",
+        "  --records N            base dataset size (default 100000)",
+        "  --inserts N            logged inserts per run (default 100000)",
+        "  --threads N            concurrent writers (default 4)",
+        "  --interval-ms N        checkpoint interval, 0 = no time trigger (default 500)",
+        "  --log-bytes N          log size that triggers a checkpoint, 0 = none (default 0)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --seed N               random seed (default 42)",
+        "  --dir PATH             directory for the data and log files (default: a temporary directory)");
+    
+    private final int threads;
+    private final int pageSize;
+    private final int bucketCapacity;
+    private final Duration interval;
+    private final long logBytesThreshold;
+    
+    public CheckpointBenchmark(int threads, int pageSize, int bucketCapacity, Duration interval, long logBytesThreshold) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.pageSize = pageSize;
+        this.bucketCapacity = bucketCapacity;
+        this.interval = interval;
+        this.logBytesThreshold = logBytesThreshold;
+    }
+    
+    /**
+     * Runs the workload into {@code directory}, checkpointing if {@code checkpoints} is set,
+     * then recovers a fresh service from what is on disk.
+     */
+    public Result run(Path directory, List<String> base, long inserts, boolean checkpoints)
+            throws IOException, InterruptedException {
+        Path logFile = directory.resolve("index.wal");
+        HashIndexService service = createService(base);
+        CheckpointStatistics checkpointStatistics = null;
+        long elapsed;
+        long logBytes;
+        
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.GROUP_COMMIT, Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            CheckpointManager manager = null;
+            if (checkpoints) {
+                manager = new CheckpointManager(service, log, directory, interval, logBytesThreshold);
+                manager.start();
+                checkpointStatistics = manager.getStatistics();
+            }
+            try {
+                elapsed = insert(service, inserts);
+            } finally {
+                if (manager != null) {
+                    manager.close();
+                }
+            }
+            service.setWriteAheadLog(null);
+            logBytes = log.getSizeBytes();
+        }
+        
+        // Without a checkpoint the base records have to be loaded and indexed again before replay
+        long restartStart = System.nanoTime();
+        HashIndexService restarted = checkpoints ? new HashIndexService() : createService(base);
+        RecoveryResult recovery = CheckpointManager.recover(restarted, directory, logFile);
+        long restartNanos = System.nanoTime() - restartStart;
+        if (restarted.getStatistics().getTotalRecords() != service.getStatistics().getTotalRecords()) {
+            throw new IllegalStateException("Recovered " + restarted.getStatistics().getTotalRecords()
+                                            + " records, expected " + service.getStatistics().getTotalRecords());
+        }
+        return new Result(checkpoints, inserts, elapsed, logBytes, checkpointStatistics, recovery, restartNanos);
+    }
+    
+    private HashIndexService createService(List<String> base) {
+        HashIndexService service = new HashIndexService();
+        service.loadData(base, pageSize);
+        service.constructIndex(bucketCapacity);
+        return service;
+    }
+    
+    private long insert(HashIndexService service, long inserts) throws InterruptedException {
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long perThread = Math.max(1, inserts / threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            writers.execute(() -> {
+                try {
+                    for (long i = 0; i < perThread; i++) {
+                        service.insertRecord("ckpt-" + writer + "-" + i);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        writers.shutdown();
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * One run: insert throughput, checkpoint cost, what was left in the log and how long the
+     * restart took, including reloading the base records when there was no checkpoint.
+     */
+    public record Result(
+        boolean checkpoints,
+        long inserts,
+        long elapsedNanos,
+        long logBytes,
+        CheckpointStatistics checkpointStatistics,
+        RecoveryResult recovery,
+        long restartNanos
+    ) {
+        
+        public double insertsPerSecond() {
+            if (elapsedNanos == 0) return 0.0;
+            return inserts * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: %,.0f inserts/s, log left %,d B, restart %.2f ms%n  %s%s",
+                                 checkpoints ? "With checkpoints" : "Log only", insertsPerSecond(), logBytes,
+                                 restartNanos / 1e6, checkpointStatistics != null ? checkpointStatistics + "\n  " : "",
+                                 recovery);
+        }
+    }
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, CheckpointBenchmark::run);
+    }
+    
+    /**
+     * Reads the options, runs with and without checkpoints and prints both results.
+     */
+    public static void run(CommandOptions options) throws IOException, InterruptedException {
+        int records = options.getInt("records", 100_000);
+        long inserts = options.getLong("inserts", 100_000);
+        int threads = options.getInt("threads", 4);
+        long intervalMillis = options.getLong("interval-ms", 500);
+        long logBytes = options.getLong("log-bytes", 0);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        long seed = options.getLong("seed", 42);
+        Path directory = options.getPath("dir", null);
+        
+        if (intervalMillis <= 0 && logBytes <= 0) {
+            throw new IllegalArgumentException("Set --interval-ms or --log-bytes");
+        }
+        
+        List<String> base = WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed);
+        CheckpointBenchmark benchmark = new CheckpointBenchmark(
+            threads, pageSize, bucketCapacity, intervalMillis > 0 ? Duration.ofMillis(intervalMillis) : null, logBytes);
+        Path root = directory != null ? directory : Files.createTempDirectory("hash-index-checkpoint");
+        try {
+            for (boolean checkpoints : new boolean[] {false, true}) {
+                Path runDirectory = Files.createDirectories(root.resolve(checkpoints ? "checkpoints" : "log-only"));
+                System.out.println(benchmark.run(runDirectory, base, inserts, checkpoints));
+            }
+        } finally {
+            if (directory == null) {
+                try (Stream<Path> files = Files.walk(root)) {
+                    for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.hashindex.wal;
+
+import com.hashindex.model.CheckpointImage;
+import com.hashindex.model.Page;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashIndexService;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Periodically checkpoints a {@link HashIndexService} to data files and truncates the part of
+ * its {@link WriteAheadLog} the checkpoint covers, so that recovery replays a bounded log.
+ * <p>
+ * A checkpoint copies the pages changed since the previous one under the read lock (lookups
+ * are not blocked, inserts wait only for the copy) and appends their images to the pages file
+ * in the background. The pages file is append-only: the last image of a page wins. When it
+ * holds more than {@value #COMPACTION_RATIO} times the live images it is rewritten into a new
+ * generation. The checkpoint is committed by atomically replacing {@value #META_FILE}, which
+ * records the LSN, the valid length of the pages file and the index geometry; only then is the
+ * log truncated. Bucket chains are derived from the pages and are rebuilt on recovery with the
+ * checkpointed number of buckets.
+ * <p>
+ * Checkpoints are taken when the interval has elapsed or the log has grown past the size
+ * threshold, whichever comes first; either trigger can be disabled.
+ */
+public class CheckpointManager implements AutoCloseable {
+    
+    public static final String META_FILE = "checkpoint.meta";
+    public static final int COMPACTION_RATIO = 2;
+    
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    private final HashIndexService service;
+    private final WriteAheadLog log;
+    private final Path directory;
+    private final Duration interval;
+    private final long logBytesThreshold;
+    private final CheckpointStatistics statistics;
+    
+    // Guarded by 'this'
+    private long generation;
+    private long pagesFileBytes;
+    private final Map<Integer, Integer> liveImageBytes = new HashMap<>();
+    private long liveBytes;
+    private ScheduledExecutorService scheduler;
+    
+    private volatile long lastCheckpointNanos;
+    
+    /**
+     * @param service the index to checkpoint; its inserts must be logged to {@code log}
+     * @param directory where the data files live; created if needed
+     * @param interval time between checkpoints, or null for no time trigger
+     * @param logBytesThreshold log size that triggers a checkpoint, or 0 for no size trigger
+     */
+    public CheckpointManager(HashIndexService service, WriteAheadLog log, Path directory, Duration interval,
+                             long logBytesThreshold) throws IOException {
+        if (interval != null && (interval.isNegative() || interval.isZero())) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        if (logBytesThreshold < 0) {
+            throw new IllegalArgumentException("Log size threshold must not be negative: " + logBytesThreshold);
+        }
+        this.service = service;
+        this.log = log;
+        this.directory = directory;
+        this.interval = interval;
+        this.logBytesThreshold = logBytesThreshold;
+        this.statistics = new CheckpointStatistics();
+        
+        Files.createDirectories(directory);
+        Properties meta = readMeta(directory);
+        if (meta != null) {
+            generation = longProperty(meta, "pagesGeneration");
+            pagesFileBytes = longProperty(meta, "pagesBytes");
+            readPageImages(pagesFile(directory, generation), pagesFileBytes,
+                           (page, bytes) -> trackImage(page.getPageNumber(), bytes));
+        }
+        lastCheckpointNanos = System.nanoTime();
+    }
+    
+    /**
+     * Starts checkpointing in the background whenever a trigger fires.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, POLL_NANOS, POLL_NANOS, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Whether the interval has elapsed or the log has outgrown the threshold.
+     */
+    public boolean isDue() {
+        if (interval != null && System.nanoTime() - lastCheckpointNanos >= interval.toNanos()) {
+            return true;
+        }
+        return logBytesThreshold > 0 && log.getSizeBytes() >= logBytesThreshold;
+    }
+    
+    /**
+     * Takes a checkpoint now: writes the changed pages, commits the metadata and truncates the log.
+     * If it fails, the pages stay marked as changed and the previous checkpoint remains valid.
+     */
+    public synchronized CheckpointResult checkpoint() throws IOException {
+        long startTime = System.nanoTime();
+        boolean compact = liveBytes > 0 && pagesFileBytes > COMPACTION_RATIO * liveBytes;
+        CheckpointImage image = service.captureCheckpoint(compact);
+        
+        try {
+            long targetGeneration = compact ? generation + 1 : generation;
+            long offset = compact ? 0 : pagesFileBytes;
+            List<byte[]> images = new ArrayList<>(image.pages().size());
+            long written = 0;
+            for (Page page : image.pages()) {
+                byte[] encoded = encodePage(page);
+                images.add(encoded);
+                written += encoded.length;
+            }
+            
+            try (FileChannel channel = FileChannel.open(pagesFile(directory, targetGeneration),
+                                                        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Drops images of a checkpoint that crashed before committing
+                channel.truncate(offset);
+                channel.position(offset);
+                for (byte[] encoded : images) {
+                    ByteBuffer buffer = ByteBuffer.wrap(encoded);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                channel.force(true);
+            }
+            writeMeta(image, targetGeneration, offset + written);
+            
+            // Committed
+            if (compact) {
+                Files.deleteIfExists(pagesFile(directory, generation));
+                liveImageBytes.clear();
+                liveBytes = 0;
+            }
+            generation = targetGeneration;
+            pagesFileBytes = offset + written;
+            for (int i = 0; i < images.size(); i++) {
+                trackImage(image.pages().get(i).getPageNumber(), images.get(i).length);
+            }
+            liveImageBytes.keySet().removeIf(pageNumber -> {
+                if (pageNumber < image.pageCount()) {
+                    return false;
+                }
+                liveBytes -= liveImageBytes.get(pageNumber);
+                return true;
+            });
+            
+            long truncated = log.truncateThrough(image.lsn());
+            lastCheckpointNanos = System.nanoTime();
+            CheckpointResult result = new CheckpointResult(image.lsn(), images.size(), written, truncated, compact,
+                                                           lastCheckpointNanos - startTime);
+            statistics.recordCheckpoint(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            service.markPagesDirty(image.firstPage());
+            statistics.recordFailure();
+            throw e;
+        }
+    }
+    
+    /**
+     * Stops background checkpointing. Does not take a final checkpoint.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public CheckpointStatistics getStatistics() { return statistics; }
+    public Path getDirectory() { return directory; }
+    
+    /**
+     * Bytes in the pages file, including superseded page images.
+     */
+    public synchronized long getPagesFileBytes() {
+        return pagesFileBytes;
+    }
+    
+    /**
+     * Restores the service from the latest checkpoint in the directory, if there is one, and
+     * replays the log records it does not cover. Without a checkpoint the whole log is
+     * replayed on top of whatever the service has loaded.
+     * 
+     * @throws IllegalStateException if the checkpoint was built with a different hash function
+     */
+    public static RecoveryResult recover(HashIndexService service, Path directory, Path logFile) throws IOException {
+        long startTime = System.nanoTime();
+        Properties meta = readMeta(directory);
+        long checkpointLsn = 0;
+        int pagesRestored = 0;
+        
+        if (meta != null) {
+            String hashFunction = meta.getProperty("hashFunction");
+            if (!hashFunction.equals(service.getHashFunction().getName())) {
+                throw new IllegalStateException("Checkpoint was built with " + hashFunction + ", not "
+                                                + service.getHashFunction().getName());
+            }
+            int pageCount = (int) longProperty(meta, "pageCount");
+            Page[] pages = new Page[pageCount];
+            Path pagesFile = pagesFile(directory, longProperty(meta, "pagesGeneration"));
+            readPageImages(pagesFile, longProperty(meta, "pagesBytes"), (page, bytes) -> {
+                if (page.getPageNumber() < pageCount) {
+                    pages[page.getPageNumber()] = page;
+                }
+            });
+            for (int i = 0; i < pageCount; i++) {
+                if (pages[i] == null) {
+                    throw new IOException("Checkpoint is missing page " + i);
+                }
+            }
+            
+            service.restoreCheckpoint(Arrays.asList(pages), (int) longProperty(meta, "pageSize"),
+                                      PageEncoding.valueOf(meta.getProperty("pageEncoding", PageEncoding.PLAIN.name())),
+                                      (int) longProperty(meta, "bucketCapacity"), (int) longProperty(meta, "bucketCount"),
+                                      Double.parseDouble(meta.getProperty("loadFactor")));
+            checkpointLsn = longProperty(meta, "lsn");
+            pagesRestored = pageCount;
+        }
+        
+        long replayStart = System.nanoTime();
+        long replayed = service.recover(logFile, checkpointLsn);
+        return new RecoveryResult(checkpointLsn, pagesRestored, replayed, replayStart - startTime,
+                                  System.nanoTime() - replayStart);
+    }
+    
+    private void checkpointIfDue() {
+        try {
+            if (isDue()) {
+                checkpoint();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Counted as a failure; retried at the next poll
+        }
+    }
+    
+    private void trackImage(int pageNumber, int bytes) {
+        Integer previous = liveImageBytes.put(pageNumber, bytes);
+        liveBytes += bytes - (previous != null ? previous : 0);
+    }
+    
+    private void writeMeta(CheckpointImage image, long pagesGeneration, long pagesBytes) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("lsn", Long.toString(image.lsn()));
+        meta.setProperty("pagesGeneration", Long.toString(pagesGeneration));
+        meta.setProperty("pagesBytes", Long.toString(pagesBytes));
+        meta.setProperty("pageSize", Integer.toString(image.pageSize()));
+        meta.setProperty("pageEncoding", image.pageEncoding().name());
+        meta.setProperty("pageCount", Integer.toString(image.pageCount()));
+        meta.setProperty("totalRecords", Long.toString(image.totalRecords()));
+        meta.setProperty("bucketCapacity", Integer.toString(image.bucketCapacity()));
+        meta.setProperty("bucketCount", Integer.toString(image.bucketCount()));
+        meta.setProperty("loadFactor", Double.toString(image.loadFactor()));
+        meta.setProperty("hashFunction", image.hashFunctionName());
+        
+        Path temporary = directory.resolve(META_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            meta.store(out, "Hash index checkpoint");
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(META_FILE), StandardCopyOption.ATOMIC_MOVE,
+                   StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private static Properties readMeta(Path directory) throws IOException {
+        Path file = directory.resolve(META_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            meta.load(in);
+        }
+        return meta;
+    }
+    
+    private static long longProperty(Properties meta, String name) throws IOException {
+        String value = meta.getProperty(name);
+        if (value == null) {
+            throw new IOException("Checkpoint metadata is missing " + name);
+        }
+        return Long.parseLong(value);
+    }
+    
+    private static Path pagesFile(Path directory, long generation) {
+        return directory.resolve("pages-" + generation + ".dat");
+    }
+    
+    /**
+     * Page image: {@code int length | int crc32 | int pageNumber | int capacity | int count}
+     * followed by the records in modified UTF-8; {@code length} and the checksum cover the bytes
+     * after the checksum. A page with payloads is followed by one {@code int size | bytes} per
+     * record, size -1 for a record without one; images of pages without payloads end after
+     * the records.
+     */
+    private static byte[] encodePage(Page page) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + page.size() * 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(page.getPageNumber());
+        out.writeInt(page.getCapacity());
+        out.writeInt(page.size());
+        for (String record : page.recordsView()) {
+            out.writeUTF(record);
+        }
+        if (page.hasPayloads()) {
+            for (int i = 0; i < page.size(); i++) {
+                byte[] payload = page.getPayload(i);
+                out.writeInt(payload == null ? -1 : payload.length);
+                if (payload != null) {
+                    out.write(payload);
+                }
+            }
+        }
+        out.flush();
+        
+        byte[] image = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(image, 8, image.length - 8);
+        ByteBuffer.wrap(image).putInt(image.length - 8).putInt((int) crc.getValue());
+        return image;
+    }
+    
+    private static void readPageImages(Path file, long validBytes, ObjIntConsumer<Page> consumer) throws IOException {
+        if (validBytes == 0) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            CRC32 crc = new CRC32();
+            long offset = 0;
+            while (offset < validBytes) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 12 || offset + 8 + length > validBytes) {
+                    throw new IOException("Corrupt page image at offset " + offset);
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Corrupt page image at offset " + offset);
+                }
+                
+                DataInputStream image = new DataInputStream(new ByteArrayInputStream(body));
+                Page page = new Page(image.readInt(), image.readInt());
+                int count = image.readInt();
+                String[] records = new String[count];
+                for (int i = 0; i < count; i++) {
+                    records[i] = image.readUTF();
+                }
+                // Payloads follow the records only if the page had any
+                boolean payloads = image.available() > 0;
+                for (int i = 0; i < count; i++) {
+                    byte[] payload = null;
+                    if (payloads) {
+                        int size = image.readInt();
+                        if (size >= 0) {
+                            payload = new byte[size];
+                            image.readFully(payload);
+                        }
+                    }
+                    page.addRecord(records[i], payload);
+                }
+                consumer.accept(page, 8 + length);
+                offset += 8 + length;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Pages file is shorter than its checkpoint", e);
+        }
+    }
+}
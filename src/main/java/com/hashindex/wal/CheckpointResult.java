@@ -0,0 +1,21 @@
+package com.hashindex.wal;
+
+/**
+ * Outcome of one checkpoint.
+ */
+public record CheckpointResult(
+    long lsn,
+    int pagesWritten,
+    long bytesWritten,
+    long logBytesTruncated,
+    boolean compacted,
+    long durationNanos
+) {
+    
+    @Override
+    public String toString() {
+        return String.format("checkpoint at LSN %,d: %,d pages, %,d B written%s, %,d B of log truncated in %.2f ms",
+                             lsn, pagesWritten, bytesWritten, compacted ? " (compacted)" : "",
+                             logBytesTruncated, durationNanos / 1e6);
+    }
+}
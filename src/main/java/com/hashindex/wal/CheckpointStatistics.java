@@ -0,0 +1,61 @@
+package com.hashindex.wal;
+
+import com.hashindex.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link CheckpointManager}: how often it checkpoints, how long that takes, how
+ * much it writes to the data files and how much log it truncates.
+ */
+public class CheckpointStatistics {
+    
+    private final LongAdder checkpoints = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder pagesWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder logBytesTruncated = new LongAdder();
+    private final AtomicLong lastCheckpointLsn = new AtomicLong();
+    private final AtomicLong lastBytesWritten = new AtomicLong();
+    
+    private final LatencyHistogram checkpointLatency = new LatencyHistogram("Checkpoint");
+    
+    void recordCheckpoint(CheckpointResult result) {
+        checkpoints.increment();
+        if (result.compacted()) {
+            compactions.increment();
+        }
+        pagesWritten.add(result.pagesWritten());
+        bytesWritten.add(result.bytesWritten());
+        logBytesTruncated.add(result.logBytesTruncated());
+        lastCheckpointLsn.set(result.lsn());
+        lastBytesWritten.set(result.bytesWritten());
+        checkpointLatency.record(result.durationNanos());
+    }
+    
+    void recordFailure() {
+        failures.increment();
+    }
+    
+    public long getCheckpoints() { return checkpoints.sum(); }
+    public long getCompactions() { return compactions.sum(); }
+    public long getFailures() { return failures.sum(); }
+    public long getPagesWritten() { return pagesWritten.sum(); }
+    public long getBytesWritten() { return bytesWritten.sum(); }
+    public long getLogBytesTruncated() { return logBytesTruncated.sum(); }
+    public long getLastCheckpointLsn() { return lastCheckpointLsn.get(); }
+    public long getLastBytesWritten() { return lastBytesWritten.get(); }
+    
+    public LatencyHistogram getCheckpointLatency() { return checkpointLatency; }
+    
+    @Override
+    public String toString() {
+        return String.format("checkpoints %,d (%,d compactions, %,d failed), last at LSN %,d, " +
+                             "pages written %,d, written %,d B, log truncated %,d B%n  %s",
+                             getCheckpoints(), getCompactions(), getFailures(), getLastCheckpointLsn(),
+                             getPagesWritten(), getBytesWritten(), getLogBytesTruncated(),
+                             checkpointLatency.snapshot());
+    }
+}
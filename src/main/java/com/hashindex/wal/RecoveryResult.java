@@ -0,0 +1,25 @@
+package com.hashindex.wal;
+
+/**
+ * Outcome of restarting from a checkpoint and the write-ahead log.
+ */
+public record RecoveryResult(
+    long checkpointLsn,
+    int pagesRestored,
+    long recordsReplayed,
+    long checkpointNanos,
+    long replayNanos
+) {
+    
+    public long durationNanos() {
+        return checkpointNanos + replayNanos;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("recovered %,d pages from checkpoint at LSN %,d in %.2f ms, replayed %,d log records " +
+                             "in %.2f ms (total %.2f ms)",
+                             pagesRestored, checkpointLsn, checkpointNanos / 1e6, recordsReplayed,
+                             replayNanos / 1e6, durationNanos() / 1e6);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hashindex.wal;
+
+/**
+ * When a {@link WriteAheadLog} forces appended records to disk.
+ */
+public enum SyncMode {
+    /** Every record is written and fsynced on its own, one after another. */
+    PER_OPERATION,
+    /** A background thread writes all records pending within the latency budget with one fsync. */
+    GROUP_COMMIT
+}
@@ -0,0 +1,167 @@
+package com.hashindex.wal;
+
+import com.hashindex.service.HashIndexService;
+import com.hashindex.util.CommandOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures durable insert throughput through a {@link WriteAheadLog} with an fsync per
+ * operation and with group commit, using the same number of concurrent writers.
+ */
+public class WalBenchmark {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: wal [options]",
+        "  --threads N            concurrent writers (default 8)",
+        "  --operations N         inserts per mode (default 20000)",
+        "  --group-delay-us N     group commit latency budget, 0 = no wait (default 0)",
+        "  --page-size N          records per page (default 100)",
+        "  --bucket-capacity N    entries per bucket (default 5)",
+        "  --dir PATH             directory for the log files (default: a temporary directory)");
+    
+    private static final double REHASH_OVERFLOW_THRESHOLD = 20.0;
+    private static final int REHASH_BUCKETS_PER_STEP = 4;
+    
+    private final int threads;
+    private final int pageSize;
+    private final int bucketCapacity;
+    private final Duration groupCommitDelay;
+    
+    public WalBenchmark(int threads, int pageSize, int bucketCapacity, Duration groupCommitDelay) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.pageSize = pageSize;
+        this.bucketCapacity = bucketCapacity;
+        this.groupCommitDelay = groupCommitDelay;
+    }
+    
+    /**
+     * Runs the insert workload once per sync mode, each against a fresh index and log file.
+     */
+    public List<Result> run(Path directory, long operations) throws IOException, InterruptedException {
+        List<Result> results = new ArrayList<>();
+        for (SyncMode mode : SyncMode.values()) {
+            Path logFile = directory.resolve("bench-" + mode.name().toLowerCase(Locale.ROOT) + ".wal");
+            Files.deleteIfExists(logFile);
+            try {
+                results.add(measure(logFile, mode, operations));
+            } finally {
+                Files.deleteIfExists(logFile);
+            }
+        }
+        return results;
+    }
+    
+    private Result measure(Path logFile, SyncMode mode, long operations) throws IOException, InterruptedException {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of(), pageSize);
+        service.constructIndex(bucketCapacity);
+        // Starts empty, so let the directory grow with the inserts
+        service.enableIncrementalRehash(REHASH_OVERFLOW_THRESHOLD, REHASH_BUCKETS_PER_STEP);
+        
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long perThread = Math.max(1, operations / threads);
+        
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, mode, groupCommitDelay)) {
+            service.setWriteAheadLog(log);
+            for (int t = 0; t < threads; t++) {
+                int writer = t;
+                writers.execute(() -> {
+                    try {
+                        startGate.await();
+                        for (long i = 0; i < perThread; i++) {
+                            service.insertRecord("wal-" + writer + "-" + i);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            
+            long start = System.nanoTime();
+            startGate.countDown();
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            service.setWriteAheadLog(null);
+            return new Result(mode, threads, perThread * threads, elapsed, log.getStatistics());
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+    
+    /**
+     * Durable insert throughput of one sync mode.
+     */
+    public record Result(
+        SyncMode mode,
+        int threads,
+        long operations,
+        long elapsedNanos,
+        WalStatistics statistics
+    ) {
+        
+        public double operationsPerSecond() {
+            if (elapsedNanos == 0) return 0.0;
+            return operations * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%-13s %d writers: %,.0f inserts/s, %,d inserts in %.2f s%n  %s",
+                                 mode, threads, operationsPerSecond(), operations, elapsedNanos / 1e9, statistics);
+        }
+    }
+    
+    public static void main(String[] args) {
+        CommandOptions.main(args, USAGE, WalBenchmark::run);
+    }
+    
+    /**
+     * Reads the options, runs both modes and prints the results to standard output.
+     */
+    public static void run(CommandOptions options) throws IOException, InterruptedException {
+        int threads = options.getInt("threads", 8);
+        long operations = options.getLong("operations", 20_000);
+        long groupDelayMicros = options.getLong("group-delay-us", 0);
+        int pageSize = options.getInt("page-size", 100);
+        int bucketCapacity = options.getInt("bucket-capacity", 5);
+        Path directory = options.getPath("dir", null);
+        
+        boolean temporary = directory == null;
+        if (temporary) {
+            directory = Files.createTempDirectory("hash-index-wal");
+        }
+        try {
+            WalBenchmark benchmark = new WalBenchmark(threads, pageSize, bucketCapacity,
+                                                      Duration.ofNanos(groupDelayMicros * 1_000));
+            List<Result> results = benchmark.run(directory, operations);
+            for (Result result : results) {
+                System.out.println(result);
+            }
+            if (results.size() == 2 && results.get(0).operationsPerSecond() > 0) {
+                System.out.printf("Group commit speedup: %.1fx%n",
+                                  results.get(1).operationsPerSecond() / results.get(0).operationsPerSecond());
+            }
+        } finally {
+            if (temporary) {
+                Files.deleteIfExists(directory);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hashindex.wal;
+
+/**
+ * One mutation read back from a {@link WriteAheadLog}.
+ */
+public record WalRecord(
+    long lsn,
+    byte type,
+    String key
+) {
+    
+    public static final byte INSERT = 1;
+    
+    @Override
+    public String toString() {
+        return String.format("#%d %s '%s'", lsn, type == INSERT ? "INSERT" : "type " + type, key);
+    }
+}
@@ -0,0 +1,62 @@
+package com.hashindex.wal;
+
+import com.hashindex.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append, fsync and commit latency counters of a {@link WriteAheadLog}. Commit latency is the
+ * time from appending a record until it is durable.
+ */
+public class WalStatistics {
+    
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncedRecords = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final AtomicLong maxGroupSize = new AtomicLong();
+    
+    private final LatencyHistogram commitLatency = new LatencyHistogram("WAL Commit");
+    private final LatencyHistogram syncLatency = new LatencyHistogram("WAL fsync");
+    
+    void recordAppend() {
+        appends.increment();
+    }
+    
+    void recordSync(int records, long bytes, long syncNanos) {
+        syncs.increment();
+        syncedRecords.add(records);
+        bytesWritten.add(bytes);
+        maxGroupSize.accumulateAndGet(records, Math::max);
+        syncLatency.record(syncNanos);
+    }
+    
+    void recordCommit(long nanos) {
+        commitLatency.record(nanos);
+    }
+    
+    public long getAppends() { return appends.sum(); }
+    public long getSyncs() { return syncs.sum(); }
+    public long getBytesWritten() { return bytesWritten.sum(); }
+    public long getMaxGroupSize() { return maxGroupSize.get(); }
+    
+    public LatencyHistogram getCommitLatency() { return commitLatency; }
+    public LatencyHistogram getSyncLatency() { return syncLatency; }
+    
+    /**
+     * Mean number of records made durable by one fsync.
+     */
+    public double getAverageGroupSize() {
+        long count = getSyncs();
+        if (count == 0) return 0.0;
+        return (double) syncedRecords.sum() / count;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("appends %,d, syncs %,d (avg group %.1f, max %,d), written %,d B%n  %s%n  %s",
+                             getAppends(), getSyncs(), getAverageGroupSize(), getMaxGroupSize(), getBytesWritten(),
+                             syncLatency.snapshot(), commitLatency.snapshot());
+    }
+}
@@ -0,0 +1,507 @@
+package com.hashindex.wal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of index mutations. The file starts with {@code int magic | long baseLsn}
+ * and each record is framed as
+ * <pre>
+ * int length | int crc32 | byte type | long lsn | key (UTF-8)
+ * </pre>
+ * where {@code length} counts the bytes after the checksum and the checksum covers them.
+ * Log sequence numbers (LSNs) increase by one per record, starting after {@code baseLsn}.
+ * <p>
+ * {@link #append(byte, String)} only queues a record; {@link #awaitDurable(long)} blocks until
+ * it has been written and fsynced. With {@link SyncMode#PER_OPERATION} every record gets its own
+ * fsync. With {@link SyncMode#GROUP_COMMIT} a background thread holds a group open until its
+ * oldest record has waited for the latency budget (or the group reaches its size limit), then
+ * writes the whole group and fsyncs once, so concurrent writers share the cost of a sync. With
+ * a zero budget a group is whatever was queued while the previous fsync ran.
+ * <p>
+ * Reading stops at the first truncated or corrupt record: a crash can only tear the tail, which
+ * was never acknowledged. {@link #open} cuts such a tail off before appending.
+ * <p>
+ * {@link #truncateThrough(long)} drops the prefix a checkpoint has made redundant by rewriting
+ * the remaining records into a new file that atomically replaces the old one.
+ */
+public class WriteAheadLog implements AutoCloseable {
+    
+    public static final int MAX_KEY_BYTES = 0xFFFF;
+    public static final int DEFAULT_MAX_GROUP_BYTES = 1 << 20;
+    
+    // "WAL1", then the LSN preceding the first record
+    private static final int MAGIC = 0x57414C31;
+    private static final int FILE_HEADER_BYTES = 12;
+    // length and checksum, then type and lsn
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int BODY_HEADER_BYTES = 9;
+    
+    private final Path file;
+    private final SyncMode syncMode;
+    private final long groupCommitDelayNanos;
+    private final int maxGroupBytes;
+    private final WalStatistics statistics;
+    private final Thread flusher;
+    
+    // Guards the channel: serializes writes, fsyncs and truncation
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    // Committers wait on this for durableLsn to advance
+    private final Object durableSignal = new Object();
+    
+    // Guarded by 'this'; the flusher waits on 'this' for new records
+    private final ArrayDeque<PendingRecord> pending = new ArrayDeque<>();
+    private int pendingBytes;
+    private long nextLsn;
+    private boolean closed;
+    
+    private volatile long durableLsn;
+    private volatile long sizeBytes;
+    private volatile IOException failure;
+    
+    private WriteAheadLog(Path file, FileChannel channel, SyncMode syncMode, Duration groupCommitDelay,
+                          int maxGroupBytes, long lastLsn, long sizeBytes) {
+        this.file = file;
+        this.channel = channel;
+        this.syncMode = syncMode;
+        this.groupCommitDelayNanos = groupCommitDelay.toNanos();
+        this.maxGroupBytes = maxGroupBytes;
+        this.statistics = new WalStatistics();
+        this.nextLsn = lastLsn + 1;
+        this.durableLsn = lastLsn;
+        this.sizeBytes = sizeBytes;
+        
+        if (syncMode == SyncMode.GROUP_COMMIT) {
+            this.flusher = new Thread(this::runFlusher, "wal-group-commit");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+    
+    /**
+     * Opens a log for appending with the default group size limit, creating the file if needed.
+     * 
+     * @param groupCommitDelay latency budget of a group; ignored for {@link SyncMode#PER_OPERATION}
+     */
+    public static WriteAheadLog open(Path file, SyncMode syncMode, Duration groupCommitDelay) throws IOException {
+        return open(file, syncMode, groupCommitDelay, DEFAULT_MAX_GROUP_BYTES);
+    }
+    
+    /**
+     * Opens a log for appending, creating the file if needed and dropping a torn tail.
+     * 
+     * @param groupCommitDelay latency budget of a group; ignored for {@link SyncMode#PER_OPERATION}
+     * @param maxGroupBytes a group is synced as soon as it holds this many bytes
+     */
+    public static WriteAheadLog open(Path file, SyncMode syncMode, Duration groupCommitDelay, int maxGroupBytes)
+            throws IOException {
+        if (groupCommitDelay.isNegative()) {
+            throw new IllegalArgumentException("Group commit delay must not be negative: " + groupCommitDelay);
+        }
+        if (maxGroupBytes <= 0) {
+            throw new IllegalArgumentException("Max group bytes must be positive: " + maxGroupBytes);
+        }
+        
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < FILE_HEADER_BYTES) {
+                // New, or torn while being created
+                channel.truncate(0);
+                writeFileHeader(channel, 0);
+                channel.force(true);
+            }
+            ScanResult scan = scan(channel, null, Long.MAX_VALUE);
+            if (scan.validBytes() < channel.size()) {
+                channel.truncate(scan.validBytes());
+                channel.force(true);
+            }
+            channel.position(scan.validBytes());
+            return new WriteAheadLog(file, channel, syncMode, groupCommitDelay, maxGroupBytes, scan.lastLsn(),
+                                     scan.validBytes());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Passes every valid record of a log file, in order, to the consumer.
+     * 
+     * @return the number of records replayed; 0 if the file does not exist
+     */
+    public static long replay(Path file, Consumer<WalRecord> consumer) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < FILE_HEADER_BYTES) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, consumer, Long.MAX_VALUE).records();
+        }
+    }
+    
+    /**
+     * Reads every valid record of a log file.
+     */
+    public static List<WalRecord> readAll(Path file) throws IOException {
+        List<WalRecord> records = new ArrayList<>();
+        replay(file, records::add);
+        return records;
+    }
+    
+    /**
+     * Queues a record. It is not durable until {@link #awaitDurable(long)} returns for its LSN.
+     * 
+     * @return the record's log sequence number
+     * @throws IllegalStateException if the log is closed
+     * @throws UncheckedIOException if an earlier write failed
+     */
+    public long append(byte type, String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key too long: " + keyBytes.length + " bytes");
+        }
+        
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            checkFailure();
+            long lsn = nextLsn++;
+            ByteBuffer frame = encode(type, lsn, keyBytes);
+            pending.add(new PendingRecord(lsn, frame, System.nanoTime()));
+            pendingBytes += frame.remaining();
+            statistics.recordAppend();
+            if (flusher != null) {
+                notifyAll();
+            }
+            return lsn;
+        }
+    }
+    
+    /**
+     * Blocks until the record with the given LSN, and every record before it, is on disk.
+     * Interrupts are deferred until then.
+     * 
+     * @throws UncheckedIOException if writing or syncing the log failed
+     */
+    public void awaitDurable(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        if (flusher == null) {
+            syncEach(lsn);
+            return;
+        }
+        
+        boolean interrupted = false;
+        synchronized (durableSignal) {
+            while (durableLsn < lsn) {
+                checkFailure();
+                try {
+                    durableSignal.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Appends a record and waits until it is durable.
+     */
+    public long commit(byte type, String key) {
+        long lsn = append(type, key);
+        awaitDurable(lsn);
+        return lsn;
+    }
+    
+    /**
+     * Makes all queued records durable, stops the group commit thread and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        long lastLsn;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lastLsn = nextLsn - 1;
+            notifyAll();
+        }
+        try {
+            if (flusher != null) {
+                boolean interrupted = false;
+                while (flusher.isAlive()) {
+                    try {
+                        flusher.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (failure == null) {
+                syncEach(lastLsn);
+            }
+        } finally {
+            synchronized (syncLock) {
+                channel.close();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    /**
+     * Drops every record up to and including the given LSN, typically the LSN a checkpoint
+     * covers. Appends continue meanwhile; only writes and fsyncs wait for the rewrite.
+     * 
+     * @return the number of bytes removed from the log
+     */
+    public long truncateThrough(long lsn) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Write-ahead log is closed");
+                }
+            }
+            checkFailure();
+            
+            long size = channel.size();
+            ScanResult prefix = scan(channel, null, lsn);
+            long cut = prefix.validBytes();
+            if (cut <= FILE_HEADER_BYTES) {
+                channel.position(size);
+                return 0;
+            }
+            
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFileHeader(out, prefix.lastLsn());
+                long copied = 0;
+                while (copied < size - cut) {
+                    copied += channel.transferTo(cut + copied, size - cut - copied, out);
+                }
+                out.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            sizeBytes = channel.size();
+            return cut - FILE_HEADER_BYTES;
+        }
+    }
+    
+    public Path getFile() { return file; }
+    public SyncMode getSyncMode() { return syncMode; }
+    public WalStatistics getStatistics() { return statistics; }
+    public long getDurableLsn() { return durableLsn; }
+    public long getSizeBytes() { return sizeBytes; }
+    
+    public synchronized long getLastLsn() {
+        return nextLsn - 1;
+    }
+    
+    private void syncEach(long lsn) {
+        synchronized (syncLock) {
+            while (durableLsn < lsn) {
+                PendingRecord record;
+                synchronized (this) {
+                    checkFailure();
+                    record = pending.poll();
+                    if (record == null) {
+                        return;
+                    }
+                    pendingBytes -= record.frame().remaining();
+                }
+                writeAndSync(List.of(record));
+            }
+        }
+    }
+    
+    private void runFlusher() {
+        try {
+            while (true) {
+                List<PendingRecord> group;
+                synchronized (this) {
+                    while (pending.isEmpty() && !closed) {
+                        wait();
+                    }
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    // Hold the group open until its oldest record has used up the latency budget
+                    long deadline = pending.peek().appendNanos() + groupCommitDelayNanos;
+                    long remaining;
+                    while (!closed && pendingBytes < maxGroupBytes
+                           && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                    group = new ArrayList<>(pending);
+                    pending.clear();
+                    pendingBytes = 0;
+                }
+                writeAndSync(group);
+            }
+        } catch (InterruptedException e) {
+            fail(new IOException("Group commit thread interrupted", e));
+        } catch (UncheckedIOException e) {
+            // Already recorded; committers see the failure
+        }
+    }
+    
+    private void writeAndSync(List<PendingRecord> group) {
+        ByteBuffer[] frames = new ByteBuffer[group.size()];
+        long bytes = 0;
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = group.get(i).frame();
+            bytes += frames[i].remaining();
+        }
+        
+        synchronized (syncLock) {
+            try {
+                long written = 0;
+                while (written < bytes) {
+                    written += channel.write(frames);
+                }
+                long syncStart = System.nanoTime();
+                channel.force(false);
+                long now = System.nanoTime();
+                sizeBytes += bytes;
+                statistics.recordSync(group.size(), bytes, now - syncStart);
+                for (PendingRecord record : group) {
+                    statistics.recordCommit(now - record.appendNanos());
+                }
+            } catch (IOException e) {
+                fail(e);
+                throw new UncheckedIOException("Write-ahead log failed", e);
+            }
+        }
+        
+        synchronized (durableSignal) {
+            durableLsn = group.get(group.size() - 1).lsn();
+            durableSignal.notifyAll();
+        }
+    }
+    
+    private void fail(IOException e) {
+        synchronized (durableSignal) {
+            failure = e;
+            durableSignal.notifyAll();
+        }
+    }
+    
+    private void checkFailure() {
+        IOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("Write-ahead log failed", e);
+        }
+    }
+    
+    private static ByteBuffer encode(byte type, long lsn, byte[] keyBytes) {
+        int length = BODY_HEADER_BYTES + keyBytes.length;
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + length);
+        frame.putInt(length).putInt(0).put(type).putLong(lsn).put(keyBytes);
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), FRAME_HEADER_BYTES, length);
+        frame.putInt(4, (int) crc.getValue());
+        return frame.flip();
+    }
+    
+    private static void writeFileHeader(FileChannel channel, long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putLong(baseLsn).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+    
+    /**
+     * Reads records from the start of the channel up to the first torn or corrupt one, or up
+     * to the last one with an LSN not above {@code throughLsn}.
+     */
+    private static ScanResult scan(FileChannel channel, Consumer<WalRecord> consumer, long throughLsn)
+            throws IOException {
+        channel.position(0);
+        // Not closed: that would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a write-ahead log");
+        }
+        CRC32 crc = new CRC32();
+        long validBytes = FILE_HEADER_BYTES;
+        long records = 0;
+        long lastLsn = in.readLong();
+        
+        while (true) {
+            byte[] body;
+            int checksum;
+            try {
+                int length = in.readInt();
+                checksum = in.readInt();
+                if (length < BODY_HEADER_BYTES || length > BODY_HEADER_BYTES + MAX_KEY_BYTES) {
+                    break;
+                }
+                body = new byte[length];
+                in.readFully(body);
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            byte type = buffer.get();
+            long lsn = buffer.getLong();
+            if (lsn > throughLsn) {
+                break;
+            }
+            if (consumer != null) {
+                String key = new String(body, BODY_HEADER_BYTES, body.length - BODY_HEADER_BYTES, StandardCharsets.UTF_8);
+                consumer.accept(new WalRecord(lsn, type, key));
+            }
+            validBytes += FRAME_HEADER_BYTES + body.length;
+            records++;
+            lastLsn = lsn;
+        }
+        return new ScanResult(records, validBytes, lastLsn);
+    }
+    
+    private record PendingRecord(long lsn, ByteBuffer frame, long appendNanos) {
+    }
+    
+    private record ScanResult(long records, long validBytes, long lastLsn) {
+    }
+}
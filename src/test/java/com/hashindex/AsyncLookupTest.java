@@ -0,0 +1,143 @@
+package com.hashindex;
+
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.AsyncExecutors;
+import com.hashindex.service.HashFunction;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AsyncLookupTest {
+    
+    @Test
+    void testSearchAsyncFanOut() {
+        List<String> keys = TestData.keys(10_000, 5L);
+        HashIndexService service = TestData.indexed(keys, 50, 4);
+        
+        List<CompletableFuture<SearchResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(service.searchAsync(keys.get(i * 5)));
+        }
+        futures.add(service.searchAsync("no-such-key"));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        
+        for (int i = 0; i < 2_000; i++) {
+            SearchResult result = futures.get(i).join();
+            assertThat(result.found()).isTrue();
+            assertThat(result.pageNumber()).isEqualTo(service.searchWithIndex(keys.get(i * 5)).pageNumber());
+        }
+        assertThat(futures.get(2_000).join().found()).isFalse();
+    }
+    
+    @Test
+    void testCustomExecutorIsUsed() {
+        HashIndexService service = TestData.indexed(TestData.keys(1_000, 5L), 50, 4);
+        AtomicInteger submitted = new AtomicInteger();
+        service.setAsyncExecutor(task -> {
+            submitted.incrementAndGet();
+            task.run();
+        });
+        
+        assertThat(service.tableScanAsync("no-such-key").join().found()).isFalse();
+        assertThat(service.constructIndexAsync(8).join().getBucketCapacity()).isEqualTo(8);
+        assertThat(submitted.get()).isEqualTo(2);
+        
+        service.setAsyncExecutor(null);
+        assertThat(service.getAsyncExecutor()).isSameAs(AsyncExecutors.shared());
+    }
+    
+    @Test
+    void testInterruptDoesNotCancelSynchronousCalls() {
+        HashIndexService service = TestData.indexed(TestData.keys(1_000, 5L), 50, 4);
+        Thread.currentThread().interrupt();
+        try {
+            assertThat(service.tableScan("no-such-key").found()).isFalse();
+            service.constructIndex(8);
+            assertThat(service.getStatistics().getBucketCapacity()).isEqualTo(8);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+    
+    @Test
+    void testTimeoutExpiresWhileQueued() throws Exception {
+        HashIndexService service = TestData.indexed(TestData.keys(1_000, 5L), 50, 4);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        service.setAsyncExecutor(executor);
+        long scansBefore = service.getStatistics().getTableScanLatency().getCount();
+        
+        CompletableFuture<SearchResult> future = service.tableScanAsync("no-such-key", Duration.ofMillis(50));
+        assertThatThrownBy(future::join).isInstanceOf(CompletionException.class)
+                                        .hasCauseInstanceOf(TimeoutException.class);
+        
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getStatistics().getTableScanLatency().getCount()).isEqualTo(scansBefore);
+    }
+    
+    @Test
+    void testCancelledBuildKeepsPreviousIndex() throws Exception {
+        HashIndexService service = TestData.indexed(TestData.keys(20_000, 5L), 50, 4);
+        int bucketsBefore = service.getStatistics().getTotalBuckets();
+        long collisionsBefore = service.getStatistics().getCollisions();
+        HashFunction original = service.getHashFunction();
+        
+        CountDownLatch started = new CountDownLatch(1);
+        HashFunction slow = new HashFunction() {
+            @Override
+            public int hash(String key, int bucketCount) {
+                started.countDown();
+                LockSupport.parkNanos(50_000);
+                return original.hash(key, bucketCount);
+            }
+            
+            @Override
+            public String getName() {
+                return "Slow";
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        service.setAsyncExecutor(executor);
+        
+        CompletableFuture<?> build = service.constructIndexAsync(slow, 2);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(build.cancel(true)).isTrue();
+        assertThatThrownBy(build::join).isInstanceOf(CancellationException.class);
+        
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        service.setAsyncExecutor(null);
+        
+        assertThat(service.getHashFunction()).isSameAs(original);
+        assertThat(service.getStatistics().getTotalBuckets()).isEqualTo(bucketsBefore);
+        assertThat(service.getStatistics().getBucketCapacity()).isEqualTo(4);
+        assertThat(service.getStatistics().getCollisions()).isEqualTo(collisionsBefore);
+        assertThat(service.getBuckets()).hasSize(bucketsBefore);
+        assertThat(service.searchAsync(service.getFirstPage().getRecord(0)).join().found()).isTrue();
+    }
+}
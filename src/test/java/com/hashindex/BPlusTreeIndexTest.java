@@ -0,0 +1,65 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.BucketEntry;
+import com.hashindex.model.RangeSearchResult;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BPlusTreeIndexTest {
+    
+    @Test
+    void testPrefixAndRangeMatchTableScan() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(WorkloadGenerator.generateDataset(20_000, KeyLengthDistribution.UNIFORM, 2, 8, 1L), 50);
+        service.constructOrderedIndex(8);
+        
+        RangeSearchResult indexPrefix = service.searchPrefix("ab");
+        RangeSearchResult scanPrefix = service.tableScanPrefix("ab");
+        assertThat(keys(indexPrefix)).isNotEmpty().isSorted()
+            .containsExactlyInAnyOrderElementsOf(keys(scanPrefix));
+        
+        RangeSearchResult indexRange = service.searchRange("data", "date");
+        RangeSearchResult scanRange = service.tableScanRange("data", "date");
+        assertThat(keys(indexRange)).containsExactlyInAnyOrderElementsOf(keys(scanRange));
+        
+        assertThat(indexPrefix.accessCount()).isLessThan(scanPrefix.accessCount());
+        assertThat(service.getStatistics().getOrderedIndexHeight()).isGreaterThan(1);
+    }
+    
+    @Test
+    void testInsertsSplitNodesAndKeepOrder() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("m"), 4);
+        service.constructOrderedIndex(3);
+        
+        List<String> inserted = WorkloadGenerator.generateDataset(2_000, KeyLengthDistribution.UNIFORM, 2, 5, 9L);
+        for (String key : inserted) {
+            service.insertRecord(key);
+        }
+        service.insertRecord("m");
+        
+        RangeSearchResult all = service.searchRange("", "zzzzzz");
+        assertThat(all.matchCount()).isEqualTo(2_002);
+        assertThat(keys(all)).isSorted();
+        assertThat(service.searchPrefix("m").matches()).filteredOn(e -> e.searchKey().equals("m")).hasSize(2);
+    }
+    
+    @Test
+    void testOrderedIndexRequired() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("a", "b"), 2);
+        
+        assertThatThrownBy(() -> service.searchPrefix("a")).isInstanceOf(IllegalStateException.class);
+    }
+    
+    private static List<String> keys(RangeSearchResult result) {
+        return result.matches().stream().map(BucketEntry::searchKey).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,129 @@
+package com.hashindex;
+
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashFunction;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ByteKeyLookupTest {
+    
+    private static final List<String> DATA = TestData.keys(5_000, 21L);
+    private static final List<String> UNICODE = List.of("café", "naïve", "日本語", "emoji-😀", "Ωmega", "x");
+    
+    private static HashIndexService createService(PageEncoding encoding, int pageSize) {
+        List<String> records = new ArrayList<>(DATA);
+        records.addAll(UNICODE);
+        if (encoding == PageEncoding.FRONT_CODED) {
+            Collections.sort(records);
+        }
+        return TestData.indexed(records, pageSize, encoding, 4);
+    }
+    
+    @Test
+    void testByteHashMatchesStringHash() {
+        List<byte[]> keys = new ArrayList<>();
+        for (String key : UNICODE) {
+            keys.add(key.getBytes(StandardCharsets.UTF_8));
+        }
+        keys.add(DATA.get(0).getBytes(StandardCharsets.UTF_8));
+        keys.add(new byte[0]);
+        // Malformed: a lone continuation byte, a truncated sequence, an overlong slash, an encoded surrogate
+        keys.add(new byte[] {'a', (byte) 0x80, 'b'});
+        keys.add(new byte[] {'a', (byte) 0xE6, (byte) 0x97});
+        keys.add(new byte[] {(byte) 0xC0, (byte) 0xAF});
+        keys.add(new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80});
+        
+        for (HashFunctionFactory.HashFunctionType type : HashFunctionFactory.HashFunctionType.values()) {
+            HashFunction function = HashFunctionFactory.createHashFunction(type);
+            for (byte[] key : keys) {
+                // Embedded in a larger array to exercise the offset
+                byte[] framed = new byte[key.length + 4];
+                System.arraycopy(key, 0, framed, 2, key.length);
+                String decoded = new String(key, StandardCharsets.UTF_8);
+                for (int buckets : new int[] {1, 97, 1 << 20}) {
+                    assertThat(function.hash(framed, 2, key.length, buckets))
+                        .as("%s %s", type, decoded)
+                        .isEqualTo(function.hash(decoded, buckets));
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testByteLookupsMatchStringLookups() {
+        for (PageEncoding encoding : PageEncoding.values()) {
+            HashIndexService service = createService(encoding, encoding == PageEncoding.PLAIN ? 50 : 512);
+            List<String> keys = new ArrayList<>(UNICODE);
+            keys.addAll(DATA.subList(0, 500));
+            keys.addAll(List.of("missing-key", "caf", "cafés", "日本"));
+            
+            for (String key : keys) {
+                int expected = service.searchWithIndex(key).found() ? service.searchWithIndex(key).pageNumber() : -1;
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                byte[] framed = new byte[bytes.length + 3];
+                System.arraycopy(bytes, 0, framed, 3, bytes.length);
+                
+                assertThat(service.searchWithIndex(framed, 3, bytes.length)).as("%s %s", encoding, key).isEqualTo(expected);
+                assertThat(service.searchWithIndex(ByteBuffer.wrap(framed, 3, bytes.length))).isEqualTo(expected);
+                ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 1).put((byte) 0).put(bytes);
+                direct.flip().position(1);
+                assertThat(service.searchWithIndex(direct)).isEqualTo(expected);
+                assertThat(direct.position()).isEqualTo(1);
+            }
+            assertThat(service.searchWithIndex(UNICODE.get(2).getBytes(StandardCharsets.UTF_8), 0, 3)).isEqualTo(-1);
+        }
+        assertThatThrownBy(() -> createService(PageEncoding.PLAIN, 50).searchWithIndex(new byte[4], 2, 3))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+    
+    @Test
+    void testByteLookupAllocatesNothing() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        
+        for (PageEncoding encoding : PageEncoding.values()) {
+            HashIndexService service = createService(encoding, encoding == PageEncoding.PLAIN ? 50 : 512);
+            int keyCount = 1_000;
+            ByteBuffer wire = ByteBuffer.allocate(keyCount * 16);
+            int[] offsets = new int[keyCount + 1];
+            for (int i = 0; i < keyCount; i++) {
+                offsets[i] = wire.position();
+                wire.put(DATA.get(i * 5).getBytes(StandardCharsets.UTF_8));
+            }
+            offsets[keyCount] = wire.position();
+            byte[] bytes = wire.array();
+            
+            int lookups = 50_000;
+            int found = 0;
+            for (int i = 0; i < lookups; i++) {
+                int k = i % keyCount;
+                found += service.searchWithIndex(bytes, offsets[k], offsets[k + 1] - offsets[k]) >= 0 ? 1 : 0;
+            }
+            
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < lookups; i++) {
+                int k = i % keyCount;
+                found += service.searchWithIndex(bytes, offsets[k], offsets[k + 1] - offsets[k]) >= 0 ? 1 : 0;
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            
+            assertThat(found).isEqualTo(2 * lookups);
+            // Less than one byte per lookup: any object allocated per lookup would be at least 16
+            assertThat(allocated).as("%s bytes allocated over %d lookups", allocated, lookups).isLessThan(lookups);
+        }
+    }
+}
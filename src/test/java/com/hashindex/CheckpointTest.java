@@ -0,0 +1,208 @@
+package com.hashindex;
+
+import com.hashindex.model.FrontCodedPage;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+import com.hashindex.wal.CheckpointManager;
+import com.hashindex.wal.CheckpointResult;
+import com.hashindex.wal.RecoveryResult;
+import com.hashindex.wal.SyncMode;
+import com.hashindex.wal.WalRecord;
+import com.hashindex.wal.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CheckpointTest {
+    
+    private static final List<String> BASE = TestData.keys(2_000, 5L);
+    private static final int COMPACTION_LIMIT = CheckpointManager.COMPACTION_RATIO + 1;
+    
+    @TempDir
+    Path directory;
+    
+    private static void insert(HashIndexService service, String prefix, int count) {
+        for (int i = 0; i < count; i++) {
+            service.insertRecord(prefix + i);
+        }
+    }
+    
+    @Test
+    void testCheckpointTruncatesLogAndRecoveryReplaysOnlyTheTail() throws IOException {
+        Path logFile = directory.resolve("index.wal");
+        HashIndexService service = TestData.indexed(BASE, 50, 4);
+        
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            CheckpointManager manager = new CheckpointManager(service, log, directory, null, 0);
+            insert(service, "before-", 500);
+            long sizeBefore = log.getSizeBytes();
+            
+            CheckpointResult result = manager.checkpoint();
+            assertThat(result.lsn()).isEqualTo(500);
+            assertThat(result.pagesWritten()).isEqualTo(service.getStatistics().getTotalPages());
+            assertThat(result.logBytesTruncated()).isGreaterThan(0);
+            assertThat(log.getSizeBytes()).isLessThan(sizeBefore);
+            
+            insert(service, "after-", 100);
+            service.setWriteAheadLog(null);
+        }
+        
+        // Only the records after the checkpoint are left, and their LSNs continue
+        List<WalRecord> remaining = WriteAheadLog.readAll(logFile);
+        assertThat(remaining).hasSize(100);
+        assertThat(remaining.get(0).lsn()).isEqualTo(501);
+        
+        // Restores from the checkpoint even though the restarted process loaded nothing
+        HashIndexService recovered = new HashIndexService();
+        RecoveryResult recovery = CheckpointManager.recover(recovered, directory, logFile);
+        assertThat(recovery.checkpointLsn()).isEqualTo(500);
+        assertThat(recovery.recordsReplayed()).isEqualTo(100);
+        assertThat(recovered.getStatistics().getTotalRecords()).isEqualTo(service.getStatistics().getTotalRecords());
+        assertThat(recovered.getStatistics().getTotalBuckets())
+            .isEqualTo(service.getStatistics().getTotalBuckets());
+        for (String key : List.of(BASE.get(0), BASE.get(BASE.size() - 1), "before-0", "before-499", "after-99")) {
+            assertThat(recovered.searchWithIndex(key).found()).as(key).isTrue();
+        }
+        
+        // The log keeps going after a restart
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            assertThat(log.commit(WalRecord.INSERT, "after-restart")).isEqualTo(601);
+        }
+    }
+    
+    @Test
+    void testOnlyChangedPagesAreWrittenAndFileIsCompacted() throws IOException {
+        Path logFile = directory.resolve("index.wal");
+        HashIndexService service = TestData.indexed(BASE, 50, 4);
+        
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            CheckpointManager manager = new CheckpointManager(service, log, directory, null, 0);
+            CheckpointResult first = manager.checkpoint();
+            assertThat(first.pagesWritten()).isEqualTo(service.getStatistics().getTotalPages());
+            
+            // Inserts append to the last page, so each checkpoint rewrites one or two pages unless
+            // superseded images have piled up and it starts a new pages file with every page
+            for (int round = 0; round < 150; round++) {
+                insert(service, "round-" + round + "-", 5);
+                CheckpointResult result = manager.checkpoint();
+                if (result.compacted()) {
+                    assertThat(result.pagesWritten()).isEqualTo(service.getStatistics().getTotalPages());
+                } else {
+                    assertThat(result.pagesWritten()).isBetween(1, 2);
+                }
+            }
+            assertThat(manager.getStatistics().getCompactions()).isGreaterThan(0);
+            assertThat(manager.getPagesFileBytes()).isLessThan(COMPACTION_LIMIT * first.bytesWritten());
+            service.setWriteAheadLog(null);
+        }
+        
+        HashIndexService recovered = new HashIndexService();
+        RecoveryResult recovery = CheckpointManager.recover(recovered, directory, logFile);
+        assertThat(recovery.recordsReplayed()).isZero();
+        assertThat(recovered.getStatistics().getTotalRecords()).isEqualTo(service.getStatistics().getTotalRecords());
+        assertThat(recovered.searchWithIndex("round-149-4").found()).isTrue();
+    }
+    
+    @Test
+    void testBackgroundCheckpointTriggeredByLogSize() throws Exception {
+        Path logFile = directory.resolve("index.wal");
+        HashIndexService service = TestData.indexed(BASE, 50, 4);
+        
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.GROUP_COMMIT, Duration.ZERO);
+             CheckpointManager manager = new CheckpointManager(service, log, directory, null, 4_096)) {
+            service.setWriteAheadLog(log);
+            manager.start();
+            
+            long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            int i = 0;
+            while (manager.getStatistics().getCheckpoints() < 3 && System.nanoTime() < deadline) {
+                service.insertRecord("bg-" + i++);
+                // Lookups keep working while checkpoints run
+                assertThat(service.searchWithIndex(BASE.get(i % BASE.size())).found()).isTrue();
+            }
+            assertThat(manager.getStatistics().getCheckpoints()).isGreaterThanOrEqualTo(3);
+            manager.close();
+            assertThat(manager.getStatistics().getLogBytesTruncated()).isGreaterThan(0);
+            service.setWriteAheadLog(null);
+        }
+        
+        HashIndexService recovered = new HashIndexService();
+        CheckpointManager.recover(recovered, directory, logFile);
+        assertThat(recovered.getStatistics().getTotalRecords()).isEqualTo(service.getStatistics().getTotalRecords());
+    }
+    
+    @Test
+    void testFrontCodedPagesAreRestoredInTheirEncoding() throws IOException {
+        Path logFile = directory.resolve("index.wal");
+        HashIndexService service = new HashIndexService();
+        service.loadData(BASE, 256, PageEncoding.FRONT_CODED);
+        service.constructIndex(4);
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            new CheckpointManager(service, log, directory, null, 0).checkpoint();
+            insert(service, "late-", 10);
+            service.setWriteAheadLog(null);
+        }
+        
+        HashIndexService recovered = new HashIndexService();
+        CheckpointManager.recover(recovered, directory, logFile);
+        assertThat(recovered.getPageEncoding()).isEqualTo(PageEncoding.FRONT_CODED);
+        assertThat(recovered.getPages()).hasSameSizeAs(service.getPages());
+        assertThat(recovered.getPages()).allMatch(page -> page instanceof FrontCodedPage);
+        assertThat(recovered.searchWithIndex(BASE.get(17)).found()).isTrue();
+        assertThat(recovered.searchWithIndex("late-9").found()).isTrue();
+    }
+    
+    @Test
+    void testPayloadsSurviveCheckpointAndRecovery() throws IOException {
+        Path logFile = directory.resolve("index.wal");
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < BASE.size(); i++) {
+            payloads.add(i % 3 == 0 ? null : ("payload-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(BASE, payloads, 50);
+        service.constructIndex(4);
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            new CheckpointManager(service, log, directory, null, 0).checkpoint();
+            insert(service, "late-", 10);
+            service.setWriteAheadLog(null);
+        }
+        
+        HashIndexService recovered = new HashIndexService();
+        CheckpointManager.recover(recovered, directory, logFile);
+        for (int i = 0; i < BASE.size(); i++) {
+            assertThat(recovered.searchPayload(BASE.get(i)).payload()).as(BASE.get(i)).isEqualTo(payloads.get(i));
+        }
+        assertThat(recovered.searchPayload("late-9").found()).isTrue();
+        assertThat(recovered.searchPayload("late-9").payload()).isNull();
+    }
+    
+    @Test
+    void testRecoveryRejectsDifferentHashFunction() throws IOException {
+        Path logFile = directory.resolve("index.wal");
+        HashIndexService service = TestData.indexed(BASE, 50, 4);
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            new CheckpointManager(service, log, directory, null, 0).checkpoint();
+            service.setWriteAheadLog(null);
+        }
+        
+        HashIndexService other = new HashIndexService();
+        other.setHashFunction(HashFunctionFactory.createHashFunction(HashFunctionFactory.HashFunctionType.FNV1A));
+        assertThatThrownBy(() -> CheckpointManager.recover(other, directory, logFile))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
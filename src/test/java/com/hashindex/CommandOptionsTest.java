@@ -0,0 +1,65 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyDistribution;
+import com.hashindex.util.CommandOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CommandOptionsTest {
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: test [options]",
+        "  --records N            dataset size (default 10)",
+        "  --ratio X              a fraction",
+        "  --distribution D       UNIFORM | ZIPFIAN | HOTSPOT",
+        "  --limits N[,N...]      limits to try",
+        "                         --not-an-option on a continuation line");
+    
+    @Test
+    void testParsesBothFormsWithDefaults() {
+        CommandOptions options = CommandOptions.parse(
+            new String[] {"--records", "500", "--RATIO=0.25", "--distribution", "zipfian", "--limits", "0, 8,16"}, USAGE);
+        
+        assertThat(options.getInt("records", 10)).isEqualTo(500);
+        assertThat(options.getLong("records", 10)).isEqualTo(500);
+        assertThat(options.getDouble("ratio", 1.0)).isEqualTo(0.25);
+        assertThat(options.getEnum("distribution", KeyDistribution.class, KeyDistribution.UNIFORM))
+            .isEqualTo(KeyDistribution.ZIPFIAN);
+        assertThat(options.getEnums("distribution", KeyDistribution.class, List.of()))
+            .containsExactly(KeyDistribution.ZIPFIAN);
+        assertThat(options.getInts("limits", new int[0])).containsExactly(0, 8, 16);
+        
+        CommandOptions empty = CommandOptions.parse(new String[0], USAGE);
+        assertThat(empty.has("records")).isFalse();
+        assertThat(empty.getInt("records", 10)).isEqualTo(10);
+        assertThat(empty.getString("ratio", "none")).isEqualTo("none");
+        assertThat(empty.getPath("records", null)).isNull();
+        
+        assertThat(CommandOptions.parse(new String[] {"--records", "5", "--help"}, USAGE)).isNull();
+        assertThat(CommandOptions.parse(new String[] {"-h"}, USAGE)).isNull();
+    }
+    
+    @Test
+    void testRejectsMalformedOptions() {
+        assertThatThrownBy(() -> CommandOptions.parse(new String[] {"--bogus", "1"}, USAGE))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Unknown option: --bogus");
+        assertThatThrownBy(() -> CommandOptions.parse(new String[] {"--not-an-option", "1"}, USAGE))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Unknown option: --not-an-option");
+        assertThatThrownBy(() -> CommandOptions.parse(new String[] {"records"}, USAGE))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Unexpected argument: records");
+        assertThatThrownBy(() -> CommandOptions.parse(new String[] {"--records"}, USAGE))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Missing value for --records");
+        
+        CommandOptions options = CommandOptions.parse(
+            new String[] {"--records=many", "--distribution=gaussian", "--limits=1,x"}, USAGE);
+        assertThatThrownBy(() -> options.getInt("records", 10))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid value for --records: many");
+        assertThatThrownBy(() -> options.getEnum("distribution", KeyDistribution.class, null))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid value for --distribution: gaussian");
+        assertThatThrownBy(() -> options.getInts("limits", null))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid value for --limits: 1,x");
+    }
+}
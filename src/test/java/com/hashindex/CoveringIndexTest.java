@@ -0,0 +1,161 @@
+package com.hashindex;
+
+import com.hashindex.model.BucketEntry;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.model.PayloadSearchResult;
+import com.hashindex.model.PostingList;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CoveringIndexTest {
+    
+    private static final int RECORDS = 2_000;
+    
+    @Test
+    void testInlinePayloadsSkipThePageRead() {
+        HashIndexService service = loadWithPayloads();
+        service.setInlinePayloadLimit(8);
+        service.constructIndex(4);
+        assertThat(service.getStatistics().getInlinePayloadLimit()).isEqualTo(8);
+        
+        // Even keys have 4-byte payloads, held inline; odd keys have 20-byte payloads, left on the page
+        PayloadSearchResult small = service.searchPayload("key-10");
+        assertThat(small.found()).isTrue();
+        assertThat(small.inline()).isTrue();
+        assertThat(small.bucketAccesses()).isEqualTo(1);
+        assertThat(small.pageAccesses()).isZero();
+        assertThat(small.payload()).isEqualTo(payload(10));
+        assertThat(small.pageNumber()).isEqualTo(service.searchWithIndex("key-10").pageNumber());
+        
+        PayloadSearchResult large = service.searchPayload("key-11");
+        assertThat(large.found()).isTrue();
+        assertThat(large.inline()).isFalse();
+        assertThat(large.pageAccesses()).isEqualTo(1);
+        assertThat(large.payload()).isEqualTo(payload(11));
+        
+        PayloadSearchResult missing = service.searchPayload("absent");
+        assertThat(missing.found()).isFalse();
+        assertThat(missing.payload()).isNull();
+        assertThat(missing.pageNumber()).isEqualTo(-1);
+        
+        // The payloads handed out are copies
+        small.payload()[0]++;
+        large.payload()[0]++;
+        assertThat(service.searchPayload("key-10").payload()).isEqualTo(payload(10));
+        assertThat(service.searchPayload("key-11").payload()).isEqualTo(payload(11));
+        
+        service.getStatistics().resetLatencies();
+        for (int i = 0; i < RECORDS; i++) {
+            assertThat(service.searchPayload("key-" + i).payload()).isEqualTo(payload(i));
+        }
+        assertThat(service.getStatistics().getPayloadLookups()).isEqualTo(RECORDS);
+        assertThat(service.getStatistics().getInlinePayloadHits()).isEqualTo(RECORDS / 2);
+        assertThat(service.getStatistics().getLookupPageAccesses()).isEqualTo(RECORDS / 2);
+    }
+    
+    @Test
+    void testEntriesCompareByContents() {
+        BucketEntry entry = new BucketEntry("key-1", 3, payload(1));
+        assertThat(entry).isEqualTo(new BucketEntry("key-1", 3, payload(1)))
+            .hasSameHashCodeAs(new BucketEntry("key-1", 3, payload(1)))
+            .isNotEqualTo(new BucketEntry("key-1", 3, payload(2)))
+            .isNotEqualTo(new BucketEntry("key-1", 3));
+        
+        PostingList postings = new PostingList(3);
+        postings.add(7);
+        PostingList samePages = new PostingList(3);
+        samePages.add(7);
+        BucketEntry listed = new BucketEntry("key-1", 3, null, postings);
+        assertThat(listed).isEqualTo(new BucketEntry("key-1", 3, null, samePages))
+            .hasSameHashCodeAs(new BucketEntry("key-1", 3));
+        
+        // Adding a page in place changes the equality but not the hash code
+        int hash = listed.hashCode();
+        postings.add(9);
+        assertThat(listed).isNotEqualTo(new BucketEntry("key-1", 3, null, samePages));
+        assertThat(listed.hashCode()).isEqualTo(hash);
+    }
+    
+    @Test
+    void testIndexGrowsByTheInlinedPayloads() {
+        HashIndexService service = loadWithPayloads();
+        service.constructIndex(4);
+        long plainIndexBytes = service.getStatistics().getMemoryFootprint().indexBytes();
+        assertThat(service.searchPayload("key-10").inline()).isFalse();
+        
+        service.setInlinePayloadLimit(8);
+        service.constructIndex(4);
+        long smallIndexBytes = service.getStatistics().getMemoryFootprint().indexBytes();
+        service.setInlinePayloadLimit(32);
+        service.constructIndex(4);
+        long allIndexBytes = service.getStatistics().getMemoryFootprint().indexBytes();
+        
+        assertThat(smallIndexBytes).isGreaterThan(plainIndexBytes);
+        assertThat(allIndexBytes - plainIndexBytes).isGreaterThan(2 * (smallIndexBytes - plainIndexBytes));
+        // Without inline payloads the index is back to its plain size
+        service.setInlinePayloadLimit(0);
+        service.constructIndex(4);
+        assertThat(service.getStatistics().getMemoryFootprint().indexBytes()).isEqualTo(plainIndexBytes);
+    }
+    
+    @Test
+    void testInsertedPayloadsSurviveRehash() {
+        HashIndexService service = loadWithPayloads();
+        service.setInlinePayloadLimit(8);
+        service.constructIndex(4);
+        service.enableIncrementalRehash(10.0, 8);
+        
+        for (int i = RECORDS; i < 3 * RECORDS; i++) {
+            service.insertRecord("key-" + i, payload(i));
+        }
+        service.insertRecord("no-payload");
+        assertThat(service.getStatistics().getCompletedRehashes()).isPositive();
+        
+        for (int i = 0; i < 3 * RECORDS; i++) {
+            PayloadSearchResult result = service.searchPayload("key-" + i);
+            assertThat(result.payload()).as("key-" + i).isEqualTo(payload(i));
+            assertThat(result.inline()).isEqualTo(i % 2 == 0);
+        }
+        PayloadSearchResult bare = service.searchPayload("no-payload");
+        assertThat(bare.found()).isTrue();
+        assertThat(bare.payload()).isNull();
+    }
+    
+    @Test
+    void testPayloadsNeedPlainPages() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("alpha", "beta"), 4096, PageEncoding.FRONT_CODED);
+        service.constructIndex(4);
+        
+        assertThatThrownBy(() -> service.insertRecord("gamma", new byte[1]))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(service.getStatistics().getTotalRecords()).isEqualTo(2);
+        assertThatThrownBy(() -> service.loadData(List.of("a"), List.of(), 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.setInlinePayloadLimit(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static HashIndexService loadWithPayloads() {
+        List<String> keys = new ArrayList<>(RECORDS);
+        List<byte[]> payloads = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            keys.add("key-" + i);
+            payloads.add(payload(i));
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(keys, payloads, 50);
+        return service;
+    }
+    
+    private static byte[] payload(int i) {
+        String value = i % 2 == 0 ? String.format("%04d", i % 10_000) : String.format("value-%014d", i);
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
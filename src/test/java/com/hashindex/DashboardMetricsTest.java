@@ -0,0 +1,118 @@
+package com.hashindex;
+
+import com.hashindex.gui.components.RollingChart;
+import com.hashindex.loadtest.LoadTestConfig;
+import com.hashindex.loadtest.LoadTestRunner;
+import com.hashindex.metrics.MetricsSample;
+import com.hashindex.metrics.MetricsSampler;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DashboardMetricsTest {
+    
+    private static final List<String> DATA = TestData.keys(10_000, 17L);
+    
+    @Test
+    void testSamplesReportTheLookupsOfEachInterval() {
+        HashIndexService service = TestData.indexed(DATA, 100, 5);
+        service.searchWithIndex(DATA.get(0));
+        // Lookups before the sampler exists belong to no interval
+        MetricsSampler sampler = new MetricsSampler(service);
+        
+        for (int i = 0; i < 1_000; i++) {
+            service.searchWithIndex(DATA.get(i));
+        }
+        byte[] key = DATA.get(1).getBytes(StandardCharsets.UTF_8);
+        service.searchWithIndex(key, 0, key.length);
+        for (int i = 0; i < 99; i++) {
+            service.searchWithIndex("missing-" + i);
+        }
+        MetricsSample sample = sampler.sample();
+        
+        assertThat(sample.lookupLatency().count()).isEqualTo(1_100);
+        assertThat(sample.lookupsPerSecond()).isPositive();
+        assertThat(sample.lookupLatency().p99Nanos()).isGreaterThanOrEqualTo(sample.lookupLatency().p50Nanos());
+        // One bucket per lookup; a page read for each of the 1,001 keys found
+        assertThat(sample.bucketAccessesPerLookup()).isEqualTo(1.0);
+        assertThat(sample.pageAccessesPerLookup()).isEqualTo(1_001 / 1_100.0);
+        assertThat(sample.overflowRate()).isEqualTo(service.getStatistics().getOverflowRate());
+        assertThat(sample.heapUsedBytes()).isPositive().isLessThanOrEqualTo(sample.heapCommittedBytes());
+        assertThat(sample.offHeapUsedBytes()).isNotNegative();
+        
+        MetricsSample idle = sampler.sample();
+        assertThat(idle.lookupLatency().count()).isZero();
+        assertThat(idle.lookupsPerSecond()).isZero();
+        assertThat(idle.bucketAccessesPerLookup()).isZero();
+        
+        // Resetting the statistics restarts the counters without producing negative rates
+        service.searchWithIndex(DATA.get(2));
+        service.getStatistics().resetLatencies();
+        service.searchWithIndex(DATA.get(3));
+        assertThat(sampler.sample().bucketAccessesPerLookup()).isEqualTo(1.0);
+    }
+    
+    @Test
+    void testInterruptingAWorkloadStopsItsWorkers() throws Exception {
+        HashIndexService service = TestData.indexed(DATA, 100, 5);
+        MetricsSampler sampler = new MetricsSampler(service);
+        LoadTestConfig config = new LoadTestConfig();
+        config.setThreads(2);
+        config.setDurationMillis(60_000);
+        
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread run = new Thread(() -> {
+            try {
+                new LoadTestRunner(service).runWorkload(config, DATA);
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        run.start();
+        Thread.sleep(300);
+        MetricsSample sample = sampler.sample();
+        run.interrupt();
+        run.join(5_000);
+        
+        assertThat(run.isAlive()).isFalse();
+        assertThat(failure.get()).isInstanceOf(InterruptedException.class);
+        assertThat(sample.lookupsPerSecond()).isPositive();
+        // The workers stop too, so no more lookups arrive
+        sampler.sample();
+        Thread.sleep(100);
+        assertThat(sampler.sample().lookupLatency().count()).isZero();
+    }
+    
+    @Test
+    void testChartKeepsTheMostRecentPoints() {
+        RollingChart chart = new RollingChart("Latency", "us", 4, "p50", "p99");
+        for (int i = 1; i <= 6; i++) {
+            chart.addPoint(i, i * 10);
+        }
+        assertThat(chart.getPointCount()).isEqualTo(4);
+        assertThat(chart.getLatest(0)).isEqualTo(6);
+        assertThat(chart.getLatest(1)).isEqualTo(60);
+        
+        BufferedImage image = new BufferedImage(320, 160, BufferedImage.TYPE_INT_RGB);
+        chart.setSize(320, 160);
+        Graphics2D g = image.createGraphics();
+        chart.paint(g);
+        g.dispose();
+        // Something other than the white background was drawn
+        boolean drawn = false;
+        for (int x = 0; x < 320 && !drawn; x++) {
+            for (int y = 0; y < 160 && !drawn; y++) {
+                drawn = (image.getRGB(x, y) & 0xFFFFFF) != 0xFFFFFF;
+            }
+        }
+        assertThat(drawn).isTrue();
+        assertThatThrownBy(() -> new RollingChart("x", "y", 1, "z")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
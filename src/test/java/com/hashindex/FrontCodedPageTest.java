@@ -0,0 +1,132 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.FrontCodedPage;
+import com.hashindex.model.Page;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FrontCodedPageTest {
+    
+    private static List<String> sortedDataset(int records) {
+        List<String> data = new ArrayList<>(
+            WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, 11L));
+        Collections.sort(data);
+        return data;
+    }
+    
+    @Test
+    void testRecordsRoundTrip() {
+        List<String> records = List.of("", "a", "apple", "applesauce", "apply", "b", "café", "cafés",
+                                       "zzz", "日本", "日本語");
+        FrontCodedPage page = new FrontCodedPage(0, 4096);
+        for (String record : records) {
+            assertThat(page.addRecord(record)).isTrue();
+        }
+        
+        assertThat(page.size()).isEqualTo(records.size());
+        assertThat(page.isSorted()).isTrue();
+        assertThat(page.getRecords()).isEqualTo(records);
+        for (int i = 0; i < records.size(); i++) {
+            assertThat(page.getRecord(i)).isEqualTo(records.get(i));
+            assertThat(page.containsRecord(records.get(i))).as(records.get(i)).isTrue();
+        }
+        for (String missing : List.of("0", "appl", "applesauces", "c", "caf", "日", "zzzz")) {
+            assertThat(page.containsRecord(missing)).as(missing).isFalse();
+        }
+        assertThatThrownBy(() -> page.getRecord(records.size())).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+    
+    @Test
+    void testLookupsAcrossRestartPointsAndAfterOrderIsBroken() {
+        List<String> data = sortedDataset(1_000);
+        FrontCodedPage page = new FrontCodedPage(0, 1 << 20);
+        data.forEach(page::addRecord);
+        assertThat(page.getRestartCount()).isEqualTo((data.size() + FrontCodedPage.RESTART_INTERVAL - 1)
+                                                     / FrontCodedPage.RESTART_INTERVAL);
+        for (String record : data) {
+            assertThat(page.containsRecord(record)).isTrue();
+            assertThat(page.containsRecord(record + "~")).isFalse();
+        }
+        
+        // An out-of-order append disables the binary search but lookups stay correct
+        page.addRecord("aaaa-late");
+        assertThat(page.isSorted()).isFalse();
+        assertThat(page.containsRecord("aaaa-late")).isTrue();
+        assertThat(page.containsRecord(data.get(500))).isTrue();
+        assertThat(page.containsRecord("aaaa-missing")).isFalse();
+        assertThat(page.getRecord(data.size())).isEqualTo("aaaa-late");
+    }
+    
+    @Test
+    void testByteCapacityBoundsThePage() {
+        List<String> data = sortedDataset(2_000);
+        FrontCodedPage page = new FrontCodedPage(0, 512);
+        int added = 0;
+        while (added < data.size() && page.addRecord(data.get(added))) {
+            added++;
+        }
+        assertThat(added).isGreaterThan(1).isLessThan(data.size());
+        assertThat(page.getEncodedBytes()).isLessThanOrEqualTo(512);
+        
+        // Shared prefixes make the front-coded page smaller than the same records stored plainly
+        Page plain = new Page(0, added);
+        data.subList(0, added).forEach(plain::addRecord);
+        assertThat(page.getEncodedBytes()).isLessThan(plain.getEncodedBytes());
+        
+        // A record larger than the budget still fits into an empty page
+        FrontCodedPage tiny = new FrontCodedPage(1, 4);
+        assertThat(tiny.addRecord("longer-than-four-bytes")).isTrue();
+        assertThat(tiny.addRecord("x")).isFalse();
+    }
+    
+    @Test
+    void testCopyIsIndependent() {
+        FrontCodedPage page = new FrontCodedPage(3, 1024);
+        page.addRecord("alpha");
+        page.addRecord("alphabet");
+        Page copy = page.copy();
+        page.addRecord("beta");
+        
+        assertThat(copy.getPageNumber()).isEqualTo(3);
+        assertThat(copy.getEncoding()).isEqualTo(PageEncoding.FRONT_CODED);
+        assertThat(copy.getRecords()).containsExactly("alpha", "alphabet");
+        assertThat(page.getRecords()).containsExactly("alpha", "alphabet", "beta");
+    }
+    
+    @Test
+    void testServiceFindsTheSameRecordsWithEitherEncoding() {
+        List<String> data = sortedDataset(5_000);
+        HashIndexService plain = new HashIndexService();
+        plain.loadData(data, 50);
+        plain.constructIndex(4);
+        HashIndexService frontCoded = new HashIndexService();
+        frontCoded.loadData(data, 512, PageEncoding.FRONT_CODED);
+        frontCoded.constructIndex(4);
+        
+        assertThat(frontCoded.getPageEncoding()).isEqualTo(PageEncoding.FRONT_CODED);
+        assertThat(frontCoded.getPages()).allMatch(page -> page instanceof FrontCodedPage);
+        assertThat(frontCoded.getStatistics().getTotalRecords()).isEqualTo(data.size());
+        for (int i = 0; i < data.size(); i += 7) {
+            assertThat(frontCoded.searchWithIndex(data.get(i)).found()).isTrue();
+            assertThat(frontCoded.tableScan(data.get(i)).found()).isTrue();
+        }
+        assertThat(frontCoded.searchWithIndex("not-a-key").found()).isFalse();
+        assertThat(frontCoded.tableScanPrefix("ab").matches())
+            .hasSameSizeAs(plain.tableScanPrefix("ab").matches());
+        
+        // Inserts go to front-coded pages too
+        int pageNumber = frontCoded.insertRecord("aaaa-inserted");
+        assertThat(frontCoded.getPages().get(pageNumber)).isInstanceOf(FrontCodedPage.class);
+        assertThat(frontCoded.searchWithIndex("aaaa-inserted").found()).isTrue();
+        assertThat(frontCoded.tableScan("aaaa-inserted").found()).isTrue();
+    }
+}
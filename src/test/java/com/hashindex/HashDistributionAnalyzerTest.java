@@ -0,0 +1,58 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.HashDistributionReport;
+import com.hashindex.service.HashDistributionAnalyzer;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HashDistributionAnalyzerTest {
+    
+    @Test
+    void testReportsEveryHashFunction() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(WorkloadGenerator.generateDataset(50_000, KeyLengthDistribution.UNIFORM, 4, 12, 7L), 100);
+        
+        List<HashDistributionReport> reports = service.analyzeHashDistribution(5, 1.0);
+        
+        assertThat(reports).extracting(HashDistributionReport::hashFunctionType)
+            .containsExactly(Arrays.stream(HashFunctionFactory.HashFunctionType.values())
+                .map(Enum::name).toArray(String[]::new));
+        for (HashDistributionReport report : reports) {
+            assertThat(Arrays.stream(report.occupancyHistogram()).sum()).isEqualTo(report.bucketCount());
+            assertThat(report.maxChainLength()).isGreaterThanOrEqualTo(report.p99ChainLength());
+            assertThat(report.emptyBucketFraction()).isBetween(0.0, 1.0);
+        }
+        
+        HashDistributionReport fnv = reports.get(HashFunctionFactory.HashFunctionType.FNV1A.ordinal());
+        assertThat(fnv.isUniform(4.0)).isTrue();
+        assertThat(fnv.emptyBucketFraction()).isCloseTo(fnv.expectedEmptyBucketFraction(), within(0.02));
+        assertThat(fnv.avalancheScore()).isBetween(0.4, 0.6);
+    }
+    
+    @Test
+    void testDetectsClusteredKeys() {
+        // Strided numeric suffixes leave String.hashCode values clustered modulo a power of two
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            keys.add("user" + i * 32);
+        }
+        
+        HashDistributionAnalyzer analyzer = new HashDistributionAnalyzer();
+        HashDistributionReport modulo = analyzer.analyze(HashFunctionFactory.HashFunctionType.SIMPLE_MODULO, keys, 1 << 12, 5);
+        HashDistributionReport fnv = analyzer.analyze(HashFunctionFactory.HashFunctionType.FNV1A, keys, 1 << 12, 5);
+        
+        assertThat(modulo.isUniform(4.0)).isFalse();
+        assertThat(modulo.emptyBucketFraction()).isGreaterThan(modulo.expectedEmptyBucketFraction() * 2);
+        assertThat(modulo.avalancheScore()).isLessThan(0.4);
+        assertThat(fnv.isUniform(4.0)).isTrue();
+    }
+}
@@ -0,0 +1,69 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IncrementalRehashTest {
+    
+    @Test
+    void testIndexGrowsWithoutRebuild() {
+        List<String> keys = WorkloadGenerator.generateDataset(40_000, KeyLengthDistribution.UNIFORM, 4, 12, 11L);
+        HashIndexService service = new HashIndexService();
+        service.loadData(keys.subList(0, 1_000), 50);
+        service.constructIndex(4);
+        service.enableIncrementalRehash(20.0, 2);
+        int initialBuckets = service.getStatistics().getTotalBuckets();
+        
+        boolean sawMigration = false;
+        for (int i = 1_000; i < keys.size(); i++) {
+            service.insertRecord(keys.get(i));
+            if (service.isRehashing()) {
+                sawMigration = true;
+                // Lookups consult both directories while buckets are being moved
+                assertThat(service.searchWithIndex(keys.get(i / 2)).found()).isTrue();
+                assertThat(service.searchWithIndex(keys.get(i)).found()).isTrue();
+            }
+        }
+        service.disableIncrementalRehash();
+        
+        IndexStatistics statistics = service.getStatistics();
+        assertThat(sawMigration).isTrue();
+        assertThat(statistics.getCompletedRehashes()).isGreaterThan(1);
+        assertThat(statistics.getTotalBuckets()).isGreaterThan(initialBuckets * 8);
+        assertThat(statistics.getRehashStepLatency().getCount()).isPositive();
+        assertThat(statistics.getRehashProgress()).isEqualTo(100.0);
+        assertThat(service.getBuckets().stream().mapToLong(b -> b.getTotalEntries()).sum()).isEqualTo(keys.size());
+        for (String key : keys) {
+            assertThat(service.searchWithIndex(key).found()).isTrue();
+        }
+        
+        // Collision and overflow counters match a fresh build of the same directory
+        long overflows = statistics.getOverflows();
+        long collisions = statistics.getCollisions();
+        service.constructIndex(4, 40_000.0 / (4 * (statistics.getTotalBuckets() - 1)));
+        assertThat(statistics.getOverflows()).isEqualTo(overflows);
+        assertThat(statistics.getCollisions()).isEqualTo(collisions);
+    }
+    
+    @Test
+    void testLookupsAdvanceMigration() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(WorkloadGenerator.generateDataset(2_000, KeyLengthDistribution.UNIFORM, 4, 12, 13L), 50);
+        service.constructIndex(1, 4.0);
+        service.enableIncrementalRehash(1.0, 1);
+        service.insertRecord("trigger");
+        assertThat(service.isRehashing()).isTrue();
+        
+        int migrated = service.getStatistics().getRehashMigratedBuckets();
+        service.searchWithIndex("trigger");
+        assertThat(service.getStatistics().getRehashMigratedBuckets()).isEqualTo(migrated + 1);
+        assertThat(service.getStatistics().getRehashProgress()).isBetween(0.0, 100.0);
+    }
+}
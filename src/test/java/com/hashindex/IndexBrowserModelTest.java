@@ -0,0 +1,82 @@
+package com.hashindex;
+
+import com.hashindex.gui.display.BucketTableModel;
+import com.hashindex.gui.display.PageTableModel;
+import com.hashindex.model.Bucket;
+import com.hashindex.model.Page;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndexBrowserModelTest {
+    
+    private static HashIndexService service;
+    
+    @BeforeAll
+    static void createIndex() {
+        // One entry per bucket gives a directory with plenty of overflow chains
+        service = TestData.indexed(TestData.keys(20_000, 5L), 100, 1);
+    }
+    
+    @Test
+    void testRowsReadTheServiceBuckets() {
+        BucketTableModel model = new BucketTableModel(service);
+        assertThat(model.getRowCount()).isZero();
+        model.refresh();
+        
+        assertThat(model.getRowCount()).isEqualTo(service.getBucketCount()).isGreaterThanOrEqualTo(20_000);
+        for (int row : new int[] {0, 1, 12_345, model.getRowCount() - 1}) {
+            Bucket bucket = service.getBucket(row);
+            assertThat(model.getValueAt(row, 0)).isEqualTo(row);
+            assertThat(model.getValueAt(row, 1)).isEqualTo(bucket.size());
+            assertThat(model.getValueAt(row, 2)).isEqualTo(bucket.getOverflowCount());
+            assertThat(model.getValueAt(row, 3)).isEqualTo(bucket.getTotalEntries());
+        }
+        assertThat(model.getValueAt(model.getRowCount(), 0)).isNull();
+        
+        PageTableModel pages = new PageTableModel(service);
+        pages.refresh();
+        assertThat(pages.getRowCount()).isEqualTo(service.getPageCount());
+        Page last = service.getPage(service.getPageCount() - 1);
+        assertThat(pages.getValueAt(last.getPageNumber(), 1)).isEqualTo(last.size());
+        assertThat(pages.getValueAt(last.getPageNumber(), 5)).isEqualTo(last.getRecord(last.size() - 1));
+        assertThat(pages.describePage(0)).startsWith("Page 0 (PLAIN): 100 records");
+    }
+    
+    @Test
+    void testFilterSortAndJump() {
+        BucketTableModel model = new BucketTableModel(service);
+        model.refresh();
+        assertThat(model.computeView(1, false)).isNull();
+        
+        int[] chained = model.computeView(3, true);
+        model.setView(chained);
+        assertThat(model.getRowCount()).isEqualTo(chained.length).isPositive().isLessThan(service.getBucketCount());
+        int previousEntries = Integer.MAX_VALUE;
+        for (int row = 0; row < model.getRowCount(); row++) {
+            int entries = (Integer) model.getValueAt(row, 3);
+            assertThat((Integer) model.getValueAt(row, 2)).isGreaterThanOrEqualTo(2);
+            assertThat(entries).isLessThanOrEqualTo(previousEntries);
+            previousEntries = entries;
+        }
+        
+        int bucketNumber = chained[chained.length / 2];
+        assertThat(model.rowOfBucket(bucketNumber)).isEqualTo(chained.length / 2);
+        assertThat(model.bucketNumberAt(chained.length / 2)).isEqualTo(bucketNumber);
+        assertThat(model.describeChain(0))
+            .startsWith("Bucket " + chained[0] + ": " + model.getValueAt(0, 3) + " entries")
+            .contains("Overflow 2:");
+        
+        // A bucket with no overflow is filtered out; refreshing shows every bucket again
+        int unchained = 0;
+        while (service.getBucket(unchained).hasOverflow()) {
+            unchained++;
+        }
+        assertThat(model.rowOfBucket(unchained)).isEqualTo(-1);
+        model.refresh();
+        assertThat(model.rowOfBucket(unchained)).isEqualTo(unchained);
+        assertThat(model.rowOfBucket(-1)).isEqualTo(-1);
+    }
+}
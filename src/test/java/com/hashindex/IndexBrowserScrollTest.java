@@ -0,0 +1,53 @@
+package com.hashindex;
+
+import com.hashindex.gui.display.BucketTableModel;
+import com.hashindex.gui.display.PageTableModel;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.table.TableModel;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Times the browser tables over a million-bucket index. Wall-clock bounds depend on the
+ * machine, so this runs only with {@code mvn test -Pperformance}.
+ */
+@Tag("performance")
+class IndexBrowserScrollTest {
+    
+    @Test
+    void testScrollingStaysUnder100Milliseconds() {
+        // One entry per bucket gives a million-bucket directory with plenty of overflow chains
+        HashIndexService service = TestData.indexed(TestData.keys(1_000_000, 5L), 100, 1);
+        BucketTableModel buckets = new BucketTableModel(service);
+        buckets.refresh();
+        PageTableModel pages = new PageTableModel(service);
+        pages.refresh();
+        Random random = new Random(9);
+        
+        // What the table reads to paint one screen of 50 rows at a random scroll position
+        long worstNanos = 0;
+        for (int jump = 0; jump < 200; jump++) {
+            long start = System.nanoTime();
+            paintWindow(buckets, random.nextInt(buckets.getRowCount() - 50), 50);
+            paintWindow(pages, random.nextInt(pages.getRowCount() - 50), 50);
+            long elapsed = System.nanoTime() - start;
+            // The first few windows warm up the JIT
+            if (jump >= 10) {
+                worstNanos = Math.max(worstNanos, elapsed);
+            }
+        }
+        assertThat(worstNanos / 1_000_000.0).as("slowest window in ms").isLessThan(100.0);
+    }
+    
+    private static void paintWindow(TableModel model, int firstRow, int rows) {
+        for (int row = firstRow; row < firstRow + rows; row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                assertThat(model.getValueAt(row, column)).isNotNull();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.server.IndexClient;
+import com.hashindex.server.IndexProtocol;
+import com.hashindex.server.IndexResponse;
+import com.hashindex.server.IndexServer;
+import com.hashindex.server.LoadClient;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndexServerTest {
+    
+    @Test
+    void testPipelinedLookupsBatchesAndInserts() throws Exception {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("alpha", "beta", "gamma", "delta"), 2);
+        service.constructIndex(2);
+        
+        try (IndexServer server = new IndexServer(service, 0, 2);
+             IndexClient client = startAndConnect(server)) {
+            // Pipeline several requests before reading any response
+            int first = client.sendLookup("gamma");
+            client.sendLookup("missing");
+            client.sendBatchLookup(List.of("alpha", "nope", "delta"));
+            client.sendInsert("epsilon");
+            client.sendLookup("epsilon");
+            client.flush();
+            
+            IndexResponse gamma = client.receive();
+            assertThat(gamma.requestId()).isEqualTo(first);
+            assertThat(gamma.found()).isTrue();
+            assertThat(gamma.pageNumber()).isEqualTo(1);
+            assertThat(gamma.accesses()).isEqualTo(2);
+            assertThat(client.receive().found()).isFalse();
+            assertThat(client.receive().pages()).containsExactly(0, -1, 1);
+            assertThat(client.receive().pageNumber()).isEqualTo(2);
+            assertThat(client.receive().pageNumber()).isEqualTo(2);
+            
+            assertThat(server.getStatistics().getRequests()).isEqualTo(5);
+            assertThat(server.getStatistics().getOpenConnections()).isEqualTo(1);
+            assertThat(server.getStatistics().getLookupLatency().getCount()).isEqualTo(3);
+        }
+    }
+    
+    @Test
+    void testErrorResponseKeepsConnectionUsable() throws Exception {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("alpha"), 2);
+        
+        try (IndexServer server = new IndexServer(service, 0, 1);
+             IndexClient client = startAndConnect(server)) {
+            IndexResponse error = client.lookup("alpha");
+            assertThat(error.ok()).isFalse();
+            assertThat(error.error()).contains("not been constructed");
+            
+            service.constructIndex(2);
+            assertThat(client.lookup("alpha").found()).isTrue();
+            assertThat(server.getStatistics().getErrors()).isEqualTo(1);
+        }
+    }
+    
+    @Test
+    void testLoadClientOverLoopback() throws Exception {
+        List<String> keys = WorkloadGenerator.generateDataset(5_000, KeyLengthDistribution.UNIFORM, 4, 12, 42L);
+        HashIndexService service = new HashIndexService();
+        service.loadData(keys, 50);
+        service.constructIndex(4);
+        
+        try (IndexServer server = new IndexServer(service, 0, 2)) {
+            server.start();
+            LoadClient.Report report = new LoadClient("localhost", server.getPort(), 2, 8, 4, 0.1)
+                .run(keys, 300, 42L);
+            
+            assertThat(report.requests()).isPositive();
+            assertThat(report.errors()).isZero();
+            assertThat(report.hits()).isPositive();
+            assertThat(report.latency().getCount()).isEqualTo(report.requests());
+            assertThat(server.getStatistics().getInFlightRequests()).isZero();
+            assertThat(server.getStatistics().getInsertLatency().getCount()).isPositive();
+        }
+    }
+    
+    @Test
+    void testClientThatDoesNotReadIsNoLongerRead() throws Exception {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("alpha", "beta"), 2);
+        service.constructIndex(2);
+        // Far more responses than the server queues plus what the socket buffers hold
+        int requests = 1_000_000;
+        int responseBytes = 4 + IndexProtocol.FRAME_HEADER_BYTES + 8;
+        
+        try (IndexServer server = new IndexServer(service, 0, 1);
+             SocketChannel channel = SocketChannel.open()) {
+            server.start();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 64 * 1024);
+            channel.connect(new InetSocketAddress("localhost", server.getPort()));
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+                try {
+                    for (int id = 0; id < requests; id++) {
+                        if (out.remaining() < IndexProtocol.maxRequestBytes("alpha")) {
+                            write(channel, out);
+                        }
+                        IndexProtocol.writeLookup(out, id, "alpha");
+                    }
+                    write(channel, out);
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            });
+            writer.start();
+            
+            // Once the server stops handling requests it has stopped reading too, so the writer
+            // stays blocked until the responses are read
+            long handled;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            do {
+                handled = server.getStatistics().getRequests();
+                Thread.sleep(200);
+            } while (server.getStatistics().getRequests() != handled && System.nanoTime() < deadline);
+            assertThat(writer.isAlive()).isTrue();
+            assertThat(handled).isLessThan(requests);
+            
+            ByteBuffer in = ByteBuffer.allocate(64 * 1024 / responseBytes * responseBytes);
+            long remaining = (long) requests * responseBytes;
+            int lastRequestId = -1;
+            while (remaining > 0) {
+                in.clear().limit((int) Math.min(in.capacity(), remaining));
+                while (in.hasRemaining()) {
+                    assertThat(channel.read(in)).isNotNegative();
+                }
+                remaining -= in.position();
+                lastRequestId = in.getInt(in.position() - responseBytes + 5);
+            }
+            writer.join();
+            assertThat(failure.get()).isNull();
+            assertThat(lastRequestId).isEqualTo(requests - 1);
+            assertThat(server.getStatistics().getRequests()).isEqualTo(requests);
+            assertThat(server.getStatistics().getInFlightRequests()).isZero();
+        }
+    }
+    
+    private static void write(SocketChannel channel, ByteBuffer buffer) throws Exception {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    private static IndexClient startAndConnect(IndexServer server) throws Exception {
+        server.start();
+        return new IndexClient("localhost", server.getPort());
+    }
+}
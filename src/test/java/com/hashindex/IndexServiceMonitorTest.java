@@ -0,0 +1,74 @@
+package com.hashindex;
+
+import com.hashindex.jmx.IndexServiceMonitor;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndexServiceMonitorTest {
+    
+    private static final List<String> DATA = TestData.keys(5_000, 11L);
+    
+    @Test
+    void testAttributesCountConcurrentOperations() throws Exception {
+        HashIndexService service = TestData.indexed(DATA, 100, 5);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = IndexServiceMonitor.register(service, "monitor-test");
+        try {
+            assertThat(server.getAttribute(name, "TotalRecords")).isEqualTo(5_000L);
+            assertThat(server.getAttribute(name, "IndexBuilds")).isEqualTo(1L);
+            assertThat((Double) server.getAttribute(name, "LastBuildMillis")).isPositive();
+            assertThat((Long) server.getAttribute(name, "IndexBytes")).isPositive();
+            assertThat(server.getAttribute(name, "Overflows")).isEqualTo(service.getStatistics().getOverflows());
+            
+            // Every increment from every thread is counted
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 2_500; i++) {
+                        service.searchWithIndex(DATA.get((i * 4 + offset) % DATA.size()));
+                        service.searchWithIndex("absent-" + offset + "-" + i);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            service.tableScan(DATA.get(4_999));
+            service.searchBatch(List.of(DATA.get(0), DATA.get(1), "absent"));
+            
+            assertThat(server.getAttribute(name, "Lookups")).isEqualTo(20_003L);
+            assertThat(server.getAttribute(name, "LookupHits")).isEqualTo(10_002L);
+            assertThat(server.getAttribute(name, "LookupMisses")).isEqualTo(10_001L);
+            assertThat(server.getAttribute(name, "TableScans")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "TableScanHits")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "TableScanPageAccesses")).isEqualTo(50L);
+            assertThat(service.getStatistics().getSearchLatency().getCount()).isEqualTo(20_000);
+            assertThat(server.getAttribute(name, "IntervalLookups")).isEqualTo(20_003L);
+            
+            // Resetting the interval leaves the cumulative counts alone
+            server.invoke(name, "resetIntervalCounters", null, null);
+            service.insertRecord("inserted");
+            service.searchWithIndex("inserted");
+            assertThat(server.getAttribute(name, "IntervalLookups")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "IntervalInserts")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "IntervalAccessesPerLookup")).isEqualTo(2.0);
+            assertThat(server.getAttribute(name, "Lookups")).isEqualTo(20_004L);
+            
+            assertThat((String) server.invoke(name, "takeSnapshot", null, null))
+                .contains("Total Records: 5,001").contains("Index Lookup");
+        } finally {
+            IndexServiceMonitor.unregister(name);
+        }
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+}
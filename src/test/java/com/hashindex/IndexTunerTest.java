@@ -0,0 +1,94 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.TuningCandidate;
+import com.hashindex.model.TuningDecision;
+import com.hashindex.model.TuningObjective;
+import com.hashindex.service.HashFunctionFactory;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndexTunerTest {
+    
+    @Test
+    void testAutoTuneForLatencyBuildsChosenIndex() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(WorkloadGenerator.generateDataset(20_000, KeyLengthDistribution.UNIFORM, 4, 12, 3L), 100);
+        
+        TuningDecision decision = service.autoTuneIndex(TuningObjective.MIN_LATENCY);
+        TuningCandidate chosen = decision.chosen();
+        
+        assertThat(decision.candidates()).first().isEqualTo(chosen);
+        assertThat(decision.candidates()).extracting(TuningCandidate::score).isSorted();
+        assertThat(decision.candidates()).allSatisfy(
+            c -> assertThat(c.averageChainLength()).isGreaterThanOrEqualTo(chosen.averageChainLength() - 1e-9));
+        assertThat(service.getBuckets()).hasSize((int) chosen.predictedBuckets());
+        assertThat(service.getStatistics().getLoadFactor()).isEqualTo(chosen.loadFactor());
+        assertThat(service.getStatistics().getTuningDecision()).isSameAs(decision);
+        assertThat(service.searchWithIndex(service.getFirstPage().getRecord(0)).found()).isTrue();
+    }
+    
+    @Test
+    void testMemoryObjectivePrefersFullerBuckets() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(WorkloadGenerator.generateDataset(20_000, KeyLengthDistribution.UNIFORM, 4, 12, 5L), 100);
+        
+        TuningCandidate latency = service.autoTuneIndex(TuningObjective.MIN_LATENCY).chosen();
+        TuningCandidate memory = service.autoTuneIndex(TuningObjective.MIN_MEMORY).chosen();
+        
+        assertThat(memory.predictedIndexBytes()).isLessThan(latency.predictedIndexBytes());
+        assertThat(memory.averageChainLength()).isLessThanOrEqualTo(1.5);
+    }
+    
+    @Test
+    void testLookupsNeverMissWhileTheHashFunctionChanges() throws Exception {
+        List<String> dataset = WorkloadGenerator.generateDataset(20_000, KeyLengthDistribution.UNIFORM, 4, 12, 7L);
+        HashIndexService service = new HashIndexService();
+        service.loadData(dataset, 100);
+        service.constructIndex(4);
+        
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger misses = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            for (int i = 0; !done.get(); i = (i + 1) % dataset.size()) {
+                if (!service.searchWithIndex(dataset.get(i)).found()) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        try {
+            service.autoTuneIndex(TuningObjective.MIN_MEMORY);
+            service.constructIndex(HashFunctionFactory.createHashFunction(HashFunctionFactory.HashFunctionType.FNV1A), 4);
+            service.autoTuneIndex(TuningObjective.MIN_LATENCY);
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        assertThat(misses.get()).isZero();
+        
+        assertThatThrownBy(() -> service.setHashFunction(
+            HashFunctionFactory.createHashFunction(HashFunctionFactory.HashFunctionType.FNV1A)))
+            .isInstanceOf(IllegalStateException.class);
+        service.constructIndex(HashFunctionFactory.createHashFunction(HashFunctionFactory.HashFunctionType.FNV1A), 4);
+        assertThat(service.getHashFunction().getName()).isEqualTo(HashFunctionFactory.createHashFunction(
+            HashFunctionFactory.HashFunctionType.FNV1A).getName());
+        assertThat(service.searchWithIndex(dataset.get(123)).found()).isTrue();
+    }
+    
+    @Test
+    void testAutoTuneRequiresData() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of(), 10);
+        
+        assertThatThrownBy(() -> service.autoTuneIndex(TuningObjective.MIN_LATENCY))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hashindex;
+
+import com.hashindex.model.Bucket;
+import com.hashindex.model.BucketEntry;
+import com.hashindex.model.FrontCodedPage;
+import com.hashindex.model.Page;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class IndexViewTest {
+    
+    private static final List<String> DATA = sorted(TestData.keys(50_000, 13L));
+    
+    private static List<String> sorted(List<String> records) {
+        List<String> copy = new ArrayList<>(records);
+        Collections.sort(copy);
+        return copy;
+    }
+    
+    @Test
+    void testViewsAreReadOnlyAndBackedByTheIndex() {
+        Page page = new Page(0, 10);
+        page.addRecord("a");
+        List<String> records = page.recordsView();
+        page.addRecord("b");
+        assertThat(records).containsExactly("a", "b");
+        assertThatThrownBy(() -> records.add("c")).isInstanceOf(UnsupportedOperationException.class);
+        
+        FrontCodedPage frontCoded = new FrontCodedPage(0, 1024);
+        DATA.subList(0, 40).forEach(frontCoded::addRecord);
+        assertThat(frontCoded.recordsView()).isEqualTo(DATA.subList(0, 40));
+        assertThat(frontCoded.recordsView().get(37)).isEqualTo(DATA.get(37));
+        assertThatThrownBy(() -> frontCoded.recordsView().remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        
+        Bucket bucket = new Bucket(0, 2);
+        for (int i = 0; i < 5; i++) {
+            bucket.addEntry(new BucketEntry("k" + i, i));
+        }
+        assertThat(bucket.entriesView()).hasSize(2);
+        assertThatThrownBy(() -> bucket.entriesView().clear()).isInstanceOf(UnsupportedOperationException.class);
+        List<String> chain = new ArrayList<>();
+        bucket.forEachEntry(entry -> chain.add(entry.searchKey()));
+        assertThat(chain).containsExactly("k0", "k1", "k2", "k3", "k4");
+        assertThat(StreamSupport.stream(bucket.entrySpliterator(), false).map(BucketEntry::searchKey))
+            .containsExactlyElementsOf(chain);
+        
+        HashIndexService service = TestData.indexed(DATA, 100, 3);
+        assertThat(service.pagesView()).hasSize(service.getPageCount());
+        assertThat(service.bucketsView()).hasSize(service.getBucketCount());
+        assertThatThrownBy(() -> service.pagesView().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+    
+    @Test
+    void testParallelStreamsSeeEveryRecordAndEntryOnce() {
+        for (PageEncoding encoding : PageEncoding.values()) {
+            HashIndexService service = TestData.indexed(DATA, encoding == PageEncoding.PLAIN ? 100 : 1024, encoding, 3);
+            
+            assertThat(StreamSupport.stream(service.recordSpliterator(), true).collect(Collectors.toList()))
+                .as("%s records in order", encoding).isEqualTo(DATA);
+            assertThat(StreamSupport.stream(service.recordSpliterator(), true).filter(r -> r.startsWith("a")).count())
+                .isEqualTo(DATA.stream().filter(r -> r.startsWith("a")).count());
+            
+            List<String> entryKeys = StreamSupport.stream(service.entrySpliterator(), true)
+                .map(BucketEntry::searchKey).sorted().collect(Collectors.toList());
+            assertThat(entryKeys).as("%s entries", encoding).isEqualTo(DATA);
+            
+            List<String> visited = new ArrayList<>();
+            service.forEachRecord(visited::add);
+            assertThat(visited).isEqualTo(DATA);
+            long[] entries = new long[1];
+            service.forEachEntry(entry -> entries[0]++);
+            assertThat(entries[0]).isEqualTo(DATA.size());
+        }
+    }
+    
+    @Test
+    void testSpliteratorsSplitDownToSmallParts() {
+        for (PageEncoding encoding : PageEncoding.values()) {
+            HashIndexService service = TestData.indexed(DATA, encoding == PageEncoding.PLAIN ? 100 : 1024, encoding, 3);
+            List<Spliterator<String>> parts = new ArrayList<>();
+            splitInto(service.recordSpliterator(), parts);
+            
+            // Splitting goes past page boundaries into the pages themselves
+            assertThat(parts.size()).as("%s parts", encoding).isGreaterThan(service.getPageCount());
+            List<String> joined = new ArrayList<>();
+            parts.forEach(part -> part.forEachRemaining(joined::add));
+            assertThat(joined).isEqualTo(DATA);
+        }
+        
+        FrontCodedPage page = new FrontCodedPage(0, 1 << 16);
+        DATA.subList(0, 100).forEach(page::addRecord);
+        Spliterator<String> suffix = page.recordSpliterator();
+        Spliterator<String> prefix = suffix.trySplit();
+        // The split falls on a restart point so each half decodes from a full key
+        assertThat(prefix.estimateSize() % FrontCodedPage.RESTART_INTERVAL).isZero();
+        assertThat(prefix.estimateSize() + suffix.estimateSize()).isEqualTo(100);
+        assertThat(suffix.hasCharacteristics(Spliterator.SIZED)).isTrue();
+    }
+    
+    @Test
+    void testConstructionDoesNotCopyEntriesOrKeys() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        
+        HashIndexService service = TestData.indexed(DATA, 100, 3);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        service.constructIndex(5);
+        double bytesPerRecord = (double) (threads.getThreadAllocatedBytes(threadId) - before) / DATA.size();
+        
+        // A bucket entry, its share of the buckets and the directory come to about 52 bytes; copying
+        // each bucket's entries and each key's chars during construction used to add about 66 more
+        assertThat(bytesPerRecord).as("bytes allocated per record").isLessThan(80);
+    }
+    
+    private static <T> void splitInto(Spliterator<T> spliterator, List<Spliterator<T>> parts) {
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            parts.add(spliterator);
+            return;
+        }
+        splitInto(prefix, parts);
+        splitInto(spliterator, parts);
+    }
+}
@@ -0,0 +1,134 @@
+package com.hashindex;
+
+import com.hashindex.jfr.IndexLookupEvent;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashIndexService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JfrEventsTest {
+    
+    private static final String[] EVENTS = {
+        "com.hashindex.LoadData", "com.hashindex.LoadStage", "com.hashindex.ConstructIndex",
+        "com.hashindex.PopulateBuckets", "com.hashindex.IndexLookup", "com.hashindex.TableScan",
+        "com.hashindex.OverflowBucket", "com.hashindex.RehashStep"
+    };
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testOperationsEmitEventsIntoARecording() throws Exception {
+        List<String> data = TestData.keys(2_000, 3L);
+        HashIndexService service = new HashIndexService();
+        String hit = data.get(1_234);
+        SearchResult expected;
+        
+        Path file = tempDir.resolve("index.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : EVENTS) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            
+            service.loadData(data, 50);
+            service.constructIndex(1);
+            expected = service.searchWithIndex(hit);
+            service.searchWithIndex("missing");
+            byte[] key = hit.getBytes(StandardCharsets.UTF_8);
+            service.searchWithIndex(key, 0, key.length);
+            service.tableScan(hit);
+            
+            service.enableIncrementalRehash(1.0, 500);
+            for (int i = 0; !service.isRehashing() || i < 10; i++) {
+                service.insertRecord("inserted-" + i);
+            }
+            service.disableIncrementalRehash();
+            
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        
+        assertThat(events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet()))
+            .containsExactlyInAnyOrder(EVENTS);
+        
+        RecordedEvent load = single(events, "com.hashindex.LoadData");
+        assertThat(load.getLong("records")).isEqualTo(2_000);
+        assertThat(load.getInt("pages")).isEqualTo(40);
+        assertThat(load.getString("encoding")).isEqualTo("PLAIN");
+        assertThat(ofType(events, "com.hashindex.LoadStage").stream().map(e -> e.getString("stage")))
+            .containsExactly("paginate", "estimate");
+        
+        RecordedEvent construct = single(events, "com.hashindex.ConstructIndex");
+        assertThat(construct.getInt("buckets")).isGreaterThanOrEqualTo(2_000);
+        assertThat(construct.getInt("bucketCapacity")).isEqualTo(1);
+        assertThat(construct.getLong("overflows")).isPositive();
+        assertThat(construct.getBoolean("cancelled")).isFalse();
+        RecordedEvent populate = single(events, "com.hashindex.PopulateBuckets");
+        assertThat(populate.getLong("records")).isEqualTo(2_000);
+        // Populating is part of the build, so it ends inside it
+        assertThat(populate.getEndTime()).isBeforeOrEqualTo(construct.getEndTime());
+        
+        List<RecordedEvent> lookups = ofType(events, "com.hashindex.IndexLookup");
+        assertThat(lookups).hasSize(3);
+        RecordedEvent found = lookups.get(0);
+        assertThat(found.getString("key")).isEqualTo(hit);
+        assertThat(found.getInt("page")).isEqualTo(expected.pageNumber());
+        assertThat(found.getInt("accesses")).isEqualTo(expected.accessCount());
+        assertThat(found.getInt("chainLength")).isPositive();
+        assertThat(found.getBoolean("found")).isTrue();
+        assertThat(lookups.get(1).getBoolean("found")).isFalse();
+        assertThat(lookups.get(1).getInt("page")).isEqualTo(-1);
+        // The byte[] lookup reports the same key, bucket and chain
+        assertThat(lookups.get(2).getString("key")).isEqualTo(hit);
+        assertThat(lookups.get(2).getInt("bucket")).isEqualTo(found.getInt("bucket"));
+        assertThat(lookups.get(2).getInt("chainLength")).isEqualTo(found.getInt("chainLength"));
+        
+        RecordedEvent scan = single(events, "com.hashindex.TableScan");
+        assertThat(scan.getInt("page")).isEqualTo(expected.pageNumber());
+        assertThat(scan.getInt("accesses")).isEqualTo(expected.pageNumber() + 1);
+        
+        assertThat(ofType(events, "com.hashindex.OverflowBucket"))
+            .allSatisfy(e -> assertThat(e.getInt("chainLength")).isGreaterThanOrEqualTo(2))
+            .anySatisfy(e -> assertThat(e.getInt("bucketCapacity")).isEqualTo(1));
+        
+        // The steps of the first rehash migrate every source bucket once, the last one completing it
+        List<RecordedEvent> steps = ofType(events, "com.hashindex.RehashStep");
+        assertThat(steps.get(0).getInt("firstBucket")).isZero();
+        int migrated = 0;
+        int step = 0;
+        do {
+            assertThat(steps.get(step).getInt("firstBucket")).isEqualTo(migrated);
+            migrated += steps.get(step).getInt("bucketsMigrated");
+        } while (!steps.get(step++).getBoolean("completed"));
+        assertThat(migrated).isEqualTo(steps.get(0).getInt("sourceBuckets"));
+        
+        // With the recording closed the lookup path starts no event at all
+        assertThat(IndexLookupEvent.beginIfEnabled()).isNull();
+    }
+    
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(e -> e.getEventType().getName().equals(name))
+            .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+            .collect(Collectors.toList());
+    }
+    
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = ofType(events, name);
+        assertThat(matching).as(name).hasSize(1);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.hashindex;
+
+import com.hashindex.large.ChunkedBuffer;
+import com.hashindex.large.LargeHashIndex;
+import com.hashindex.large.LargePageStore;
+import com.hashindex.large.LargeScaleBenchmark;
+import com.hashindex.large.RecordId;
+import com.hashindex.large.SyntheticRecords;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LargeScaleIndexTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    /**
+     * The tests tagged "large" map files of 12 GB and more than 20 GB, of which they write only
+     * a few pages: they need a file system with sparse files and a 64-bit JVM, and run only
+     * with {@code mvn test -Plarge}.
+     */
+    private static void assumeLargeMappings() {
+        assumeTrue("64".equals(System.getProperty("sun.arch.data.model")), "needs a 64-bit JVM");
+    }
+    
+    @Test
+    @Tag("large")
+    void testChunkedBufferAddressesPast2GB() throws Exception {
+        assumeLargeMappings();
+        long capacity = 3L << 32;
+        try (ChunkedBuffer buffer = ChunkedBuffer.mapped(tempDir.resolve("buffer.dat"), capacity)) {
+            long[] offsets = {0, Integer.MAX_VALUE + 1L, (1L << 32) + 8, capacity - 8};
+            for (long offset : offsets) {
+                buffer.putLong(offset, offset * 31);
+            }
+            for (long offset : offsets) {
+                assertThat(buffer.getLong(offset)).isEqualTo(offset * 31);
+            }
+            // Chunks are created on first write; the others read as zeros
+            assertThat(buffer.getLong(1L << 33)).isZero();
+            assertThat(buffer.getAllocatedBytes()).isEqualTo(4L << 30);
+            assertThatThrownBy(() -> buffer.getLong(capacity)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+    
+    @Test
+    void testBuildAndQueryOnHeap() throws Exception {
+        SyntheticRecords generator = new SyntheticRecords(7);
+        int records = 1_000_000;
+        int bucketCapacity = 4;
+        long bucketCount = LargeHashIndex.bucketCount(records, bucketCapacity, 1.0);
+        try (LargePageStore store = new LargePageStore(
+                 ChunkedBuffer.onHeap(LargePageStore.capacityFor(records, 64, 16)), 64, 16);
+             LargeHashIndex index = new LargeHashIndex(store, bucketCount, bucketCapacity,
+                 ChunkedBuffer.onHeap(LargeHashIndex.directoryBytes(bucketCount, bucketCapacity)),
+                 ChunkedBuffer.onHeap(LargeHashIndex.overflowBytes(records, bucketCapacity)))) {
+            generator.fill(store, 0, records);
+            assertThat(store.getRecordCount()).isEqualTo(records);
+            assertThat(store.getPageCount()).isEqualTo((records + 63) / 64);
+            assertThat(index.insertAll(store)).isEqualTo(records);
+            assertThat(index.getOverflowBucketCount()).isPositive();
+            
+            Set<String> keys = new HashSet<>();
+            for (int ordinal = 0; ordinal < records; ordinal += 997) {
+                long recordId = RecordId.ofOrdinal(ordinal, 64);
+                String key = generator.key(recordId);
+                assertThat(keys.add(key)).isTrue();
+                assertThat(store.readKey(recordId)).isEqualTo(key);
+                assertThat(index.lookup(key)).isEqualTo(recordId);
+                assertThat(index.lookup(generator.key(RecordId.ofOrdinal(records + ordinal, 64)))).isEqualTo(-1);
+            }
+            long lookups = index.getLookups();
+            assertThat(lookups).isEqualTo(2 * keys.size());
+            // Fingerprints keep reads of records that do not match rare
+            assertThat((double) index.getPageReads() / lookups).isBetween(0.5, 0.55);
+            assertThat((double) index.getBucketAccesses() / lookups).isLessThan(2.0);
+        }
+    }
+    
+    @Test
+    @Tag("large")
+    void testIndexBeyondIntRangeWithinBoundedHeap() throws Exception {
+        assumeLargeMappings();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        
+        SyntheticRecords generator = new SyntheticRecords(11);
+        int recordsPerPage = 64;
+        int bucketCapacity = 4;
+        // More entry slots than an int can count, in a directory of over 20 GB
+        long bucketCount = (1L << 29) + 7;
+        long storeRecords = (1L << 32) + (1 << 20);
+        // Small runs: each insert touches a fresh page of the sparse directory, which the
+        // operating system must allocate
+        int run = 1_000;
+        long[] firstOrdinals = {0, Integer.MAX_VALUE - run / 2, 1L << 32};
+        
+        try (LargePageStore store = new LargePageStore(
+                 ChunkedBuffer.mapped(tempDir.resolve("pages.dat"),
+                                      LargePageStore.capacityFor(storeRecords, recordsPerPage, 16)),
+                 recordsPerPage, 16);
+             LargeHashIndex index = new LargeHashIndex(store, bucketCount, bucketCapacity,
+                 ChunkedBuffer.mapped(tempDir.resolve("directory.dat"),
+                                      LargeHashIndex.directoryBytes(bucketCount, bucketCapacity)),
+                 ChunkedBuffer.mapped(tempDir.resolve("overflow.dat"),
+                                      LargeHashIndex.overflowBytes(storeRecords, bucketCapacity)))) {
+            assertThat(index.getSlotCount()).isGreaterThan(1L << 31);
+            
+            // Runs of records at the start, across 2^31 and past 2^32, indexed as they are stored
+            byte[] key = new byte[SyntheticRecords.MAX_KEY_BYTES];
+            for (long first : firstOrdinals) {
+                generator.fill(store, first, run);
+                for (long ordinal = first; ordinal < first + run; ordinal++) {
+                    long recordId = RecordId.ofOrdinal(ordinal, recordsPerPage);
+                    index.insert(key, 0, generator.encodeKey(recordId, key), recordId);
+                }
+            }
+            assertThat(index.getEntryCount()).isEqualTo(3L * run);
+            
+            for (long first : firstOrdinals) {
+                for (long ordinal = first; ordinal < first + run; ordinal++) {
+                    long recordId = RecordId.ofOrdinal(ordinal, recordsPerPage);
+                    assertThat(index.lookup(key, 0, generator.encodeKey(recordId, key))).isEqualTo(recordId);
+                }
+            }
+            long lastId = RecordId.ofOrdinal((1L << 32) + run - 1, recordsPerPage);
+            assertThat(lastId).isGreaterThan(1L << 38);
+            assertThat(store.readKey(lastId)).isEqualTo(generator.key(lastId));
+            // Records between the runs were never stored or indexed
+            assertThat(index.lookup(generator.key(RecordId.ofOrdinal(1L << 30, recordsPerPage)))).isEqualTo(-1);
+            
+            System.gc();
+            long heapGrowth = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+            assertThat(heapGrowth).as("heap growth in bytes").isLessThan(32L << 20);
+        }
+    }
+    
+    @Test
+    void testBenchmarkFindsEveryStoredRecord() throws Exception {
+        LargeScaleBenchmark.Result result = LargeScaleBenchmark.run(
+            200_000, 64, 4, 1.0, 20_000, ChunkedBuffer.Storage.DIRECT, tempDir, 3);
+        assertThat(result.hits()).isEqualTo(10_000);
+        assertThat(result.bucketCount()).isEqualTo(50_000);
+        assertThat(result.pageReadsPerLookup()).isBetween(0.5, 0.55);
+    }
+}
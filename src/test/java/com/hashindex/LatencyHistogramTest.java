@@ -0,0 +1,67 @@
+package com.hashindex;
+
+import com.hashindex.metrics.LatencyHistogram;
+import com.hashindex.metrics.LatencySnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1_000);
+        }
+        
+        LatencySnapshot snapshot = histogram.snapshot();
+        
+        assertThat(snapshot.count()).isEqualTo(100_000);
+        assertThat(snapshot.p50Nanos()).isCloseTo(50_000_000L, withinPercentage(1));
+        assertThat(snapshot.p99Nanos()).isCloseTo(99_000_000L, withinPercentage(1));
+        assertThat(snapshot.p999Nanos()).isCloseTo(99_900_000L, withinPercentage(1));
+        assertThat(snapshot.maxNanos()).isEqualTo(100_000_000L);
+    }
+    
+    @Test
+    void testIntervalSnapshotAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(10);
+        histogram.record(20);
+        assertThat(histogram.intervalSnapshot().count()).isEqualTo(2);
+        
+        histogram.record(5_000);
+        LatencySnapshot interval = histogram.intervalSnapshot();
+        assertThat(interval.count()).isEqualTo(1);
+        assertThat(interval.p50Nanos()).isCloseTo(5_000L, withinPercentage(1));
+        assertThat(histogram.snapshot().count()).isEqualTo(3);
+        
+        histogram.reset();
+        assertThat(histogram.snapshot().count()).isZero();
+        assertThat(histogram.getMaxNanos()).isZero();
+    }
+    
+    @Test
+    void testConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertThat(histogram.snapshot().count()).isEqualTo(200_000);
+    }
+}
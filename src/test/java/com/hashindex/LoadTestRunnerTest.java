@@ -0,0 +1,71 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.*;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoadTestRunnerTest {
+    
+    @Test
+    void testGeneratedDatasetIsDistinctAndWithinLengthRange() {
+        List<String> keys = WorkloadGenerator.generateDataset(5_000, KeyLengthDistribution.NORMAL, 3, 9, 7L);
+        
+        assertThat(keys).hasSize(5_000).doesNotHaveDuplicates();
+        assertThat(keys).allMatch(k -> k.length() >= 3 && k.length() <= 9);
+    }
+    
+    @Test
+    void testOperationCountRunWithInsertsAndMisses() throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setRecordCount(5_000);
+        config.setThreads(4);
+        config.setOperationCount(40_000);
+        config.setKeyDistribution(KeyDistribution.ZIPFIAN);
+        config.setHitRatio(0.5);
+        config.setInsertRatio(0.1);
+        
+        HashIndexService service = new HashIndexService();
+        LoadTestReport report = new LoadTestRunner(service).run(config);
+        
+        assertThat(report.operations()).isEqualTo(40_000);
+        assertThat(report.inserts()).isPositive();
+        assertThat(report.hitRatio()).isBetween(0.4, 0.6);
+        assertThat(report.lookupLatency().count()).isEqualTo(report.lookups());
+        assertThat(service.getStatistics().getTotalRecords()).isEqualTo(5_000 + report.inserts());
+        assertThat(report.toCsv().lines()).hasSize(2);
+        assertThat(report.toJson()).startsWith("{\"threads\":4");
+    }
+    
+    @Test
+    void testOperationCountIsSplitExactlyAcrossThreads() throws Exception {
+        List<String> keys = TestData.keys(1_000, 3L);
+        HashIndexService service = TestData.indexed(keys, 50, 4);
+        LoadTestRunner runner = new LoadTestRunner(service);
+        LoadTestConfig config = new LoadTestConfig();
+        config.setThreads(4);
+        
+        // Neither a multiple of the threads nor as many operations as threads
+        for (int operations : new int[] {1_003, 3}) {
+            config.setOperationCount(operations);
+            assertThat(runner.runWorkload(config, keys).operations()).isEqualTo(operations);
+        }
+    }
+    
+    @Test
+    void testInsertedRecordsAreFoundThroughIndex() {
+        HashIndexService service = new HashIndexService();
+        service.loadData(List.of("alpha", "beta", "gamma"), 2);
+        service.constructIndex(1);
+        
+        int pageNumber = service.insertRecord("delta");
+        
+        assertThat(pageNumber).isEqualTo(1);
+        assertThat(service.searchWithIndex("delta").found()).isTrue();
+        assertThat(service.getStatistics().getTotalRecords()).isEqualTo(4);
+        assertThat(service.getStatistics().getInsertLatency().getCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hashindex;
+
+import com.hashindex.cache.CachePolicy;
+import com.hashindex.cache.LookupCache;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LookupCacheTest {
+    
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        LookupCache cache = new LookupCache(2, CachePolicy.Type.LRU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isEqualTo(LookupCache.MISS);
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+    
+    @Test
+    void testTinyLfuRejectsColdCandidate() {
+        LookupCache cache = new LookupCache(2, CachePolicy.Type.TINY_LFU);
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot1");
+            cache.get("hot2");
+        }
+        cache.put("hot1", 1);
+        cache.put("hot2", 2);
+        
+        cache.get("cold");
+        cache.put("cold", 3);
+        
+        assertThat(cache.get("cold")).isEqualTo(LookupCache.MISS);
+        assertThat(cache.get("hot1")).isEqualTo(1);
+        assertThat(cache.get("hot2")).isEqualTo(2);
+    }
+    
+    @Test
+    void testServiceCacheHitsAndInvalidationOnRebuild() {
+        HashIndexService service = new HashIndexService();
+        service.enableLookupCache(100, CachePolicy.Type.LRU);
+        service.loadData(List.of("alpha", "beta", "gamma", "delta"), 2);
+        service.constructIndex(2);
+        
+        assertThat(service.searchWithIndex("gamma").accessCount()).isEqualTo(2);
+        SearchResult cached = service.searchWithIndex("gamma");
+        assertThat(cached.found()).isTrue();
+        assertThat(cached.pageNumber()).isEqualTo(1);
+        assertThat(cached.accessCount()).isZero();
+        assertThat(service.getStatistics().getCacheHits()).isEqualTo(1);
+        assertThat(service.getStatistics().getAvoidedPageAccesses()).isEqualTo(1);
+        
+        // Reloading in a different order moves "gamma" to page 0
+        service.loadData(List.of("gamma", "alpha", "beta", "delta"), 2);
+        service.constructIndex(2);
+        assertThat(service.getLookupCache().size()).isZero();
+        assertThat(service.searchWithIndex("gamma").pageNumber()).isZero();
+    }
+}
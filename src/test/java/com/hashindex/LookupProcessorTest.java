@@ -0,0 +1,172 @@
+package com.hashindex;
+
+import com.hashindex.model.BatchSearchResult;
+import com.hashindex.model.SearchResult;
+import com.hashindex.service.HashIndexService;
+import com.hashindex.stream.LookupProcessor;
+import com.hashindex.stream.StreamStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LookupProcessorTest {
+    
+    private static final List<String> KEYS = TestData.keys(5_000, 21L);
+    
+    /**
+     * Requests one result at a time, optionally pausing before each request.
+     */
+    private static class SlowSubscriber implements Flow.Subscriber<SearchResult> {
+        
+        final List<SearchResult> results = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        final long pauseNanos;
+        volatile Throwable error;
+        Flow.Subscription subscription;
+        
+        SlowSubscriber(long pauseNanos) {
+            this.pauseNanos = pauseNanos;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+        
+        @Override
+        public void onNext(SearchResult item) {
+            results.add(item);
+            if (pauseNanos > 0) {
+                LockSupport.parkNanos(pauseNanos);
+            }
+            subscription.request(1);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+        
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+    
+    @Test
+    void testBatchLookupMatchesSingleLookups() {
+        HashIndexService service = TestData.indexed(KEYS, 50, 4);
+        List<String> keys = new ArrayList<>(KEYS.subList(0, 500));
+        keys.add("no-such-key");
+        keys.add(KEYS.get(0));
+        
+        BatchSearchResult batch = service.searchBatch(keys);
+        
+        assertThat(batch.size()).isEqualTo(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            SearchResult single = service.searchWithIndex(keys.get(i));
+            assertThat(batch.results().get(i)).isEqualTo(single);
+        }
+        // The duplicate key shares its bucket and page with the first one
+        assertThat(batch.bucketAccesses()).isLessThan(keys.size());
+        assertThat(batch.pageAccesses()).isLessThanOrEqualTo(service.getPages().size());
+    }
+    
+    @Test
+    void testStreamsResultsInOrderWithBoundedQueue() throws Exception {
+        HashIndexService service = TestData.indexed(KEYS, 50, 4);
+        LookupProcessor processor = new LookupProcessor(service, 64, Duration.ofMillis(5), 256);
+        SlowSubscriber subscriber = new SlowSubscriber(0);
+        processor.subscribe(subscriber);
+        
+        try (SubmissionPublisher<String> source = new SubmissionPublisher<>()) {
+            source.subscribe(processor);
+            for (String key : KEYS) {
+                source.submit(key);
+            }
+        }
+        assertThat(subscriber.done.await(30, TimeUnit.SECONDS)).isTrue();
+        
+        assertThat(subscriber.error).isNull();
+        assertThat(subscriber.results).hasSize(KEYS.size());
+        for (int i = 0; i < KEYS.size(); i++) {
+            assertThat(subscriber.results.get(i).searchKey()).isEqualTo(KEYS.get(i));
+            assertThat(subscriber.results.get(i).found()).isTrue();
+        }
+        
+        StreamStatistics statistics = processor.getStatistics();
+        assertThat(statistics.getResultsEmitted()).isEqualTo(KEYS.size());
+        assertThat(statistics.getMaxBatchSize()).isLessThanOrEqualTo(64);
+        assertThat(statistics.getBatches()).isGreaterThanOrEqualTo(KEYS.size() / 64);
+        assertThat(statistics.getMaxQueueDepth()).isLessThanOrEqualTo(256);
+        assertThat(statistics.getQueueDepth()).isZero();
+        assertThat(statistics.getEndToEndLatency().getCount()).isEqualTo(KEYS.size());
+    }
+    
+    @Test
+    void testTimeWindowFlushesPartialBatch() throws Exception {
+        HashIndexService service = TestData.indexed(KEYS, 50, 4);
+        try (LookupProcessor processor = new LookupProcessor(service, 1_000, Duration.ofMillis(20), 1_000)) {
+            SlowSubscriber subscriber = new SlowSubscriber(0);
+            processor.subscribe(subscriber);
+            SubmissionPublisher<String> source = new SubmissionPublisher<>();
+            source.subscribe(processor);
+            source.submit(KEYS.get(1));
+            source.submit(KEYS.get(2));
+            source.submit("no-such-key");
+            
+            // Not completed and far from a full batch: only the window can flush these
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (subscriber.results.size() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(subscriber.results).extracting(SearchResult::found).containsExactly(true, true, false);
+            assertThat(processor.getStatistics().getSizeTriggeredBatches()).isZero();
+            source.close();
+        }
+    }
+    
+    @Test
+    void testSlowSubscriberBackpressuresUpstream() throws Exception {
+        HashIndexService service = TestData.indexed(KEYS, 50, 4);
+        LookupProcessor processor = new LookupProcessor(service, 16, Duration.ofMillis(1), 32);
+        SlowSubscriber subscriber = new SlowSubscriber(TimeUnit.MILLISECONDS.toNanos(1));
+        processor.subscribe(subscriber);
+        
+        SubmissionPublisher<String> source = new SubmissionPublisher<>();
+        source.subscribe(processor);
+        List<String> keys = KEYS.subList(0, 600);
+        for (String key : keys) {
+            source.submit(key);
+        }
+        source.close();
+        assertThat(subscriber.done.await(30, TimeUnit.SECONDS)).isTrue();
+        
+        assertThat(subscriber.results).hasSize(keys.size());
+        // Keys in flight never exceed the queue depth however slowly results are consumed
+        assertThat(processor.getStatistics().getMaxQueueDepth()).isLessThanOrEqualTo(32);
+    }
+    
+    @Test
+    void testRejectsInvalidConfiguration() {
+        HashIndexService service = TestData.indexed(KEYS, 50, 4);
+        assertThatThrownBy(() -> new LookupProcessor(service, 0, Duration.ofMillis(1), 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LookupProcessor(service, 10, Duration.ZERO, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LookupProcessor(service, 10, Duration.ofMillis(1), 5))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hashindex;
+
+import com.hashindex.model.*;
+import com.hashindex.service.MemoryFootprintEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemoryFootprintEstimatorTest {
+    
+    private final MemoryFootprintEstimator estimator = new MemoryFootprintEstimator(true, true, 8);
+    
+    @Test
+    void testEmptyStructures() {
+        MemoryFootprint footprint = estimator.estimate(List.of(), List.of());
+        
+        assertThat(footprint.indexBytes()).isZero();
+        assertThat(footprint.recordCount()).isZero();
+        assertThat(footprint.bytesPerRecord()).isZero();
+    }
+    
+    @Test
+    void testCountsOverflowChainSeparately() {
+        Page page = new Page(0, 4);
+        page.addRecord("alpha");
+        page.addRecord("beta");
+        page.addRecord("gamma");
+        
+        Bucket bucket = new Bucket(0, 2);
+        bucket.addEntry(new BucketEntry("alpha", 0));
+        bucket.addEntry(new BucketEntry("beta", 0));
+        
+        MemoryFootprint withoutOverflow = estimator.estimate(List.of(page), List.of(bucket));
+        assertThat(withoutOverflow.overflowBucketBytes()).isZero();
+        // 12-byte header, three 4-byte references and an int, aligned to 32 bytes per entry
+        assertThat(withoutOverflow.bucketEntryBytes()).isEqualTo(2 * 32);
+        
+        bucket.addEntry(new BucketEntry("gamma", 0));
+        MemoryFootprint withOverflow = estimator.estimate(List.of(page), List.of(bucket));
+        
+        assertThat(withOverflow.recordCount()).isEqualTo(3);
+        assertThat(withOverflow.overflowBucketBytes()).isEqualTo(withoutOverflow.bucketBytes());
+        assertThat(withOverflow.bucketEntryBytes()).isEqualTo(3 * 32);
+        assertThat(withOverflow.recordStringBytes()).isEqualTo(withoutOverflow.recordStringBytes());
+    }
+    
+    @Test
+    void testUncompressedLayoutIsLarger() {
+        Page page = new Page(0, 2);
+        page.addRecord("hash");
+        page.addRecord("index");
+        
+        MemoryFootprintEstimator uncompressed = new MemoryFootprintEstimator(false, false, 8);
+        
+        assertThat(uncompressed.estimate(List.of(page), List.of()).totalBytes())
+            .isGreaterThan(estimator.estimate(List.of(page), List.of()).totalBytes());
+    }
+}
@@ -0,0 +1,103 @@
+package com.hashindex;
+
+import com.hashindex.model.Bucket;
+import com.hashindex.model.BucketEntry;
+import com.hashindex.model.BuildStrategy;
+import com.hashindex.model.IndexStatistics;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PartitionedBuildTest {
+    
+    @Test
+    void testPartitionedBuildMatchesIncrementalBuild() {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Every fifth record repeats a key, so some entries carry posting lists
+            records.add("key-" + (i % 5 == 0 ? i % 300 : i));
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(records, 40);
+        assertThat(service.getBuildStrategy()).isEqualTo(BuildStrategy.INCREMENTAL);
+        
+        service.constructIndex(3, 1.2);
+        List<String> incremental = describe(service);
+        IndexStatistics statistics = service.getStatistics();
+        long collisions = statistics.getCollisions();
+        long overflows = statistics.getOverflows();
+        long indexBytes = statistics.getMemoryFootprint().indexBytes();
+        
+        service.setBuildStrategy(BuildStrategy.PARTITIONED);
+        service.constructIndex(3, 1.2);
+        assertThat(describe(service)).isEqualTo(incremental);
+        assertThat(statistics.getBuildStrategy()).isEqualTo(BuildStrategy.PARTITIONED);
+        assertThat(statistics.getCollisions()).isEqualTo(collisions);
+        assertThat(statistics.getOverflows()).isEqualTo(overflows).isPositive();
+        assertThat(statistics.getMemoryFootprint().indexBytes()).isEqualTo(indexBytes);
+        assertThat(service.searchAll("key-15").pageNumbers())
+            .isEqualTo(service.tableScanAll("key-15").pageNumbers()).hasSizeGreaterThan(1);
+        
+        // Inserts after a partitioned build go through the usual path
+        service.insertRecord("key-15");
+        service.insertRecord("fresh");
+        assertThat(service.searchWithIndex("fresh").found()).isTrue();
+        assertThat(service.searchAll("key-15").pageNumbers()).endsWith(service.getPageCount() - 1);
+    }
+    
+    @Test
+    void testPartitionedBuildHandlesPayloadsAndFrontCodedPages() {
+        List<String> keys = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            keys.add("k" + i);
+            payloads.add(("v" + i).getBytes(StandardCharsets.US_ASCII));
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(keys, payloads, 25);
+        service.setInlinePayloadLimit(4);
+        service.setBuildStrategy(BuildStrategy.PARTITIONED);
+        service.constructIndex(4);
+        assertThat(service.searchPayload("k12").inline()).isTrue();
+        assertThat(service.searchPayload("k1234").inline()).isFalse();
+        assertThat(service.searchPayload("k1234").payload()).isEqualTo("v1234".getBytes(StandardCharsets.US_ASCII));
+        
+        HashIndexService frontCoded = new HashIndexService();
+        frontCoded.loadData(keys, 512, PageEncoding.FRONT_CODED);
+        frontCoded.setBuildStrategy(BuildStrategy.PARTITIONED);
+        frontCoded.constructIndex(4);
+        for (int i = 0; i < keys.size(); i += 97) {
+            assertThat(frontCoded.searchWithIndex("k" + i).found()).isTrue();
+        }
+        assertThat(frontCoded.searchWithIndex("absent").found()).isFalse();
+        
+        // An empty data set still gets a directory
+        HashIndexService empty = new HashIndexService();
+        empty.loadData(List.of(), 10);
+        empty.setBuildStrategy(BuildStrategy.PARTITIONED);
+        empty.constructIndex(4);
+        assertThat(empty.searchWithIndex("absent").found()).isFalse();
+        assertThatThrownBy(() -> empty.setBuildStrategy(null)).isInstanceOf(NullPointerException.class);
+    }
+    
+    private static List<String> describe(HashIndexService service) {
+        List<String> chains = new ArrayList<>();
+        for (Bucket bucket : service.bucketsView()) {
+            StringBuilder chain = new StringBuilder().append(bucket.getOverflowCount()).append(':');
+            bucket.forEachEntry(entry -> chain.append(describe(entry)).append(' '));
+            chains.add(chain.toString());
+        }
+        return chains;
+    }
+    
+    private static String describe(BucketEntry entry) {
+        return entry.searchKey() + "@" + Arrays.toString(entry.pageNumbers());
+    }
+}
@@ -0,0 +1,110 @@
+package com.hashindex;
+
+import com.hashindex.model.MultiSearchResult;
+import com.hashindex.model.PostingList;
+import com.hashindex.service.HashIndexService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PostingListTest {
+    
+    @Test
+    void testPostingListSwitchesBetweenGapsAndBitmap() {
+        PostingList sparse = new PostingList(3);
+        assertThat(sparse.add(3)).isFalse();
+        for (int page = 1_000; page <= 100_000; page += 1_000) {
+            assertThat(sparse.add(page)).isTrue();
+        }
+        assertThat(sparse.isBitmap()).isFalse();
+        assertThat(sparse.size()).isEqualTo(101);
+        assertThat(sparse.getEncodedBytes()).isEqualTo(100 * 2);
+        assertThat(sparse.toArray()).startsWith(3, 1_000, 2_000).endsWith(100_000);
+        assertThatThrownBy(() -> sparse.add(5)).isInstanceOf(IllegalArgumentException.class);
+        
+        // Every page of a run takes a byte as a gap but a bit in the bitmap
+        PostingList dense = new PostingList(10);
+        for (int page = 11; page < 500; page++) {
+            dense.add(page);
+        }
+        assertThat(dense.isBitmap()).isTrue();
+        assertThat(dense.getEncodedBytes()).isEqualTo(8 * 8);
+        assertThat(dense.toArray()).hasSize(490).startsWith(10, 11).endsWith(499);
+        
+        // A long jump leaves the bitmap mostly empty, so the list goes back to gaps
+        dense.add(1_000_000);
+        assertThat(dense.isBitmap()).isFalse();
+        assertThat(dense.size()).isEqualTo(491);
+        assertThat(dense.toArray()).endsWith(498, 499, 1_000_000);
+    }
+    
+    @Test
+    void testDuplicatesShareOneEntryAndSearchAllMatchesTableScan() {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            records.add("key-" + (i % 7 == 0 ? 0 : i % 100));
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(records, 20);
+        service.constructIndex(4);
+        
+        int[] entries = new int[2];
+        service.forEachEntry(entry -> {
+            entries[0]++;
+            entries[1] += entry.postings() != null ? 1 : 0;
+        });
+        assertThat(entries[0]).isEqualTo(100);
+        assertThat(entries[1]).isEqualTo(100);
+        assertThat(service.getStatistics().getMemoryFootprint().postingListBytes()).isPositive();
+        
+        for (int i = 0; i < 100; i++) {
+            MultiSearchResult indexed = service.searchAll("key-" + i);
+            MultiSearchResult scanned = service.tableScanAll("key-" + i);
+            assertThat(indexed.pageNumbers()).as("key-" + i).isEqualTo(scanned.pageNumbers());
+            assertThat(indexed.pageNumbers()).isSorted().doesNotHaveDuplicates();
+            assertThat(indexed.bucketAccesses()).isEqualTo(1);
+            assertThat(indexed.pageAccesses()).isEqualTo(indexed.pageNumbers().size());
+        }
+        // key-0 is on every page, far more than the 50 pages of any other key
+        assertThat(service.searchAll("key-0").pageNumbers()).hasSize(service.getPageCount());
+        assertThat(service.searchAll("key-1").pageNumbers().size()).isLessThan(service.getPageCount());
+        
+        MultiSearchResult missing = service.searchAll("absent");
+        assertThat(missing.found()).isFalse();
+        assertThat(missing.pageNumbers()).isEmpty();
+        assertThat(service.tableScanAll("absent").pageAccesses()).isEqualTo(service.getPageCount());
+    }
+    
+    @Test
+    void testInsertedDuplicatesKeepTheirPagesThroughRehash() {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            records.add("key-" + i);
+        }
+        HashIndexService service = new HashIndexService();
+        service.loadData(records, 50);
+        service.constructIndex(4);
+        service.enableIncrementalRehash(2.0, 4);
+        
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1_000; i += 3) {
+                service.insertRecord("key-" + i);
+            }
+            for (int i = 0; i < 1_000; i++) {
+                service.insertRecord("new-" + round + "-" + i);
+            }
+        }
+        assertThat(service.getStatistics().getCompletedRehashes()).isPositive();
+        
+        for (int i = 0; i < 1_000; i++) {
+            List<Integer> pages = service.searchAll("key-" + i).pageNumbers();
+            assertThat(pages).as("key-" + i).isEqualTo(service.tableScanAll("key-" + i).pageNumbers());
+            assertThat(pages).hasSize(i % 3 == 0 ? 6 : 1);
+        }
+        assertThat(service.searchWithIndex("key-3").found()).isTrue();
+        assertThat(service.searchWithIndex("new-4-999").found()).isTrue();
+    }
+}
@@ -0,0 +1,80 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.shard.ConsistentHashRing;
+import com.hashindex.shard.RebalanceResult;
+import com.hashindex.shard.ShardedHashIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardedHashIndexTest {
+    
+    private static final List<String> KEYS =
+        WorkloadGenerator.generateDataset(20_000, KeyLengthDistribution.UNIFORM, 4, 12, 17L);
+    
+    @Test
+    void testAddingShardMovesOnlyItsShareToIt() {
+        ConsistentHashRing ring = new ConsistentHashRing(128);
+        for (int i = 0; i < 4; i++) {
+            ring = ring.withShard(i);
+        }
+        ConsistentHashRing grown = ring.withShard(4);
+        
+        long moved = 0;
+        for (String key : KEYS) {
+            int before = ring.shardFor(key);
+            int after = grown.shardFor(key);
+            if (before != after) {
+                assertThat(after).isEqualTo(4);
+                moved++;
+            }
+        }
+        assertThat((double) moved / KEYS.size()).isBetween(0.15, 0.25);
+    }
+    
+    @Test
+    void testReadsContinueDuringRebalance() throws Exception {
+        try (ShardedHashIndex index = new ShardedHashIndex(3, 50, 5)) {
+            index.load(KEYS);
+            assertThat(index.getTotalRecords()).isEqualTo(KEYS.size());
+            assertThat(index.getSkew()).isLessThan(1.25);
+            
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            AtomicLong misses = new AtomicLong();
+            CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+                for (int i = 0; running.get(); i = (i + 1) % KEYS.size()) {
+                    if (!index.search(KEYS.get(i)).found()) {
+                        misses.incrementAndGet();
+                    }
+                    reads.incrementAndGet();
+                }
+            });
+            
+            RebalanceResult result = index.addShard();
+            running.set(false);
+            reader.get();
+            
+            assertThat(misses.get()).isZero();
+            assertThat(reads.get()).isPositive();
+            assertThat(result.shardCount()).isEqualTo(4);
+            assertThat(result.movedFraction()).isBetween(0.15, 0.35);
+            assertThat(index.getTotalRecords()).isEqualTo(KEYS.size());
+            
+            index.insert("brand-new-key");
+            for (String key : KEYS) {
+                assertThat(index.search(key).found()).isTrue();
+            }
+            assertThat(index.search("brand-new-key").found()).isTrue();
+            assertThat(index.getShardLoads()).hasSize(4)
+                .allSatisfy(load -> assertThat(load.records()).isPositive());
+        }
+    }
+}
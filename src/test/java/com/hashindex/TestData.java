@@ -0,0 +1,41 @@
+package com.hashindex;
+
+import com.hashindex.loadtest.KeyLengthDistribution;
+import com.hashindex.loadtest.WorkloadGenerator;
+import com.hashindex.model.PageEncoding;
+import com.hashindex.service.HashIndexService;
+
+import java.util.List;
+
+/**
+ * Datasets and indexes shared by the tests.
+ */
+final class TestData {
+    
+    private TestData() {
+    }
+    
+    /**
+     * Distinct synthetic keys of 4 to 12 characters; the same seed gives the same keys.
+     */
+    static List<String> keys(int records, long seed) {
+        return WorkloadGenerator.generateDataset(records, KeyLengthDistribution.UNIFORM, 4, 12, seed);
+    }
+    
+    /**
+     * A service with the records loaded into plain pages and the index constructed.
+     */
+    static HashIndexService indexed(List<String> records, int pageSize, int bucketCapacity) {
+        return indexed(records, pageSize, PageEncoding.PLAIN, bucketCapacity);
+    }
+    
+    /**
+     * A service with the records loaded into pages of the given encoding and the index constructed.
+     */
+    static HashIndexService indexed(List<String> records, int pageSize, PageEncoding encoding, int bucketCapacity) {
+        HashIndexService service = new HashIndexService();
+        service.loadData(records, pageSize, encoding);
+        service.constructIndex(bucketCapacity);
+        return service;
+    }
+}
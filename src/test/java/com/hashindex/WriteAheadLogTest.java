@@ -0,0 +1,217 @@
+package com.hashindex;
+
+import com.hashindex.service.HashIndexService;
+import com.hashindex.wal.SyncMode;
+import com.hashindex.wal.WalRecord;
+import com.hashindex.wal.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WriteAheadLogTest {
+    
+    private static final List<String> BASE = TestData.keys(2_000, 3L);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testRecordsRoundTripInBothModes() throws IOException {
+        for (SyncMode mode : SyncMode.values()) {
+            Path file = directory.resolve(mode + ".wal");
+            try (WriteAheadLog log = WriteAheadLog.open(file, mode, Duration.ofMillis(1))) {
+                for (int i = 0; i < 100; i++) {
+                    log.commit(WalRecord.INSERT, "key-" + i + "-é");
+                }
+                assertThat(log.getDurableLsn()).isEqualTo(100);
+            }
+            
+            List<WalRecord> records = WriteAheadLog.readAll(file);
+            assertThat(records).hasSize(100);
+            for (int i = 0; i < 100; i++) {
+                assertThat(records.get(i)).isEqualTo(new WalRecord(i + 1, WalRecord.INSERT, "key-" + i + "-é"));
+            }
+            
+            // Reopening continues the sequence
+            try (WriteAheadLog log = WriteAheadLog.open(file, mode, Duration.ZERO)) {
+                assertThat(log.commit(WalRecord.INSERT, "next")).isEqualTo(101);
+            }
+        }
+    }
+    
+    @Test
+    void testTornTailIsIgnoredAndTruncated() throws IOException {
+        Path file = directory.resolve("torn.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) {
+                log.commit(WalRecord.INSERT, "key-" + i);
+            }
+        }
+        long validSize = Files.size(file);
+        
+        // A partially written record: a plausible length and checksum but only part of the body
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 20, 1, 2, 3, 4, 1, 0, 0}));
+        }
+        assertThat(WriteAheadLog.readAll(file)).hasSize(10);
+        
+        try (WriteAheadLog log = WriteAheadLog.open(file, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            assertThat(Files.size(file)).isEqualTo(validSize);
+            log.commit(WalRecord.INSERT, "after-crash");
+        }
+        List<WalRecord> records = WriteAheadLog.readAll(file);
+        assertThat(records).hasSize(11);
+        assertThat(records.get(10).key()).isEqualTo("after-crash");
+        assertThat(records.get(10).lsn()).isEqualTo(11);
+    }
+    
+    @Test
+    void testCorruptRecordEndsReplay() throws IOException {
+        Path file = directory.resolve("corrupt.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) {
+                log.commit(WalRecord.INSERT, "key-" + i);
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(file, bytes);
+        
+        List<WalRecord> records = WriteAheadLog.readAll(file);
+        assertThat(records.size()).isBetween(1, 9);
+        for (int i = 0; i < records.size(); i++) {
+            assertThat(records.get(i).key()).isEqualTo("key-" + i);
+        }
+    }
+    
+    @Test
+    void testGroupCommitSharesSyncsAcrossWriters() throws Exception {
+        Path file = directory.resolve("group.wal");
+        HashIndexService service = TestData.indexed(BASE, 50, 4);
+        int writers = 8;
+        int perWriter = 250;
+        
+        try (WriteAheadLog log = WriteAheadLog.open(file, SyncMode.GROUP_COMMIT, Duration.ofMillis(2))) {
+            service.setWriteAheadLog(log);
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                executor.execute(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        service.insertRecord("g-" + writer + "-" + i);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+            
+            assertThat(log.getStatistics().getAppends()).isEqualTo(writers * perWriter);
+            assertThat(log.getStatistics().getSyncs()).isLessThan(writers * perWriter);
+            assertThat(log.getStatistics().getMaxGroupSize()).isGreaterThan(1);
+            assertThat(log.getDurableLsn()).isEqualTo(writers * perWriter);
+        }
+        
+        // Replaying the log onto the base state reproduces the index
+        HashIndexService recovered = TestData.indexed(BASE, 50, 4);
+        assertThat(recovered.recover(file)).isEqualTo(writers * perWriter);
+        assertThat(recovered.getStatistics().getTotalRecords()).isEqualTo(service.getStatistics().getTotalRecords());
+        for (int w = 0; w < writers; w++) {
+            assertThat(recovered.searchWithIndex("g-" + w + "-" + (perWriter - 1)).found()).isTrue();
+        }
+        assertThat(recovered.searchWithIndex(BASE.get(0)).found()).isTrue();
+    }
+    
+    @Test
+    void testRecoverRequiresDetachedLog() throws IOException {
+        HashIndexService service = TestData.indexed(BASE, 50, 4);
+        try (WriteAheadLog log = WriteAheadLog.open(directory.resolve("attached.wal"), SyncMode.PER_OPERATION,
+                                                    Duration.ZERO)) {
+            service.setWriteAheadLog(log);
+            assertThatThrownBy(() -> service.recover(log.getFile())).isInstanceOf(IllegalStateException.class);
+            service.setWriteAheadLog(null);
+        }
+        assertThat(service.recover(directory.resolve("missing.wal"))).isZero();
+    }
+    
+    /**
+     * Child process for the crash test: inserts from several threads through a group-committed
+     * log and prints each key once its insert has returned.
+     */
+    public static class CrashingWriter {
+        
+        public static void main(String[] args) throws Exception {
+            HashIndexService service = TestData.indexed(BASE, 50, 4);
+            WriteAheadLog log = WriteAheadLog.open(Path.of(args[0]), SyncMode.GROUP_COMMIT, Duration.ofMillis(1));
+            service.setWriteAheadLog(log);
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; ; i++) {
+                        String key = "crash-" + writer + "-" + i;
+                        service.insertRecord(key);
+                        synchronized (System.out) {
+                            System.out.println(key);
+                            System.out.flush();
+                        }
+                    }
+                });
+                thread.start();
+            }
+        }
+    }
+    
+    @Test
+    void testAcknowledgedInsertsSurviveProcessKill() throws Exception {
+        Path file = directory.resolve("crash.wal");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                             CrashingWriter.class.getName(), file.toString())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        
+        List<String> acknowledged = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (acknowledged.size() < 3_000 && (line = reader.readLine()) != null) {
+                acknowledged.add(line);
+            }
+            // Killed while the writers are mid-append; keys printed but not yet read are not checked
+            process.destroyForcibly();
+        } finally {
+            process.destroyForcibly();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+        assertThat(acknowledged).hasSize(3_000);
+        
+        HashIndexService recovered = TestData.indexed(BASE, 50, 4);
+        long replayed = recovered.recover(file);
+        assertThat(replayed).isGreaterThanOrEqualTo(acknowledged.size());
+        for (String key : acknowledged) {
+            assertThat(recovered.searchWithIndex(key).found()).as(key).isTrue();
+        }
+        
+        // The log is usable again after the crash
+        try (WriteAheadLog log = WriteAheadLog.open(file, SyncMode.PER_OPERATION, Duration.ZERO)) {
+            assertThat(log.commit(WalRecord.INSERT, "after-restart")).isEqualTo(replayed + 1);
+        }
+    }
+}